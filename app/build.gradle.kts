@@ -32,6 +32,8 @@ android {
 }
 
 dependencies {
+    implementation(project(":mrz-core"))
+
     implementation(libs.appcompat)
     implementation(libs.material)
 
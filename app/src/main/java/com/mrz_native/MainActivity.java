@@ -12,14 +12,12 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.OptIn;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.camera.core.AspectRatio;
 import androidx.camera.core.Camera;
 import androidx.camera.core.CameraControl;
 import androidx.camera.core.CameraInfo;
 import androidx.camera.core.CameraSelector;
-import androidx.camera.core.ExperimentalGetImage;
 import androidx.camera.core.FocusMeteringAction;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
@@ -37,46 +35,117 @@ import com.google.mlkit.vision.text.Text;
 import com.google.mlkit.vision.text.TextRecognition;
 import com.google.mlkit.vision.text.TextRecognizer;
 import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
-import com.mrz_native.MrzParser.ParsedMrz;
-
+import com.mrz_native.core.MrzFrameScheduler;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+import com.mrz_native.core.MrzScanMetrics;
+import com.mrz_native.core.MrzScanPipeline;
+import com.mrz_native.core.OcrFrame;
+import com.mrz_native.core.OcrLine;
+import com.mrz_native.core.image.FrameQualityGate;
+import com.mrz_native.core.image.GrayFramePool;
+import com.mrz_native.core.image.LumaContrastNormalizer;
+import com.mrz_native.core.image.MrzBandLocalizer;
+import com.mrz_native.core.image.MrzRoiTracker;
+import com.mrz_native.core.image.MrzSkewEstimator;
+import com.mrz_native.core.image.OcrInputTransform;
+import com.mrz_native.core.image.OcrScaleSelector;
+import com.mrz_native.core.image.RoiGeometry;
+import com.mrz_native.core.session.ScanSessionWriter;
+import com.mrz_native.core.session.SessionFrame;
+import com.mrz_native.core.session.SessionLine;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import android.util.Size;
 import android.view.WindowManager;
 
 public class MainActivity extends AppCompatActivity {
     private static final int REQ_CODE = 101;
-    private static final long OCR_FRAME_INTERVAL_MS = 120; // give sensor time to refocus
     private static final int REQUIRED_STABLE_HITS = 2; // frames to confirm
+    private static final int OCR_MAX_IN_FLIGHT = 2; // số yêu cầu OCR chạy đồng thời
+    // Dải MRZ nghiêng ít hơn mức này vẫn gửi OCR bằng hộp bao thẳng trục: ML Kit đọc được, không cần xoay
+    private static final float MIN_DESKEW_DEGREES = 1.5f;
+    // Dòng MRZ (kể cả bị cắt / tách) dùng làm đo đạc vị trí cho roiTracker có ít nhất chừng này ký tự
+    private static final int MIN_TRACKED_LINE_CHARS = 20;
+    // Chạy listener ngay trên luồng hoàn thành task: chỉ cho việc rất ngắn (đo trễ, trả slot)
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
     private PreviewView previewView;
     private TextView statusText;
     private TextView ocrDebugText;
     private View mrzFrame;
     private View torchToggle; // will be ToggleButton
     private ExecutorService cameraExecutor;
+    // Parse/sửa lỗi/hợp nhất frame chạy ở đây, không chặn luồng callback của ML Kit
+    private ExecutorService mrzExecutor;
     private final TextRecognizer recognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+    // Dòng OCR của frame đang xử lý, dùng lại giữa các frame; chỉ dùng trên mrzExecutor
+    private final OcrFrame ocrFrame = new OcrFrame();
     private volatile boolean isScanning = true;
-    private volatile boolean ocrInFlight = false;
-    private volatile long lastOcrTs = 0L;
-    private volatile ParsedMrz lastCandidate = null;
-    private volatile int stableHits = 0;
+    private final AtomicInteger ocrInFlight = new AtomicInteger();
+    private final AtomicLong frameSeq = new AtomicLong();
+    // Thời điểm cho frame vào OCR theo độ trễ OCR đo được và chuyển động trong vùng MRZ
+    private final MrzFrameScheduler frameScheduler = new MrzFrameScheduler(OCR_MAX_IN_FLIGHT);
+    // Bỏ frame nhoè / lóa / không có dòng chữ trước OCR; chỉ dùng trên cameraExecutor
+    private final FrameQualityGate qualityGate = new FrameQualityGate();
+    // Bản sao vùng MRZ đang chờ OCR; thêm một frame để analyzer có chỗ chép trong lúc các frame khác chạy
+    private final GrayFramePool framePool = new GrayFramePool(OCR_MAX_IN_FLIGHT + 1);
+    // Thu hẹp vùng crop về các dòng MRZ trong khung hướng dẫn; chỉ dùng trên cameraExecutor
+    private final MrzBandLocalizer bandLocalizer = new MrzBandLocalizer();
+    // Góc nghiêng của dòng chữ trong khung hướng dẫn, cho bandLocalizer và bản chép xoay thẳng; chỉ dùng trên cameraExecutor
+    private final MrzSkewEstimator skewEstimator = new MrzSkewEstimator();
+    // Tỉ lệ co vùng chép sang OCR theo chiều cao ký tự MRZ: select trên cameraExecutor, onLines trên mrzExecutor
+    private final OcrScaleSelector scaleSelector = new OcrScaleSelector();
+    // Chuẩn hoá tương phản cục bộ của vùng đã chép trước OCR; ô ~1.5 lần chiều cao ký tự sau khi co.
+    // Chỉ dùng trên cameraExecutor
+    private final LumaContrastNormalizer contrastNormalizer = new LumaContrastNormalizer(
+            Math.round(OcrScaleSelector.DEFAULT_TARGET_CHAR_HEIGHT * 1.5f), LumaContrastNormalizer.DEFAULT_CLIP_LIMIT);
+    // Vị trí dải MRZ dự đoán từ các frame OCR trước (ảnh gốc): predict trên cameraExecutor, update/miss trên mrzExecutor
+    private final MrzRoiTracker roiTracker = new MrzRoiTracker();
+    private final Rect trackedRegion = new Rect(); // vùng dự đoán của frame hiện tại; chỉ dùng trên cameraExecutor
+    private final float[] rawBox = new float[4]; // box dòng MRZ quy về ảnh gốc; chỉ dùng trên mrzExecutor
+    private final Rect ocrRegion = new Rect(); // vùng chép sang OCR của frame hiện tại; chỉ dùng trên cameraExecutor
+    private float bandLineHeight; // chiều cao dòng của dải MRZ trong frame hiện tại, 0 nếu không có; cameraExecutor
+    private MrzBandLocalizer.Band skewedBand; // dải MRZ cần xoay thẳng của frame hiện tại, hoặc null; cameraExecutor
+    private static final long OCR_RATE_WINDOW_MS = 5000;
+    private long ocrRateStart;
+    private int ocrRateFrames;
+    // Histogram độ trễ theo giai đoạn và số frame bị bỏ ở từng cổng; dump ra log và ocrDebugText mỗi OCR_RATE_WINDOW_MS
+    private final MrzScanMetrics metrics = new MrzScanMetrics();
+    private volatile String lastScanStatus; // thông báo trạng thái quét đang hiển thị, xem showScanStatus
+    private volatile long scanStartNanos; // mốc bắt đầu lượt quét, cho TIME_TO_LOCK
+    // Quét, bỏ phiếu qua các frame gần nhất và chốt kết quả theo thứ tự frame; onFrame chỉ chạy trên mrzExecutor
+    private final MrzScanPipeline pipeline = new MrzScanPipeline(REQUIRED_STABLE_HITS, metrics);
+    // Phiên ghi đang mở (vùng luma + dòng ML Kit của từng frame), xem ScanSessionReplayer; chỉ dùng trên mrzExecutor
+    private ScanSessionWriter captureWriter;
     private Camera camera;
     private CameraControl cameraControl;
     private CameraInfo cameraInfo;
     private boolean enableRoiCrop = true;  // crop camera frames to MRZ guide region
     private boolean restrictToRoi = true;  // filter OCR lines to the overlay region
-
-    // Keep last known image rotation and rotated dimensions for ROI mapping
-    private volatile int lastRotationDegrees = 0;
-    private volatile int lastRotatedW = 0;
-    private volatile int lastRotatedH = 0;
+    private boolean enableQualityGate = true;  // bỏ frame nhoè/lóa/không có chữ trước OCR (có fail-open)
+    private boolean enableBandLocalizer = true;  // chỉ gửi OCR các dòng MRZ (cần enableRoiCrop)
+    private boolean enableRoiTracking = true;  // chỉ tìm MRZ quanh vị trí dự đoán từ frame trước (cần enableRoiCrop)
+    private boolean enableDeskew = true;  // xoay thẳng dải MRZ khi giấy tờ cầm nghiêng (cần enableBandLocalizer)
+    private boolean enableScaleNormalization = true;  // co vùng crop để ký tự MRZ còn ~24 px (cần enableRoiCrop)
+    private boolean enableContrastNormalization = true;  // CLAHE trên luma trước OCR (chữ mờ dưới lóa / bóng)
+    private boolean enableMetrics = true;  // đo độ trễ từng giai đoạn; tắt thì gần như không tốn gì
+    private boolean enableCapture = false;  // ghi mỗi lượt quét ra files/sessions/*.mrzs để phát lại trên JVM
+
+    // Hình học vùng MRZ: luồng UI thay phần view khi layout đổi, analyzer tính phần ảnh khi kích thước/góc xoay đổi
+    private final AtomicReference<RoiGeometry> roiGeometry = new AtomicReference<>();
+    private final Rect cropRegion = new Rect(); // vùng MRZ của frame hiện tại; chỉ dùng trên cameraExecutor
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -91,7 +160,21 @@ public class MainActivity extends AppCompatActivity {
         ocrDebugText = findViewById(R.id.ocrDebugText);
         mrzFrame = findViewById(R.id.mrz_guide_frame);
         torchToggle = findViewById(R.id.torchToggle);
+        View.OnLayoutChangeListener geometryListener = (v, l, t, r, b, ol, ot, or, ob) -> publishViewGeometry();
+        previewView.addOnLayoutChangeListener(geometryListener);
+        mrzFrame.addOnLayoutChangeListener(geometryListener);
         cameraExecutor = Executors.newSingleThreadExecutor();
+        mrzExecutor = Executors.newSingleThreadExecutor();
+        if (Log.isLoggable("MRZ", Log.VERBOSE)) {
+            frameScheduler.setListener(d -> Log.v("MRZ", "Scheduler: " + d));
+        }
+        qualityGate.setEnabled(enableQualityGate);
+        metrics.setEnabled(enableMetrics);
+        if (Log.isLoggable("MRZ", Log.VERBOSE)) {
+            metrics.setListener((stage, micros) -> Log.v("MRZ", "Stage " + stage.key + ": " + micros + "us"));
+        }
+        scanStartNanos = metrics.start();
+        if (enableCapture) mrzExecutor.execute(this::openCaptureSession);
 
         if (ocrDebugText != null) {
             // Allow scrolling through debug lines if many
@@ -138,13 +221,17 @@ public class MainActivity extends AppCompatActivity {
 
                 imageAnalysis.setAnalyzer(cameraExecutor, imageProxy -> {
                     if (!isScanning) { imageProxy.close(); return; }
-                    long now = SystemClock.uptimeMillis();
-                    if (ocrInFlight || (now - lastOcrTs) < OCR_FRAME_INTERVAL_MS) {
+                    long admitStart = metrics.start();
+                    RoiGeometry geometry = geometryFor(imageProxy);
+                    Rect region = frameRegion(imageProxy, geometry);
+                    MrzScanMetrics.Drop drop = admitFrame(imageProxy, region);
+                    metrics.record(MrzScanMetrics.Stage.ADMISSION, admitStart);
+                    if (drop != null) {
+                        metrics.drop(drop);
                         imageProxy.close();
                         return;
                     }
-                    lastOcrTs = now;
-                    processImageProxy(imageProxy);
+                    processImageProxy(imageProxy, region, geometry, frameSeq.incrementAndGet());
                 });
 
                 CameraSelector cameraSelector = CameraSelector.DEFAULT_BACK_CAMERA;
@@ -165,478 +252,387 @@ public class MainActivity extends AppCompatActivity {
     }
 
     // -------- image processing & mapping từ previewView -> imageProxy ----------
-    @OptIn(markerClass = ExperimentalGetImage.class)
-    private void processImageProxy(ImageProxy imageProxy) {
-        if (imageProxy == null || imageProxy.getImage() == null) {
-            if (imageProxy != null) imageProxy.close();
-            return;
-        }
+    // Chạy trên luồng UI khi PreviewView hoặc khung hướng dẫn đổi layout; phần ảnh được tính lại ở frame sau
+    private void publishViewGeometry() {
+        float left = mrzFrame.getX();
+        float top = mrzFrame.getY();
+        roiGeometry.set(RoiGeometry.forView(previewView.getWidth(), previewView.getHeight(),
+                left, top, left + mrzFrame.getWidth(), top + mrzFrame.getHeight()));
+    }
+
+    // Hình học cho kích thước ảnh và góc xoay của frame; chỉ tính lại khi khác khoá của ảnh chụp hiện tại
+    private RoiGeometry geometryFor(ImageProxy imageProxy) {
+        RoiGeometry g = roiGeometry.get();
+        if (g == null) return null;
+        int w = imageProxy.getWidth();
+        int h = imageProxy.getHeight();
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        if (g.matches(w, h, rotation)) return g;
+        RoiGeometry computed = g.forImage(w, h, rotation);
+        // Layout vừa đổi thì giữ ảnh chụp mới của luồng UI; frame sau tính lại từ đó
+        roiGeometry.compareAndSet(g, computed);
+        return computed;
+    }
 
-        // Cache rotation and rotated dimensions for consistent ROI mapping later
-        lastRotationDegrees = imageProxy.getImageInfo().getRotationDegrees();
-        int imgW = imageProxy.getWidth();
-        int imgH = imageProxy.getHeight();
-        if (lastRotationDegrees % 180 == 0) {
-            lastRotatedW = imgW;
-            lastRotatedH = imgH;
+    // Vùng MRZ trong ảnh gốc (cả frame nếu không crop); tính một lần cho mỗi frame
+    private Rect frameRegion(ImageProxy imageProxy, RoiGeometry g) {
+        if (enableRoiCrop && g != null && g.hasRoi) {
+            cropRegion.set(g.cropLeft, g.cropTop, g.cropRight, g.cropBottom);
         } else {
-            lastRotatedW = imgH;
-            lastRotatedH = imgW;
+            cropRegion.set(0, 0, imageProxy.getWidth(), imageProxy.getHeight());
+        }
+        return cropRegion;
+    }
+
+    // Đo vùng MRZ trên mặt phẳng Y: độ thay đổi luma cho frameScheduler (mọi frame, kể cả frame bị bỏ)
+    // rồi cổng chất lượng. false: frame không đáng gửi OCR.
+    private boolean measureFrame(ImageProxy imageProxy, Rect region) {
+        ImageProxy.PlaneProxy y = imageProxy.getPlanes()[0];
+        frameScheduler.updateLuma(y.getBuffer(), y.getRowStride(), y.getPixelStride(),
+                region.left, region.top, region.right, region.bottom);
+        FrameQualityGate.Quality q = qualityGate.evaluate(y.getBuffer(), y.getRowStride(), y.getPixelStride(),
+                region.left, region.top, region.right, region.bottom,
+                imageProxy.getImageInfo().getRotationDegrees());
+        if (q.verdict != FrameQualityGate.Verdict.ACCEPT && Log.isLoggable("MRZ", Log.VERBOSE)) {
+            Log.v("MRZ", "Quality gate: " + q);
         }
+        return q.admit;
+    }
 
-        // Optional: crop to MRZ guide region when mapping is verified
-        if (enableRoiCrop) {
-            Rect cropRect = computeCropRectForImageProxy(imageProxy);
-            if (cropRect != null) imageProxy.setCropRect(cropRect);
+    // null: frame được gửi OCR (đã giữ một slot); ngược lại là cổng đã bỏ frame
+    private MrzScanMetrics.Drop admitFrame(ImageProxy imageProxy, Rect region) {
+        if (!measureFrame(imageProxy, region)) return MrzScanMetrics.Drop.QUALITY;
+        MrzFrameScheduler.Decision decision = frameScheduler.decide(SystemClock.uptimeMillis(), ocrInFlight.get());
+        if (!decision.admit) return MrzScanMetrics.Drop.SCHEDULER;
+        if (!tryAcquireOcrSlot()) return MrzScanMetrics.Drop.IN_FLIGHT;
+        return null;
+    }
+
+    private boolean tryAcquireOcrSlot() {
+        while (true) {
+            int n = ocrInFlight.get();
+            if (n >= OCR_MAX_IN_FLIGHT) return false;
+            if (ocrInFlight.compareAndSet(n, n + 1)) return true;
         }
+    }
 
-        InputImage inputImage = InputImage.fromMediaImage(imageProxy.getImage(), imageProxy.getImageInfo().getRotationDegrees());
+    private void processImageProxy(ImageProxy imageProxy, Rect region, RoiGeometry geometry, long seq) {
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        // Chép vùng MRZ (cả frame nếu không crop) sang bộ đệm của pool rồi trả ảnh cho camera ngay:
+        // với STRATEGY_KEEP_ONLY_LATEST, camera chỉ giao frame mới khi ImageProxy trước đã đóng
+        GrayFramePool.Frame frame = framePool.acquire();
+        if (frame == null) {
+            metrics.drop(MrzScanMetrics.Drop.FRAME_POOL);
+            imageProxy.close();
+            ocrInFlight.decrementAndGet();
+            return;
+        }
+        long cropStart = metrics.start();
+        ImageProxy.PlaneProxy y = imageProxy.getPlanes()[0];
+        long frameTimeMs = imageProxy.getImageInfo().getTimestamp() / 1_000_000;
+        Rect crop = narrowToMrzBand(y, trackMrzRegion(region, frameTimeMs), rotation);
+        // Chỉ khi crop: khi không crop, toạ độ dòng OCR phải là toạ độ của cả frame để lọc theo ROI
+        float scale = enableRoiCrop && enableScaleNormalization ? scaleSelector.select(bandLineHeight) : 1f;
+        if (skewedBand != null) {
+            frame.copyLumaRotated(y.getBuffer(), y.getRowStride(), y.getPixelStride(), skewedBand, scale);
+        } else {
+            frame.copyLuma(y.getBuffer(), y.getRowStride(), y.getPixelStride(),
+                    crop.left, crop.top, crop.width(), crop.height(), scale);
+        }
+        OcrInputTransform input = frame.transform(rotation);
+        metrics.record(MrzScanMetrics.Stage.CROP, cropStart);
+        imageProxy.close();
+        if (enableContrastNormalization) {
+            long preStart = metrics.start();
+            contrastNormalizer.apply(frame.data(), frame.width(), frame.height());
+            metrics.record(MrzScanMetrics.Stage.PREPROCESS, preStart);
+        }
+        // Chế độ ghi: giữ bản sao luma vì bộ đệm được trả về pool ngay khi OCR xong
+        CaptureInput capture = enableCapture ? new CaptureInput(frame, rotation) : null;
+
+        // Chỉ vùng crop (luma, chroma trung tính) thay vì cả frame YUV; buffer bọc mảng của pool, không chép thêm
+        InputImage inputImage = InputImage.fromByteBuffer(frame.buffer(), frame.width(), frame.height(),
+                rotation, InputImage.IMAGE_FORMAT_NV21);
 
-        ocrInFlight = true;
+        // Trả bộ đệm và slot OCR ngay trên luồng callback của ML Kit, trước khi parse, để frame sau được
+        // OCR song song; độ trễ cũng đo ở đây để không tính thời gian chờ mrzExecutor xử lý frame trước
+        long submittedAt = SystemClock.uptimeMillis();
+        long ocrStart = metrics.start();
         recognizer.process(inputImage)
-                .addOnSuccessListener(visionText -> {
-                    if (isScanning) handleVisionText(visionText);
-                    ocrInFlight = false;
-                    imageProxy.close();
+                .addOnCompleteListener(DIRECT_EXECUTOR, task -> {
+                    if (task.isSuccessful()) {
+                        frameScheduler.onOcrLatency(SystemClock.uptimeMillis() - submittedAt);
+                        metrics.record(MrzScanMetrics.Stage.OCR, ocrStart);
+                    }
+                    framePool.release(frame);
+                    ocrInFlight.decrementAndGet();
                 })
-                .addOnFailureListener(e -> {
-                    Log.e("MRZ", "ML Kit failed: " + e.getMessage());
-                    ocrInFlight = false;
-                    imageProxy.close();
-                });
+                .addOnSuccessListener(mrzExecutor, visionText -> {
+                    countOcrFrame();
+                    // Frame của lượt quét trước reset không được góp phiếu vào frameFuser
+                    if (isScanning && !pipeline.isStale(seq)) {
+                        if (capture != null) capture.latencyMs = (int) (SystemClock.uptimeMillis() - submittedAt);
+                        handleVisionText(visionText, seq, geometry, input, frameTimeMs, capture);
+                    } else {
+                        metrics.drop(MrzScanMetrics.Drop.STALE);
+                    }
+                })
+                .addOnFailureListener(mrzExecutor, e -> Log.e("MRZ", "ML Kit failed: " + e.getMessage()));
+    }
+
+    // Vùng quanh vị trí dải MRZ dự đoán từ các frame trước, trong vùng khung hướng dẫn; mất dấu thì cả vùng.
+    // Cổng chất lượng và frameScheduler vẫn đo trên cả vùng để so được giữa các frame
+    private Rect trackMrzRegion(Rect region, long frameTimeMs) {
+        if (!enableRoiCrop || !enableRoiTracking) return region;
+        if (!roiTracker.predict(frameTimeMs, region.left, region.top, region.right, region.bottom)) return region;
+        trackedRegion.set(roiTracker.left, roiTracker.top, roiTracker.right, roiTracker.bottom);
+        return trackedRegion;
+    }
+
+    // Vùng các dòng MRZ (cộng lề) trong vùng khung hướng dẫn; không tìm thấy thì giữ cả vùng.
+    // Chỉ khi đang crop: khi không crop, toạ độ dòng OCR phải khớp với cả frame để lọc theo ROI.
+    // Dải nghiêng từ MIN_DESKEW_DEGREES được ghi vào skewedBand để chép xoay thẳng
+    private Rect narrowToMrzBand(ImageProxy.PlaneProxy y, Rect region, int rotationDegrees) {
+        bandLineHeight = 0f;
+        skewedBand = null;
+        if (!enableRoiCrop || !enableBandLocalizer) return region;
+        float skew = enableDeskew ? skewEstimator.estimate(y.getBuffer(), y.getRowStride(), y.getPixelStride(),
+                region.left, region.top, region.right, region.bottom, rotationDegrees) : 0f;
+        MrzBandLocalizer.Band band = bandLocalizer.locate(y.getBuffer(), y.getRowStride(), y.getPixelStride(),
+                region.left, region.top, region.right, region.bottom, rotationDegrees, skew);
+        if (band == null) return region;
+        bandLineHeight = band.lineHeight;
+        if (Math.abs(band.skew) >= MIN_DESKEW_DEGREES) skewedBand = band;
+        ocrRegion.set(band.left, band.top, band.right, band.bottom);
+        return ocrRegion;
+    }
+
+    // Số frame OCR xong mỗi giây và dump metrics (log DEBUG mỗi OCR_RATE_WINDOW_MS); chỉ dùng trên mrzExecutor
+    private void countOcrFrame() {
+        long now = SystemClock.uptimeMillis();
+        if (ocrRateStart == 0) ocrRateStart = now;
+        ocrRateFrames++;
+        if (now - ocrRateStart >= OCR_RATE_WINDOW_MS) {
+            Log.d("MRZ", String.format("OCR: %.1f frames/s", ocrRateFrames * 1000f / (now - ocrRateStart)));
+            if (metrics.isEnabled()) {
+                String dump = metrics.dump();
+                Log.d("MRZ", dump);
+                if (ocrDebugText != null) runOnUiThread(() -> ocrDebugText.setText(dump));
+            }
+            ocrRateStart = now;
+            ocrRateFrames = 0;
+        }
     }
 
     // ---------- main MRZ handling ----------
-    private void handleVisionText(Text visionText) {
+    // geometry: hình học của frame lúc gửi OCR, để lọc dòng theo ROI khi không crop ở đầu vào;
+    // input: phép đưa toạ độ ảnh đã gửi OCR về ảnh gốc; frameTimeMs: thời điểm chụp (cho roiTracker);
+    // capture: khác null khi đang ghi phiên
+    private void handleVisionText(Text visionText, long seq, RoiGeometry geometry, OcrInputTransform input,
+                                  long frameTimeMs, CaptureInput capture) {
         // Nếu đã crop ảnh đầu vào theo ROI, coi như tất cả dòng đều nằm trong ROI
         final boolean croppingActive = enableRoiCrop;
-        // Chỉ tính ROI để lọc khi KHÔNG crop ở đầu vào
-        Rect roiRotated = croppingActive ? null : computeRoiRectInRotatedSpace();
-
-        // Thu thập các dòng và phân loại theo ROI
-        List<OcrLine> inside = new ArrayList<>();
-        List<OcrLine> outside = new ArrayList<>();
-        StringBuilder dbg = new StringBuilder();
 
-        for (Text.TextBlock block : visionText.getTextBlocks()) {
-            for (Text.Line line : block.getLines()) {
+        // Thu thập các dòng và phân loại theo ROI (dòng trong ROI đứng trước)
+        ocrFrame.begin();
+        List<SessionLine> capturedInside = capture != null ? new ArrayList<>() : null;
+        List<SessionLine> capturedOutside = capture != null ? new ArrayList<>() : null;
+        long normStart = metrics.start();
+
+        List<Text.TextBlock> blocks = visionText.getTextBlocks();
+        for (int bi = 0; bi < blocks.size(); bi++) {
+            List<Text.Line> blockLines = blocks.get(bi).getLines();
+            for (int li = 0; li < blockLines.size(); li++) {
+                Text.Line line = blockLines.get(li);
                 String raw = line.getText();
                 if (raw == null) continue;
-                String norm = normalizeLine(raw);
-                if (norm.isEmpty()) continue;
                 Rect bb = line.getBoundingBox();
-                boolean in = croppingActive; // khi crop, mọi dòng đều nằm trong ROI đã cắt
-                float cy = 0f;
-                if (!croppingActive && bb != null) {
-                    int cx = bb.centerX();
-                    int cY = bb.centerY();
-                    cy = cY;
-                    if (roiRotated != null) {
-                        in = roiRotated.contains(cx, cY);
-                    }
+                boolean in = croppingActive;
+                if (!croppingActive && bb != null && geometry != null) {
+                    in = geometry.roiContains(bb.centerX(), bb.centerY());
                 }
                 if (!restrictToRoi) in = true; // bypass filter if disabled
 
-                if (in) {
-                    inside.add(new OcrLine(raw, norm, cy));
-                    if (dbg.length() < 2000) dbg.append("[IN]  ").append(raw).append('\n');
-                } else {
-                    outside.add(new OcrLine(raw, norm, cy));
-                    if (dbg.length() < 2000) dbg.append("[OUT] ").append(raw).append('\n');
-                }
+                // Khi crop, toạ độ là của vùng đã cắt: vẫn đủ để sắp thứ tự và ghép các hàng MRZ
+                if (addOcrLine(line, raw, in, bb) == null) continue;
+                if (capture != null) (in ? capturedInside : capturedOutside).add(toSessionLine(line, raw, bb));
             }
         }
+        metrics.record(MrzScanMetrics.Stage.NORMALIZE, normStart);
 
-        // Hiển thị debug text để kiểm tra có đọc ngoài vùng không
-        if (ocrDebugText != null) {
-            final String dbgText = dbg.length() == 0 ? "(Không có văn bản)" : dbg.toString();
-            runOnUiThread(() -> ocrDebugText.setText(dbgText));
+        List<OcrLine> linesForMrz = restrictToRoi ? ocrFrame.inside() : ocrFrame.lines();
+        if (croppingActive) scaleSelector.onLines(linesForMrz, input.scale());
+        if (capture != null) {
+            writeCapturedFrame(seq, capture, croppingActive,
+                    restrictToRoi ? capturedInside : mergeInsideFirst(capturedInside, capturedOutside));
         }
 
-        List<OcrLine> linesForMrz = restrictToRoi ? inside : mergeInsideFirst(inside, outside);
+        MrzScanPipeline.Outcome outcome = pipeline.onFrame(seq, linesForMrz);
+        if (croppingActive && enableRoiTracking) trackMrzLines(outcome, linesForMrz, input, frameTimeMs);
+        onFrameResult(outcome);
+    }
 
-        if (linesForMrz.isEmpty()) {
-            showMessageOnUi("Đưa vùng MRZ vào khung vàng", null);
+    // Hộp bao các dòng giống MRZ của frame vừa quét ra MRZ, quy về ảnh gốc, làm đo đạc cho roiTracker
+    private void trackMrzLines(MrzScanPipeline.Outcome o, List<OcrLine> lines, OcrInputTransform input,
+                               long frameTimeMs) {
+        if (!o.found()) {
+            roiTracker.miss();
             return;
         }
-
-        // Sắp xếp theo vị trí dọc để tăng khả năng gom đúng dòng MRZ
-        Collections.sort(linesForMrz, Comparator.comparingDouble(l -> l.centerY));
-
-        // Thử tìm MRZ theo nhiều cách: TD3 (2x44), TD2 (2x36), TD1 (3x30)
-        ParsedMrz parsed = findAndParseMrz(linesForMrz);
-        if (parsed != null) {
-            onCandidateDetected(parsed, false);
-            return;
+        float left = Float.MAX_VALUE, top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+        for (int i = 0; i < lines.size(); i++) {
+            OcrLine l = lines.get(i);
+            if (l.bottom() <= l.top() || l.norm().length() < MIN_TRACKED_LINE_CHARS || !l.looksLikeMrz()) continue;
+            input.boxToRaw(l.left(), l.top(), l.right(), l.bottom(), rawBox);
+            left = Math.min(left, rawBox[0]);
+            top = Math.min(top, rawBox[1]);
+            right = Math.max(right, rawBox[2]);
+            bottom = Math.max(bottom, rawBox[3]);
         }
-
-        // Nếu không parse được trực tiếp, thử các heuristic corrections
-        ParsedMrz corrected = tryHeuristicCorrectionsMultiple(linesForMrz);
-        if (corrected != null) {
-            onCandidateDetected(corrected, true);
-            return;
+        if (right > left) roiTracker.update(frameTimeMs, left, top, right, bottom);
+        else roiTracker.miss();
+    }
+
+    // Giữ độ tin cậy và toạ độ từng ký tự (Text.Symbol) để bộ sửa lỗi thử vị trí kém tin cậy trước;
+    // không có symbol thì chỉ dùng text của dòng. null nếu dòng không còn ký tự MRZ nào
+    private OcrLine addOcrLine(Text.Line line, String raw, boolean in, Rect bb) {
+        OcrLine.Builder builder = ocrFrame.line();
+        List<Text.Element> elements = line.getElements();
+        for (int ei = 0; ei < elements.size(); ei++) {
+            List<Text.Symbol> symbols = elements.get(ei).getSymbols();
+            for (int si = 0; si < symbols.size(); si++) {
+                Text.Symbol symbol = symbols.get(si);
+                Rect sb = symbol.getBoundingBox();
+                builder.appendSymbol(symbol.getText(), symbol.getConfidence(),
+                        sb != null ? sb.left : 0, sb != null ? sb.right : 0);
+            }
         }
-
-        // Không tìm được
-        showMessageOnUi("Đặt MRZ của hộ chiếu vào khung màu vàng", null);
+        return bb != null
+                ? ocrFrame.add(raw, in, bb.left, bb.top, bb.right, bb.bottom)
+                : ocrFrame.add(raw, in, 0, 0, 0, 0);
     }
 
-    private List<OcrLine> mergeInsideFirst(List<OcrLine> inside, List<OcrLine> outside) {
-        List<OcrLine> out = new ArrayList<>(inside.size() + outside.size());
+    private static <T> List<T> mergeInsideFirst(List<T> inside, List<T> outside) {
+        List<T> out = new ArrayList<>(inside.size() + outside.size());
         out.addAll(inside);
         out.addAll(outside);
         return out;
     }
 
-    // Tính cropRect của ảnh gốc (chưa xoay) từ ROI trên màn hình
-    private Rect computeCropRectForImageProxy(ImageProxy imageProxy) {
-        if (previewView.getWidth() == 0 || previewView.getHeight() == 0) return null;
-        int rotation = imageProxy.getImageInfo().getRotationDegrees();
-        int imgW = imageProxy.getWidth();
-        int imgH = imageProxy.getHeight();
-
-        // Kích thước ảnh sau khi xoay
-        int rotW = (rotation % 180 == 0) ? imgW : imgH;
-        int rotH = (rotation % 180 == 0) ? imgH : imgW;
-
-        // Tính ROI trong không gian đã xoay (khớp với hiển thị)
-        Rect roiRot = computeRoiRectInRotatedSpace(rotW, rotH);
-        if (roiRot == null) return null;
-
-        // Chuyển ROI từ toạ độ đã xoay về toạ độ ảnh gốc trước xoay
-        Rect roiRaw = mapRotatedRectToRawImage(roiRot, imgW, imgH, rotation);
-        // Đảm bảo nằm trong ảnh
-        roiRaw.left = clamp(roiRaw.left, 0, imgW);
-        roiRaw.top = clamp(roiRaw.top, 0, imgH);
-        roiRaw.right = clamp(roiRaw.right, 0, imgW);
-        roiRaw.bottom = clamp(roiRaw.bottom, 0, imgH);
-        if (roiRaw.right <= roiRaw.left || roiRaw.bottom <= roiRaw.top) return null;
-        return roiRaw;
-    }
-
-    // Tính ROI trong hệ ảnh đã xoay dựa trên kích thước cuối cùng hiển thị trong PreviewView (fitCenter)
-    private Rect computeRoiRectInRotatedSpace() {
-        if (lastRotatedW <= 0 || lastRotatedH <= 0) return null;
-        return computeRoiRectInRotatedSpace(lastRotatedW, lastRotatedH);
-    }
-
-    private Rect computeRoiRectInRotatedSpace(int rotW, int rotH) {
-        int viewW = previewView.getWidth();
-        int viewH = previewView.getHeight();
-        if (viewW == 0 || viewH == 0) return null;
-
-        // FitCenter: tính kích thước ảnh hiển thị trong view và offset letterbox
-        float imgAspect = (float) rotW / (float) rotH;
-        float viewAspect = (float) viewW / (float) viewH;
-        float scaledW, scaledH;
-        if (imgAspect > viewAspect) {
-            scaledW = viewW;
-            scaledH = viewW / imgAspect;
-        } else {
-            scaledH = viewH;
-            scaledW = viewH * imgAspect;
-        }
-        float offsetX = (viewW - scaledW) / 2f;
-        float offsetY = (viewH - scaledH) / 2f;
-
-        // Toạ độ ROI trên view
-        float frameLeft = mrzFrame.getX();
-        float frameTop = mrzFrame.getY();
-        float frameRight = frameLeft + mrzFrame.getWidth();
-        float frameBottom = frameTop + mrzFrame.getHeight();
-
-        // Quy đổi về [0,1] trong không gian ảnh đã fit vào view
-        float leftN = (frameLeft - offsetX) / scaledW;
-        float topN = (frameTop - offsetY) / scaledH;
-        float rightN = (frameRight - offsetX) / scaledW;
-        float bottomN = (frameBottom - offsetY) / scaledH;
-
-        // Clamp
-        leftN = clamp(leftN, 0f, 1f);
-        topN = clamp(topN, 0f, 1f);
-        rightN = clamp(rightN, 0f, 1f);
-        bottomN = clamp(bottomN, 0f, 1f);
-
-        int L = Math.round(leftN * rotW);
-        int T = Math.round(topN * rotH);
-        int R = Math.round(rightN * rotW);
-        int B = Math.round(bottomN * rotH);
-        if (R <= L || B <= T) return null;
-        return new Rect(L, T, R, B);
-    }
-
-    // Chuyển rect từ toạ độ đã xoay về toạ độ gốc (trước xoay)
-    private Rect mapRotatedRectToRawImage(Rect rotRect, int rawW, int rawH, int rotationDegrees) {
-        // map 4 góc rồi lấy bound
-        float[][] corners = new float[][]{
-                {rotRect.left, rotRect.top},
-                {rotRect.right, rotRect.top},
-                {rotRect.right, rotRect.bottom},
-                {rotRect.left, rotRect.bottom}
-        };
-
-        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
-        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
-        for (float[] c : corners) {
-            float vx = c[0] / (float) (rotationDegrees % 180 == 0 ? rawW : rawH); // normalized in rotated space width
-            float vy = c[1] / (float) (rotationDegrees % 180 == 0 ? rawH : rawW); // normalized in rotated space height
-            float[] raw = mapViewNormToRawNorm(vx, vy, rotationDegrees);
-            float rx = raw[0] * rawW;
-            float ry = raw[1] * rawH;
-            if (rx < minX) minX = rx;
-            if (ry < minY) minY = ry;
-            if (rx > maxX) maxX = rx;
-            if (ry > maxY) maxY = ry;
-        }
-        return new Rect(Math.round(minX), Math.round(minY), Math.round(maxX), Math.round(maxY));
-    }
-
-    // Ánh xạ toạ độ view chuẩn hoá (sau xoay) -> toạ độ ảnh gốc chuẩn hoá
-    private float[] mapViewNormToRawNorm(float vx, float vy, int rotationDegrees) {
-        switch ((rotationDegrees % 360 + 360) % 360) {
-            case 0:
-                return new float[]{vx, vy};
-            case 90:
-                // ixN = vy; iyN = 1 - vx
-                return new float[]{vy, 1f - vx};
-            case 180:
-                return new float[]{1f - vx, 1f - vy};
-            case 270:
-                // ixN = 1 - vy; iyN = vx
-                return new float[]{1f - vy, vx};
+    // Chạy trên mrzExecutor với kết quả của pipeline cho một frame
+    private void onFrameResult(MrzScanPipeline.Outcome o) {
+        frameScheduler.onResult(o.found());
+        if (!isScanning) return;
+        switch (o.status) {
+            case NO_LINES:
+                showScanStatus("Đưa vùng MRZ vào khung vàng");
+                break;
+            case NOT_FOUND:
+                showScanStatus("Đặt MRZ của hộ chiếu vào khung màu vàng");
+                break;
+            case STABILIZING:
+                showScanStatus("Đang ổn định MRZ... (" + o.support + "/" + REQUIRED_STABLE_HITS + ")");
+                break;
+            case LOCKED:
+                isScanning = false;
+                metrics.record(MrzScanMetrics.Stage.TIME_TO_LOCK, scanStartNanos);
+                Log.d("MRZ", "Scan cache: " + pipeline.scanner().cache());
+                Log.d("MRZ", metrics.dump());
+                closeCaptureSession();
+                if (o.corrected) onMrzCorrected(o.mrz); else onMrzSuccess(o.mrz);
+                break;
             default:
-                return new float[]{vx, vy};
+                // STALE / ALREADY_LOCKED: frame cũ hoặc lượt quét đã chốt
+                break;
         }
     }
 
-    private int clamp(int v, int min, int max) { return Math.max(min, Math.min(max, v)); }
-    private float clamp(float v, float min, float max) { return Math.max(min, Math.min(max, v)); }
-
-    private String normalizeLine(String raw) {
-        // Loại bỏ khoảng trắng, chuyển in hoa, giữ A-Z 0-9 < và một số ký tự thường bị MLkit thêm
-        String t = raw.replaceAll("\\s+", "").toUpperCase();
-        t = t.replaceAll("[^A-Z0-9<]", "");
-        return t;
-    }
-
-    private void onCandidateDetected(ParsedMrz candidate, boolean corrected) {
-        if (candidate == null) return;
-        if (lastCandidate != null &&
-                safeEquals(lastCandidate.documentNumber, candidate.documentNumber) &&
-                safeEquals(lastCandidate.name, candidate.name) &&
-                safeEquals(lastCandidate.expiryDate, candidate.expiryDate)) {
-            stableHits++;
-        } else {
-            lastCandidate = candidate;
-            stableHits = 1;
-        }
-
-        if (stableHits >= REQUIRED_STABLE_HITS) {
-            isScanning = false;
-            if (corrected) onMrzCorrected(candidate); else onMrzSuccess(candidate);
-        } else {
-            showMessageOnUi("Đang ổn định MRZ... (" + stableHits + "/" + REQUIRED_STABLE_HITS + ")", null);
+    // ---------- capture mode: ghi phiên để phát lại trên JVM ----------
+    // Bản sao luma của frame gửi OCR (chỉ phần Y) khi đang ghi phiên
+    private static final class CaptureInput {
+        final long uptimeMs = SystemClock.uptimeMillis();
+        final int rotation;
+        final int width;
+        final int height;
+        final byte[] luma;
+        volatile int latencyMs;
+
+        CaptureInput(GrayFramePool.Frame frame, int rotation) {
+            this.rotation = rotation;
+            this.width = frame.width();
+            this.height = frame.height();
+            this.luma = Arrays.copyOf(frame.data(), width * height);
         }
     }
 
-    private boolean safeEquals(String a, String b) {
-        if (a == null && b == null) return true;
-        if (a == null || b == null) return false;
-        return a.equals(b);
-    }
-
-    private ParsedMrz findAndParseMrz(List<OcrLine> lines) {
-        // Tạo danh sách chỉ chứa text chuẩn
-        List<String> norms = new ArrayList<>();
-        for (OcrLine l : lines) {
-            String n = l.norm;
-            // bộ lọc nhanh: bỏ các dòng quá ngắn hoặc không có '<' (MRZ tiêu chuẩn có nhiều '<')
-            if (n.length() < 10) continue;
-            norms.add(n);
-        }
-
-        // Ưu tiên TD3 (passport) trước để tăng tỉ lệ hộ chiếu
-        for (int i = 0; i + 1 < norms.size(); i++) {
-            String a = norms.get(i);
-            String b = norms.get(i + 1);
-            if ((isLengthApprox(a, 44) || isLengthApprox(b, 44) || (a.startsWith("P") || b.startsWith("P")))
-                    && looksLikeMrzLine(a) && looksLikeMrzLine(b)) {
-                String l1 = padToLength(a, 44);
-                String l2 = padToLength(b, 44);
-                try {
-                    ParsedMrz p = MrzParser.parseTD3(l1, l2);
-                    if (p != null) return p;
-                } catch (Exception ex) { }
-            }
-        }
-
-        // Thử tìm TD1 (3 dòng x ~30)
-        for (int i = 0; i + 2 < norms.size(); i++) {
-            String a = norms.get(i);
-            String b = norms.get(i + 1);
-            String c = norms.get(i + 2);
-            if (looksLikeMrzLine(a) && looksLikeMrzLine(b) && looksLikeMrzLine(c)
-                    && isLengthApprox(a, 30) && isLengthApprox(b, 30) && isLengthApprox(c, 30)) {
-                String l1 = padToLength(a, 30);
-                String l2 = padToLength(b, 30);
-                String l3 = padToLength(c, 30);
-                try {
-                    ParsedMrz p = MrzParser.parseTD1(l1, l2, l3);
-                    if (p != null) return p;
-                } catch (Exception ex) {
-                    // ignore
-                }
-            }
+    // Chỉ trên mrzExecutor: mở file mới cho lượt quét hiện tại
+    private void openCaptureSession() {
+        closeCaptureSession();
+        File dir = new File(getExternalFilesDir(null), "sessions");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w("MRZ", "Capture: cannot create " + dir);
+            return;
         }
-
-        // Thử tìm TD3 (2 dòng x ~44) và TD2 (2 dòng x ~36) (lượt 2)
-        for (int i = 0; i + 1 < norms.size(); i++) {
-            String a = norms.get(i);
-            String b = norms.get(i + 1);
-
-            // TD3 candidate (pad to 44)
-            if ((isLengthApprox(a, 44) || isLengthApprox(b, 44) || (a.startsWith("P") || a.startsWith("V")))
-                    && looksLikeMrzLine(a) && looksLikeMrzLine(b)) {
-                String l1 = padToLength(a, 44);
-                String l2 = padToLength(b, 44);
-                try {
-                    ParsedMrz p = MrzParser.parseTD3(l1, l2);
-                    if (p != null) return p;
-                } catch (Exception ex) { }
-            }
-
-            // TD2 candidate (pad to 36)
-            if ((isLengthApprox(a, 36) || isLengthApprox(b, 36))
-                    && looksLikeMrzLine(a) && looksLikeMrzLine(b)) {
-                String l1 = padToLength(a, 36);
-                String l2 = padToLength(b, 36);
-                try {
-                    ParsedMrz p = MrzParser.parseTD2(l1, l2);
-                    if (p != null) return p;
-                } catch (Exception ex) { }
-            }
-
-            // Fallback: try pad 44 even if slightly shorter (some OCR trim)
-            if (a.length() >= 20 && b.length() >= 20 && looksLikeMrzLine(a) && looksLikeMrzLine(b)) {
-                String l1 = padToLength(a, 44);
-                String l2 = padToLength(b, 44);
-                try {
-                    ParsedMrz p = MrzParser.parseTD3(l1, l2);
-                    if (p != null) return p;
-                } catch (Exception ex) { }
-            }
+        File file = new File(dir, "scan-" + System.currentTimeMillis() + ".mrzs");
+        try {
+            captureWriter = new ScanSessionWriter(new FileOutputStream(file));
+            Log.d("MRZ", "Capture: recording to " + file);
+        } catch (IOException e) {
+            Log.w("MRZ", "Capture: cannot open " + file + ": " + e.getMessage());
         }
-
-        return null;
     }
 
-    private boolean isLengthApprox(String s, int target) {
-        if (s == null) return false;
-        int len = s.length();
-        // Khoảng dung sai nới lỏng: -10/+5 ký tự để chịu lỗi OCR
-        // siết biên độ để giảm nhiễu: -6/+3
-        return len >= target - 6 && len <= target + 3;
-    }
-
-    private String padToLength(String s, int len) {
-        if (s == null) s = "";
-        s = s.toUpperCase();
-        if (s.length() >= len) return s.substring(0, len);
-        StringBuilder sb = new StringBuilder(s);
-        while (sb.length() < len) sb.append('<');
-        return sb.toString();
-    }
-
-    private boolean looksLikeMrzLine(String s) {
-        if (s == null) return false;
-        int len = s.length();
-        int chevrons = 0;
-        for (int i = 0; i < len; i++) if (s.charAt(i) == '<') chevrons++;
-        // MRZ lines usually contain many '<' as fillers; require at least ~10% '<'
-        return chevrons >= Math.max(2, Math.round(len * 0.10f));
-    }
-
-    // ---------- Heuristic corrections (mạnh hơn) ----------
-    // Thử nhiều mapping khác nhau và cả tổ hợp 2 mapping
-    private ParsedMrz tryHeuristicCorrectionsMultiple(List<OcrLine> lines) {
-        // chuẩn danh sách norms
-        List<String> norms = new ArrayList<>();
-        for (OcrLine l : lines) norms.add(l.norm);
-
-        // các bản đồ cơ bản
-        char[][] maps = {
-                {'O','0'}, {'Q','0'}, {'D','0'}, // O/Q/D -> 0
-                {'I','1'}, {'L','1'}, {'T','7'}, {'Z','2'}, {'S','5'}, {'B','8'}, {'G','6'}
-        };
-
-        // thử 1 map
-        for (char[] m : maps) {
-            List<String> mapped = applyMapToList(norms, m[0], m[1]);
-            ParsedMrz p = findAndParseMrzStrings(mapped);
-            if (p != null) {
-                Log.d("MRZ_CORRECTION", "Single map corrected: " + m[0] + "->" + m[1]);
-                return p;
-            }
-        }
-
-        // thử 2 maps kết hợp (chỉ một số lượng hạn chế để tránh nổ tổ hợp)
-        for (int i = 0; i < maps.length; i++) {
-            for (int j = i + 1; j < maps.length && j < i + 6; j++) {
-                List<String> mapped = applyMapToList(norms, maps[i][0], maps[i][1]);
-                mapped = applyMapToList(mapped, maps[j][0], maps[j][1]);
-                ParsedMrz p = findAndParseMrzStrings(mapped);
-                if (p != null) {
-                    Log.d("MRZ_CORRECTION", "Double map corrected: " + maps[i][0] + "->" + maps[i][1] + "," + maps[j][0] + "->" + maps[j][1]);
-                    return p;
-                }
-            }
-        }
-
-        // nếu vẫn không được, thử sửa theo vị trí: cố gắng sửa những ký tự trong vùng số (tài liệu, ngày)
-        // (Ở đây chúng ta đơn giản: thử chuyển mọi chữ cái thành số theo map phổ biến rồi parse)
-        List<String> aggressive = new ArrayList<>();
-        for (String s : norms) {
-            aggressive.add(aggressiveMap(s));
-        }
-        ParsedMrz p = findAndParseMrzStrings(aggressive);
-        if (p != null) {
-            Log.d("MRZ_CORRECTION", "Aggressive mapping worked");
-            return p;
+    // Chỉ trên mrzExecutor
+    private void closeCaptureSession() {
+        if (captureWriter == null) return;
+        try {
+            captureWriter.close();
+            Log.d("MRZ", "Capture: " + captureWriter.frames() + " frames");
+        } catch (IOException e) {
+            Log.w("MRZ", "Capture: close failed: " + e.getMessage());
         }
-
-        return null;
+        captureWriter = null;
     }
 
-    private ParsedMrz findAndParseMrzStrings(List<String> norms) {
-        // chuyển về dạng OcrLine tạm để tận dụng findAndParseMrz
-        List<OcrLine> tmp = new ArrayList<>();
-        for (String s : norms) tmp.add(new OcrLine(s, s, 0f));
-        return findAndParseMrz(tmp);
-    }
-
-    private List<String> applyMapToList(List<String> src, char from, char to) {
-        List<String> out = new ArrayList<>();
-        for (String s : src) out.add(applyMap(s, from, to));
-        return out;
-    }
-
-    private String applyMap(String s, char from, char to) {
-        if (s == null) return null;
-        StringBuilder sb = new StringBuilder();
-        for (char c : s.toCharArray()) {
-            if (c == from) sb.append(to); else sb.append(c);
+    // Chỉ trên mrzExecutor: ghi đúng các dòng đã đưa vào pipeline, theo thứ tự
+    private void writeCapturedFrame(long seq, CaptureInput c, boolean cropped, List<SessionLine> lines) {
+        if (captureWriter == null) return;
+        try {
+            captureWriter.write(new SessionFrame(seq, c.uptimeMs, c.latencyMs, c.rotation, cropped,
+                    c.width, c.height, c.luma, lines));
+            captureWriter.flush();
+        } catch (IOException e) {
+            Log.w("MRZ", "Capture: write failed, stopping: " + e.getMessage());
+            captureWriter = null;
         }
-        return sb.toString();
     }
 
-    private String aggressiveMap(String s) {
-        if (s == null) return null;
-        // map chữ thường gặp -> số
-        s = s.replace('O','0').replace('Q','0').replace('D','0')
-                .replace('I','1').replace('L','1').replace('Z','2')
-                .replace('S','5').replace('B','8').replace('G','6')
-                .replace('T','7');
-        return s;
+    private static SessionLine toSessionLine(Text.Line line, String raw, Rect bb) {
+        List<Text.Element> elements = line.getElements();
+        int n = 0;
+        for (Text.Element element : elements) n += element.getSymbols().size();
+        int[] elementEnd = new int[elements.size()];
+        String[] symbols = new String[n];
+        float[] conf = new float[n];
+        int[] left = new int[n];
+        int[] right = new int[n];
+        int i = 0;
+        for (int e = 0; e < elements.size(); e++) {
+            for (Text.Symbol symbol : elements.get(e).getSymbols()) {
+                Rect sb = symbol.getBoundingBox();
+                String text = symbol.getText();
+                symbols[i] = text != null ? text : "";
+                conf[i] = symbol.getConfidence();
+                left[i] = sb != null ? sb.left : 0;
+                right[i] = sb != null ? sb.right : 0;
+                i++;
+            }
+            elementEnd[e] = i;
+        }
+        return bb != null
+                ? new SessionLine(raw, true, bb.left, bb.top, bb.right, bb.bottom, elementEnd, symbols, conf, left, right)
+                : new SessionLine(raw, false, 0, 0, 0, 0, elementEnd, symbols, conf, left, right);
     }
 
     // ---------- UI helpers ----------
@@ -670,6 +666,13 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    // Trạng thái lượt quét: mỗi frame thường ra cùng một thông báo, chỉ đẩy lên UI khi thông báo đổi
+    private void showScanStatus(String text) {
+        if (text.equals(lastScanStatus)) return;
+        lastScanStatus = text;
+        showMessageOnUi(text, null);
+    }
+
     private void showMessageOnUi(String text, Integer bgColor) {
         runOnUiThread(() -> {
             statusText.setText(text);
@@ -681,9 +684,14 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void resetScanning() {
+        // Bỏ kết quả của các frame đang OCR dở từ lượt trước
+        pipeline.reset(frameSeq.get());
+        lastScanStatus = null;
+        if (enableCapture) mrzExecutor.execute(this::openCaptureSession);
+        frameScheduler.reset();
+        roiTracker.reset();
+        scanStartNanos = metrics.start();
         isScanning = true;
-        lastCandidate = null;
-        stableHits = 0;
         statusText.setText("Đặt MRZ của hộ chiếu vào khung màu vàng");
         statusText.setBackgroundColor(0x99000000);
         statusText.setOnClickListener(null);
@@ -693,13 +701,6 @@ public class MainActivity extends AppCompatActivity {
     }
 
     // ---------- helpers & small classes ----------
-    private static class OcrLine {
-        public final String raw;
-        public final String norm;
-        public final float centerY;
-        public OcrLine(String raw, String norm, float centerY) { this.raw = raw; this.norm = norm; this.centerY = centerY; }
-    }
-
     private static class Pair<F,S> {
         public final F first;
         public final S second;
@@ -712,6 +713,8 @@ public class MainActivity extends AppCompatActivity {
         // Stop repeated focusing callbacks
         if (previewView != null) previewView.removeCallbacks(focusRepeater);
         cameraExecutor.shutdown();
+        mrzExecutor.execute(this::closeCaptureSession);
+        mrzExecutor.shutdown();
         recognizer.close();
     }
 
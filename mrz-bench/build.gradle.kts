@@ -0,0 +1,43 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    jmh(project(":mrz-core"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    // ops/s + allocation rate (gc.alloc.rate.norm) cho mọi benchmark
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // Chạy một phần: ./gradlew :mrz-bench:jmh -PjmhIncludes=Correction
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+// Ghi baseline JSON có thể diff: ./gradlew :mrz-bench:jmhBaseline -PbaselineName=kiosk-a
+val baselineName = providers.gradleProperty("baselineName").orElse("baseline")
+tasks.register<Copy>("jmhBaseline") {
+    group = "benchmark"
+    description = "Runs JMH and stores the JSON results under baselines/<baselineName>.json"
+    dependsOn("jmh")
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(layout.projectDirectory.dir("baselines"))
+    rename { "${baselineName.get()}.json" }
+}
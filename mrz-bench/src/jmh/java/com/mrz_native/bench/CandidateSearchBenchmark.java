@@ -0,0 +1,69 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.MrzCandidateFinder;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+import com.mrz_native.core.OcrLine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tìm MRZ trong một frame (MrzCandidateFinder.findAndParseMrz) với số dòng nhiễu khác nhau.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CandidateSearchBenchmark {
+
+    @Param({"5", "20", "40"})
+    public int noiseLines;
+
+    private List<OcrLine> td3Frame;
+    private List<OcrLine> td2Frame;
+    private List<OcrLine> td1Frame;
+    private List<OcrLine> nearMissFrame;
+    private List<OcrLine> noiseFrame;
+
+    @Setup
+    public void setup() {
+        td3Frame = MrzFixtures.frameWithNoise(noiseLines, 1, MrzFixtures.TD3);
+        td2Frame = MrzFixtures.frameWithNoise(noiseLines, 2, MrzFixtures.TD2);
+        td1Frame = MrzFixtures.frameWithNoise(noiseLines, 3, MrzFixtures.TD1);
+        nearMissFrame = MrzFixtures.frameWithNoise(noiseLines, 4, MrzFixtures.TD3_TWO_CONFUSIONS);
+        noiseFrame = MrzFixtures.noiseFrame(noiseLines, 5);
+    }
+
+    @Benchmark
+    public ParsedMrz validTd3() {
+        return MrzCandidateFinder.findAndParseMrz(td3Frame);
+    }
+
+    @Benchmark
+    public ParsedMrz validTd2() {
+        return MrzCandidateFinder.findAndParseMrz(td2Frame);
+    }
+
+    @Benchmark
+    public ParsedMrz validTd1() {
+        return MrzCandidateFinder.findAndParseMrz(td1Frame);
+    }
+
+    @Benchmark
+    public ParsedMrz nearMissTd3() {
+        return MrzCandidateFinder.findAndParseMrz(nearMissFrame);
+    }
+
+    @Benchmark
+    public ParsedMrz noiseOnly() {
+        return MrzCandidateFinder.findAndParseMrz(noiseFrame);
+    }
+}
@@ -0,0 +1,62 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.MrzCorrector;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+import com.mrz_native.core.OcrLine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sửa lỗi OCR (MrzCorrector.tryHeuristicCorrectionsMultiple) trên frame không parse được trực tiếp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CorrectionBenchmark {
+
+    @Param({"5", "40"})
+    public int noiseLines;
+
+    private List<OcrLine> td3OneConfusion;
+    private List<OcrLine> td3TwoConfusions;
+    private List<OcrLine> td1OneConfusion;
+    private List<OcrLine> noiseFrame;
+
+    @Setup
+    public void setup() {
+        td3OneConfusion = MrzFixtures.frameWithNoise(noiseLines, 11, MrzFixtures.TD3_ONE_CONFUSION);
+        td3TwoConfusions = MrzFixtures.frameWithNoise(noiseLines, 12, MrzFixtures.TD3_TWO_CONFUSIONS);
+        td1OneConfusion = MrzFixtures.frameWithNoise(noiseLines, 13, MrzFixtures.TD1_ONE_CONFUSION);
+        noiseFrame = MrzFixtures.noiseFrame(noiseLines, 14);
+    }
+
+    @Benchmark
+    public ParsedMrz td3OneConfusion() {
+        return MrzCorrector.tryHeuristicCorrectionsMultiple(td3OneConfusion);
+    }
+
+    @Benchmark
+    public ParsedMrz td3TwoConfusions() {
+        return MrzCorrector.tryHeuristicCorrectionsMultiple(td3TwoConfusions);
+    }
+
+    @Benchmark
+    public ParsedMrz td1OneConfusion() {
+        return MrzCorrector.tryHeuristicCorrectionsMultiple(td1OneConfusion);
+    }
+
+    @Benchmark
+    public ParsedMrz noiseOnly() {
+        return MrzCorrector.tryHeuristicCorrectionsMultiple(noiseFrame);
+    }
+}
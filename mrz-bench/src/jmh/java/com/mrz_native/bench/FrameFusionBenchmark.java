@@ -0,0 +1,43 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.MrzFrameFuser;
+import com.mrz_native.core.OcrLine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Một frame qua MrzFrameFuser: có sửa lỗi dòng hợp nhất (frame quét trực tiếp thất bại)
+ * và chỉ bỏ phiếu + parse (frame đã quét trực tiếp ra MRZ).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FrameFusionBenchmark {
+
+    private final MrzFrameFuser fuser = new MrzFrameFuser();
+    private List<OcrLine> nearMissFrame;
+
+    @Setup
+    public void setup() {
+        nearMissFrame = MrzFixtures.frameWithNoise(10, 21, MrzFixtures.TD3_TWO_CONFUSIONS);
+    }
+
+    @Benchmark
+    public MrzFrameFuser.Result withCorrection() {
+        return fuser.addFrame(nearMissFrame, true);
+    }
+
+    @Benchmark
+    public MrzFrameFuser.Result votesOnly() {
+        return fuser.addFrame(nearMissFrame, false);
+    }
+}
@@ -0,0 +1,91 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.image.FrameQualityGate;
+import com.mrz_native.core.image.MrzBandLocalizer;
+import com.mrz_native.core.image.MrzSkewEstimator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cổng chất lượng trước OCR (FrameQualityGate), góc nghiêng (MrzSkewEstimator) và tìm dải MRZ (MrzBandLocalizer) trên mặt phẳng Y
+ * tổng hợp 1920x1080, đo vùng MRZ cỡ nửa dưới khung hướng dẫn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrameQualityBenchmark {
+
+    private static final int W = 1920;
+    private static final int H = 1080;
+
+    /** Độ rộng vùng đo (px). */
+    @Param({"640", "1600"})
+    public int roiWidth;
+
+    private final FrameQualityGate gate = new FrameQualityGate();
+    private final MrzBandLocalizer localizer = new MrzBandLocalizer();
+    private final MrzSkewEstimator skewEstimator = new MrzSkewEstimator();
+    private ByteBuffer textFrame;
+    private ByteBuffer flatFrame;
+    private int left;
+    private int top;
+
+    @Setup
+    public void setup() {
+        left = (W - roiWidth) / 2;
+        top = H / 2;
+        int roiHeight = roiWidth / 4;
+        byte[] img = new byte[W * H];
+        java.util.Arrays.fill(img, (byte) 190);
+        flatFrame = ByteBuffer.allocateDirect(img.length).put(img);
+        // Hai dòng chữ giả: mỗi ô ký tự vài nét dọc tối
+        Random rnd = new Random(11);
+        int cellW = Math.max(6, roiWidth / 44);
+        int lineH = roiHeight / 4;
+        for (int line = 0; line < 2; line++) {
+            int y0 = top + lineH / 2 + line * lineH * 2;
+            for (int cell = left; cell + cellW < left + roiWidth; cell += cellW) {
+                int strokes = 1 + rnd.nextInt(3);
+                for (int s = 0; s < strokes; s++) {
+                    int x = cell + rnd.nextInt(cellW - 2);
+                    for (int yy = y0; yy < y0 + lineH; yy++) {
+                        img[yy * W + x] = 35;
+                        img[yy * W + x + 1] = 35;
+                    }
+                }
+            }
+        }
+        textFrame = ByteBuffer.allocateDirect(img.length).put(img);
+    }
+
+    @Benchmark
+    public FrameQualityGate.Verdict textRegion() {
+        return gate.evaluate(textFrame, W, 1, left, top, left + roiWidth, top + roiWidth / 4, 0).verdict;
+    }
+
+    @Benchmark
+    public FrameQualityGate.Verdict flatRegion() {
+        return gate.evaluate(flatFrame, W, 1, left, top, left + roiWidth, top + roiWidth / 4, 0).verdict;
+    }
+
+    @Benchmark
+    public MrzBandLocalizer.Band localizeBand() {
+        return localizer.locate(textFrame, W, 1, left, top, left + roiWidth, top + roiWidth / 4, 0);
+    }
+
+    @Benchmark
+    public float estimateSkew() {
+        return skewEstimator.estimate(textFrame, W, 1, left, top, left + roiWidth, top + roiWidth / 4, 0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzLines;
+import com.mrz_native.core.MrzScanPipeline;
+import com.mrz_native.core.OcrFrame;
+import com.mrz_native.core.OcrLine;
+import com.mrz_native.core.synth.MrzGenerator;
+import com.mrz_native.core.synth.MrzNoise;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đưa các dòng OCR của một frame vào pipeline như Activity làm với Text.Line: dựng từng dòng từ symbol
+ * rồi quét / bỏ phiếu. Chạy với -prof gc để xem B/op: qua OcrFrame, frame ổn định không cấp phát.
+ * Mỗi dòng là một chuỗi symbol một ký tự có khoảng trắng, như text của ML Kit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LineIngestionBenchmark {
+
+    private String[] raw;
+    private String[][] symbols;
+    private final OcrFrame frame = new OcrFrame();
+    private final OcrLine.Builder builder = new OcrLine.Builder();
+    private MrzScanPipeline pipeline;
+    private long seq;
+
+    @Setup
+    public void setup() {
+        List<OcrLine> lines = new MrzGenerator(1).next(MrzLayout.TD3, MrzNoise.builder().junkRate(1f).build()).frame();
+        raw = new String[lines.size()];
+        symbols = new String[lines.size()][];
+        for (int i = 0; i < raw.length; i++) {
+            String s = lines.get(i).raw();
+            raw[i] = s.length() > 20 ? s.substring(0, 20) + " " + s.substring(20) : s;
+            symbols[i] = new String[s.length()];
+            for (int k = 0; k < s.length(); k++) symbols[i][k] = s.substring(k, k + 1);
+        }
+        pipeline = new MrzScanPipeline(Integer.MAX_VALUE, null);
+    }
+
+    @Benchmark
+    public MrzScanPipeline.Outcome pooled() {
+        frame.begin();
+        for (int i = 0; i < raw.length; i++) {
+            OcrLine.Builder b = frame.line();
+            String[] sym = symbols[i];
+            for (int k = 0; k < sym.length; k++) b.appendSymbol(sym[k], 0.9f, k * 10, k * 10 + 9);
+            frame.add(raw[i], true, 0, i * 40, sym.length * 10, i * 40 + 30);
+        }
+        return pipeline.onFrame(++seq, frame.lines());
+    }
+
+    /** Cách cũ: mỗi dòng một OcrLine và các mảng mới, một ArrayList mỗi frame. */
+    @Benchmark
+    public MrzScanPipeline.Outcome perFrameAllocation() {
+        List<OcrLine> lines = new ArrayList<>();
+        for (int i = 0; i < raw.length; i++) {
+            builder.reset();
+            String[] sym = symbols[i];
+            for (int k = 0; k < sym.length; k++) builder.appendSymbol(sym[k], 0.9f, k * 10, k * 10 + 9);
+            lines.add(builder.build(raw[i], 0, i * 40, sym.length * 10, i * 40 + 30));
+        }
+        return pipeline.onFrame(++seq, lines);
+    }
+
+    @Benchmark
+    public String normalizeLine() {
+        return MrzLines.normalizeLine(raw[1]);
+    }
+}
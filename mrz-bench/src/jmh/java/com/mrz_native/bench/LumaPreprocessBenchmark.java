@@ -0,0 +1,108 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.image.GrayFramePool;
+import com.mrz_native.core.image.LumaContrastNormalizer;
+import com.mrz_native.core.image.MrzBandLocalizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chép luma vùng gửi OCR sang bộ đệm của pool (có / không chuẩn hoá tương phản) trên mặt phẳng Y
+ * tổng hợp 1920x1080 với row stride có đệm: dải MRZ sau MrzBandLocalizer, khung hướng dẫn, cả frame.
+ * Bản co 1/2 ứng với ký tự MRZ ~48 px co về ~24 px (OcrScaleSelector); bản xoay thẳng lấy cùng vùng
+ * nghiêng 7°.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LumaPreprocessBenchmark {
+
+    private static final int W = 1920;
+    private static final int H = 1080;
+    private static final int STRIDE = 1984;
+
+    /** Vùng chép: band = dải 2 dòng MRZ, guide = khung hướng dẫn, frame = cả ảnh. */
+    @Param({"band", "guide", "frame"})
+    public String region;
+
+    private final GrayFramePool.Frame frame = new GrayFramePool(1).acquire();
+    private final LumaContrastNormalizer normalizer = new LumaContrastNormalizer();
+    private final MrzBandLocalizer.Band skewed = new MrzBandLocalizer.Band();
+    private ByteBuffer y;
+    private int left;
+    private int top;
+    private int width;
+    private int height;
+
+    @Setup
+    public void setup() {
+        switch (region) {
+            case "band": left = 160; top = 700; width = 1600; height = 220; break;
+            case "guide": left = 160; top = 340; width = 1600; height = 600; break;
+            default: left = 0; top = 0; width = W; height = H;
+        }
+        byte[] img = new byte[STRIDE * H];
+        Random rnd = new Random(5);
+        for (int i = 0; i < img.length; i++) img[i] = (byte) (150 + rnd.nextInt(60));
+        y = ByteBuffer.allocateDirect(img.length).put(img);
+        y.rewind();
+        skewed.left = left;
+        skewed.top = top;
+        skewed.right = left + width;
+        skewed.bottom = top + height;
+        skewed.centerX = left + width / 2f;
+        skewed.centerY = top + height / 2f;
+        skewed.length = width;
+        skewed.thickness = height;
+        skewed.skew = 7f;
+    }
+
+    @Benchmark
+    public byte[] copy() {
+        frame.copyLuma(y, STRIDE, 1, left, top, width, height);
+        return frame.data();
+    }
+
+    @Benchmark
+    public byte[] copyNormalized() {
+        frame.copyLuma(y, STRIDE, 1, left, top, width, height);
+        normalizer.apply(frame.data(), frame.width(), frame.height());
+        return frame.data();
+    }
+
+    @Benchmark
+    public byte[] copyDownscaled() {
+        frame.copyLuma(y, STRIDE, 1, left, top, width, height, 0.5f);
+        return frame.data();
+    }
+
+    @Benchmark
+    public byte[] copyDownscaledNormalized() {
+        frame.copyLuma(y, STRIDE, 1, left, top, width, height, 0.5f);
+        normalizer.apply(frame.data(), frame.width(), frame.height());
+        return frame.data();
+    }
+
+    @Benchmark
+    public byte[] copyRotated() {
+        frame.copyLumaRotated(y, STRIDE, 1, skewed, 1f);
+        return frame.data();
+    }
+
+    @Benchmark
+    public byte[] copyRotatedDownscaled() {
+        frame.copyLumaRotated(y, STRIDE, 1, skewed, 0.5f);
+        return frame.data();
+    }
+}
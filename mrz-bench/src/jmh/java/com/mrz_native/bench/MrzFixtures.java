@@ -0,0 +1,92 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.OcrLine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Dữ liệu cố định cho benchmark: MRZ hợp lệ, MRZ lỗi OCR 1-2 ký tự và frame toàn nhiễu.
+ */
+final class MrzFixtures {
+
+    static final String[] TD3 = {
+            "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<",
+            "L898902C36UTO7408122F1204159ZE184226B<<<<<10"
+    };
+    static final String[] TD2 = {
+            "I<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<",
+            "D231458907UTO7408122F1204159<<<<<<<<"
+    };
+    static final String[] TD1 = {
+            "I<UTOD231458907<<<<<<<<<<<<<<<",
+            "7408122F1204159UTO<<<<<<<<<<<6",
+            "ERIKSSON<<ANNA<MARIA<<<<<<<<<<"
+    };
+
+    // TD3 với 1 lỗi OCR (I thay cho 1 trong ngày hết hạn)
+    static final String[] TD3_ONE_CONFUSION = {
+            TD3[0],
+            "L898902C36UTO7408122F1204I59ZE184226B<<<<<10"
+    };
+    // TD3 với 2 lỗi OCR (O thay cho 0 trong ngày sinh, S thay cho 5 trong ngày hết hạn)
+    static final String[] TD3_TWO_CONFUSIONS = {
+            TD3[0],
+            "L898902C36UTO74O8122F12041S9ZE184226B<<<<<10"
+    };
+    // TD1 với 1 lỗi OCR trong số giấy tờ
+    static final String[] TD1_ONE_CONFUSION = {
+            "I<UTOD23I458907<<<<<<<<<<<<<<<",
+            TD1[1],
+            TD1[2]
+    };
+
+    private static final String[] WORDS = {
+            "PASSPORT", "PASSEPORT", "REPUBLIC", "OF", "UTOPIA", "SURNAME", "GIVEN", "NAMES",
+            "NATIONALITY", "DATE", "BIRTH", "SEX", "PLACE", "ISSUE", "AUTHORITY", "EXPIRY",
+            "12", "AUG", "1974", "15", "APR", "2012", "ZENITH", "F", "HỘ", "CHIẾU", "L898902C3"
+    };
+
+    private MrzFixtures() {}
+
+    static List<OcrLine> frame(String... mrzLines) {
+        List<OcrLine> out = new ArrayList<>();
+        int y = 600;
+        for (String s : mrzLines) {
+            out.add(new OcrLine(s, 20, y, 900, y + 30));
+            y += 40;
+        }
+        return out;
+    }
+
+    /** Frame gồm các dòng thật của MRZ chen giữa noiseLines dòng chữ thường. */
+    static List<OcrLine> frameWithNoise(int noiseLines, long seed, String... mrzLines) {
+        List<OcrLine> out = noiseFrame(noiseLines, seed);
+        out.addAll(frame(mrzLines));
+        return out;
+    }
+
+    /** Frame toàn nhiễu (không có MRZ), tái lập được theo seed. */
+    static List<OcrLine> noiseFrame(int lines, long seed) {
+        Random rnd = new Random(seed);
+        List<OcrLine> out = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            StringBuilder sb = new StringBuilder();
+            int words = 1 + rnd.nextInt(6);
+            for (int w = 0; w < words; w++) {
+                if (w > 0) sb.append(rnd.nextInt(8) == 0 ? "<" : " ");
+                sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+            }
+            int y = 20 + i * 14;
+            out.add(new OcrLine(sb.toString(), 10, y, 10 + sb.length() * 18, y + 12));
+        }
+        return out;
+    }
+
+    static List<String> norms(List<OcrLine> lines) {
+        List<String> out = new ArrayList<>(lines.size());
+        for (OcrLine l : lines) out.add(l.norm());
+        return out;
+    }
+}
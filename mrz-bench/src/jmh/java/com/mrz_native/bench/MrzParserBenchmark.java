@@ -0,0 +1,52 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.MrzParser;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MrzParser.autoDetect trên MRZ hợp lệ và MRZ lỗi OCR (bị loại ở check digit).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MrzParserBenchmark {
+
+    @Benchmark
+    public ParsedMrz validTd3() {
+        return MrzParser.autoDetect(MrzFixtures.TD3);
+    }
+
+    @Benchmark
+    public ParsedMrz validTd2() {
+        return MrzParser.autoDetect(MrzFixtures.TD2);
+    }
+
+    @Benchmark
+    public ParsedMrz validTd1() {
+        return MrzParser.autoDetect(MrzFixtures.TD1);
+    }
+
+    @Benchmark
+    public ParsedMrz nearMissTd3OneConfusion() {
+        return MrzParser.autoDetect(MrzFixtures.TD3_ONE_CONFUSION);
+    }
+
+    @Benchmark
+    public ParsedMrz nearMissTd3TwoConfusions() {
+        return MrzParser.autoDetect(MrzFixtures.TD3_TWO_CONFUSIONS);
+    }
+
+    @Benchmark
+    public ParsedMrz nearMissTd1OneConfusion() {
+        return MrzParser.autoDetect(MrzFixtures.TD1_ONE_CONFUSION);
+    }
+}
@@ -0,0 +1,44 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.MrzScanMetrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí đo một giai đoạn (start + record) và đếm một frame bị bỏ của MrzScanMetrics, khi bật và khi tắt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ScanMetricsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private final MrzScanMetrics metrics = new MrzScanMetrics();
+
+    @Setup
+    public void setup() {
+        metrics.setEnabled(enabled);
+    }
+
+    @Benchmark
+    public void recordStage() {
+        long t0 = metrics.start();
+        metrics.record(MrzScanMetrics.Stage.CROP, t0);
+    }
+
+    @Benchmark
+    public void countDrop() {
+        metrics.drop(MrzScanMetrics.Drop.SCHEDULER);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mrz_native.bench;
+
+import com.mrz_native.core.MrzCandidateFinder;
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzLineAssembler;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+import com.mrz_native.core.MrzScanner;
+import com.mrz_native.core.OcrLine;
+import com.mrz_native.core.synth.MrzGenerator;
+import com.mrz_native.core.synth.MrzNoise;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quét một tập frame sinh bởi {@link MrzGenerator} (seed cố định) thay vì vài MRZ viết tay của MrzFixtures:
+ * mỗi lần gọi là một frame kế tiếp trong tập, xoay vòng, nên JIT không học thuộc một input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SyntheticCorpusBenchmark {
+
+    private static final int CORPUS = 1024;
+
+    @Param({"TD3", "TD2", "TD1", "mixed"})
+    public String layout;
+
+    @Param({"none", "light", "heavy"})
+    public String noise;
+
+    @Param({"1"})
+    public long seed;
+
+    private List<List<OcrLine>> frames;
+    // Không cache: mỗi frame trong tập khác nhau, cache chỉ làm đầy rồi bị xoá
+    private final MrzScanner scanner = new MrzScanner(null);
+    private final MrzLineAssembler assembler = new MrzLineAssembler();
+    private int next;
+
+    @Setup
+    public void setup() {
+        MrzGenerator generator = new MrzGenerator(seed);
+        MrzNoise n = MrzNoise.named(noise);
+        MrzLayout l = "mixed".equals(layout) ? null : MrzLayout.valueOf(layout);
+        frames = new ArrayList<>(CORPUS);
+        for (int i = 0; i < CORPUS; i++) {
+            frames.add((l == null ? generator.next(n) : generator.next(l, n)).frame());
+        }
+    }
+
+    private List<OcrLine> nextFrame() {
+        List<OcrLine> f = frames.get(next);
+        next = (next + 1) & (CORPUS - 1);
+        return f;
+    }
+
+    @Benchmark
+    public ParsedMrz candidateSearch() {
+        return MrzCandidateFinder.findAndParseMrz(nextFrame());
+    }
+
+    @Benchmark
+    public MrzScanner.Result scan() {
+        return scanner.scan(nextFrame());
+    }
+
+    /** Như MrzScanPipeline: ghép hàng theo hình học trước khi quét. */
+    @Benchmark
+    public MrzScanner.Result assembleAndScan() {
+        return scanner.scan(assembler.assemble(nextFrame()));
+    }
+}
@@ -0,0 +1,24 @@
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    // Test
+    testImplementation(libs.junit)
+}
+
+// java -jar mrz-core.jar: kiểm tra hàng loạt bản ghi MRZ (xem MrzBatchCli)
+tasks.jar {
+    manifest {
+        attributes("Main-Class" to "com.mrz_native.core.batch.MrzBatchCli")
+    }
+}
@@ -0,0 +1,208 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.MrzResult;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.mrz_native.core.MrzLines.hasEnoughFillers;
+import static com.mrz_native.core.MrzLines.isLengthApprox;
+
+/**
+ * Tìm cặp/bộ ba dòng liên tiếp tạo thành MRZ hợp lệ (TD3 2x44, TD2 2x36, TD1 3x30).
+ *
+ * Một lượt duy nhất: đặc trưng từng dòng (độ dài, số '<', ký tự đầu, số chữ số) được tính một lần,
+ * mọi cửa sổ dòng liên tiếp hợp với từng loại MRZ được chấm điểm, rồi parse theo thứ tự điểm giảm dần
+ * và dừng ở ứng viên đầu tiên qua check digit. Ứng viên đúng chuẩn hơn được thử trước nên khung hình
+ * nhiều chữ ít khi trả về một cửa sổ "hợp lệ nhưng sai".
+ */
+public final class MrzCandidateFinder {
+
+    // Điểm xếp hạng ứng viên
+    private static final int LENGTH_PENALTY = 2;   // mỗi ký tự lệch độ dài chuẩn
+    private static final int DOC_TYPE_BONUS = 6;   // ký tự đầu là loại giấy tờ hợp với layout
+    private static final int DIGIT_BONUS = 3;      // mật độ chữ số hợp với dòng dữ liệu / dòng tên
+
+    private static final MrzLayout[] LAYOUTS = MrzLayout.values();
+    // Thứ tự liệt kê như các lượt quét cũ: ứng viên bằng điểm giữ thứ tự này
+    private static final MrzLayout[] SEARCH_ORDER = {MrzLayout.TD3, MrzLayout.TD1, MrzLayout.TD2};
+
+    // Điểm nằm trong [SCORE_FLOOR, MAX_SCORE]; điểm thấp hơn sàn (lệch độ dài rất xa) dồn chung một nhóm
+    private static final int MAX_SCORE = DOC_TYPE_BONUS + 2 * DIGIT_BONUS;
+    private static final int SCORE_FLOOR = -128;
+    private static final int BUCKETS = MAX_SCORE - SCORE_FLOOR + 1;
+
+    // Bộ đệm của mỗi luồng, lớn dần theo số dòng: một lượt tìm không cấp phát gì ngoài kết quả
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private MrzCandidateFinder() {}
+
+    public static ParsedMrz findAndParseMrz(List<OcrLine> lines) {
+        Workspace w = WORKSPACE.get();
+        w.begin(lines.size());
+        for (int i = 0; i < lines.size(); i++) w.add(lines.get(i));
+        return search(w);
+    }
+
+    public static ParsedMrz findAndParseMrzStrings(List<String> lines) {
+        Workspace w = WORKSPACE.get();
+        w.begin(lines.size());
+        for (int i = 0; i < lines.size(); i++) w.add(lines.get(i));
+        return search(w);
+    }
+
+    // Đặc trưng của các dòng đã lọc (tính một lần cho cả lượt tìm) và các ứng viên
+    private static final class Workspace {
+        String[] text = new String[0];
+        int[] length = new int[0];
+        int[] digits = new int[0];
+        boolean[] mrzLike = new boolean[0];
+        int count;
+
+        // Ứng viên mã hoá start * LAYOUTS.length + ordinal, theo thứ tự liệt kê và theo điểm giảm dần
+        int[] cand = new int[0];
+        int[] score = new int[0];
+        int[] ranked = new int[0];
+        final int[] bucket = new int[BUCKETS + 1];
+        final MrzResult result = new MrzResult();
+
+        void begin(int capacity) {
+            if (text.length < capacity) {
+                text = new String[capacity];
+                length = new int[capacity];
+                digits = new int[capacity];
+                mrzLike = new boolean[capacity];
+                cand = new int[capacity * LAYOUTS.length];
+                score = new int[cand.length];
+                ranked = new int[cand.length];
+            }
+            count = 0;
+        }
+
+        void add(String s) {
+            // bộ lọc nhanh: bỏ các dòng quá ngắn
+            if (s == null || s.length() < 10) return;
+            int len = s.length();
+            int chevrons = 0;
+            int d = 0;
+            for (int i = 0; i < len; i++) {
+                char c = s.charAt(i);
+                if (c == '<') chevrons++;
+                else if (c >= '0' && c <= '9') d++;
+            }
+            text[count] = s;
+            length[count] = len;
+            digits[count] = d;
+            mrzLike[count] = hasEnoughFillers(len, chevrons);
+            count++;
+        }
+
+        // Đặc trưng đã tính sẵn khi dựng dòng
+        void add(OcrLine l) {
+            String s = l.norm;
+            if (s == null || s.length() < 10) return;
+            text[count] = s;
+            length[count] = s.length();
+            digits[count] = l.digits;
+            mrzLike[count] = l.looksLikeMrz();
+            count++;
+        }
+
+        char first(int i) { return Character.toUpperCase(text[i].charAt(0)); }
+
+        // Không giữ String của frame trong bộ đệm dùng lại
+        void end() {
+            Arrays.fill(text, 0, count, null);
+        }
+    }
+
+    private static ParsedMrz search(Workspace w) {
+        try {
+            return searchRanked(w);
+        } finally {
+            w.end();
+        }
+    }
+
+    private static ParsedMrz searchRanked(Workspace w) {
+        int n = w.count;
+        if (n < 2) return null;
+
+        int k = 0;
+        int[] bucket = w.bucket;
+        Arrays.fill(bucket, 0);
+        for (MrzLayout layout : SEARCH_ORDER) {
+            for (int i = 0; i + layout.lineCount <= n; i++) {
+                if (!plausible(w, layout, i)) continue;
+                // nhóm 0 là điểm cao nhất
+                int b = MAX_SCORE - Math.max(SCORE_FLOOR, score(w, layout, i));
+                w.cand[k] = i * LAYOUTS.length + layout.ordinal();
+                w.score[k] = b;
+                bucket[b + 1]++;
+                k++;
+            }
+        }
+        // Đếm theo nhóm điểm (ổn định, O(ứng viên + BUCKETS)) thay cho sắp xếp chèn
+        for (int b = 0; b < BUCKETS; b++) bucket[b + 1] += bucket[b];
+        for (int c = 0; c < k; c++) w.ranked[bucket[w.score[c]]++] = w.cand[c];
+
+        for (int c = 0; c < k; c++) {
+            int i = w.ranked[c] / LAYOUTS.length;
+            MrzLayout layout = LAYOUTS[w.ranked[c] % LAYOUTS.length];
+            if (parse(w, layout, i, w.result)) return w.result.toParsedMrz();
+        }
+        return null;
+    }
+
+    // Cửa sổ lines[i, i+lineCount) có đáng thử với layout không (giữ các điều kiện của các lượt quét cũ)
+    private static boolean plausible(Workspace l, MrzLayout layout, int i) {
+        for (int r = 0; r < layout.lineCount; r++) {
+            if (!l.mrzLike[i + r]) return false;
+        }
+        int a = l.length[i];
+        int b = l.length[i + 1];
+        switch (layout) {
+            case TD1:
+                return isLengthApprox(a, 30) && isLengthApprox(b, 30) && isLengthApprox(l.length[i + 2], 30);
+            case TD2:
+                return isLengthApprox(a, 36) || isLengthApprox(b, 36);
+            default:
+                // TD3 cho phép dòng bị OCR cắt bớt (>= 20) như lượt fallback
+                return isLengthApprox(a, 44) || isLengthApprox(b, 44)
+                        || l.first(i) == 'P' || l.first(i) == 'V' || l.first(i + 1) == 'P'
+                        || (a >= 20 && b >= 20);
+        }
+    }
+
+    private static int score(Workspace l, MrzLayout layout, int i) {
+        int s = 0;
+        for (int r = 0; r < layout.lineCount; r++) {
+            s -= LENGTH_PENALTY * Math.abs(l.length[i + r] - layout.lineLength);
+        }
+        if (isDocType(layout, l.first(i))) s += DOC_TYPE_BONUS;
+
+        // Dòng dữ liệu có ngày sinh, ngày hết hạn và các check digit; dòng tên gần như không có chữ số
+        int data = i + 1;
+        int name = layout == MrzLayout.TD1 ? i + 2 : i;
+        if (l.digits[data] * 4 >= l.length[data]) s += DIGIT_BONUS;
+        if (l.digits[name] <= 2) s += DIGIT_BONUS;
+        return s;
+    }
+
+    private static boolean isDocType(MrzLayout layout, char c) {
+        switch (layout) {
+            case TD3: return c == 'P' || c == 'V';
+            case TD2: return c == 'I' || c == 'A' || c == 'C' || c == 'V' || c == 'P';
+            default: return c == 'I' || c == 'A' || c == 'C';
+        }
+    }
+
+    private static boolean parse(Workspace l, MrzLayout layout, int i, MrzResult out) {
+        switch (layout) {
+            case TD1: return MrzParser.parseTD1(l.text[i], l.text[i + 1], l.text[i + 2], out);
+            case TD2: return MrzParser.parseTD2(l.text[i], l.text[i + 1], out);
+            default: return MrzParser.parseTD3(l.text[i], l.text[i + 1], out);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mrz_native.core;
+
+/**
+ * ICAO 9303 check digit (trọng số 7,3,1) dạng bảng tra.
+ *
+ * Giá trị ký tự tra qua bảng 256 phần tử; tổng được tích luỹ theo 3 lớp vị trí (i mod 3)
+ * rồi mới nhân trọng số, nên không có phép mod/nhân theo từng ký tự.
+ * Tổng riêng của một trường ({@link #partial}) được đóng gói trong một long và có thể
+ * ghép vào chuỗi composite ở bất kỳ vị trí nào ({@link #weighted}) mà không cần quét lại.
+ */
+public final class MrzCheckDigit {
+
+    // '<' và mọi ký tự khác = 0, '0'-'9' = 0-9, 'A'-'Z' = 10-35
+    private static final byte[] VALUES = new byte[256];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) VALUES[c] = (byte) (c - '0');
+        for (char c = 'A'; c <= 'Z'; c++) VALUES[c] = (byte) (10 + (c - 'A'));
+    }
+
+    // Mỗi lớp vị trí chiếm 21 bit trong partial (đủ cho trường dài tới ~59k ký tự)
+    private static final int SHIFT = 21;
+    private static final long MASK = (1L << SHIFT) - 1;
+
+    private MrzCheckDigit() {}
+
+    public static int value(char c) {
+        return c < 256 ? VALUES[c] : 0;
+    }
+
+    /**
+     * Tổng giá trị ký tự của s[off, off+len) tách theo lớp vị trí tương đối 0/1/2.
+     */
+    public static long partial(char[] s, int off, int len) {
+        int s0 = 0, s1 = 0, s2 = 0;
+        int i = off;
+        int end3 = off + len - len % 3;
+        for (; i < end3; i += 3) {
+            s0 += value(s[i]);
+            s1 += value(s[i + 1]);
+            s2 += value(s[i + 2]);
+        }
+        int end = off + len;
+        if (i < end) s0 += value(s[i++]);
+        if (i < end) s1 += value(s[i]);
+        return pack(s0, s1, s2);
+    }
+
+    public static long partial(byte[] s, int off, int len) {
+        int s0 = 0, s1 = 0, s2 = 0;
+        int i = off;
+        int end3 = off + len - len % 3;
+        for (; i < end3; i += 3) {
+            s0 += VALUES[s[i] & 0xFF];
+            s1 += VALUES[s[i + 1] & 0xFF];
+            s2 += VALUES[s[i + 2] & 0xFF];
+        }
+        int end = off + len;
+        if (i < end) s0 += VALUES[s[i++] & 0xFF];
+        if (i < end) s1 += VALUES[s[i] & 0xFF];
+        return pack(s0, s1, s2);
+    }
+
+    /**
+     * Thêm một ký tự có giá trị value tại vị trí tương đối index vào partial
+     * (ví dụ nối check digit vào sau trường của nó).
+     */
+    public static long append(long partial, int index, int value) {
+        return partial + ((long) value << (SHIFT * (index % 3)));
+    }
+
+    /**
+     * Tổng có trọng số của partial khi trường bắt đầu tại vị trí phase trong chuỗi ghép.
+     */
+    public static int weighted(long partial, int phase) {
+        int s0 = (int) (partial & MASK);
+        int s1 = (int) ((partial >>> SHIFT) & MASK);
+        int s2 = (int) (partial >>> (2 * SHIFT));
+        switch (phase % 3) {
+            case 0: return 7 * s0 + 3 * s1 + s2;
+            case 1: return 3 * s0 + s1 + 7 * s2;
+            default: return s0 + 7 * s1 + 3 * s2;
+        }
+    }
+
+    public static int compute(char[] s, int off, int len) {
+        return weighted(partial(s, off, len), 0) % 10;
+    }
+
+    public static int compute(byte[] s, int off, int len) {
+        return weighted(partial(s, off, len), 0) % 10;
+    }
+
+    public static int compute(CharSequence s) {
+        int s0 = 0, s1 = 0, s2 = 0;
+        int len = s.length();
+        int i = 0;
+        int end3 = len - len % 3;
+        for (; i < end3; i += 3) {
+            s0 += value(s.charAt(i));
+            s1 += value(s.charAt(i + 1));
+            s2 += value(s.charAt(i + 2));
+        }
+        if (i < len) s0 += value(s.charAt(i++));
+        if (i < len) s1 += value(s.charAt(i));
+        return (7 * s0 + 3 * s1 + s2) % 10;
+    }
+
+    /** So tổng có trọng số với ký tự check digit; checkChar phải là '0'-'9'. */
+    public static boolean matches(int weightedSum, char checkChar) {
+        return checkChar >= '0' && checkChar <= '9' && weightedSum % 10 == checkChar - '0';
+    }
+
+    public static boolean isValid(char[] s, int off, int len, char checkChar) {
+        return matches(weighted(partial(s, off, len), 0), checkChar);
+    }
+
+    public static boolean isValid(byte[] s, int off, int len, byte checkChar) {
+        return matches(weighted(partial(s, off, len), 0), (char) (checkChar & 0xFF));
+    }
+
+    private static long pack(int s0, int s1, int s2) {
+        return s0 | ((long) s1 << SHIFT) | ((long) s2 << (2 * SHIFT));
+    }
+}
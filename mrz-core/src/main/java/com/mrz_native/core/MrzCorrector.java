@@ -0,0 +1,329 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzLayout.CharClass;
+import com.mrz_native.core.MrzLayout.Field;
+import com.mrz_native.core.MrzParser.MrzResult;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Sửa lỗi OCR (O/0, I/1, S/5...) theo từng trường khi không parse được MRZ trực tiếp.
+ *
+ * Mỗi vị trí được ép về lớp ký tự của trường (chữ -> số trong trường số, số -> chữ trong trường chữ).
+ * Trường chữ-số có check digit sai chỉ được sửa trong phạm vi của nó, thử lần lượt từng ký tự
+ * nhập nhằng, nên số lần thử tăng tuyến tính theo số ký tự nhập nhằng thay vì theo tổ hợp các map.
+ *
+ * Khi dòng OCR có độ tin cậy từng ký tự ({@link OcrLine#confidences}), vị trí kém tin cậy được thử
+ * trước, ký tự số kém tin cậy được thử với mọi chữ số khác và cặp vị trí kém tin cậy nhất được thử
+ * cùng lúc; dừng ở phương án đầu tiên thoả mọi check digit.
+ */
+public final class MrzCorrector {
+
+    private static final Logger LOG = Logger.getLogger("MRZ_CORRECTION");
+
+    // Ưu tiên TD3 (passport) trước, rồi TD1, TD2 như MrzCandidateFinder
+    private static final MrzLayout[] SEARCH_ORDER = {MrzLayout.TD3, MrzLayout.TD1, MrzLayout.TD2};
+
+    // chữ -> số cho vị trí chỉ chứa số
+    private static final char[] TO_DIGIT = new char[128];
+    // số -> chữ cho vị trí chỉ chứa chữ
+    private static final char[] TO_ALPHA = new char[128];
+    // các ký tự dễ nhầm với một ký tự ở vị trí chữ-số (ưu tiên theo thứ tự)
+    private static final char[][] ALTERNATES = new char[128][];
+    // các chữ số khác với một chữ số (cho vị trí số kém tin cậy)
+    private static final char[][] OTHER_DIGITS = new char[10][9];
+
+    // Dưới ngưỡng này một ký tự được coi là kém tin cậy
+    static final float LOW_CONFIDENCE = 0.75f;
+    // Số vị trí kém tin cậy nhất được thử theo cặp
+    private static final int PAIR_POSITIONS = 4;
+
+    static {
+        // các cặp nhầm lẫn cơ bản; chữ đầu tiên của mỗi số là chiều số -> chữ mặc định
+        confusion('O', '0'); confusion('Q', '0'); confusion('D', '0');
+        confusion('I', '1'); confusion('L', '1');
+        confusion('Z', '2'); confusion('S', '5'); confusion('G', '6');
+        confusion('T', '7'); confusion('B', '8');
+        for (int d = 0; d < 10; d++) {
+            for (int o = 0, k = 0; o < 10; o++) if (o != d) OTHER_DIGITS[d][k++] = (char) ('0' + o);
+        }
+    }
+
+    private static void confusion(char letter, char digit) {
+        TO_DIGIT[letter] = digit;
+        if (TO_ALPHA[digit] == 0) TO_ALPHA[digit] = letter;
+        ALTERNATES[letter] = new char[]{digit};
+        char[] prev = ALTERNATES[digit];
+        if (prev == null) {
+            ALTERNATES[digit] = new char[]{letter};
+        } else {
+            char[] next = new char[prev.length + 1];
+            System.arraycopy(prev, 0, next, 0, prev.length);
+            next[prev.length] = letter;
+            ALTERNATES[digit] = next;
+        }
+    }
+
+    private MrzCorrector() {}
+
+    // Bộ đệm dùng lại trong một lần sửa
+    private static final class Work {
+        final char[][] rows = new char[3][44];
+        final float[][] conf = new float[3][44];
+        boolean hasConfidence;
+        final MrzResult result = new MrzResult();
+        final Field[] failing = new Field[4];
+        final char[][] saved = new char[4][44];
+        final int[][] order = new int[4][44];
+        int attempts;
+        // Dòng ứng viên của lần sửa đang chạy
+        final List<OcrLine> candidates = new ArrayList<>();
+    }
+
+    // Mỗi luồng một bộ đệm: lần sửa không cấp phát gì ngoài kết quả
+    private static final ThreadLocal<Work> WORK = ThreadLocal.withInitial(Work::new);
+
+    public static ParsedMrz tryHeuristicCorrectionsMultiple(List<OcrLine> lines) {
+        Work w = WORK.get();
+        // bỏ dòng quá ngắn
+        List<OcrLine> candidates = w.candidates;
+        candidates.clear();
+        for (int i = 0; i < lines.size(); i++) {
+            OcrLine l = lines.get(i);
+            if (l.norm != null && l.norm.length() >= 10) candidates.add(l);
+        }
+        try {
+            return correctCandidates(candidates, w);
+        } finally {
+            candidates.clear();
+        }
+    }
+
+    private static ParsedMrz correctCandidates(List<OcrLine> candidates, Work w) {
+        for (MrzLayout layout : SEARCH_ORDER) {
+            for (int i = 0; i + layout.lineCount <= candidates.size(); i++) {
+                if (!layout.isWindowCandidate(candidates, i)) continue;
+                w.hasConfidence = false;
+                for (int r = 0; r < layout.lineCount; r++) {
+                    OcrLine l = candidates.get(i + r);
+                    load(l, w.rows[r], w.conf[r], layout.lineLength);
+                    w.hasConfidence |= l.confidences != null;
+                }
+                w.attempts = 0;
+                if (correct(layout, w.rows, w.result, w)) {
+                    LOG.fine("Field-aware correction succeeded: " + layout + " after " + w.attempts + " attempts");
+                    return w.result.toParsedMrz();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sửa rows (mỗi dòng đúng layout.lineLength ký tự, đã in hoa) tại chỗ.
+     * @return true nếu rows sau khi sửa parse được; kết quả nằm trong out
+     */
+    public static boolean correct(MrzLayout layout, char[][] rows, MrzResult out) {
+        return correct(layout, rows, null, out);
+    }
+
+    /**
+     * Như {@link #correct(MrzLayout, char[][], MrzResult)} với độ tin cậy từng vị trí
+     * (conf[dòng][vị trí], có thể null) để giải mã theo lattice.
+     */
+    public static boolean correct(MrzLayout layout, char[][] rows, float[][] conf, MrzResult out) {
+        Work w = WORK.get();
+        w.hasConfidence = conf != null;
+        for (int r = 0; r < layout.lineCount; r++) {
+            System.arraycopy(rows[r], 0, w.rows[r], 0, layout.lineLength);
+            if (conf != null) System.arraycopy(conf[r], 0, w.conf[r], 0, layout.lineLength);
+            else Arrays.fill(w.conf[r], 0, layout.lineLength, 0f);
+        }
+        w.attempts = 0;
+        if (!correct(layout, w.rows, out, w)) return false;
+        for (int r = 0; r < layout.lineCount; r++) {
+            System.arraycopy(w.rows[r], 0, rows[r], 0, layout.lineLength);
+        }
+        return true;
+    }
+
+    private static boolean correct(MrzLayout layout, char[][] rows, MrzResult out, Work w) {
+        coerce(layout, rows);
+        if (layout.parse(rows, out)) return true;
+
+        // Trường số (ngày tháng) sai sau khi ép kiểu chỉ còn sửa được nhờ độ tin cậy
+        int n = 0;
+        for (Field f : layout.fields()) {
+            if (!f.hasCheckDigit() || f.isValid(rows)) continue;
+            if (n == w.failing.length || (f.charClass == CharClass.DIGIT && !w.hasConfidence)) return false;
+            w.failing[n++] = f;
+        }
+        return repair(layout, rows, 0, n, out, w);
+    }
+
+    // Ép từng vị trí về lớp ký tự của trường
+    private static void coerce(MrzLayout layout, char[][] rows) {
+        for (int r = 0; r < layout.lineCount; r++) {
+            char[] row = rows[r];
+            for (int p = 0; p < layout.lineLength; p++) {
+                char c = row[p];
+                if (c >= 128) continue;
+                switch (layout.charClassAt(r, p)) {
+                    case DIGIT:
+                        if (TO_DIGIT[c] != 0) row[p] = TO_DIGIT[c];
+                        break;
+                    case ALPHA:
+                        if (TO_ALPHA[c] != 0) row[p] = TO_ALPHA[c];
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sửa lần lượt các trường có check digit sai. Với mỗi trường thử đổi một ký tự nhập nhằng
+     * (vị trí kém tin cậy trước), rồi cặp vị trí kém tin cậy nhất, rồi phương án đổi toàn bộ
+     * chữ -> số; phương án nào qua check digit của trường thì đi tiếp sang trường sau.
+     * Khoảng 1/10 phương án qua được check digit nên nhánh rẽ rất ít.
+     */
+    private static boolean repair(MrzLayout layout, char[][] rows, int idx, int n, MrzResult out, Work w) {
+        if (idx == n) return finish(layout, rows, out);
+
+        Field f = w.failing[idx];
+        char[] row = rows[f.line];
+        float[] conf = w.conf[f.line];
+        int[] order = w.order[idx];
+        int m = orderPositions(f, w, order);
+
+        // 1) đổi một ký tự
+        for (int k = 0; k < m; k++) {
+            int p = order[k];
+            char orig = row[p];
+            char[] alts = alternatives(layout.charClassAt(f.line, p), orig, conf[p], w);
+            if (alts == null) continue;
+            for (char alt : alts) {
+                row[p] = alt;
+                if (accept(layout, rows, f, idx, n, out, w)) return true;
+            }
+            row[p] = orig;
+        }
+
+        // 2) đổi cùng lúc hai vị trí kém tin cậy nhất
+        if (w.hasConfidence) {
+            int low = 0;
+            while (low < m && low < PAIR_POSITIONS && conf[order[low]] < LOW_CONFIDENCE) low++;
+            for (int a = 0; a < low; a++) {
+                int pa = order[a];
+                char origA = row[pa];
+                char[] altsA = alternatives(layout.charClassAt(f.line, pa), origA, conf[pa], w);
+                if (altsA == null) continue;
+                for (int b = a + 1; b < low; b++) {
+                    int pb = order[b];
+                    char origB = row[pb];
+                    char[] altsB = alternatives(layout.charClassAt(f.line, pb), origB, conf[pb], w);
+                    if (altsB == null) continue;
+                    for (char altA : altsA) {
+                        row[pa] = altA;
+                        for (char altB : altsB) {
+                            row[pb] = altB;
+                            if (accept(layout, rows, f, idx, n, out, w)) return true;
+                        }
+                    }
+                    row[pb] = origB;
+                }
+                row[pa] = origA;
+            }
+        }
+
+        // 3) Số giấy tờ thường gần như toàn số: thử đổi mọi chữ nhập nhằng -> số cùng lúc
+        if (f.charClass != CharClass.ALNUM) return false;
+        int end = f.start + f.length;
+        char[] saved = w.saved[idx];
+        System.arraycopy(row, f.start, saved, 0, f.length);
+        boolean changed = false;
+        for (int p = f.start; p < end; p++) {
+            char c = row[p];
+            if (c < 128 && TO_DIGIT[c] != 0) {
+                row[p] = TO_DIGIT[c];
+                changed = true;
+            }
+        }
+        if (changed && accept(layout, rows, f, idx, n, out, w)) return true;
+        System.arraycopy(saved, 0, row, f.start, f.length);
+        return false;
+    }
+
+    private static boolean accept(MrzLayout layout, char[][] rows, Field f, int idx, int n, MrzResult out, Work w) {
+        w.attempts++;
+        return f.isValid(rows) && repair(layout, rows, idx + 1, n, out, w);
+    }
+
+    // Các ký tự thay thế cho một vị trí thuộc lớp cls
+    private static char[] alternatives(CharClass cls, char c, float confidence, Work w) {
+        if (c >= 128) return null;
+        if (cls == CharClass.ALNUM) return ALTERNATES[c];
+        // vị trí chỉ chứa số: chỉ nghi ngờ khi OCR báo kém tin cậy
+        if (w.hasConfidence && confidence < LOW_CONFIDENCE && c >= '0' && c <= '9') return OTHER_DIGITS[c - '0'];
+        return null;
+    }
+
+    // Các vị trí của trường, sắp theo độ tin cậy tăng dần khi có (ổn định theo vị trí).
+    // Khi có độ tin cậy, chính check digit (cùng dòng với trường) cũng là một vị trí cần nghi ngờ.
+    private static int orderPositions(Field f, Work w, int[] order) {
+        int m = f.length;
+        for (int k = 0; k < m; k++) order[k] = f.start + k;
+        if (!w.hasConfidence) return m;
+        if (f.checkLine == f.line) order[m++] = f.checkPos;
+        float[] conf = w.conf[f.line];
+        for (int k = 1; k < m; k++) {
+            int p = order[k];
+            int j = k - 1;
+            while (j >= 0 && conf[order[j]] > conf[p]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = p;
+        }
+        return m;
+    }
+
+    // Mọi trường đã qua check digit riêng; nếu composite vẫn sai thì thử một ký tự
+    // trong các trường chữ-số không được check digit riêng bảo vệ
+    private static boolean finish(MrzLayout layout, char[][] rows, MrzResult out) {
+        if (layout.parse(rows, out)) return true;
+        for (Field f : layout.fields()) {
+            if (f.charClass != CharClass.ALNUM) continue;
+            if (f.hasCheckDigit() && !(f.fillerCheckAllowed && rows[f.checkLine][f.checkPos] == '<')) continue;
+            char[] row = rows[f.line];
+            for (int p = f.start; p < f.start + f.length; p++) {
+                char orig = row[p];
+                char[] alts = orig < 128 ? ALTERNATES[orig] : null;
+                if (alts == null) continue;
+                for (char alt : alts) {
+                    row[p] = alt;
+                    if (layout.parse(rows, out)) return true;
+                }
+                row[p] = orig;
+            }
+        }
+        return false;
+    }
+
+    // Sao chép vào dòng độ dài cố định, cắt hoặc pad '<' (ký tự pad có độ tin cậy 0)
+    static void load(OcrLine l, char[] row, float[] conf, int len) {
+        String s = l.norm;
+        int n = Math.min(s.length(), len);
+        s.getChars(0, n, row, 0);
+        for (int i = 0; i < n; i++) conf[i] = l.confidenceAt(i);
+        for (int i = n; i < len; i++) {
+            row[i] = '<';
+            conf[i] = 0f;
+        }
+    }
+}
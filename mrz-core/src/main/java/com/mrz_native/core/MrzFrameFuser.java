@@ -0,0 +1,254 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.MrzResult;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hợp nhất nhiều frame liên tiếp bằng bỏ phiếu theo từng vị trí ký tự.
+ *
+ * Với mỗi loại MRZ, mỗi frame góp các dòng ứng viên tốt nhất của nó vào histogram [dòng][vị trí][ký tự],
+ * trọng số là độ tin cậy OCR của ký tự. Dòng hợp nhất lấy ký tự nhiều phiếu nhất ở từng vị trí;
+ * khi dòng hợp nhất (sau khi sửa lỗi nếu cần) qua mọi check digit thì có kết quả.
+ * Các frame chỉ đúng một phần vì thế vẫn cộng dồn được thành kết quả.
+ *
+ * Không thread-safe: gọi từ một luồng xử lý frame.
+ */
+public class MrzFrameFuser {
+
+    public static final int DEFAULT_WINDOW = 6;
+
+    // A-Z, 0-9, '<'
+    private static final int SYMBOLS = 37;
+    // Frame được tính là ủng hộ kết quả khi khớp ít nhất tỉ lệ này số vị trí
+    private static final float SUPPORT_MATCH = 0.9f;
+
+    public static final class Result {
+        public final ParsedMrz mrz;
+        public final MrzLayout layout;
+        /** Số frame trong cửa sổ khớp với dòng hợp nhất. */
+        public final int support;
+        /** Dòng hợp nhất phải qua bộ sửa lỗi mới parse được. */
+        public final boolean corrected;
+
+        Result(ParsedMrz mrz, MrzLayout layout, int support, boolean corrected) {
+            this.mrz = mrz;
+            this.layout = layout;
+            this.support = support;
+            this.corrected = corrected;
+        }
+    }
+
+    // Histogram và các frame gần nhất của một loại MRZ
+    private static final class Track {
+        final MrzLayout layout;
+        final int size;
+        final float[] votes;
+        // Đóng góp của từng frame trong cửa sổ để trừ ra khi frame rời cửa sổ
+        final char[][] frameChars;
+        final float[][] frameWeights;
+        final boolean[] present;
+        int frames;
+        final char[][] fused;
+        final float[][] fusedConf;
+
+        Track(MrzLayout layout, int window) {
+            this.layout = layout;
+            this.size = layout.lineCount * layout.lineLength;
+            this.votes = new float[size * SYMBOLS];
+            this.frameChars = new char[window][size];
+            this.frameWeights = new float[window][size];
+            this.present = new boolean[window];
+            this.fused = new char[layout.lineCount][layout.lineLength];
+            this.fusedConf = new float[layout.lineCount][layout.lineLength];
+        }
+
+        // Bỏ frame khỏi cửa sổ rồi dựng lại histogram từ các frame còn lại:
+        // cộng/trừ số thực liên tục sẽ để lại phiếu lẻ ở vị trí không còn frame nào đọc
+        void evict(int slot) {
+            if (!present[slot]) return;
+            present[slot] = false;
+            frames--;
+            Arrays.fill(votes, 0f);
+            for (int f = 0; f < present.length; f++) {
+                if (present[f]) vote(f);
+            }
+        }
+
+        private void vote(int slot) {
+            char[] chars = frameChars[slot];
+            float[] weights = frameWeights[slot];
+            for (int i = 0; i < size; i++) {
+                int s = symbolIndex(chars[i]);
+                if (s >= 0) votes[i * SYMBOLS + s] += weights[i];
+            }
+        }
+
+        void add(int slot, List<OcrLine> lines, int first) {
+            char[] chars = frameChars[slot];
+            float[] weights = frameWeights[slot];
+            int len = layout.lineLength;
+            for (int r = 0; r < layout.lineCount; r++) {
+                OcrLine l = lines.get(first + r);
+                int n = Math.min(l.norm.length(), len);
+                for (int p = 0; p < len; p++) {
+                    int i = r * len + p;
+                    // Vị trí OCR không đọc tới không bỏ phiếu
+                    chars[i] = p < n ? l.norm.charAt(p) : '<';
+                    weights[i] = p < n ? l.confidenceAt(p) : 0f;
+                }
+            }
+            vote(slot);
+            present[slot] = true;
+            frames++;
+        }
+
+        // Ký tự nhiều phiếu nhất ở từng vị trí; độ tin cậy = tỉ lệ phiếu của ký tự đó
+        void fuse() {
+            int len = layout.lineLength;
+            for (int i = 0; i < size; i++) {
+                int base = i * SYMBOLS;
+                int best = SYMBOLS - 1;
+                float bestVotes = 0f;
+                float total = 0f;
+                for (int s = 0; s < SYMBOLS; s++) {
+                    float v = votes[base + s];
+                    total += v;
+                    if (v > bestVotes) {
+                        bestVotes = v;
+                        best = s;
+                    }
+                }
+                fused[i / len][i % len] = symbolChar(best);
+                fusedConf[i / len][i % len] = total > 0f ? bestVotes / total : 0f;
+            }
+        }
+
+        int support() {
+            int len = layout.lineLength;
+            int need = (int) Math.ceil(size * SUPPORT_MATCH);
+            int count = 0;
+            for (int f = 0; f < present.length; f++) {
+                if (!present[f]) continue;
+                char[] chars = frameChars[f];
+                int match = 0;
+                for (int i = 0; i < size; i++) {
+                    if (chars[i] == fused[i / len][i % len]) match++;
+                }
+                if (match >= need) count++;
+            }
+            return count;
+        }
+    }
+
+    private final int window;
+    private final Track[] tracks;
+    private final MrzResult result = new MrzResult();
+    // Dòng ứng viên của frame đang xử lý, dùng lại giữa các frame
+    private final List<OcrLine> candidates = new ArrayList<>();
+    private long frameSeq;
+
+    public MrzFrameFuser() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public MrzFrameFuser(int window) {
+        if (window < 1) throw new IllegalArgumentException("window must be >= 1");
+        this.window = window;
+        // Ưu tiên TD3 (passport) trước, rồi TD1, TD2 như MrzCandidateFinder
+        this.tracks = new Track[]{
+                new Track(MrzLayout.TD3, window),
+                new Track(MrzLayout.TD1, window),
+                new Track(MrzLayout.TD2, window)
+        };
+    }
+
+    /**
+     * Thêm các dòng OCR của một frame và thử hợp nhất.
+     * @return kết quả từ các dòng hợp nhất, hoặc null nếu chưa qua được check digit
+     */
+    public Result addFrame(List<OcrLine> lines) {
+        return addFrame(lines, true);
+    }
+
+    /**
+     * Như {@link #addFrame(List)}; correct = false chỉ parse dòng hợp nhất, không chạy MrzCorrector.
+     * Dùng khi frame đã quét trực tiếp ra MRZ: frame vẫn góp phiếu và tính support,
+     * không tốn thêm một lượt sửa lỗi.
+     */
+    public Result addFrame(List<OcrLine> lines, boolean correct) {
+        int slot = (int) (frameSeq++ % window);
+
+        List<OcrLine> candidates = this.candidates;
+        candidates.clear();
+        for (int i = 0; i < lines.size(); i++) {
+            OcrLine l = lines.get(i);
+            if (l.norm != null && l.norm.length() >= 10) candidates.add(l);
+        }
+        // Sắp xếp theo vị trí dọc để tăng khả năng gom đúng dòng MRZ
+        candidates.sort(MrzScanner.BY_CENTER_Y);
+
+        for (Track t : tracks) {
+            t.evict(slot);
+            int first = bestWindow(t.layout, candidates);
+            if (first >= 0) t.add(slot, candidates, first);
+        }
+
+        for (Track t : tracks) {
+            if (t.frames == 0) continue;
+            t.fuse();
+            boolean corrected = false;
+            if (!t.layout.parse(t.fused, result)) {
+                if (!correct || !MrzCorrector.correct(t.layout, t.fused, t.fusedConf, result)) continue;
+                corrected = true;
+            }
+            candidates.clear();
+            return new Result(result.toParsedMrz(), t.layout, t.support(), corrected);
+        }
+        candidates.clear();
+        return null;
+    }
+
+    public void reset() {
+        for (Track t : tracks) {
+            Arrays.fill(t.present, false);
+            Arrays.fill(t.votes, 0f);
+            t.frames = 0;
+        }
+        frameSeq = 0;
+    }
+
+    // Cửa sổ dòng ứng viên có độ dài gần với layout nhất; -1 nếu không có
+    private static int bestWindow(MrzLayout layout, List<OcrLine> lines) {
+        int best = -1;
+        int bestCost = Integer.MAX_VALUE;
+        for (int i = 0; i + layout.lineCount <= lines.size(); i++) {
+            if (!layout.isWindowCandidate(lines, i)) continue;
+            int cost = 0;
+            for (int r = 0; r < layout.lineCount; r++) {
+                cost += Math.abs(lines.get(i + r).norm.length() - layout.lineLength);
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static int symbolIndex(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= '0' && c <= '9') return 26 + (c - '0');
+        if (c == '<') return 36;
+        return -1;
+    }
+
+    private static char symbolChar(int s) {
+        if (s < 26) return (char) ('A' + s);
+        if (s < 36) return (char) ('0' + (s - 26));
+        return '<';
+    }
+}
@@ -0,0 +1,196 @@
+package com.mrz_native.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Quyết định khi nào cho frame tiếp theo vào OCR, thay cho khoảng cách cố định.
+ *
+ * Dựa trên hai đo đạc:
+ * - trung bình trượt (EMA) độ trễ OCR: khoảng cách cơ bản = latency / số yêu cầu song song,
+ *   nên máy chậm không dồn frame rồi bỏ, máy nhanh không phải chờ vô ích;
+ * - độ thay đổi luma giữa các frame trong vùng MRZ (lưới GRID_COLS x GRID_ROWS ô trung bình).
+ *
+ * Khi giấy tờ đang được di chuyển: quét với khoảng cơ bản. Vừa dừng chuyển động: cho vào ngay.
+ * Cảnh đứng yên mà các frame liên tiếp không ra MRZ: giãn khoảng cách theo cấp số nhân tới MAX_INTERVAL_MS.
+ *
+ * Thread-safe: đo luma/quyết định trên luồng analyzer, báo độ trễ/kết quả từ luồng xử lý.
+ */
+public final class MrzFrameScheduler {
+
+    public static final long MIN_INTERVAL_MS = 40;
+    public static final long MAX_INTERVAL_MS = 1000;
+    // Độ thay đổi luma trung bình (0..1) coi là đang chuyển động
+    public static final float MOTION_THRESHOLD = 0.04f;
+
+    private static final float LATENCY_ALPHA = 0.2f;
+    private static final long INITIAL_LATENCY_MS = 150;
+    private static final int MAX_BACKOFF_SHIFT = 4;
+    private static final int GRID_COLS = 16;
+    private static final int GRID_ROWS = 4;
+    // Lấy mẫu thưa trong mỗi ô: đủ cho so sánh độ sáng, rẻ trên ảnh 1080p
+    private static final int SAMPLE_STEP = 4;
+
+    public enum Reason {
+        /** Chưa tới thời điểm cho vào. */
+        WAIT,
+        /** Đang chuyển động: quét với khoảng cơ bản. */
+        MOTION,
+        /** Chuyển động vừa dừng: cho vào ngay. */
+        SETTLED,
+        /** Đứng yên, chưa thất bại: khoảng cơ bản. */
+        STATIC,
+        /** Đứng yên và đã thất bại liên tiếp: đã giãn khoảng cách. */
+        BACKOFF
+    }
+
+    /** Một quyết định, để đo đạc/ghi log. */
+    public static final class Decision {
+        public final boolean admit;
+        public final Reason reason;
+        public final long intervalMs;
+        public final float change;
+        public final float latencyMs;
+        public final int failures;
+
+        Decision(boolean admit, Reason reason, long intervalMs, float change, float latencyMs, int failures) {
+            this.admit = admit;
+            this.reason = reason;
+            this.intervalMs = intervalMs;
+            this.change = change;
+            this.latencyMs = latencyMs;
+            this.failures = failures;
+        }
+
+        @Override
+        public String toString() {
+            return (admit ? "admit " : "skip ") + reason + " interval=" + intervalMs + "ms change="
+                    + String.format("%.3f", change) + " latency=" + Math.round(latencyMs) + "ms failures=" + failures;
+        }
+    }
+
+    public interface Listener {
+        void onDecision(Decision decision);
+    }
+
+    private final int maxInFlight;
+    private final float[] signature = new float[GRID_COLS * GRID_ROWS];
+    private boolean hasSignature;
+    private float change;
+    private boolean moving;
+    private boolean settled;
+
+    private float latencyEma = INITIAL_LATENCY_MS;
+    private int failures;
+    private long lastAdmit = Long.MIN_VALUE / 2;
+    private volatile Listener listener;
+
+    public MrzFrameScheduler(int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be >= 1");
+        this.maxInFlight = maxInFlight;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Cập nhật chữ ký luma từ mặt phẳng Y trong vùng [left, right) x [top, bottom).
+     * @return độ thay đổi trung bình (0..1) so với frame trước
+     */
+    public synchronized float updateLuma(ByteBuffer y, int rowStride, int pixelStride,
+                                         int left, int top, int right, int bottom) {
+        int w = right - left;
+        int h = bottom - top;
+        if (w < GRID_COLS || h < GRID_ROWS) return change;
+        float diff = 0f;
+        for (int gy = 0; gy < GRID_ROWS; gy++) {
+            int y0 = top + gy * h / GRID_ROWS;
+            int y1 = top + (gy + 1) * h / GRID_ROWS;
+            for (int gx = 0; gx < GRID_COLS; gx++) {
+                int x0 = left + gx * w / GRID_COLS;
+                int x1 = left + (gx + 1) * w / GRID_COLS;
+                int sum = 0;
+                int n = 0;
+                for (int yy = y0; yy < y1; yy += SAMPLE_STEP) {
+                    int row = yy * rowStride;
+                    for (int xx = x0; xx < x1; xx += SAMPLE_STEP) {
+                        sum += y.get(row + xx * pixelStride) & 0xFF;
+                        n++;
+                    }
+                }
+                float mean = n == 0 ? 0f : sum / (255f * n);
+                int cell = gy * GRID_COLS + gx;
+                diff += Math.abs(mean - signature[cell]);
+                signature[cell] = mean;
+            }
+        }
+        float c = hasSignature ? diff / signature.length : 1f;
+        hasSignature = true;
+        return updateChange(c);
+    }
+
+    // Tách riêng để test không cần ảnh
+    synchronized float updateChange(float c) {
+        boolean nowMoving = c >= MOTION_THRESHOLD;
+        if (nowMoving) failures = 0;
+        // Vừa chuyển từ di chuyển sang đứng yên
+        if (moving && !nowMoving) settled = true;
+        moving = nowMoving;
+        change = c;
+        return c;
+    }
+
+    /**
+     * Có cho frame tại thời điểm nowMs vào OCR không.
+     * @param inFlight số yêu cầu OCR đang chạy; đủ maxInFlight thì không cho vào
+     */
+    public Decision decide(long nowMs, int inFlight) {
+        Decision d;
+        synchronized (this) {
+            long base = Math.max(MIN_INTERVAL_MS, (long) (latencyEma / maxInFlight));
+            long interval;
+            Reason reason;
+            if (settled) {
+                interval = 0;
+                reason = Reason.SETTLED;
+            } else if (moving) {
+                interval = base;
+                reason = Reason.MOTION;
+            } else if (failures > 0) {
+                interval = Math.min(MAX_INTERVAL_MS, base << Math.min(failures, MAX_BACKOFF_SHIFT));
+                reason = Reason.BACKOFF;
+            } else {
+                interval = base;
+                reason = Reason.STATIC;
+            }
+            boolean admit = inFlight < maxInFlight && nowMs - lastAdmit >= interval;
+            if (admit) {
+                lastAdmit = nowMs;
+                settled = false;
+            }
+            d = new Decision(admit, admit ? reason : Reason.WAIT, interval, change, latencyEma, failures);
+        }
+        Listener l = listener;
+        if (l != null) l.onDecision(d);
+        return d;
+    }
+
+    /** Độ trễ một yêu cầu OCR (từ lúc gửi tới lúc có text). */
+    public synchronized void onOcrLatency(long latencyMs) {
+        latencyEma += LATENCY_ALPHA * (latencyMs - latencyEma);
+    }
+
+    /** Kết quả của một frame đã OCR: found = tìm được MRZ. */
+    public synchronized void onResult(boolean found) {
+        if (found) failures = 0;
+        else if (!moving) failures++;
+    }
+
+    public synchronized void reset() {
+        failures = 0;
+        hasSignature = false;
+        moving = false;
+        settled = false;
+        lastAdmit = Long.MIN_VALUE / 2;
+    }
+}
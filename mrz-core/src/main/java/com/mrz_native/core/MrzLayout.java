@@ -0,0 +1,149 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.MrzResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bố cục cố định của các loại MRZ theo ICAO 9303: số dòng, độ dài dòng và vị trí từng trường
+ * cùng lớp ký tự (chữ / số / cả hai) và vị trí check digit của trường.
+ * Offset khớp với MrzParser.
+ */
+public enum MrzLayout {
+    TD1(3, 30,
+            field("documentType", 0, 0, 2, CharClass.ALPHA),
+            field("issuingCountry", 0, 2, 3, CharClass.ALPHA),
+            checked("documentNumber", 0, 5, 9, CharClass.ALNUM, 0, 14, false),
+            field("optional1", 0, 15, 15, CharClass.ALNUM),
+            checked("dob", 1, 0, 6, CharClass.DIGIT, 1, 6, false),
+            field("gender", 1, 7, 1, CharClass.ALPHA),
+            checked("expiryDate", 1, 8, 6, CharClass.DIGIT, 1, 14, false),
+            field("nationality", 1, 15, 3, CharClass.ALPHA),
+            field("optional2", 1, 18, 11, CharClass.ALNUM),
+            field("composite", 1, 29, 1, CharClass.DIGIT),
+            field("name", 2, 0, 30, CharClass.ALPHA)),
+    TD2(2, 36,
+            field("documentType", 0, 0, 2, CharClass.ALPHA),
+            field("issuingCountry", 0, 2, 3, CharClass.ALPHA),
+            field("name", 0, 5, 31, CharClass.ALPHA),
+            checked("documentNumber", 1, 0, 9, CharClass.ALNUM, 1, 9, false),
+            field("nationality", 1, 10, 3, CharClass.ALPHA),
+            checked("dob", 1, 13, 6, CharClass.DIGIT, 1, 19, false),
+            field("gender", 1, 20, 1, CharClass.ALPHA),
+            checked("expiryDate", 1, 21, 6, CharClass.DIGIT, 1, 27, false),
+            checked("personalNumber", 1, 28, 7, CharClass.ALNUM, 1, 35, true)),
+    TD3(2, 44,
+            field("documentType", 0, 0, 2, CharClass.ALPHA),
+            field("issuingCountry", 0, 2, 3, CharClass.ALPHA),
+            field("name", 0, 5, 39, CharClass.ALPHA),
+            checked("documentNumber", 1, 0, 9, CharClass.ALNUM, 1, 9, false),
+            field("nationality", 1, 10, 3, CharClass.ALPHA),
+            checked("dob", 1, 13, 6, CharClass.DIGIT, 1, 19, false),
+            field("gender", 1, 20, 1, CharClass.ALPHA),
+            checked("expiryDate", 1, 21, 6, CharClass.DIGIT, 1, 27, false),
+            checked("personalNumber", 1, 28, 14, CharClass.ALNUM, 1, 42, true),
+            field("composite", 1, 43, 1, CharClass.DIGIT));
+
+    /** Lớp ký tự hợp lệ của một vị trí (ngoài '<'). */
+    public enum CharClass { ALPHA, DIGIT, ALNUM }
+
+    public static final class Field {
+        public final String name;
+        public final int line;
+        public final int start;
+        public final int length;
+        public final CharClass charClass;
+        /** Vị trí check digit của trường, -1 nếu trường không có check digit riêng. */
+        public final int checkLine;
+        public final int checkPos;
+        /** Check digit được phép là '<' (personal number để trống). */
+        public final boolean fillerCheckAllowed;
+
+        Field(String name, int line, int start, int length, CharClass charClass,
+              int checkLine, int checkPos, boolean fillerCheckAllowed) {
+            this.name = name;
+            this.line = line;
+            this.start = start;
+            this.length = length;
+            this.charClass = charClass;
+            this.checkLine = checkLine;
+            this.checkPos = checkPos;
+            this.fillerCheckAllowed = fillerCheckAllowed;
+        }
+
+        public boolean hasCheckDigit() { return checkPos >= 0; }
+
+        /** Check digit của trường có khớp trên rows không. */
+        public boolean isValid(char[][] rows) {
+            char check = rows[checkLine][checkPos];
+            if (fillerCheckAllowed && check == '<') return true;
+            return MrzCheckDigit.isValid(rows[line], start, length, check);
+        }
+
+        /** Như {@link #isValid(char[][])} trên các dòng byte ASCII đã in hoa. */
+        public boolean isValid(byte[][] rows) {
+            byte check = rows[checkLine][checkPos];
+            if (fillerCheckAllowed && check == '<') return true;
+            return MrzCheckDigit.isValid(rows[line], start, length, check);
+        }
+    }
+
+    public final int lineCount;
+    public final int lineLength;
+    private final List<Field> fields;
+    // Lớp ký tự theo [dòng][vị trí]; check digit là DIGIT
+    private final CharClass[][] classes;
+
+    MrzLayout(int lineCount, int lineLength, Field... fields) {
+        this.lineCount = lineCount;
+        this.lineLength = lineLength;
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+        this.classes = new CharClass[lineCount][lineLength];
+        for (CharClass[] row : classes) Arrays.fill(row, CharClass.ALNUM);
+        for (Field f : fields) {
+            Arrays.fill(classes[f.line], f.start, f.start + f.length, f.charClass);
+            if (f.hasCheckDigit()) classes[f.checkLine][f.checkPos] = CharClass.DIGIT;
+        }
+    }
+
+    public List<Field> fields() { return fields; }
+
+    public CharClass charClassAt(int line, int pos) { return classes[line][pos]; }
+
+    /**
+     * Parse rows (mỗi dòng đúng lineLength ký tự, đã in hoa) bằng MrzParser tương ứng.
+     */
+    public boolean parse(char[][] rows, MrzResult out) {
+        switch (this) {
+            case TD1: return MrzParser.parseTD1(rows[0], 0, rows[1], 0, rows[2], 0, out);
+            case TD2: return MrzParser.parseTD2(rows[0], 0, rows[1], 0, out);
+            default: return MrzParser.parseTD3(rows[0], 0, rows[1], 0, out);
+        }
+    }
+
+    /**
+     * Các dòng lines[i, i+lineCount) có thể là MRZ loại này không: đều giống dòng MRZ và độ dài xấp xỉ.
+     */
+    boolean isWindowCandidate(List<OcrLine> lines, int i) {
+        for (int r = 0; r < lineCount; r++) {
+            OcrLine l = lines.get(i + r);
+            if (!l.looksLikeMrz()) return false;
+            String s = l.norm;
+            // TD3 cho phép dòng ngắn (OCR cắt bớt) như lượt fallback của MrzCandidateFinder
+            boolean lengthOk = this == TD3 ? s.length() >= 20 : MrzLines.isLengthApprox(s, lineLength);
+            if (!lengthOk) return false;
+        }
+        return true;
+    }
+
+    private static Field field(String name, int line, int start, int length, CharClass cls) {
+        return new Field(name, line, start, length, cls, -1, -1, false);
+    }
+
+    private static Field checked(String name, int line, int start, int length, CharClass cls,
+                                 int checkLine, int checkPos, boolean fillerCheckAllowed) {
+        return new Field(name, line, start, length, cls, checkLine, checkPos, fillerCheckAllowed);
+    }
+}
@@ -0,0 +1,347 @@
+package com.mrz_native.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ghép lại các dòng MRZ theo hình học trước khi quét: OCR hay tách một hàng MRZ thành nhiều dòng
+ * (thường ở một dải '<' dài) hoặc gộp hai, ba hàng thành một dòng.
+ *
+ * Các dòng có bounding box được gom thành hàng theo độ chồng dọc (>= ROW_OVERLAP chiều cao dòng thấp hơn)
+ * khi không chồng nhau theo chiều ngang, rồi nối trái sang phải. Chữ OCR-B có bước cố định: bước ký tự
+ * (trung vị của các dòng, ưu tiên toạ độ từng ký tự) cho biết số ô trống giữa hai mảnh, giữa hai ký tự
+ * của một mảnh và từ cuối hàng tới biên phải của dải MRZ; các ô này được điền '<' (độ tin cậy
+ * FILLER_CONFIDENCE). Hàng không có '<' lẫn chữ số (chữ vùng VIZ) hoặc sau khi điền dài hơn mọi loại MRZ
+ * thì chỉ nối, không điền.
+ * Dòng dài gần đúng k lần độ dài một loại MRZ (k = 2, 3) được chia lại thành k hàng.
+ *
+ * Hàng không đổi giữ nguyên OcrLine gốc; hàng ghép lấy OcrLine từ một {@link OcrFrame} riêng, nên kết quả
+ * chỉ hợp lệ tới lần gọi sau. Dòng không có box (và dòng có box nhưng norm rỗng: không có ký tự nào để
+ * ghép hay đo bước) đứng sau các hàng, như cũ. Không có dòng nào có box thì trả lại nguyên danh sách vào.
+ *
+ * Không thread-safe: dùng trên một luồng xử lý.
+ */
+public final class MrzLineAssembler {
+
+    // Hai dòng cùng hàng khi phần chồng dọc >= tỉ lệ này của chiều cao dòng thấp hơn
+    private static final float ROW_OVERLAP = 0.5f;
+    // Hai mảnh cùng hàng được chồng ngang tối đa tỉ lệ này của bước ký tự
+    private static final float MAX_X_OVERLAP = 1f;
+    // Dòng đủ dài để ước lượng bước ký tự / để coi là một hàng MRZ khi tìm biên phải của dải
+    private static final int MIN_PITCH_CHARS = 10;
+    private static final int MIN_ROW_CHARS = 20;
+    // Hàng dài nhất có thể (TD3, dung sai như MrzLines.isLengthApprox)
+    private static final int MAX_ROW_LENGTH = 44 + 3;
+    // Dòng gộp: độ dài lệch tối đa so với k lần độ dài layout
+    private static final int MERGE_TOLERANCE = 3;
+    private static final int[] ROW_LENGTHS = {44, 36, 30};
+    static final float FILLER_CONFIDENCE = 0.5f;
+
+    private final OcrFrame frame = new OcrFrame();
+    private final List<OcrLine> out = new ArrayList<>();
+    private int[] order = new int[32];
+    private int[] rowEnd = new int[32];
+    private float[] pitches = new float[32];
+    private float[] steps = new float[64];
+    private int rows;
+    private float pitch;
+    private int bandRight;
+
+    /**
+     * @return các hàng đã ghép theo thứ tự từ trên xuống, rồi các dòng không có box
+     */
+    public List<OcrLine> assemble(List<OcrLine> lines) {
+        int n = lines.size();
+        if (order.length < n) {
+            order = new int[n * 2];
+            rowEnd = new int[n * 2];
+            pitches = new float[n * 2];
+        }
+        int boxed = 0;
+        for (int i = 0; i < n; i++) {
+            if (isPlaced(lines.get(i))) order[boxed++] = i;
+        }
+        if (boxed == 0) return lines;
+        pitch = estimatePitch(lines, boxed);
+        if (pitch <= 0f) return lines;
+
+        frame.begin();
+        out.clear();
+        sortByCenterY(lines, boxed);
+        groupRows(lines, boxed);
+        findBandRight(lines);
+        for (int r = 0, start = 0; r < rows; r++) {
+            sortByLeft(lines, start, rowEnd[r]);
+            emitRow(lines, start, rowEnd[r]);
+            start = rowEnd[r];
+        }
+        for (int i = 0; i < n; i++) {
+            OcrLine l = lines.get(i);
+            if (!isPlaced(l)) out.add(l);
+        }
+        return out;
+    }
+
+    /** Bước ký tự (px) ước lượng ở lần {@link #assemble} gần nhất. */
+    public float pitch() { return pitch; }
+
+    // Dòng được xếp vào hàng theo hình học: có box và có ít nhất một ký tự MRZ
+    private static boolean isPlaced(OcrLine l) {
+        return l.right > l.left && l.bottom > l.top && l.norm.length() > 0;
+    }
+
+    // Trung vị bước ký tự của các dòng đủ dài (dòng ngắn nếu không có)
+    private float estimatePitch(List<OcrLine> lines, int boxed) {
+        int m = 0;
+        for (int minChars = MIN_PITCH_CHARS; minChars >= 3 && m == 0; minChars -= 7) {
+            for (int k = 0; k < boxed; k++) {
+                OcrLine l = lines.get(order[k]);
+                int len = l.norm.length();
+                if (len < minChars) continue;
+                float p = hasCharBoxes(l, len) ? charPitch(l, len) : (l.right - l.left) / (float) len;
+                if (p > 0f) pitches[m++] = p;
+            }
+        }
+        return m == 0 ? 0f : median(pitches, m);
+    }
+
+    // Trung vị khoảng cách giữa hai ký tự kề nhau: không bị kéo lệch bởi các ô trống trong dòng
+    private float charPitch(OcrLine l, int len) {
+        if (steps.length < len) steps = new float[len * 2];
+        int m = 0;
+        for (int i = 1; i < len; i++) {
+            int d = l.charLeft[i] - l.charLeft[i - 1];
+            if (d > 0) steps[m++] = d;
+        }
+        return m == 0 ? 0f : median(steps, m);
+    }
+
+    // Trung vị dưới của a[0, m), sắp chèn tại chỗ
+    private static float median(float[] a, int m) {
+        for (int i = 1; i < m; i++) {
+            float v = a[i];
+            int j = i - 1;
+            while (j >= 0 && a[j] > v) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = v;
+        }
+        return a[(m - 1) / 2];
+    }
+
+    // Toạ độ từng ký tự có nghĩa (ký tự cuối nằm bên phải ký tự đầu)
+    private static boolean hasCharBoxes(OcrLine l, int len) {
+        return l.charLeft != null && len > 1 && l.charLeft[len - 1] > l.charLeft[0];
+    }
+
+    private void sortByCenterY(List<OcrLine> lines, int count) {
+        for (int i = 1; i < count; i++) {
+            int v = order[i];
+            float c = lines.get(v).centerY();
+            int j = i - 1;
+            while (j >= 0 && lines.get(order[j]).centerY() > c) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = v;
+        }
+    }
+
+    private void sortByLeft(List<OcrLine> lines, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int v = order[i];
+            int x = lines.get(v).left;
+            int j = i - 1;
+            while (j >= from && lines.get(order[j]).left > x) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = v;
+        }
+    }
+
+    // Hàng là các đoạn liên tiếp của order (đã sắp theo tâm dọc)
+    private void groupRows(List<OcrLine> lines, int count) {
+        rows = 0;
+        int start = 0;
+        int top = 0, bottom = 0;
+        for (int k = 0; k < count; k++) {
+            OcrLine l = lines.get(order[k]);
+            if (k > start && sameRow(lines, start, k, l, top, bottom)) {
+                top = Math.min(top, l.top);
+                bottom = Math.max(bottom, l.bottom);
+                continue;
+            }
+            if (k > 0) rowEnd[rows++] = k;
+            start = k;
+            top = l.top;
+            bottom = l.bottom;
+        }
+        rowEnd[rows++] = count;
+    }
+
+    private boolean sameRow(List<OcrLine> lines, int start, int k, OcrLine l, int top, int bottom) {
+        int overlap = Math.min(bottom, l.bottom) - Math.max(top, l.top);
+        int minHeight = Math.min(bottom - top, l.bottom - l.top);
+        if (overlap < minHeight * ROW_OVERLAP) return false;
+        for (int i = start; i < k; i++) {
+            OcrLine o = lines.get(order[i]);
+            if (Math.min(o.right, l.right) - Math.max(o.left, l.left) > pitch * MAX_X_OVERLAP) return false;
+        }
+        return true;
+    }
+
+    // Biên phải của dải MRZ: biên phải xa nhất của các hàng đủ dài giống MRZ
+    private void findBandRight(List<OcrLine> lines) {
+        bandRight = Integer.MIN_VALUE;
+        for (int r = 0, start = 0; r < rows; r++) {
+            int chars = 0, chevrons = 0, digits = 0, right = Integer.MIN_VALUE;
+            for (int k = start; k < rowEnd[r]; k++) {
+                OcrLine l = lines.get(order[k]);
+                chars += l.norm.length();
+                chevrons += l.chevrons;
+                digits += l.digits;
+                right = Math.max(right, l.right);
+            }
+            if (chars >= MIN_ROW_CHARS && chars <= MAX_ROW_LENGTH && isMrzLike(chars, chevrons, digits)) {
+                bandRight = Math.max(bandRight, right);
+            }
+            start = rowEnd[r];
+        }
+    }
+
+    private void emitRow(List<OcrLine> lines, int from, int to) {
+        OcrLine first = lines.get(order[from]);
+        if (to - from == 1 && splitMerged(first)) return;
+
+        int chars = 0;
+        int chevrons = 0;
+        int digits = 0;
+        int fillers = 0;
+        for (int k = from; k < to; k++) {
+            OcrLine l = lines.get(order[k]);
+            chars += l.norm.length();
+            chevrons += l.chevrons;
+            digits += l.digits;
+            fillers += innerGaps(l, null);
+            if (k > from) fillers += gapCells(lines.get(order[k - 1]), l.left);
+        }
+        OcrLine last = lines.get(order[to - 1]);
+        if (chars >= MIN_ROW_CHARS) fillers += gapCells(last, bandRight);
+        // Hàng không có '<' và ít chữ số là chữ thường (VIZ), không điền; điền quá độ dài MRZ: bước ký tự ước lượng sai,
+        // chỉ nối
+        boolean fill = fillers > 0 && isMrzLike(chars, chevrons, digits) && chars + fillers <= MAX_ROW_LENGTH;
+        if (to - from == 1 && !fill) {
+            out.add(first);
+            return;
+        }
+
+        OcrLine.Builder b = frame.line();
+        boolean symbols = false;
+        int top = Integer.MAX_VALUE, bottom = Integer.MIN_VALUE;
+        for (int k = from; k < to; k++) {
+            OcrLine l = lines.get(order[k]);
+            if (k > from && fill) appendFillers(b, gapCells(lines.get(order[k - 1]), l.left), lines.get(order[k - 1]));
+            if (fill) innerGaps(l, b); else appendChars(b, l, 0, l.norm.length());
+            symbols |= l.confidences != null;
+            top = Math.min(top, l.top);
+            bottom = Math.max(bottom, l.bottom);
+        }
+        int right = last.right;
+        if (fill && chars >= MIN_ROW_CHARS) {
+            appendFillers(b, gapCells(last, bandRight), last);
+            right = Math.max(right, bandRight);
+        }
+        addRow(frame.addAssembled(symbols || fill, first.left, top, right, bottom));
+    }
+
+    // addAssembled trả null khi hàng ghép không có ký tự nào
+    private void addRow(OcrLine row) {
+        if (row != null) out.add(row);
+    }
+
+    // Dòng tên có '<'; dòng dữ liệu có thể mất hết '<' nhưng nhiều chữ số (như DIGIT_BONUS của MrzCandidateFinder)
+    private static boolean isMrzLike(int chars, int chevrons, int digits) {
+        return chars > 0 && (chevrons > 0 || digits * 4 >= chars);
+    }
+
+    // Số ô ký tự trống từ ký tự cuối của l tới x (bắt đầu ô kế tiếp)
+    private int gapCells(OcrLine l, int x) {
+        int len = l.norm.length();
+        float lastLeft = hasCharBoxes(l, len) ? l.charLeft[len - 1] : l.right - pitch;
+        int cells = Math.round((x - lastLeft) / pitch) - 1;
+        return Math.max(0, Math.min(MAX_ROW_LENGTH, cells));
+    }
+
+    // Đếm (b == null) hoặc chép ký tự của l kèm '<' cho các ô trống giữa hai ký tự kề nhau
+    private int innerGaps(OcrLine l, OcrLine.Builder b) {
+        int len = l.norm.length();
+        if (!hasCharBoxes(l, len)) {
+            if (b != null) appendChars(b, l, 0, len);
+            return 0;
+        }
+        int total = 0;
+        for (int i = 0; i < len; i++) {
+            if (i > 0) {
+                int cells = Math.round((l.charLeft[i] - l.charLeft[i - 1]) / pitch) - 1;
+                if (cells > 0) {
+                    total += cells;
+                    if (b != null) appendFillers(b, cells, l.charRight[i - 1]);
+                }
+            }
+            if (b != null) appendChars(b, l, i, i + 1);
+        }
+        return total;
+    }
+
+    private void appendFillers(OcrLine.Builder b, int cells, OcrLine after) {
+        int len = after.norm.length();
+        int x = hasCharBoxes(after, len) ? after.charRight[len - 1] : after.right;
+        appendFillers(b, cells, x);
+    }
+
+    private void appendFillers(OcrLine.Builder b, int cells, int x) {
+        for (int c = 0; c < cells; c++) {
+            int left = Math.round(x + c * pitch);
+            b.append('<', FILLER_CONFIDENCE, left, Math.round(left + pitch));
+        }
+    }
+
+    private static void appendChars(OcrLine.Builder b, OcrLine l, int from, int to) {
+        String s = l.norm;
+        for (int i = from; i < to; i++) {
+            boolean boxes = l.charLeft != null && i < l.charLeft.length;
+            b.append(s.charAt(i), l.confidenceAt(i), boxes ? l.charLeft[i] : 0, boxes ? l.charRight[i] : 0);
+        }
+    }
+
+    // Dòng gộp k hàng MRZ: chia theo số ký tự và chiều cao box
+    private boolean splitMerged(OcrLine l) {
+        int len = l.norm.length();
+        if (len <= MAX_ROW_LENGTH) return false;
+        int parts = 0;
+        int bestDiff = MERGE_TOLERANCE + 1;
+        for (int k = 2; k <= 3; k++) {
+            for (int rowLength : ROW_LENGTHS) {
+                int diff = Math.abs(len - k * rowLength);
+                if (diff < bestDiff) {
+                    bestDiff = diff;
+                    parts = k;
+                }
+            }
+        }
+        if (parts == 0) return false;
+        int height = l.bottom - l.top;
+        for (int p = 0; p < parts; p++) {
+            int from = p * len / parts;
+            int to = (p + 1) * len / parts;
+            OcrLine.Builder b = frame.line();
+            appendChars(b, l, from, to);
+            int top = l.top + p * height / parts;
+            addRow(frame.addAssembled(l.confidences != null, l.left, top, l.right,
+                    l.top + (p + 1) * height / parts));
+        }
+        return true;
+    }
+}
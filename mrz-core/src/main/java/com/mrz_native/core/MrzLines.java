@@ -0,0 +1,63 @@
+package com.mrz_native.core;
+
+/**
+ * Các hàm tiện ích trên text của một dòng MRZ.
+ */
+public final class MrzLines {
+
+    private MrzLines() {}
+
+    public static String normalizeLine(String raw) {
+        // Loại bỏ khoảng trắng, chuyển in hoa, chỉ giữ A-Z 0-9 < (bỏ các ký tự MLkit hay thêm), trong một lượt;
+        // dòng đã chuẩn hoá sẵn được trả lại nguyên, không cấp phát
+        int n = raw.length();
+        int i = 0;
+        while (i < n && isMrzChar(raw.charAt(i))) i++;
+        if (i == n) return raw;
+        char[] out = new char[n];
+        raw.getChars(0, i, out, 0);
+        int k = i;
+        for (; i < n; i++) {
+            char c = Character.toUpperCase(raw.charAt(i));
+            if (isMrzChar(c)) out[k++] = c;
+        }
+        return new String(out, 0, k);
+    }
+
+    static boolean isMrzChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '<';
+    }
+
+    public static boolean isLengthApprox(String s, int target) {
+        if (s == null) return false;
+        return isLengthApprox(s.length(), target);
+    }
+
+    static boolean isLengthApprox(int len, int target) {
+        // Khoảng dung sai nới lỏng: -10/+5 ký tự để chịu lỗi OCR
+        // siết biên độ để giảm nhiễu: -6/+3
+        return len >= target - 6 && len <= target + 3;
+    }
+
+    public static String padToLength(String s, int len) {
+        if (s == null) s = "";
+        s = s.toUpperCase();
+        if (s.length() >= len) return s.substring(0, len);
+        StringBuilder sb = new StringBuilder(s);
+        while (sb.length() < len) sb.append('<');
+        return sb.toString();
+    }
+
+    public static boolean looksLikeMrzLine(String s) {
+        if (s == null) return false;
+        int len = s.length();
+        int chevrons = 0;
+        for (int i = 0; i < len; i++) if (s.charAt(i) == '<') chevrons++;
+        return hasEnoughFillers(len, chevrons);
+    }
+
+    static boolean hasEnoughFillers(int len, int chevrons) {
+        // MRZ lines usually contain many '<' as fillers; require at least ~10% '<'
+        return chevrons >= Math.max(2, Math.round(len * 0.10f));
+    }
+}
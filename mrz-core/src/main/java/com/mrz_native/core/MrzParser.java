@@ -0,0 +1,352 @@
+package com.mrz_native.core;
+
+public class MrzParser {
+
+    public static class ParsedMrz {
+        public final String documentType;
+        public final String issuingCountry;
+        public final String name;
+        public final String documentNumber;
+        public final String nationality;
+        public final String dob;
+        public final String gender;
+        public final String expiryDate;
+        public final String personalNumber;
+
+        public ParsedMrz(String documentType, String issuingCountry, String name, String documentNumber,
+                         String nationality, String dob, String gender, String expiryDate, String personalNumber) {
+            this.documentType = documentType;
+            this.issuingCountry = issuingCountry;
+            this.name = name;
+            this.documentNumber = documentNumber;
+            this.nationality = nationality;
+            this.dob = dob;
+            this.gender = gender;
+            this.expiryDate = expiryDate;
+            this.personalNumber = personalNumber;
+        }
+    }
+
+    /**
+     * Kết quả parse dạng mutable, do caller cấp và tái sử dụng giữa các lần gọi.
+     * Candidate bị loại không cấp phát gì; candidate hợp lệ chỉ tạo các String đầu ra.
+     */
+    public static final class MrzResult {
+        public String documentType;
+        public String issuingCountry;
+        public String name;
+        public String documentNumber;
+        public String nationality;
+        public String dob;
+        public String gender;
+        public String expiryDate;
+        public String personalNumber;
+
+        // Bộ đệm tạm: dòng đã chuẩn hoá (in hoa, pad '<') và vùng ghép chuỗi đầu ra
+        final char[] line1 = new char[44];
+        final char[] line2 = new char[44];
+        final char[] line3 = new char[44];
+        final char[] work = new char[44];
+
+        public void clear() {
+            documentType = null;
+            issuingCountry = null;
+            name = null;
+            documentNumber = null;
+            nationality = null;
+            dob = null;
+            gender = null;
+            expiryDate = null;
+            personalNumber = null;
+        }
+
+        public ParsedMrz toParsedMrz() {
+            return new ParsedMrz(documentType, issuingCountry, name, documentNumber,
+                    nationality, dob, gender, expiryDate, personalNumber);
+        }
+    }
+
+    // ---------------------------
+    // ICAO 9303 helpers
+    // ---------------------------
+    private static boolean isCheckDigitValid(char[] s, int off, int len, char checkChar) {
+        return MrzCheckDigit.isValid(s, off, len, checkChar);
+    }
+
+    // Partial của s[off, off+len) nối thêm check digit s[off+len]; -1 nếu check digit sai
+    private static long fieldWithCheck(char[] s, int off, int len) {
+        long p = MrzCheckDigit.partial(s, off, len);
+        char check = s[off + len];
+        if (!MrzCheckDigit.matches(MrzCheckDigit.weighted(p, 0), check)) return -1;
+        return MrzCheckDigit.append(p, len, check - '0');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isValidYYMMDD(char[] s, int off) {
+        for (int i = off; i < off + 6; i++) {
+            if (!isDigit(s[i])) return false;
+        }
+        int mm = (s[off + 2] - '0') * 10 + (s[off + 3] - '0');
+        int dd = (s[off + 4] - '0') * 10 + (s[off + 5] - '0');
+        if (mm < 1 || mm > 12) return false;
+        if (dd < 1 || dd > 31) return false;
+        return true;
+    }
+
+    // Sao chép vào bộ đệm cố định: in hoa, cắt/pad '<' tới len (thay cho toUpperCase + padRight)
+    private static void copyPadded(CharSequence src, char[] dst, int len) {
+        int n = Math.min(src.length(), len);
+        for (int i = 0; i < n; i++) dst[i] = Character.toUpperCase(src.charAt(i));
+        for (int i = n; i < len; i++) dst[i] = '<';
+    }
+
+    // Bỏ toàn bộ '<' trong s[off, off+len)
+    private static String stripFillers(char[] s, int off, int len, char[] work) {
+        int n = 0;
+        for (int i = off; i < off + len; i++) {
+            if (s[i] != '<') work[n++] = s[i];
+        }
+        return new String(work, 0, n);
+    }
+
+    // Ghi s[from, to) vào work tại pos, '<' -> ' ' và bỏ khoảng trắng hai đầu; trả về vị trí ghi mới
+    private static int appendNamePart(char[] s, int from, int to, char[] work, int pos) {
+        while (from < to && (s[from] == '<' || s[from] <= ' ')) from++;
+        while (to > from && (s[to - 1] == '<' || s[to - 1] <= ' ')) to--;
+        for (int i = from; i < to; i++) work[pos++] = s[i] == '<' ? ' ' : s[i];
+        return pos;
+    }
+
+    private static int indexOfDoubleFiller(char[] s, int from, int end) {
+        for (int i = from; i + 1 < end; i++) {
+            if (s[i] == '<' && s[i + 1] == '<') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Tên từ trường tên MRZ s[off, off+len), tương đương split("<<"): họ là đoạn trước "<<" đầu tiên,
+     * tên là đoạn tiếp theo, '<' trong từng đoạn thành khoảng trắng. work phải dài ít nhất len.
+     */
+    public static String parseName(char[] s, int off, int len, char[] work) {
+        int end = off + len;
+        int sep = indexOfDoubleFiller(s, off, end);
+        int pos;
+        if (sep < 0) {
+            pos = appendNamePart(s, off, end, work, 0);
+        } else {
+            pos = appendNamePart(s, off, sep, work, 0);
+            int givenFrom = sep + 2;
+            int givenTo = indexOfDoubleFiller(s, givenFrom, end);
+            if (givenTo < 0) givenTo = end;
+            int mark = pos;
+            if (pos > 0) work[pos++] = ' ';
+            int after = appendNamePart(s, givenFrom, givenTo, work, pos);
+            pos = after == pos ? mark : after;
+        }
+        return new String(work, 0, pos);
+    }
+
+    /**
+     * ---------------------------
+     * MRZ TYPE TD3 - Passport (2 lines, 44 chars)
+     * ---------------------------
+     * Example:
+     * P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<
+     * L898902C36UTO7408122F1204159ZE184226B<<<<<<1
+     */
+    public static ParsedMrz parseTD3(String l1, String l2) {
+        if (l1 == null || l2 == null) return null;
+        MrzResult out = new MrzResult();
+        return parseTD3((CharSequence) l1, l2, out) ? out.toParsedMrz() : null;
+    }
+
+    public static boolean parseTD3(CharSequence l1, CharSequence l2, MrzResult out) {
+        out.clear();
+        if (l1 == null || l2 == null) return false;
+        copyPadded(l1, out.line1, 44);
+        copyPadded(l2, out.line2, 44);
+        return parseTD3(out.line1, 0, out.line2, 0, out);
+    }
+
+    /**
+     * Parse TD3 trực tiếp trên cửa sổ char[]: a[oa, oa+44) và b[ob, ob+44), đã in hoa và đủ độ dài.
+     * Mọi check digit được kiểm tra trước khi cấp phát bất kỳ String nào.
+     */
+    public static boolean parseTD3(char[] a, int oa, char[] b, int ob, MrzResult out) {
+        out.clear();
+        // Tổng riêng từng trường (kèm check digit) được dùng lại cho composite, không quét lại
+        long doc = fieldWithCheck(b, ob, 9);
+        if (doc < 0) return false;
+        long dob = fieldWithCheck(b, ob + 13, 6);
+        if (dob < 0 || !isValidYYMMDD(b, ob + 13)) return false;
+        long exp = fieldWithCheck(b, ob + 21, 6);
+        if (exp < 0 || !isValidYYMMDD(b, ob + 21)) return false;
+        char personalCheck = b[ob + 42];
+        long personal = MrzCheckDigit.partial(b, ob + 28, 14);
+        if (!MrzCheckDigit.matches(MrzCheckDigit.weighted(personal, 0), personalCheck) && personalCheck != '<') return false;
+        personal = MrzCheckDigit.append(personal, 14, MrzCheckDigit.value(personalCheck));
+        // Composite: docNumber+check, dob+check, expiry+check+personal+check
+        int composite = MrzCheckDigit.weighted(doc, 0)
+                + MrzCheckDigit.weighted(dob, 10)
+                + MrzCheckDigit.weighted(exp, 17)
+                + MrzCheckDigit.weighted(personal, 24);
+        if (!MrzCheckDigit.matches(composite, b[ob + 43])) return false;
+
+        char[] work = out.work;
+        out.documentType = new String(a, oa, 2);
+        out.issuingCountry = new String(a, oa + 2, 3);
+        out.name = parseName(a, oa + 5, 39, work);
+        out.documentNumber = stripFillers(b, ob, 9, work);
+        out.nationality = new String(b, ob + 10, 3);
+        out.dob = new String(b, ob + 13, 6);
+        out.gender = new String(b, ob + 20, 1);
+        out.expiryDate = new String(b, ob + 21, 6);
+        out.personalNumber = stripFillers(b, ob + 28, 14, work);
+        return true;
+    }
+
+    /**
+     * ---------------------------
+     * MRZ TYPE TD2 - Visa (2 lines, 36 chars)
+     * ---------------------------
+     * Example:
+     * V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<
+     * L898902C36UTO7408122F1204159<<<<<<<<<<<<<<06
+     */
+    public static ParsedMrz parseTD2(String l1, String l2) {
+        if (l1 == null || l2 == null) return null;
+        MrzResult out = new MrzResult();
+        return parseTD2((CharSequence) l1, l2, out) ? out.toParsedMrz() : null;
+    }
+
+    public static boolean parseTD2(CharSequence l1, CharSequence l2, MrzResult out) {
+        out.clear();
+        if (l1 == null || l2 == null) return false;
+        copyPadded(l1, out.line1, 36);
+        copyPadded(l2, out.line2, 36);
+        return parseTD2(out.line1, 0, out.line2, 0, out);
+    }
+
+    /**
+     * Parse TD2 trực tiếp trên cửa sổ char[]: a[oa, oa+36) và b[ob, ob+36), đã in hoa và đủ độ dài.
+     */
+    public static boolean parseTD2(char[] a, int oa, char[] b, int ob, MrzResult out) {
+        out.clear();
+        if (!isCheckDigitValid(b, ob, 9, b[ob + 9])) return false;
+        if (!isCheckDigitValid(b, ob + 13, 6, b[ob + 19]) || !isValidYYMMDD(b, ob + 13)) return false;
+        if (!isCheckDigitValid(b, ob + 21, 6, b[ob + 27]) || !isValidYYMMDD(b, ob + 21)) return false;
+        char personalCheck = b[ob + 35];
+        if (!isCheckDigitValid(b, ob + 28, 7, personalCheck) && personalCheck != '<') return false;
+
+        char[] work = out.work;
+        out.documentType = new String(a, oa, 2);
+        out.issuingCountry = new String(a, oa + 2, 3);
+        out.name = parseName(a, oa + 5, 31, work);
+        out.documentNumber = stripFillers(b, ob, 9, work);
+        out.nationality = new String(b, ob + 10, 3);
+        out.dob = new String(b, ob + 13, 6);
+        out.gender = new String(b, ob + 20, 1);
+        out.expiryDate = new String(b, ob + 21, 6);
+        out.personalNumber = stripFillers(b, ob + 28, 7, work);
+        return true;
+    }
+
+    /**
+     * ---------------------------
+     * MRZ TYPE TD1 - ID Card (3 lines, 30 chars)
+     * ---------------------------
+     * Example:
+     * I<UTOD231458907<<<<<<<<<<<<<<<
+     * 7408122F1204159UTO<<<<<<<<<<<6
+     * ERIKSSON<<ANNA<MARIA<<<<<<<<<
+     */
+    public static ParsedMrz parseTD1(String l1, String l2, String l3) {
+        if (l1 == null || l2 == null || l3 == null) return null;
+        MrzResult out = new MrzResult();
+        return parseTD1((CharSequence) l1, l2, l3, out) ? out.toParsedMrz() : null;
+    }
+
+    public static boolean parseTD1(CharSequence l1, CharSequence l2, CharSequence l3, MrzResult out) {
+        out.clear();
+        if (l1 == null || l2 == null || l3 == null) return false;
+        copyPadded(l1, out.line1, 30);
+        copyPadded(l2, out.line2, 30);
+        copyPadded(l3, out.line3, 30);
+        return parseTD1(out.line1, 0, out.line2, 0, out.line3, 0, out);
+    }
+
+    /**
+     * Parse TD1 trực tiếp trên cửa sổ char[]: ba dòng 30 ký tự tại oa/ob/oc, đã in hoa và đủ độ dài.
+     */
+    public static boolean parseTD1(char[] a, int oa, char[] b, int ob, char[] c, int oc, MrzResult out) {
+        out.clear();
+        long doc = MrzCheckDigit.partial(a, oa + 5, 9);
+        if (!MrzCheckDigit.matches(MrzCheckDigit.weighted(doc, 0), a[oa + 14])) return false;
+        long dob = MrzCheckDigit.partial(b, ob, 6);
+        if (!MrzCheckDigit.matches(MrzCheckDigit.weighted(dob, 0), b[ob + 6]) || !isValidYYMMDD(b, ob)) return false;
+        long exp = MrzCheckDigit.partial(b, ob + 8, 6);
+        if (!MrzCheckDigit.matches(MrzCheckDigit.weighted(exp, 0), b[ob + 14]) || !isValidYYMMDD(b, ob + 8)) return false;
+
+        // Composite check (TD1 varies by issuing state). Try both common formulas to be robust.
+        char compositeCheck = b[ob + 29];
+        if (!isDigit(compositeCheck)) return false;
+        long optional1 = MrzCheckDigit.partial(a, oa + 15, 15);
+        // A: docNumber+check, dob+check, expiry+check, optional1
+        int compA = MrzCheckDigit.weighted(MrzCheckDigit.append(doc, 9, a[oa + 14] - '0'), 0)
+                + MrzCheckDigit.weighted(MrzCheckDigit.append(dob, 6, b[ob + 6] - '0'), 10)
+                + MrzCheckDigit.weighted(MrzCheckDigit.append(exp, 6, b[ob + 14] - '0'), 17)
+                + MrzCheckDigit.weighted(optional1, 24);
+        int expected = compositeCheck - '0';
+        if (compA % 10 != expected) {
+            // B: docNumber, dob, expiry, optional1, optional2 (fallback variant seen in wild)
+            int compB = MrzCheckDigit.weighted(doc, 0)
+                    + MrzCheckDigit.weighted(dob, 9)
+                    + MrzCheckDigit.weighted(exp, 15)
+                    + MrzCheckDigit.weighted(optional1, 21)
+                    + MrzCheckDigit.weighted(MrzCheckDigit.partial(b, ob + 18, 11), 36);
+            if (compB % 10 != expected) return false;
+        }
+
+        char[] work = out.work;
+        out.documentType = new String(a, oa, 2);
+        out.issuingCountry = new String(a, oa + 2, 3);
+        out.documentNumber = stripFillers(a, oa + 5, 9, work);
+        out.dob = new String(b, ob, 6);
+        out.gender = new String(b, ob + 7, 1);
+        out.expiryDate = new String(b, ob + 8, 6);
+        out.nationality = new String(b, ob + 15, 3);
+        out.name = parseName(c, oc, 30, work);
+        // optional1 + optional2, bỏ '<'
+        int n = 0;
+        for (int i = oa + 15; i < oa + 30; i++) if (a[i] != '<') work[n++] = a[i];
+        for (int i = ob + 18; i < ob + 29; i++) if (b[i] != '<') work[n++] = b[i];
+        out.personalNumber = new String(work, 0, n);
+        return true;
+    }
+
+    /**
+     * Tự động nhận dạng loại MRZ (TD1/TD2/TD3)
+     */
+    public static ParsedMrz autoDetect(String... lines) {
+        if (lines == null) return null;
+
+        // Loại bỏ dòng rỗng
+        int count = 0;
+        for (String s : lines) if (s != null && !s.trim().isEmpty()) count++;
+
+        if (count == 2) {
+            // Xác định TD3 hay TD2
+            String l1 = lines[0].trim();
+            if (l1.length() > 36) return parseTD3(lines[0], lines[1]);
+            return parseTD2(lines[0], lines[1]);
+        } else if (count == 3) {
+            return parseTD1(lines[0], lines[1], lines[2]);
+        }
+
+        return null;
+    }
+}
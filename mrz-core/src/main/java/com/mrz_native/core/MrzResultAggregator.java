@@ -0,0 +1,81 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gom kết quả quét từ nhiều frame xử lý song song (có thể về không theo thứ tự).
+ *
+ * Mỗi kết quả mang số thứ tự frame; kết quả chỉ được áp dụng khi mới hơn frame đã áp dụng gần nhất,
+ * kết quả cũ về muộn bị bỏ. Trạng thái được thay nguyên khối bằng CAS nên không cần khoá,
+ * và {@link #tryLock} bảo đảm chỉ một kết quả ổn định được chốt cho mỗi lượt quét.
+ */
+public final class MrzResultAggregator {
+
+    /** Trạng thái sau frame áp dụng gần nhất; bất biến. */
+    public static final class Snapshot {
+        public final long seq;
+        /** null nếu frame không có MRZ. */
+        public final ParsedMrz mrz;
+        public final boolean corrected;
+        /** Số frame ủng hộ kết quả (xem {@link MrzFrameFuser.Result#support}). */
+        public final int support;
+
+        Snapshot(long seq, ParsedMrz mrz, boolean corrected, int support) {
+            this.seq = seq;
+            this.mrz = mrz;
+            this.corrected = corrected;
+            this.support = support;
+        }
+    }
+
+    private final int requiredSupport;
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>(new Snapshot(-1, null, false, 0));
+    private final AtomicBoolean locked = new AtomicBoolean();
+    // Frame <= barrier thuộc lượt quét trước reset
+    private volatile long barrier = -1;
+
+    public MrzResultAggregator(int requiredSupport) {
+        this.requiredSupport = requiredSupport;
+    }
+
+    /**
+     * Áp dụng kết quả của frame seq (mrz null: frame không tìm được MRZ).
+     * @return trạng thái mới, hoặc null nếu đã có frame mới hơn được áp dụng
+     */
+    public Snapshot offer(long seq, ParsedMrz mrz, boolean corrected, int support) {
+        Snapshot next = new Snapshot(seq, mrz, corrected, support);
+        while (true) {
+            Snapshot cur = latest.get();
+            if (seq <= cur.seq) return null;
+            if (latest.compareAndSet(cur, next)) return next;
+        }
+    }
+
+    public boolean isStable(Snapshot s) {
+        return s != null && s.mrz != null && s.support >= requiredSupport;
+    }
+
+    /** Chốt kết quả; chỉ lời gọi đầu tiên sau {@link #reset} trả về true. */
+    public boolean tryLock() {
+        return locked.compareAndSet(false, true);
+    }
+
+    public Snapshot latest() { return latest.get(); }
+
+    /** Frame seq được gửi đi trước lần {@link #reset} gần nhất: kết quả của nó không còn dùng được. */
+    public boolean isStale(long seq) {
+        return seq <= barrier;
+    }
+
+    /**
+     * Bắt đầu lượt quét mới: bỏ mọi kết quả của frame có số thứ tự <= lastSeq (đang xử lý dở).
+     */
+    public void reset(long lastSeq) {
+        barrier = lastSeq;
+        latest.set(new Snapshot(lastSeq, null, false, 0));
+        locked.set(false);
+    }
+}
@@ -0,0 +1,202 @@
+package com.mrz_native.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache kết quả quét theo nội dung OCR đã chuẩn hoá của frame.
+ *
+ * Giấy tờ đứng yên thường cho ra đúng các dòng norm giống nhau qua nhiều frame liên tiếp;
+ * cache giữ cả kết quả dương (MRZ) lẫn âm (biết là không parse được) để bỏ qua tìm kiếm và sửa lỗi.
+ * Khoá là rolling hash của chuỗi dòng norm (theo thứ tự đã sắp) cùng độ tin cậy từng ký tự đã lượng tử hoá
+ * (CONF_LEVELS mức), so lại đúng nội dung khi trùng hash. Bộ sửa lỗi thử vị trí kém tin cậy trước,
+ * nên frame cùng text nhưng khác vị trí kém tin cậy phải được tìm lại chứ không ăn kết quả âm cũ.
+ * Giới hạn số entry theo LRU và mỗi entry hết hạn sau TTL. Entry nằm trong mảng cố định, tìm tuần tự theo khoá
+ * (capacity nhỏ), nên lần trúng cache không cấp phát gì.
+ */
+public final class MrzScanCache {
+
+    public static final int DEFAULT_CAPACITY = 32;
+    public static final long DEFAULT_TTL_MS = 3000;
+
+    private static final long HASH_SEED = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+    // Số mức lượng tử hoá độ tin cậy: đủ thô để nhiễu nhỏ giữa các frame vẫn trúng cache
+    private static final int CONF_LEVELS = 4;
+
+    static final class Entry {
+        final String[] lines;
+        // Mức độ tin cậy của từng ký tự, song song với lines
+        final byte[][] levels;
+        // null: entry âm
+        final MrzScanner.Result result;
+        final long expiresAtNanos;
+
+        Entry(String[] lines, byte[][] levels, MrzScanner.Result result, long expiresAtNanos) {
+            this.lines = lines;
+            this.levels = levels;
+            this.result = result;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean matches(List<OcrLine> other) {
+            if (lines.length != other.size()) return false;
+            for (int i = 0; i < lines.length; i++) {
+                OcrLine l = other.get(i);
+                if (!lines[i].equals(normOf(l))) return false;
+                byte[] lv = levels[i];
+                for (int j = 0; j < lv.length; j++) {
+                    if (lv[j] != level(l, j)) return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final long[] keys;
+    // null: ô trống
+    private final Entry[] slots;
+    // Mốc dùng gần nhất của từng ô, cho LRU
+    private final long[] lastUse;
+    private long tick;
+    private int size;
+
+    private long hits;
+    private long negativeHits;
+    private long misses;
+
+    public MrzScanCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_TTL_MS);
+    }
+
+    public MrzScanCache(int capacity, long ttlMs) {
+        this(capacity, ttlMs, System::nanoTime);
+    }
+
+    MrzScanCache(int capacity, long ttlMs, LongSupplier nanoClock) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.capacity = capacity;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.clock = nanoClock;
+        this.keys = new long[capacity];
+        this.slots = new Entry[capacity];
+        this.lastUse = new long[capacity];
+    }
+
+    /** Rolling hash (FNV-1a 64-bit) của các dòng norm và mức tin cậy, có ký tự ngăn cách giữa các dòng. */
+    static long key(List<OcrLine> lines) {
+        long h = HASH_SEED;
+        for (int i = 0; i < lines.size(); i++) {
+            OcrLine l = lines.get(i);
+            String s = normOf(l);
+            for (int j = 0; j < s.length(); j++) {
+                h = (h ^ s.charAt(j)) * HASH_PRIME;
+                h = (h ^ level(l, j)) * HASH_PRIME;
+            }
+            h = (h ^ '\n') * HASH_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * @return entry còn hạn có đúng nội dung lines, hoặc null nếu miss
+     */
+    synchronized Entry get(long key, List<OcrLine> lines) {
+        int i = indexOf(key);
+        Entry e = i >= 0 ? slots[i] : null;
+        if (e != null && (clock.getAsLong() - e.expiresAtNanos > 0 || !e.matches(lines))) {
+            remove(i);
+            e = null;
+        }
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        lastUse[i] = ++tick;
+        hits++;
+        if (e.result == null) negativeHits++;
+        return e;
+    }
+
+    /** Lưu kết quả của frame; result null là kết quả âm. */
+    synchronized void put(long key, List<OcrLine> lines, MrzScanner.Result result) {
+        String[] copy = new String[lines.size()];
+        byte[][] levels = new byte[copy.length][];
+        for (int i = 0; i < copy.length; i++) {
+            OcrLine l = lines.get(i);
+            copy[i] = normOf(l);
+            levels[i] = new byte[copy[i].length()];
+            for (int j = 0; j < levels[i].length; j++) levels[i][j] = level(l, j);
+        }
+        Entry e = new Entry(copy, levels, result, clock.getAsLong() + ttlNanos);
+        int i = indexOf(key);
+        if (i < 0) i = freeOrEldest();
+        if (slots[i] == null) size++;
+        keys[i] = key;
+        slots[i] = e;
+        lastUse[i] = ++tick;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < capacity; i++) slots[i] = null;
+        size = 0;
+    }
+
+    public synchronized int size() { return size; }
+
+    public synchronized long hits() { return hits; }
+
+    /** Số hit trúng entry âm (frame đã biết là không parse được). */
+    public synchronized long negativeHits() { return negativeHits; }
+
+    public synchronized long misses() { return misses; }
+
+    public synchronized void resetCounters() {
+        hits = 0;
+        negativeHits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long total = hits + misses;
+        return "MrzScanCache{size=" + size + ", hits=" + hits + " (negative " + negativeHits
+                + "), misses=" + misses + ", hitRate=" + (total == 0 ? 0 : hits * 100 / total) + "%}";
+    }
+
+    private int indexOf(long key) {
+        for (int i = 0; i < capacity; i++) {
+            if (slots[i] != null && keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    // Ô trống đầu tiên, hoặc ô dùng lâu nhất (bị thay)
+    private int freeOrEldest() {
+        int eldest = 0;
+        for (int i = 0; i < capacity; i++) {
+            if (slots[i] == null) return i;
+            if (lastUse[i] < lastUse[eldest]) eldest = i;
+        }
+        return eldest;
+    }
+
+    private void remove(int i) {
+        slots[i] = null;
+        size--;
+    }
+
+    // Dòng không có độ tin cậy: mọi ký tự ở mức cao nhất (confidenceAt = 1)
+    private static byte level(OcrLine l, int i) {
+        float c = l.confidenceAt(i);
+        return (byte) Math.max(0, Math.min(CONF_LEVELS - 1, (int) (c * CONF_LEVELS)));
+    }
+
+    private static String normOf(OcrLine l) {
+        return l.norm != null ? l.norm : "";
+    }
+}
@@ -0,0 +1,210 @@
+package com.mrz_native.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Đo đạc pipeline quét: histogram độ trễ theo từng giai đoạn và số frame bị bỏ ở từng cổng.
+ *
+ * Histogram log-tuyến tính theo micro giây (SUB_BUCKETS ô mỗi quãng tám, sai số bách phân vị <= 25%),
+ * cập nhật bằng AtomicLongArray nên ghi từ nhiều luồng không cần khoá. Khi tắt, {@link #start()} trả 0
+ * và {@link #record} / {@link #drop} trả về ngay, không gọi System.nanoTime().
+ *
+ * Định dạng dump một dòng cho log hiện trường, thời gian theo micro giây:
+ * <pre>mrzm/1 ocr=120:85000/140000/210000/300000 ... drop=quality:12,scheduler:40</pre>
+ * mỗi giai đoạn là {@code tên=số mẫu:p50/p90/p99/max}; giai đoạn chưa có mẫu và cổng chưa bỏ frame nào
+ * được lược bớt.
+ *
+ * Thread-safe.
+ */
+public final class MrzScanMetrics {
+
+    public static final String DUMP_VERSION = "mrzm/1";
+
+    public enum Stage {
+        /** Đo luma, cổng chất lượng và bộ lập lịch trên luồng analyzer. */
+        ADMISSION("admit"),
+        /** Ước lượng góc nghiêng, tìm dải MRZ và chép vùng crop (co / xoay thẳng) sang bộ đệm. */
+        CROP("crop"),
+        /** Xử lý ảnh trên bộ đệm đã chép, trước OCR (chuẩn hoá tương phản...). */
+        PREPROCESS("pre"),
+        /** Từ lúc gửi ML Kit tới lúc có kết quả. */
+        OCR("ocr"),
+        /** Chuyển Text của ML Kit thành OcrLine. */
+        NORMALIZE("norm"),
+        /** Ghép hàng MRZ bị tách / gộp theo hình học (MrzLineAssembler). */
+        ASSEMBLY("asm"),
+        /** Tìm MRZ trực tiếp (MrzCandidateFinder). */
+        CANDIDATE_SEARCH("search"),
+        /** Thử sửa lỗi OCR khi không tìm được trực tiếp (MrzCorrector). */
+        CORRECTION("correct"),
+        /** Bỏ phiếu qua các frame (MrzFrameFuser). */
+        FUSION("fuse"),
+        /** Từ lúc bắt đầu lượt quét tới lúc khoá kết quả. */
+        TIME_TO_LOCK("lock");
+
+        public final String key;
+
+        Stage(String key) { this.key = key; }
+    }
+
+    public enum Drop {
+        /** Cổng chất lượng (nhoè / lóa / không có chữ). */
+        QUALITY("quality"),
+        /** Bộ lập lịch chưa tới lượt. */
+        SCHEDULER("scheduler"),
+        /** Đã đủ yêu cầu OCR đồng thời. */
+        IN_FLIGHT("inflight"),
+        /** Hết bộ đệm trong pool. */
+        FRAME_POOL("pool"),
+        /** Kết quả về sau frame mới hơn hoặc thuộc lượt quét trước. */
+        STALE("stale");
+
+        public final String key;
+
+        Drop(String key) { this.key = key; }
+    }
+
+    public interface Listener {
+        /** Gọi trên luồng ghi mẫu; phải rất ngắn. */
+        void onSample(Stage stage, long micros);
+
+        default void onDrop(Drop gate) {}
+    }
+
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Quãng tám cao nhất: 2^36 µs ~ 19 giờ
+    private static final int MAX_OCTAVE = 36;
+    static final int BUCKETS = (MAX_OCTAVE - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private static final class Histogram {
+        final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+
+        void add(long micros) {
+            counts.incrementAndGet(bucket(micros));
+            count.incrementAndGet();
+            long m;
+            while (micros > (m = max.get()) && !max.compareAndSet(m, micros)) { }
+        }
+
+        // Cận trên của ô chứa bách phân vị p, kẹp bởi max
+        long percentile(double p) {
+            long n = count.get();
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) return Math.min(upperBound(i), max.get());
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+            count.set(0);
+            max.set(0);
+        }
+    }
+
+    private final Histogram[] histograms = new Histogram[Stage.values().length];
+    private final AtomicLongArray drops = new AtomicLongArray(Drop.values().length);
+    private volatile boolean enabled;
+    private volatile Listener listener;
+
+    public MrzScanMetrics() {
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new Histogram();
+    }
+
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public boolean isEnabled() { return enabled; }
+
+    public void setListener(Listener listener) { this.listener = listener; }
+
+    /** Mốc thời gian (ns) cho {@link #record(Stage, long)}; 0 khi đang tắt. */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /** Ghi thời gian từ mốc startNanos của {@link #start()} tới bây giờ; bỏ qua mốc 0. */
+    public void record(Stage stage, long startNanos) {
+        if (startNanos == 0 || !enabled) return;
+        recordMicros(stage, (System.nanoTime() - startNanos) / 1000);
+    }
+
+    public void recordMicros(Stage stage, long micros) {
+        if (!enabled) return;
+        if (micros < 0) micros = 0;
+        histograms[stage.ordinal()].add(micros);
+        Listener l = listener;
+        if (l != null) l.onSample(stage, micros);
+    }
+
+    public void drop(Drop gate) {
+        if (!enabled) return;
+        drops.incrementAndGet(gate.ordinal());
+        Listener l = listener;
+        if (l != null) l.onDrop(gate);
+    }
+
+    public long count(Stage stage) { return histograms[stage.ordinal()].count.get(); }
+
+    /** Bách phân vị (µs), sai số theo độ rộng ô histogram; 0 nếu chưa có mẫu. */
+    public long percentile(Stage stage, double p) { return histograms[stage.ordinal()].percentile(p); }
+
+    public long max(Stage stage) { return histograms[stage.ordinal()].max.get(); }
+
+    public long drops(Drop gate) { return drops.get(gate.ordinal()); }
+
+    /** Xoá mọi số đo; các mẫu ghi đồng thời có thể rơi vào trước hoặc sau lần xoá. */
+    public void reset() {
+        for (Histogram h : histograms) h.reset();
+        for (int i = 0; i < drops.length(); i++) drops.set(i, 0);
+    }
+
+    /** Một dòng theo định dạng ở đầu lớp. */
+    public String dump() {
+        StringBuilder sb = new StringBuilder(160).append(DUMP_VERSION);
+        for (Stage s : Stage.values()) {
+            Histogram h = histograms[s.ordinal()];
+            long n = h.count.get();
+            if (n == 0) continue;
+            sb.append(' ').append(s.key).append('=').append(n).append(':')
+                    .append(h.percentile(0.5)).append('/').append(h.percentile(0.9)).append('/')
+                    .append(h.percentile(0.99)).append('/').append(h.max.get());
+        }
+        char sep = ' ';
+        for (Drop d : Drop.values()) {
+            long n = drops.get(d.ordinal());
+            if (n == 0) continue;
+            sb.append(sep);
+            if (sep == ' ') sb.append("drop=");
+            sb.append(d.key).append(':').append(n);
+            sep = ',';
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() { return dump(); }
+
+    // 0..SUB_BUCKETS-1: chính giá trị; sau đó SUB_BUCKETS ô cho mỗi quãng tám [2^k, 2^(k+1))
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) return (int) Math.max(0, micros);
+        int k = 63 - Long.numberOfLeadingZeros(micros);
+        if (k > MAX_OCTAVE) return BUCKETS - 1;
+        int sub = (int) (micros >>> (k - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (k - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int k = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (k - SUB_BITS)) - 1;
+    }
+}
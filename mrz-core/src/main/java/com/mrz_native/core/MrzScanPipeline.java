@@ -0,0 +1,143 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import java.util.List;
+
+/**
+ * Phần xử lý một frame sau OCR, tách khỏi Activity để chạy được trên JVM (phát lại phiên ghi):
+ * ghép hàng MRZ theo hình học ({@link MrzLineAssembler}),
+ * quét trực tiếp ({@link MrzScanner}), bỏ phiếu qua các frame ({@link MrzFrameFuser}),
+ * áp dụng theo thứ tự frame và chốt kết quả ổn định ({@link MrzResultAggregator}).
+ *
+ * {@link #onFrame} chạy trên một luồng xử lý; {@link #isStale} / {@link #reset} gọi được từ luồng khác.
+ */
+public final class MrzScanPipeline {
+
+    public enum Status {
+        /** Frame không có dòng nào để quét. */
+        NO_LINES,
+        /** Có dòng nhưng không ra MRZ. */
+        NOT_FOUND,
+        /** Thuộc lượt quét trước reset, hoặc đã có frame mới hơn được áp dụng. */
+        STALE,
+        /** Có MRZ nhưng chưa đủ số frame ủng hộ. */
+        STABILIZING,
+        /** Kết quả vừa được chốt (chỉ một lần mỗi lượt quét). */
+        LOCKED,
+        /** Ổn định nhưng lượt quét đã chốt trước đó. */
+        ALREADY_LOCKED
+    }
+
+    public static final class Outcome {
+        public final Status status;
+        /** null nếu frame không có MRZ. */
+        public final ParsedMrz mrz;
+        public final boolean corrected;
+        public final int support;
+
+        Outcome(Status status, ParsedMrz mrz, boolean corrected, int support) {
+            this.status = status;
+            this.mrz = mrz;
+            this.corrected = corrected;
+            this.support = support;
+        }
+
+        /** Frame có ra MRZ không (trước khi xét thứ tự / ổn định), cho {@link MrzFrameScheduler#onResult}. */
+        public boolean found() { return mrz != null; }
+
+        @Override
+        public String toString() {
+            return status + (mrz != null ? " support=" + support + (corrected ? " corrected" : "") : "");
+        }
+    }
+
+    private static final Outcome NO_LINES = new Outcome(Status.NO_LINES, null, false, 0);
+    private static final Outcome NOT_FOUND = new Outcome(Status.NOT_FOUND, null, false, 0);
+    private static final Outcome STALE = new Outcome(Status.STALE, null, false, 0);
+
+    private final MrzScanner scanner;
+    private final MrzFrameFuser fuser;
+    private final MrzResultAggregator aggregator;
+    private final MrzScanMetrics metrics;
+    private final MrzLineAssembler assembler = new MrzLineAssembler();
+    private volatile boolean fuserResetPending;
+
+    public MrzScanPipeline(int requiredSupport, MrzScanMetrics metrics) {
+        this(new MrzScanner(), new MrzFrameFuser(), new MrzResultAggregator(requiredSupport), metrics);
+    }
+
+    public MrzScanPipeline(MrzScanner scanner, MrzFrameFuser fuser, MrzResultAggregator aggregator,
+                           MrzScanMetrics metrics) {
+        this.scanner = scanner;
+        this.fuser = fuser;
+        this.aggregator = aggregator;
+        this.metrics = metrics != null ? metrics : new MrzScanMetrics();
+        scanner.setMetrics(this.metrics);
+    }
+
+    public MrzScanner scanner() { return scanner; }
+
+    public MrzScanMetrics metrics() { return metrics; }
+
+    /** Frame seq được gửi đi trước lần {@link #reset} gần nhất. */
+    public boolean isStale(long seq) {
+        return aggregator.isStale(seq);
+    }
+
+    /**
+     * Bắt đầu lượt quét mới: bỏ kết quả của frame <= lastSeq. Histogram của frameFuser được xoá
+     * ở lần {@link #onFrame} kế tiếp, trên luồng xử lý.
+     */
+    public void reset(long lastSeq) {
+        aggregator.reset(lastSeq);
+        fuserResetPending = true;
+    }
+
+    /**
+     * Xử lý các dòng OCR (đã lọc theo ROI) của frame seq.
+     */
+    public Outcome onFrame(long seq, List<OcrLine> lines) {
+        if (aggregator.isStale(seq)) {
+            metrics.drop(MrzScanMetrics.Drop.STALE);
+            return STALE;
+        }
+        if (fuserResetPending) {
+            fuserResetPending = false;
+            fuser.reset();
+        }
+        if (lines.isEmpty()) {
+            return apply(seq, null, false, 0, NO_LINES);
+        }
+
+        long asmStart = metrics.start();
+        List<OcrLine> rows = assembler.assemble(lines);
+        metrics.record(MrzScanMetrics.Stage.ASSEMBLY, asmStart);
+
+        // Thử tìm MRZ (TD3/TD2/TD1), nếu không được thì thử các heuristic corrections
+        MrzScanner.Result result = scanner.scan(rows);
+        // Gộp frame này vào histogram; frame chỉ đúng một phần vẫn góp phiếu cho các vị trí đọc đúng.
+        // Quét trực tiếp đã ra MRZ thì chỉ cần support từ histogram, không sửa lỗi lần nữa
+        long fuseStart = metrics.start();
+        MrzFrameFuser.Result fused = fuser.addFrame(rows, result == null);
+        metrics.record(MrzScanMetrics.Stage.FUSION, fuseStart);
+        if (fused != null) return apply(seq, fused.mrz, fused.corrected, fused.support, null);
+        if (result != null) return apply(seq, result.mrz, result.corrected, 1, null);
+        return apply(seq, null, false, 0, NOT_FOUND);
+    }
+
+    // idle: kết quả trả về khi frame không có MRZ
+    private Outcome apply(long seq, ParsedMrz mrz, boolean corrected, int support, Outcome idle) {
+        MrzResultAggregator.Snapshot s = aggregator.offer(seq, mrz, corrected, support);
+        // Frame cũ về muộn hơn frame đã áp dụng: bỏ
+        if (s == null) {
+            metrics.drop(MrzScanMetrics.Drop.STALE);
+            return mrz == null ? STALE : new Outcome(Status.STALE, mrz, corrected, support);
+        }
+        if (mrz == null) return idle;
+        Status status;
+        if (!aggregator.isStable(s)) status = Status.STABILIZING;
+        else status = aggregator.tryLock() ? Status.LOCKED : Status.ALREADY_LOCKED;
+        return new Outcome(status, s.mrz, s.corrected, s.support);
+    }
+}
@@ -0,0 +1,87 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * API công khai của bộ quét: nhận các dòng OCR (text + bounding box) của một frame,
+ * tìm MRZ trực tiếp rồi mới thử sửa lỗi OCR.
+ * Kết quả (kể cả "không tìm được") được nhớ theo nội dung dòng trong {@link MrzScanCache}.
+ */
+public class MrzScanner {
+
+    public static final class Result {
+        public final ParsedMrz mrz;
+        public final boolean corrected;
+
+        public Result(ParsedMrz mrz, boolean corrected) {
+            this.mrz = mrz;
+            this.corrected = corrected;
+        }
+    }
+
+    static final Comparator<OcrLine> BY_CENTER_Y = Comparator.comparingDouble(OcrLine::centerY);
+    // Bản sao đã sắp của mỗi luồng: lượt quét không cấp phát danh sách mới
+    private static final ThreadLocal<ArrayList<OcrLine>> SORTED = ThreadLocal.withInitial(ArrayList::new);
+
+    private final MrzScanCache cache;
+    private volatile MrzScanMetrics metrics;
+
+    public MrzScanner() {
+        this(new MrzScanCache());
+    }
+
+    /** @param cache cache kết quả theo frame, null để tắt */
+    public MrzScanner(MrzScanCache cache) {
+        this.cache = cache;
+    }
+
+    public MrzScanCache cache() { return cache; }
+
+    /** Ghi thời gian tìm trực tiếp / sửa lỗi vào metrics (null để bỏ); lần trúng cache không được ghi. */
+    public void setMetrics(MrzScanMetrics metrics) { this.metrics = metrics; }
+
+    /**
+     * @return kết quả, hoặc null nếu không tìm được MRZ hợp lệ trong frame
+     */
+    public Result scan(List<OcrLine> lines) {
+        if (lines == null || lines.isEmpty()) return null;
+
+        // Sắp xếp theo vị trí dọc để tăng khả năng gom đúng dòng MRZ
+        ArrayList<OcrLine> sorted = SORTED.get();
+        for (int i = 0; i < lines.size(); i++) sorted.add(lines.get(i));
+        sorted.sort(BY_CENTER_Y);
+        try {
+            if (cache == null) return search(sorted);
+            long key = MrzScanCache.key(sorted);
+            MrzScanCache.Entry hit = cache.get(key, sorted);
+            if (hit != null) return hit.result;
+            Result result = search(sorted);
+            cache.put(key, sorted, result);
+            return result;
+        } finally {
+            // Không giữ dòng của frame trong bộ đệm dùng lại
+            sorted.clear();
+        }
+    }
+
+    private Result search(List<OcrLine> sorted) {
+        MrzScanMetrics m = metrics;
+        // Thử tìm MRZ theo nhiều cách: TD3 (2x44), TD2 (2x36), TD1 (3x30)
+        long t0 = m != null ? m.start() : 0;
+        ParsedMrz parsed = MrzCandidateFinder.findAndParseMrz(sorted);
+        if (m != null) m.record(MrzScanMetrics.Stage.CANDIDATE_SEARCH, t0);
+        if (parsed != null) return new Result(parsed, false);
+
+        // Nếu không parse được trực tiếp, thử các heuristic corrections
+        t0 = m != null ? m.start() : 0;
+        ParsedMrz corrected = MrzCorrector.tryHeuristicCorrectionsMultiple(sorted);
+        if (m != null) m.record(MrzScanMetrics.Stage.CORRECTION, t0);
+        if (corrected != null) return new Result(corrected, true);
+
+        return null;
+    }
+}
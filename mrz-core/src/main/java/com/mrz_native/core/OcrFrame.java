@@ -0,0 +1,130 @@
+package com.mrz_native.core;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Bộ đệm dòng OCR của một frame, dùng lại giữa các frame: mỗi dòng được chuẩn hoá một lượt
+ * ({@link OcrLine.Builder}) vào một {@link OcrLine} lấy từ pool, cùng mảng độ tin cậy / toạ độ của nó.
+ * Norm trùng với một dòng của frame trước (giấy tờ đứng yên cho ra đúng các dòng đó) dùng lại String cũ,
+ * nên ở trạng thái ổn định một frame không cấp phát gì.
+ *
+ * Dòng trong ROI đứng trước dòng ngoài ROI trong {@link #lines()}. Các dòng và các List trả về chỉ hợp lệ
+ * tới lần {@link #begin()} kế tiếp.
+ *
+ * Không thread-safe: dùng trên một luồng xử lý.
+ */
+public final class OcrFrame {
+
+    private final OcrLine.Builder builder = new OcrLine.Builder();
+    private OcrLine[] pool = new OcrLine[16];
+    // Thứ tự thêm vào; outside đặt ngược từ cuối mảng order
+    private OcrLine[] order = new OcrLine[16];
+    private int used;
+    private int inside;
+    private int outside;
+    // Norm của frame trước, để dùng lại String khi nội dung trùng
+    private String[] recent = new String[16];
+    private int recentCount;
+    private final LineList insideView = new LineList(false);
+    private final LineList allView = new LineList(true);
+
+    public OcrFrame() {
+        for (int i = 0; i < pool.length; i++) pool[i] = new OcrLine();
+    }
+
+    /** Bắt đầu frame mới; các dòng của frame trước được đưa lại vào pool. */
+    public void begin() {
+        if (recent.length < used) recent = new String[pool.length];
+        for (int i = 0; i < used; i++) recent[i] = pool[i].norm;
+        for (int i = used; i < recentCount; i++) recent[i] = null;
+        recentCount = used;
+        used = 0;
+        inside = 0;
+        outside = 0;
+    }
+
+    /** Builder (đã reset) cho dòng kế tiếp: thêm các symbol rồi gọi {@link #add}. */
+    public OcrLine.Builder line() {
+        return builder.reset();
+    }
+
+    /**
+     * Thêm dòng từ các symbol đã đưa vào {@link #line()}; nếu không có symbol nào thì chuẩn hoá raw.
+     * @param inRoi dòng nằm trong vùng MRZ
+     * @return dòng đã thêm, hoặc null nếu norm rỗng
+     */
+    public OcrLine add(String raw, boolean inRoi, int left, int top, int right, int bottom) {
+        boolean withSymbols = builder.length() > 0;
+        if (!withSymbols) builder.appendText(raw);
+        if (builder.length() == 0) return null;
+        OcrLine line = take();
+        builder.fill(line, raw, intern(builder.text()), withSymbols, left, top, right, bottom);
+        if (inRoi) {
+            order[inside++] = line;
+        } else {
+            order[order.length - 1 - outside++] = line;
+        }
+        return line;
+    }
+
+    // Dòng ghép từ nội dung builder (MrzLineAssembler): raw là chính norm, luôn thuộc ROI
+    OcrLine addAssembled(boolean withSymbols, int left, int top, int right, int bottom) {
+        if (builder.length() == 0) return null;
+        OcrLine line = take();
+        String norm = intern(builder.text());
+        builder.fill(line, norm, norm, withSymbols, left, top, right, bottom);
+        order[inside++] = line;
+        return line;
+    }
+
+    public int size() { return inside + outside; }
+
+    /** Các dòng trong ROI. */
+    public List<OcrLine> inside() { return insideView; }
+
+    /** Dòng trong ROI rồi tới dòng ngoài ROI, mỗi nhóm theo thứ tự thêm. */
+    public List<OcrLine> lines() { return allView; }
+
+    private OcrLine take() {
+        if (used == pool.length) {
+            int cap = pool.length * 2;
+            OcrLine[] p = new OcrLine[cap];
+            System.arraycopy(pool, 0, p, 0, pool.length);
+            for (int i = pool.length; i < cap; i++) p[i] = new OcrLine();
+            OcrLine[] o = new OcrLine[cap];
+            System.arraycopy(order, 0, o, 0, inside);
+            System.arraycopy(order, order.length - outside, o, cap - outside, outside);
+            pool = p;
+            order = o;
+        }
+        return pool[used++];
+    }
+
+    private String intern(CharSequence text) {
+        int n = text.length();
+        for (int i = 0; i < recentCount; i++) {
+            String s = recent[i];
+            if (s != null && s.length() == n && s.contentEquals(text)) return s;
+        }
+        return text.toString();
+    }
+
+    // View không cấp phát trên order: inside theo thứ tự, rồi outside theo thứ tự thêm
+    private final class LineList extends AbstractList<OcrLine> implements RandomAccess {
+        private final boolean withOutside;
+
+        LineList(boolean withOutside) { this.withOutside = withOutside; }
+
+        @Override
+        public OcrLine get(int index) {
+            if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("index " + index);
+            if (index < inside) return order[index];
+            return order[order.length - 1 - (index - inside)];
+        }
+
+        @Override
+        public int size() { return withOutside ? inside + outside : inside; }
+    }
+}
@@ -0,0 +1,190 @@
+package com.mrz_native.core;
+
+/**
+ * Một dòng OCR: text gốc, text đã chuẩn hoá cho MRZ và bounding box (toạ độ ảnh đã xoay).
+ * Dòng không có bounding box có toàn bộ toạ độ = 0.
+ *
+ * Khi dựng từ các symbol của OCR ({@link Builder}), dòng giữ thêm độ tin cậy và toạ độ ngang
+ * của từng ký tự trong norm; nếu không có thì các mảng này là null. Số '<' và số chữ số của norm
+ * được tính sẵn một lần cho các bộ lọc ứng viên.
+ *
+ * Bên ngoài package chỉ đọc (qua accessor), để norm luôn khớp với số '<' / chữ số đã tính sẵn.
+ * Dòng do {@link OcrFrame} cấp được dùng lại cho frame sau (mảng theo ký tự có thể dài hơn norm):
+ * chỉ hợp lệ tới lần {@link OcrFrame#begin()} kế tiếp, không giữ lại.
+ */
+public final class OcrLine {
+    // Chỉ ghi trong package (set, qua OcrFrame / Builder khi dùng lại dòng); bên ngoài đọc qua accessor
+    String raw;
+    String norm;
+    int left;
+    int top;
+    int right;
+    int bottom;
+    // Độ tin cậy [0,1] và biên trái/phải của norm.charAt(i), hoặc null
+    float[] confidences;
+    int[] charLeft;
+    int[] charRight;
+    // Số '<' và số chữ số trong norm, tính trong set
+    int chevrons;
+    int digits;
+
+    public OcrLine(String raw) {
+        this(raw, 0, 0, 0, 0);
+    }
+
+    public OcrLine(String raw, int left, int top, int right, int bottom) {
+        this(raw, MrzLines.normalizeLine(raw), left, top, right, bottom);
+    }
+
+    public OcrLine(String raw, String norm, int left, int top, int right, int bottom) {
+        this(raw, norm, null, null, null, left, top, right, bottom);
+    }
+
+    public OcrLine(String raw, String norm, float[] confidences, int[] charLeft, int[] charRight,
+                   int left, int top, int right, int bottom) {
+        set(raw, norm, confidences, charLeft, charRight, left, top, right, bottom);
+    }
+
+    // Dòng rỗng cho pool của OcrFrame
+    OcrLine() {
+        raw = "";
+        norm = "";
+    }
+
+    void set(String raw, String norm, float[] confidences, int[] charLeft, int[] charRight,
+             int left, int top, int right, int bottom) {
+        this.raw = raw;
+        this.norm = norm;
+        this.confidences = confidences;
+        this.charLeft = charLeft;
+        this.charRight = charRight;
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        int c = 0, d = 0;
+        for (int i = 0, n = norm != null ? norm.length() : 0; i < n; i++) {
+            char ch = norm.charAt(i);
+            if (ch == '<') c++;
+            else if (ch >= '0' && ch <= '9') d++;
+        }
+        chevrons = c;
+        digits = d;
+    }
+
+    public String raw() { return raw; }
+    public String norm() { return norm; }
+    public int left() { return left; }
+    public int top() { return top; }
+    public int right() { return right; }
+    public int bottom() { return bottom; }
+
+    /** Số '<' và số chữ số trong norm. */
+    public int chevrons() { return chevrons; }
+    public int digits() { return digits; }
+
+    /** Dòng có độ tin cậy và toạ độ từng ký tự (dựng từ symbol của OCR). */
+    public boolean hasSymbols() { return confidences != null; }
+
+    /** Biên trái/phải của norm.charAt(i); chỉ hợp lệ khi {@link #hasSymbols()}. */
+    public int charLeft(int i) { return charLeft[i]; }
+    public int charRight(int i) { return charRight[i]; }
+
+    /** Đủ '<' để có thể là dòng MRZ ({@link MrzLines#looksLikeMrzLine}). */
+    public boolean looksLikeMrz() {
+        return norm != null && MrzLines.hasEnoughFillers(norm.length(), chevrons);
+    }
+
+    public float centerX() { return (left + right) / 2f; }
+    public float centerY() { return (top + bottom) / 2f; }
+
+    public float confidenceAt(int i) {
+        return confidences != null && i < confidences.length ? confidences[i] : 1f;
+    }
+
+    /**
+     * Dựng OcrLine từ từng symbol (ký tự) của OCR, chuẩn hoá giống {@link MrzLines#normalizeLine}
+     * nhưng giữ độ tin cậy và toạ độ của từng ký tự. Dùng lại được sau {@link #reset()}.
+     */
+    public static final class Builder {
+        private final StringBuilder norm = new StringBuilder(48);
+        private float[] conf = new float[48];
+        private int[] charLeft = new int[48];
+        private int[] charRight = new int[48];
+
+        public Builder reset() {
+            norm.setLength(0);
+            return this;
+        }
+
+        public Builder appendSymbol(CharSequence text, float confidence, int left, int right) {
+            if (text == null) return this;
+            for (int i = 0; i < text.length(); i++) {
+                char c = Character.toUpperCase(text.charAt(i));
+                if (MrzLines.isMrzChar(c)) append(c, confidence, left, right);
+            }
+            return this;
+        }
+
+        /** Thêm một ký tự đã chuẩn hoá (A-Z, 0-9, '<'). */
+        public Builder append(char c, float confidence, int left, int right) {
+            int n = norm.length();
+            if (n == conf.length) grow();
+            norm.append(c);
+            conf[n] = confidence;
+            charLeft[n] = left;
+            charRight[n] = right;
+            return this;
+        }
+
+        /** Chuẩn hoá cả text (dòng không có symbol), độ tin cậy 1 và toạ độ 0 cho mọi ký tự. */
+        public Builder appendText(CharSequence text) {
+            return appendSymbol(text, 1f, 0, 0);
+        }
+
+        public int length() { return norm.length(); }
+
+        CharSequence text() { return norm; }
+
+        // Chép độ tin cậy / toạ độ vào mảng của line (dùng lại nếu đủ chỗ); norm là String của nội dung builder
+        void fill(OcrLine line, String raw, String norm, boolean withSymbols,
+                  int left, int top, int right, int bottom) {
+            int n = this.norm.length();
+            float[] c = null;
+            int[] l = null, r = null;
+            if (withSymbols) {
+                c = line.confidences != null && line.confidences.length >= n ? line.confidences : new float[conf.length];
+                l = line.charLeft != null && line.charLeft.length >= n ? line.charLeft : new int[conf.length];
+                r = line.charRight != null && line.charRight.length >= n ? line.charRight : new int[conf.length];
+                System.arraycopy(conf, 0, c, 0, n);
+                System.arraycopy(charLeft, 0, l, 0, n);
+                System.arraycopy(charRight, 0, r, 0, n);
+            }
+            line.set(raw, norm, c, l, r, left, top, right, bottom);
+        }
+
+        public OcrLine build(String raw, int left, int top, int right, int bottom) {
+            int n = norm.length();
+            float[] c = new float[n];
+            int[] l = new int[n];
+            int[] r = new int[n];
+            System.arraycopy(conf, 0, c, 0, n);
+            System.arraycopy(charLeft, 0, l, 0, n);
+            System.arraycopy(charRight, 0, r, 0, n);
+            return new OcrLine(raw, norm.toString(), c, l, r, left, top, right, bottom);
+        }
+
+        private void grow() {
+            int cap = conf.length * 2;
+            float[] c = new float[cap];
+            int[] l = new int[cap];
+            int[] r = new int[cap];
+            System.arraycopy(conf, 0, c, 0, conf.length);
+            System.arraycopy(charLeft, 0, l, 0, charLeft.length);
+            System.arraycopy(charRight, 0, r, 0, charRight.length);
+            conf = c;
+            charLeft = l;
+            charRight = r;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mrz_native.core.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Điểm vào dòng lệnh cho kiểm tra hàng loạt:
+ * <pre>
+ * java -jar mrz-core.jar [--threads N] [--chunk N] [--mmap] [input|-] [output|-]
+ * </pre>
+ * Input/output mặc định là stdin/stdout; thống kê (records/s) được in ra stderr.
+ * --mmap đọc file input bằng memory map (xem {@link MrzBatchValidator#runMapped}).
+ */
+public final class MrzBatchCli {
+
+    private MrzBatchCli() {}
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunk = MrzBatchValidator.DEFAULT_CHUNK;
+        String input = "-";
+        String output = "-";
+        boolean mmap = false;
+        int positional = 0;
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (("--threads".equals(a) || "--chunk".equals(a)) && i + 1 < args.length) {
+                int v;
+                try {
+                    v = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    usage("invalid number: " + args[i]);
+                    return;
+                }
+                if ("--threads".equals(a)) threads = v; else chunk = v;
+            } else if ("--mmap".equals(a)) {
+                mmap = true;
+            } else if (a.startsWith("--") || positional == 2) {
+                usage("unexpected argument: " + a);
+                return;
+            } else if (positional++ == 0) {
+                input = a;
+            } else {
+                output = a;
+            }
+        }
+        if (threads < 1 || chunk < 1) {
+            usage("--threads and --chunk must be >= 1");
+            return;
+        }
+        if (mmap && "-".equals(input)) {
+            usage("--mmap needs an input file");
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            MrzBatchValidator validator = new MrzBatchValidator(pool, chunk);
+            MrzBatchValidator.Stats stats;
+            if (mmap) {
+                try (Writer out = openOutput(output)) {
+                    stats = validator.runMapped(Paths.get(input), out);
+                }
+            } else {
+                try (Reader in = openInput(input);
+                     Writer out = openOutput(output)) {
+                    stats = validator.run(in, out);
+                }
+            }
+            System.err.println(stats);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Giải mã UTF-8 (ASCII là tập con) ở chế độ thay thế cho cả file lẫn stdin: byte lạ thành ký tự
+     * thay thế và được báo lỗi ở bản ghi chứa nó, thay vì dừng cả lượt chạy bằng MalformedInputException.
+     */
+    static Reader openInput(String input) throws IOException {
+        InputStream in = "-".equals(input) ? System.in : Files.newInputStream(Paths.get(input));
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    private static Writer openOutput(String output) throws IOException {
+        return "-".equals(output)
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16)
+                : Files.newBufferedWriter(Paths.get(output), StandardCharsets.US_ASCII);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("usage: mrz-batch [--threads N] [--chunk N] [--mmap] [input|-] [output|-]");
+        System.exit(2);
+    }
+}
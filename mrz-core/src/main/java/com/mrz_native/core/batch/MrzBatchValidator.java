@@ -0,0 +1,288 @@
+package com.mrz_native.core.batch;
+
+import com.mrz_native.core.MrzLayout;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Kiểm tra lại hàng loạt bản ghi MRZ song song trên ForkJoinPool.
+ *
+ * Input được đọc theo chunk; mỗi chunk chia thành các đoạn nhỏ (leaf) kiểm tra song song, mỗi leaf
+ * ghi JSON Lines vào bộ đệm riêng nên output giữ đúng thứ tự input mà không cần sắp xếp lại.
+ * Chunk kế tiếp được đọc trong lúc chunk trước đang kiểm tra.
+ */
+public final class MrzBatchValidator {
+
+    public static final int DEFAULT_CHUNK = 16384;
+    // Số bản ghi mỗi leaf: đủ lớn để chi phí fork không đáng kể
+    private static final int LEAF = 512;
+
+    public static final class Stats {
+        public final long records;
+        public final long valid;
+        public final long elapsedNanos;
+
+        Stats(long records, long valid, long elapsedNanos) {
+            this.records = records;
+            this.valid = valid;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long invalid() { return records - valid; }
+
+        public double recordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("records=%d valid=%d invalid=%d elapsed=%dms rate=%.0f records/s",
+                    records, valid, invalid(), elapsedNanos / 1_000_000, recordsPerSecond());
+        }
+    }
+
+    // Một chunk bản ghi cùng bộ đệm output theo leaf; hai chunk luân phiên nhau
+    private abstract static class Chunk {
+        final StringBuilder[] out;
+        final int[] valid;
+        int size;
+
+        Chunk(int capacity) {
+            int leaves = (capacity + LEAF - 1) / LEAF;
+            out = new StringBuilder[leaves];
+            valid = new int[leaves];
+            for (int i = 0; i < leaves; i++) out[i] = new StringBuilder(LEAF * 128);
+        }
+
+        int leaves() { return (size + LEAF - 1) / LEAF; }
+
+        abstract boolean validate(int i, MrzRecordValidator v, StringBuilder sb);
+    }
+
+    private static final class TextChunk extends Chunk {
+        final MrzRecord[] records;
+
+        TextChunk(int capacity) {
+            super(capacity);
+            records = new MrzRecord[capacity];
+        }
+
+        @Override
+        boolean validate(int i, MrzRecordValidator v, StringBuilder sb) {
+            boolean ok = v.validate(records[i], sb);
+            records[i] = null;
+            return ok;
+        }
+    }
+
+    // Bản ghi trong vùng map: chỉ giữ vị trí, mỗi luồng kiểm tra qua MrzRecordView của riêng nó
+    private static final class MappedChunk extends Chunk {
+        final ByteBuffer[] bufs;
+        final long[] index;
+        final long[] line;
+        final MrzLayout[] layout;
+        final int[] lineCount;
+        final int[] offsets;
+        final int[] lengths;
+
+        MappedChunk(int capacity) {
+            super(capacity);
+            bufs = new ByteBuffer[capacity];
+            index = new long[capacity];
+            line = new long[capacity];
+            layout = new MrzLayout[capacity];
+            lineCount = new int[capacity];
+            offsets = new int[capacity * 3];
+            lengths = new int[capacity * 3];
+        }
+
+        void add(MrzRecordView v) {
+            int i = size++;
+            bufs[i] = v.buf;
+            index[i] = v.index;
+            line[i] = v.line;
+            layout[i] = v.layout;
+            lineCount[i] = v.lineCount;
+            System.arraycopy(v.offsets, 0, offsets, i * 3, 3);
+            System.arraycopy(v.lengths, 0, lengths, i * 3, 3);
+        }
+
+        @Override
+        boolean validate(int i, MrzRecordValidator v, StringBuilder sb) {
+            MrzRecordView view = VIEW.get();
+            view.buf = bufs[i];
+            view.index = index[i];
+            view.line = line[i];
+            view.layout = layout[i];
+            view.lineCount = lineCount[i];
+            System.arraycopy(offsets, i * 3, view.offsets, 0, 3);
+            System.arraycopy(lengths, i * 3, view.lengths, 0, 3);
+            // Không giữ segment đã xử lý xong
+            bufs[i] = null;
+            return v.validate(view, sb);
+        }
+    }
+
+    private static final class Validate extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Chunk chunk;
+        final int lo;
+        final int hi;
+
+        Validate(Chunk chunk, int lo, int hi) {
+            this.chunk = chunk;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Validate(chunk, lo, mid), new Validate(chunk, mid, hi));
+                return;
+            }
+            MrzRecordValidator v = VALIDATOR.get();
+            StringBuilder sb = chunk.out[lo];
+            sb.setLength(0);
+            int valid = 0;
+            int end = Math.min(chunk.size, (lo + 1) * LEAF);
+            for (int i = lo * LEAF; i < end; i++) {
+                if (chunk.validate(i, v, sb)) valid++;
+            }
+            chunk.valid[lo] = valid;
+        }
+    }
+
+    private static final ThreadLocal<MrzRecordValidator> VALIDATOR =
+            ThreadLocal.withInitial(MrzRecordValidator::new);
+    private static final ThreadLocal<MrzRecordView> VIEW = ThreadLocal.withInitial(MrzRecordView::new);
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public MrzBatchValidator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK);
+    }
+
+    public MrzBatchValidator(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be >= 1");
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Đọc toàn bộ in, ghi một dòng JSON cho mỗi bản ghi vào out theo thứ tự input.
+     */
+    public Stats run(Reader in, Writer out) throws IOException {
+        long start = System.nanoTime();
+        MrzRecordReader reader = new MrzRecordReader(in);
+        TextChunk[] chunks = {new TextChunk(chunkSize), new TextChunk(chunkSize)};
+        char[] buf = new char[8192];
+        long records = 0;
+        long valid = 0;
+
+        int cur = 0;
+        chunks[cur].size = reader.next(chunks[cur].records, chunkSize);
+        while (chunks[cur].size > 0) {
+            TextChunk c = chunks[cur];
+            ForkJoinTask<Void> task = pool.submit(new Validate(c, 0, c.leaves()));
+            // Đọc chunk sau trong lúc chunk này đang kiểm tra
+            TextChunk next = chunks[cur ^ 1];
+            next.size = reader.next(next.records, chunkSize);
+            task.join();
+            valid += write(out, c, buf);
+            records += c.size;
+            cur ^= 1;
+        }
+        out.flush();
+        return new Stats(records, valid, System.nanoTime() - start);
+    }
+
+    /**
+     * Như {@link #run} nhưng đọc file bằng {@link MrzMappedReader}: dòng không được giải mã thành String,
+     * chỉ bản ghi hợp lệ mới tạo String. Luồng gọi tách bản ghi (chỉ ghi vị trí) vào chunk,
+     * các chunk được kiểm tra song song trên pool như {@link #run}.
+     */
+    public Stats runMapped(Path input, Writer out) throws IOException {
+        long start = System.nanoTime();
+        MappedRun run = new MappedRun(out);
+        long records;
+        try (MrzMappedReader reader = new MrzMappedReader(input)) {
+            records = reader.forEach(run::add);
+            run.finish();
+        }
+        out.flush();
+        return new Stats(records, run.valid, System.nanoTime() - start);
+    }
+
+    // Hai chunk luân phiên: chunk đầy được gửi cho pool, chunk trước đó được chờ và ghi ra
+    private final class MappedRun {
+        final Writer out;
+        final MappedChunk[] chunks = {new MappedChunk(chunkSize), new MappedChunk(chunkSize)};
+        final char[] buf = new char[8192];
+        int cur;
+        ForkJoinTask<Void> pending;
+        long valid;
+
+        MappedRun(Writer out) {
+            this.out = out;
+        }
+
+        void add(MrzRecordView v) throws IOException {
+            MappedChunk c = chunks[cur];
+            c.add(v);
+            if (c.size == chunkSize) submit();
+        }
+
+        void submit() throws IOException {
+            MappedChunk c = chunks[cur];
+            ForkJoinTask<Void> task = pool.submit(new Validate(c, 0, c.leaves()));
+            drain();
+            pending = task;
+            cur ^= 1;
+            chunks[cur].size = 0;
+        }
+
+        // Chờ và ghi chunk đang kiểm tra (chunk kia)
+        void drain() throws IOException {
+            if (pending == null) return;
+            pending.join();
+            pending = null;
+            valid += write(out, chunks[cur ^ 1], buf);
+        }
+
+        void finish() throws IOException {
+            if (chunks[cur].size > 0) submit();
+            drain();
+        }
+    }
+
+    // Ghi output của các leaf theo thứ tự; trả về số bản ghi hợp lệ của chunk
+    private static long write(Writer out, Chunk c, char[] buf) throws IOException {
+        long valid = 0;
+        for (int i = 0; i < c.leaves(); i++) {
+            write(out, c.out[i], buf);
+            valid += c.valid[i];
+        }
+        return valid;
+    }
+
+    // Ghi StringBuilder qua bộ đệm char[], không tạo String trung gian
+    private static void write(Writer out, StringBuilder sb, char[] buf) throws IOException {
+        int len = sb.length();
+        for (int off = 0; off < len; off += buf.length) {
+            int n = Math.min(buf.length, len - off);
+            sb.getChars(off, off + n, buf, 0);
+            out.write(buf, 0, n);
+        }
+    }
+}
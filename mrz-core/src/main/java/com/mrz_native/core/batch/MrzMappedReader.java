@@ -0,0 +1,144 @@
+package com.mrz_native.core.batch;
+
+import com.mrz_native.core.MrzLayout;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Đọc file bản ghi MRZ (ASCII) bằng memory map theo từng segment, không giải mã thành String.
+ *
+ * Quy tắc tách bản ghi giống {@link MrzRecordReader}: bỏ BOM đầu file, loại MRZ theo độ dài dòng đầu,
+ * bỏ dòng trống, bỏ khoảng trắng và '\r' hai đầu dòng. Độ dài dòng tính theo byte: khớp với đường đọc text
+ * khi byte lạ là byte đơn (ký tự UTF-8 nhiều byte làm dòng dài hơn, bản ghi vẫn bị báo lỗi). Bản ghi nằm vắt qua cuối segment được đọc lại từ đầu
+ * ở segment sau (segment mới bắt đầu đúng tại bản ghi đó), nên mỗi bản ghi luôn liền trong một buffer.
+ */
+public final class MrzMappedReader implements Closeable {
+
+    public static final long DEFAULT_SEGMENT = 256L << 20;
+
+    /** Nhận từng bản ghi; view chỉ hợp lệ trong lời gọi. */
+    public interface RecordHandler {
+        void onRecord(MrzRecordView record) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final long segmentSize;
+    private final MrzRecordView view = new MrzRecordView();
+
+    public MrzMappedReader(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT);
+    }
+
+    public MrzMappedReader(Path file, long segmentSize) throws IOException {
+        if (segmentSize < 1 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSize must be in [1, 2^31)");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Duyệt toàn bộ file theo thứ tự.
+     * @return số bản ghi đã đọc
+     */
+    public long forEach(RecordHandler handler) throws IOException {
+        long size = channel.size();
+        long pos = 0;
+        long lineNo = 0;
+        long records = 0;
+        int[] line = new int[2];
+        while (pos < size) {
+            int len = (int) Math.min(segmentSize, size - pos);
+            boolean last = pos + len == size;
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            view.buf = buf;
+
+            int p = 0;
+            // BOM UTF-8 ở đầu file, như MrzRecordReader
+            if (pos == 0 && len >= 3 && (buf.get(0) & 0xFF) == 0xEF
+                    && (buf.get(1) & 0xFF) == 0xBB && (buf.get(2) & 0xFF) == 0xBF) {
+                p = 3;
+            }
+            while (p < len) {
+                int recordStart = p;
+                long recordLine = lineNo;
+                // Dòng đầu: bỏ qua dòng trống
+                int next;
+                do {
+                    next = nextLine(buf, p, len, last, line);
+                    if (next < 0) break;
+                    lineNo++;
+                    p = next;
+                } while (line[1] == line[0] && p < len);
+                if (next < 0) {
+                    // Dòng chưa trọn trong segment này: đọc lại từ đầu bản ghi ở segment sau
+                    p = recordStart;
+                    lineNo = recordLine;
+                    break;
+                }
+                // Chỉ còn dòng trống tới cuối segment
+                if (line[1] == line[0]) break;
+
+                MrzRecordView v = view;
+                v.index = records;
+                v.line = lineNo;
+                v.layout = MrzRecordReader.layoutFor(line[1] - line[0]);
+                v.offsets[0] = line[0];
+                v.lengths[0] = line[1] - line[0];
+                v.lineCount = 1;
+                boolean complete = true;
+                int want = v.layout == null ? 1 : v.layout.lineCount;
+                while (v.lineCount < want && p < len) {
+                    next = nextLine(buf, p, len, last, line);
+                    if (next < 0) {
+                        complete = false;
+                        break;
+                    }
+                    lineNo++;
+                    p = next;
+                    v.offsets[v.lineCount] = line[0];
+                    v.lengths[v.lineCount] = line[1] - line[0];
+                    v.lineCount++;
+                }
+                if ((!complete || v.lineCount < want) && !last) {
+                    p = recordStart;
+                    lineNo = recordLine;
+                    break;
+                }
+                handler.onRecord(v);
+                records++;
+            }
+            if (p == 0 && !last) throw new IOException("record longer than segment at offset " + pos);
+            pos += p;
+        }
+        return records;
+    }
+
+    /**
+     * Tìm dòng bắt đầu tại from: ghi [start, end) đã bỏ khoảng trắng hai đầu vào line.
+     * @return vị trí sau '\n', hoặc -1 nếu dòng chưa kết thúc trong buffer (và chưa phải cuối file)
+     */
+    private static int nextLine(MappedByteBuffer buf, int from, int len, boolean last, int[] line) {
+        int i = from;
+        while (i < len && buf.get(i) != '\n') i++;
+        if (i == len && !last) return -1;
+        int start = from;
+        int end = i;
+        // So sánh không dấu: byte >= 0x80 không phải khoảng trắng (như String.trim)
+        while (start < end && (buf.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (buf.get(end - 1) & 0xFF) <= ' ') end--;
+        line[0] = start;
+        line[1] = end;
+        return i < len ? i + 1 : len;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
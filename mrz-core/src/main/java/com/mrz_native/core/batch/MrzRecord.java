@@ -0,0 +1,21 @@
+package com.mrz_native.core.batch;
+
+import com.mrz_native.core.MrzLayout;
+
+/**
+ * Một bản ghi MRZ đọc từ file: các dòng gốc, loại MRZ suy ra từ độ dài dòng đầu
+ * (null nếu không nhận ra) và số dòng bắt đầu trong file (từ 1).
+ */
+public final class MrzRecord {
+    public final long index;
+    public final long line;
+    public final MrzLayout layout;
+    public final String[] lines;
+
+    public MrzRecord(long index, long line, MrzLayout layout, String[] lines) {
+        this.index = index;
+        this.line = line;
+        this.layout = layout;
+        this.lines = lines;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mrz_native.core.batch;
+
+import com.mrz_native.core.MrzLayout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Đọc bản ghi MRZ từ text: TD1 là 3 dòng 30 ký tự, TD2 là 2 dòng 36, TD3 là 2 dòng 44.
+ * Loại MRZ được suy ra từ độ dài dòng đầu của bản ghi; dòng trống giữa các bản ghi được bỏ qua.
+ * Dòng đầu có độ dài lạ tạo một bản ghi một dòng với layout null để báo lỗi, không làm lệch các bản ghi sau.
+ * BOM ở đầu input được bỏ qua.
+ */
+public final class MrzRecordReader {
+
+    private final BufferedReader in;
+    private long lineNo;
+    private long recordNo;
+
+    public MrzRecordReader(Reader in) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+    }
+
+    /** @return bản ghi kế tiếp, hoặc null khi hết input */
+    public MrzRecord next() throws IOException {
+        String first;
+        do {
+            first = in.readLine();
+            if (first == null) return null;
+            lineNo++;
+            // BOM của file UTF-8 (xuất từ Windows) không thuộc bản ghi
+            if (lineNo == 1 && first.startsWith("\uFEFF")) first = first.substring(1);
+            first = first.trim();
+        } while (first.isEmpty());
+
+        long start = lineNo;
+        MrzLayout layout = layoutFor(first.length());
+        if (layout == null) return new MrzRecord(recordNo++, start, null, new String[]{first});
+
+        String[] lines = new String[layout.lineCount];
+        lines[0] = first;
+        for (int r = 1; r < lines.length; r++) {
+            String s = in.readLine();
+            if (s == null) break;
+            lineNo++;
+            lines[r] = s.trim();
+        }
+        return new MrzRecord(recordNo++, start, layout, lines);
+    }
+
+    /**
+     * Đọc tối đa max bản ghi vào dst.
+     * @return số bản ghi đã đọc, 0 khi hết input
+     */
+    public int next(MrzRecord[] dst, int max) throws IOException {
+        int n = 0;
+        while (n < max) {
+            MrzRecord r = next();
+            if (r == null) break;
+            dst[n++] = r;
+        }
+        return n;
+    }
+
+    static MrzLayout layoutFor(int length) {
+        for (MrzLayout l : MrzLayout.values()) {
+            if (l.lineLength == length) return l;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,195 @@
+package com.mrz_native.core.batch;
+
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzParser.MrzResult;
+
+/**
+ * Kiểm tra một bản ghi MRZ bằng MrzParser và ghi kết quả ra một dòng JSON.
+ *
+ * Bản ghi hợp lệ ghi các trường đã parse; bản ghi lỗi ghi lý do theo từng trường
+ * (độ dài dòng, ký tự ngoài ASCII, check digit, ngày không hợp lệ, composite).
+ * Chữ thường được đổi sang chữ hoa (chỉ trong ASCII) trước khi kiểm tra.
+ * Không thread-safe: mỗi luồng dùng một instance, các bộ đệm được dùng lại giữa các bản ghi.
+ */
+public final class MrzRecordValidator {
+
+    private final MrzResult result = new MrzResult();
+    private final char[][] rows = new char[3][44];
+    // Độ dài thực của từng dòng, -1 nếu thiếu dòng
+    private final int[] lengths = new int[3];
+    // Cột (từ 0) của ký tự đầu tiên ngoài ASCII in được trên từng dòng, -1 nếu không có
+    private final int[] badColumn = new int[3];
+    private boolean firstError;
+
+    /**
+     * Kiểm tra record và nối một dòng JSON (kèm '\n') vào json.
+     * @return true nếu bản ghi hợp lệ
+     */
+    public boolean validate(MrzRecord record, StringBuilder json) {
+        MrzLayout layout = record.layout;
+        if (layout == null) {
+            unrecognized(json, record.index, record.line, record.lines[0].length());
+            return false;
+        }
+        boolean lengthsOk = true;
+        boolean ascii = true;
+        for (int r = 0; r < layout.lineCount; r++) {
+            String s = record.lines[r];
+            lengths[r] = s == null ? -1 : s.length();
+            if (lengths[r] != layout.lineLength) lengthsOk = false;
+            badColumn[r] = s == null ? -1 : firstNonAscii(s);
+            if (badColumn[r] >= 0) ascii = false;
+            load(s, rows[r], layout.lineLength);
+        }
+        if (lengthsOk && ascii && layout.parse(rows, result)) {
+            valid(json, record.index, record.line, layout);
+            return true;
+        }
+        invalid(json, record.index, record.line, layout, lengthsOk, null);
+        return false;
+    }
+
+    /**
+     * Như {@link #validate(MrzRecord, StringBuilder)} cho bản ghi trong buffer: kiểm tra trên byte của bản ghi,
+     * không tạo String trung gian cho dòng, chỉ bản ghi hợp lệ mới tạo String cho các trường.
+     */
+    public boolean validate(MrzRecordView record, StringBuilder json) {
+        MrzLayout layout = record.layout();
+        if (layout == null) {
+            unrecognized(json, record.index(), record.line(), record.lineLength(0));
+            return false;
+        }
+        if (record.load(result)) {
+            valid(json, record.index(), record.line(), layout);
+            return true;
+        }
+        boolean lengthsOk = record.lineCount() == layout.lineCount;
+        for (int r = 0; r < layout.lineCount; r++) {
+            lengths[r] = r < record.lineCount() ? record.lineLength(r) : -1;
+            badColumn[r] = r < record.lineCount() ? record.firstNonAscii(r) : -1;
+            if (lengths[r] != layout.lineLength) lengthsOk = false;
+        }
+        invalid(json, record.index(), record.line(), layout, lengthsOk, record);
+        return false;
+    }
+
+    private static void header(StringBuilder json, long index, long line) {
+        json.append("{\"record\":").append(index)
+                .append(",\"line\":").append(line);
+    }
+
+    private void unrecognized(StringBuilder json, long index, long line, int length) {
+        header(json, index, line);
+        json.append(",\"layout\":null,\"valid\":false,\"errors\":[");
+        firstError = true;
+        error(json, "record", "unrecognized line length " + length);
+        json.append("]}\n");
+    }
+
+    private void valid(StringBuilder json, long index, long line, MrzLayout layout) {
+        header(json, index, line);
+        json.append(",\"layout\":\"").append(layout.name()).append('"');
+        json.append(",\"valid\":true");
+        field(json, "documentType", result.documentType);
+        field(json, "issuingCountry", result.issuingCountry);
+        field(json, "documentNumber", result.documentNumber);
+        field(json, "name", result.name);
+        field(json, "nationality", result.nationality);
+        field(json, "dob", result.dob);
+        field(json, "gender", result.gender);
+        field(json, "expiryDate", result.expiryDate);
+        field(json, "personalNumber", result.personalNumber);
+        json.append("}\n");
+    }
+
+    // Lý do lỗi theo từng trường, dựa trên lengths/badColumn và rows của bản ghi hiện tại (byte của view nếu có)
+    private void invalid(StringBuilder json, long index, long line, MrzLayout layout, boolean lengthsOk,
+                         MrzRecordView view) {
+        header(json, index, line);
+        json.append(",\"layout\":\"").append(layout.name()).append('"');
+        json.append(",\"valid\":false,\"errors\":[");
+        firstError = true;
+        for (int r = 0; r < layout.lineCount; r++) {
+            if (lengths[r] < 0) {
+                error(json, "line" + (r + 1), "missing");
+            } else if (lengths[r] != layout.lineLength) {
+                error(json, "line" + (r + 1), "length " + lengths[r] + ", expected " + layout.lineLength);
+            }
+            if (badColumn[r] >= 0) {
+                error(json, "line" + (r + 1), "non-ASCII character at column " + (badColumn[r] + 1));
+                lengthsOk = false;
+            }
+        }
+        boolean fieldsOk = true;
+        for (MrzLayout.Field f : layout.fields()) {
+            if (!f.hasCheckDigit()) continue;
+            if (!(view != null ? view.isCheckDigitValid(f) : f.isValid(rows))) {
+                error(json, f.name, "check digit");
+                fieldsOk = false;
+            } else if (f.charClass == MrzLayout.CharClass.DIGIT
+                    && !(view != null ? view.isDateValid(f) : isValidDate(rows[f.line], f.start))) {
+                error(json, f.name, "invalid date");
+                fieldsOk = false;
+            }
+        }
+        // Mọi trường riêng đều đúng, dòng đủ dài và sạch mà parser vẫn từ chối: chỉ còn composite
+        if (fieldsOk && lengthsOk) error(json, "composite", "check digit");
+        json.append("]}\n");
+    }
+
+    private static void load(String s, char[] row, int len) {
+        int n = s == null ? 0 : Math.min(s.length(), len);
+        for (int i = 0; i < n; i++) row[i] = upper(s.charAt(i));
+        for (int i = n; i < len; i++) row[i] = '<';
+    }
+
+    // Chỉ đổi a-z: Character.toUpperCase đưa cả vài ký tự ngoài ASCII (vd. 'ı') về chữ MRZ hợp lệ
+    private static char upper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    private static int firstNonAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x20 || c > 0x7E) return i;
+        }
+        return -1;
+    }
+
+    // YYMMDD như MrzParser
+    private static boolean isValidDate(char[] s, int off) {
+        for (int i = off; i < off + 6; i++) {
+            if (s[i] < '0' || s[i] > '9') return false;
+        }
+        int mm = (s[off + 2] - '0') * 10 + (s[off + 3] - '0');
+        int dd = (s[off + 4] - '0') * 10 + (s[off + 5] - '0');
+        return mm >= 1 && mm <= 12 && dd >= 1 && dd <= 31;
+    }
+
+    private void error(StringBuilder json, String field, String reason) {
+        if (!firstError) json.append(',');
+        firstError = false;
+        json.append("{\"field\":");
+        string(json, field);
+        json.append(",\"reason\":");
+        string(json, reason);
+        json.append('}');
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        json.append(",\"").append(name).append("\":");
+        if (value == null) json.append("null");
+        else string(json, value);
+    }
+
+    private static void string(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') json.append('\\').append(c);
+            else if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+            else json.append(c);
+        }
+        json.append('"');
+    }
+}
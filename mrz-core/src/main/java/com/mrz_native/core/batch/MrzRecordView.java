@@ -0,0 +1,189 @@
+package com.mrz_native.core.batch;
+
+import com.mrz_native.core.MrzCheckDigit;
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzParser;
+import com.mrz_native.core.MrzParser.MrzResult;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Bản ghi MRZ nằm trực tiếp trong ByteBuffer (thường là vùng map từ file), không giải mã thành String.
+ *
+ * Kiểm tra chạy trên byte: các dòng được chép sang bộ đệm byte[] dùng lại (chữ thường a-z đổi sang chữ hoa
+ * như đường đọc text) rồi check digit, ngày và composite được kiểm tra bằng các hàm byte[] của MrzCheckDigit,
+ * cùng quy tắc với MrzParser (MrzRecordViewTest so hai bên trên bản ghi sinh ngẫu nhiên và đột biến).
+ * Chỉ bản ghi hợp lệ mới được chép sang char[] và parse bằng MrzParser để tạo String các trường;
+ * String của một trường riêng chỉ được tạo khi caller hỏi ({@link #field}).
+ * Byte ngoài ASCII in được làm bản ghi không hợp lệ ({@link #firstNonAscii}).
+ * Instance được {@link MrzMappedReader} dùng lại cho mọi bản ghi: chỉ hợp lệ trong lúc xử lý bản ghi hiện tại.
+ */
+public final class MrzRecordView {
+
+    ByteBuffer buf;
+    long index;
+    long line;
+    MrzLayout layout;
+    final int[] offsets = new int[3];
+    final int[] lengths = new int[3];
+    int lineCount;
+
+    // Các dòng của bản ghi hiện tại (in hoa, pad '<' tới độ dài layout), nạp bởi isValid / load
+    private final byte[][] bytes = new byte[3][44];
+    private final char[][] rows = new char[3][44];
+    private final char[] work = new char[44];
+
+    public long index() { return index; }
+
+    /** Số dòng (từ 1) của dòng đầu bản ghi trong file. */
+    public long line() { return line; }
+
+    /** Loại MRZ suy ra từ độ dài dòng đầu, null nếu không nhận ra. */
+    public MrzLayout layout() { return layout; }
+
+    /** Số dòng thực có (ít hơn layout.lineCount nếu file kết thúc giữa bản ghi). */
+    public int lineCount() { return lineCount; }
+
+    /** Độ dài dòng r tính theo byte. */
+    public int lineLength(int r) { return lengths[r]; }
+
+    /** Cột (từ 0) của byte đầu tiên ngoài ASCII in được trên dòng r, -1 nếu không có. */
+    public int firstNonAscii(int r) {
+        int off = offsets[r];
+        for (int i = 0; i < lengths[r]; i++) {
+            int b = buf.get(off + i) & 0xFF;
+            if (b < 0x20 || b > 0x7E) return i;
+        }
+        return -1;
+    }
+
+    /** Bản ghi có hợp lệ không; không tạo String nào. */
+    public boolean isValid() {
+        return layout != null && loadBytes() && check();
+    }
+
+    /**
+     * Giá trị một trường như MrzParser trả về: tên được tách họ/tên, số giấy tờ và trường tuỳ chọn bỏ '<',
+     * các trường còn lại giữ nguyên.
+     */
+    public String field(MrzLayout.Field f) {
+        int off = offsets[f.line] + f.start;
+        widen(off, f.length, work);
+        if ("name".equals(f.name)) return MrzParser.parseName(work, 0, f.length, work);
+        if (f.charClass == MrzLayout.CharClass.ALNUM) {
+            int n = 0;
+            for (int i = 0; i < f.length; i++) {
+                if (work[i] != '<') work[n++] = work[i];
+            }
+            return new String(work, 0, n);
+        }
+        return new String(work, 0, f.length);
+    }
+
+    /** Parse toàn bộ bản ghi vào out; false nếu bản ghi không hợp lệ (khi đó không tạo String nào). */
+    public boolean load(MrzResult out) {
+        out.clear();
+        if (!isValid()) return false;
+        int len = layout.lineLength;
+        for (int r = 0; r < layout.lineCount; r++) {
+            byte[] src = bytes[r];
+            char[] dst = rows[r];
+            for (int i = 0; i < len; i++) dst[i] = (char) src[i];
+        }
+        return layout.parse(rows, out);
+    }
+
+    /** Check digit của trường f khớp không ({@link MrzLayout.Field#isValid}); dùng sau {@link #load}. */
+    boolean isCheckDigitValid(MrzLayout.Field f) {
+        return f.isValid(bytes);
+    }
+
+    /** Trường ngày f có phải YYMMDD hợp lệ không; dùng sau {@link #load}. */
+    boolean isDateValid(MrzLayout.Field f) {
+        return isValidDate(bytes[f.line], f.start);
+    }
+
+    // Chép các dòng sang bytes: chỉ đổi a-z sang chữ hoa như MrzRecordValidator, pad '<' tới độ dài layout.
+    // false nếu thiếu dòng, sai độ dài hoặc có byte ngoài ASCII in được
+    private boolean loadBytes() {
+        int len = layout.lineLength;
+        boolean clean = lineCount == layout.lineCount;
+        for (int r = 0; r < layout.lineCount; r++) {
+            byte[] row = bytes[r];
+            int n = 0;
+            if (r < lineCount) {
+                if (lengths[r] != len) clean = false;
+                n = Math.min(lengths[r], len);
+                int off = offsets[r];
+                for (int i = 0; i < n; i++) {
+                    int b = buf.get(off + i) & 0xFF;
+                    if (b < 0x20 || b > 0x7E) clean = false;
+                    row[i] = (byte) (b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b);
+                }
+            }
+            for (int i = n; i < len; i++) row[i] = '<';
+        }
+        return clean;
+    }
+
+    // Check digit và ngày của từng trường, rồi composite như MrzParser
+    private boolean check() {
+        List<MrzLayout.Field> fields = layout.fields();
+        for (int i = 0; i < fields.size(); i++) {
+            MrzLayout.Field f = fields.get(i);
+            if (!f.hasCheckDigit()) continue;
+            if (!f.isValid(bytes)) return false;
+            if (f.charClass == MrzLayout.CharClass.DIGIT && !isDateValid(f)) return false;
+        }
+        byte[] a = bytes[0];
+        byte[] b = bytes[1];
+        switch (layout) {
+            case TD3: {
+                // docNumber+check, dob+check, expiry+check+personal+check
+                int sum = MrzCheckDigit.weighted(MrzCheckDigit.partial(b, 0, 10), 0)
+                        + MrzCheckDigit.weighted(MrzCheckDigit.partial(b, 13, 7), 10)
+                        + MrzCheckDigit.weighted(MrzCheckDigit.partial(b, 21, 22), 17);
+                return MrzCheckDigit.matches(sum, (char) b[43]);
+            }
+            case TD1: {
+                char check = (char) b[29];
+                long optional1 = MrzCheckDigit.partial(a, 15, 15);
+                // A: docNumber+check, dob+check, expiry+check, optional1
+                int sumA = MrzCheckDigit.weighted(MrzCheckDigit.partial(a, 5, 10), 0)
+                        + MrzCheckDigit.weighted(MrzCheckDigit.partial(b, 0, 7), 10)
+                        + MrzCheckDigit.weighted(MrzCheckDigit.partial(b, 8, 7), 17)
+                        + MrzCheckDigit.weighted(optional1, 24);
+                if (MrzCheckDigit.matches(sumA, check)) return true;
+                // B: docNumber, dob, expiry, optional1, optional2
+                int sumB = MrzCheckDigit.weighted(MrzCheckDigit.partial(a, 5, 9), 0)
+                        + MrzCheckDigit.weighted(MrzCheckDigit.partial(b, 0, 6), 9)
+                        + MrzCheckDigit.weighted(MrzCheckDigit.partial(b, 8, 6), 15)
+                        + MrzCheckDigit.weighted(optional1, 21)
+                        + MrzCheckDigit.weighted(MrzCheckDigit.partial(b, 18, 11), 36);
+                return MrzCheckDigit.matches(sumB, check);
+            }
+            default:
+                // TD2: MrzParser không kiểm tra composite
+                return true;
+        }
+    }
+
+    // YYMMDD như MrzParser
+    private static boolean isValidDate(byte[] s, int off) {
+        for (int i = off; i < off + 6; i++) {
+            if (s[i] < '0' || s[i] > '9') return false;
+        }
+        int mm = (s[off + 2] - '0') * 10 + (s[off + 3] - '0');
+        int dd = (s[off + 4] - '0') * 10 + (s[off + 5] - '0');
+        return mm >= 1 && mm <= 12 && dd >= 1 && dd <= 31;
+    }
+
+    // Byte -> char, chỉ đổi a-z sang chữ hoa như MrzRecordValidator
+    private void widen(int off, int len, char[] dst) {
+        for (int i = 0; i < len; i++) {
+            int b = buf.get(off + i) & 0xFF;
+            dst[i] = (char) (b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.mrz_native.core.image;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lọc frame trước OCR bằng vài phép đo rẻ trên mặt phẳng Y (luma) trong vùng MRZ.
+ *
+ * Vùng được lấy mẫu thưa thành lưới tối đa MAX_SAMPLES mẫu theo cạnh dài, rồi đo:
+ * - độ nét: phương sai Laplacian 4 lân cận chia cho phương sai luma trên lưới mẫu
+ *   (ảnh nhoè khi đang lấy nét có tỉ số thấp, bất kể độ tương phản);
+ * - cháy sáng: tỉ lệ mẫu >= CLIP_LEVEL (lóa trên giấy tờ ép plastic); chỉ loại frame khi lóa che mất
+ *   các dòng chữ, trang ép plastic lóa một phần mà dòng MRZ vẫn đọc được thì vẫn cho qua;
+ * - kết cấu chữ: số dải hàng liên tiếp có mật độ cạnh ngang cao, đặc trưng của các dòng chữ OCR-B.
+ *
+ * Tỉ số độ nét không phụ thuộc bước lấy mẫu khi cỡ chữ tỉ lệ với vùng đo (đã kiểm với lưới bước 2..6 px).
+ * Để không chặn hẳn OCR khi ngưỡng không hợp với camera/giấy tờ thực tế, sau maxRejectStreak frame bị loại
+ * liên tiếp thì frame kế tiếp được cho qua ({@link Quality#admit}); cổng cũng tắt được lúc chạy.
+ *
+ * Bộ đệm lưới được dùng lại giữa các frame. Không thread-safe: dùng trên một luồng analyzer.
+ */
+public final class FrameQualityGate {
+
+    // Tỉ số không thứ nguyên: nét chữ sắc ~6, nhoè cỡ 1/6 ô ký tự ~1, nhoè cỡ 1/4 ô ký tự ~0.6
+    public static final float DEFAULT_MIN_SHARPNESS = 0.8f;
+    public static final float DEFAULT_MAX_CLIPPED = 0.12f;
+    public static final int DEFAULT_MIN_TEXT_BANDS = 2;
+    public static final int DEFAULT_MAX_REJECT_STREAK = 10;
+
+    private static final int MAX_SAMPLES = 320;
+    private static final int CLIP_LEVEL = 250;
+    // Chênh lệch luma giữa hai mẫu kề nhau coi là một cạnh nét chữ
+    private static final int EDGE_DELTA = 40;
+    // Tỉ lệ cạnh / mẫu của một hàng nằm trên dòng chữ
+    private static final float TEXT_ROW_DENSITY = 0.08f;
+
+    public enum Verdict { ACCEPT, BLURRY, GLARE, NO_TEXT }
+
+    /** Số đo của frame gần nhất; được ghi đè ở mỗi lần {@link #evaluate}. */
+    public static final class Quality {
+        /** Kết luận theo số đo. */
+        public Verdict verdict;
+        /** Có gửi frame đi OCR không: ACCEPT, cổng đang tắt, hoặc fail-open sau chuỗi frame bị loại. */
+        public boolean admit;
+        public float sharpness;
+        public float clippedRatio;
+        public int textBands;
+
+        @Override
+        public String toString() {
+            return verdict + (admit && verdict != Verdict.ACCEPT ? " (admitted)" : "")
+                    + String.format(" sharpness=%.2f clipped=%.3f bands=%d", sharpness, clippedRatio, textBands);
+        }
+    }
+
+    private final float minSharpness;
+    private final float maxClipped;
+    private final int minTextBands;
+    private final Quality quality = new Quality();
+    private byte[] grid = new byte[0];
+    private volatile boolean enabled = true;
+    private volatile int maxRejectStreak = DEFAULT_MAX_REJECT_STREAK;
+    private int rejectStreak;
+
+    public FrameQualityGate() {
+        this(DEFAULT_MIN_SHARPNESS, DEFAULT_MAX_CLIPPED, DEFAULT_MIN_TEXT_BANDS);
+    }
+
+    public FrameQualityGate(float minSharpness, float maxClipped, int minTextBands) {
+        this.minSharpness = minSharpness;
+        this.maxClipped = maxClipped;
+        this.minTextBands = minTextBands;
+    }
+
+    /** Tắt: mọi frame được cho qua mà không đo. */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** Số frame bị loại liên tiếp tối đa trước khi cho qua một frame; 0 để không bao giờ fail-open. */
+    public void setMaxRejectStreak(int maxRejectStreak) {
+        this.maxRejectStreak = maxRejectStreak;
+    }
+
+    public Quality evaluate(byte[] y, int rowStride, int left, int top, int right, int bottom) {
+        return evaluate(ByteBuffer.wrap(y), rowStride, 1, left, top, right, bottom, 0);
+    }
+
+    /**
+     * Đo vùng [left, right) x [top, bottom) của mặt phẳng Y.
+     * @param rotationDegrees góc xoay của frame (ImageInfo): 90/270 nghĩa là dòng chữ chạy dọc theo cột của buffer
+     * @return số đo và kết luận (đối tượng dùng lại, chỉ hợp lệ tới lần gọi sau)
+     */
+    public Quality evaluate(ByteBuffer y, int rowStride, int pixelStride,
+                            int left, int top, int right, int bottom, int rotationDegrees) {
+        Quality q = quality;
+        if (!enabled) {
+            q.verdict = Verdict.ACCEPT;
+            q.admit = true;
+            q.sharpness = 0f;
+            q.clippedRatio = 0f;
+            q.textBands = 0;
+            rejectStreak = 0;
+            return q;
+        }
+        int w = right - left;
+        int h = bottom - top;
+        int step = Math.max(1, (Math.max(w, h) + MAX_SAMPLES - 1) / MAX_SAMPLES);
+        int gw = w / step;
+        int gh = h / step;
+        if (gw < 3 || gh < 3) {
+            q.verdict = Verdict.NO_TEXT;
+            q.sharpness = 0f;
+            q.clippedRatio = 0f;
+            q.textBands = 0;
+            return admit(q);
+        }
+        if (grid.length < gw * gh) grid = new byte[gw * gh];
+
+        int clipped = 0;
+        for (int gy = 0; gy < gh; gy++) {
+            int row = (top + gy * step) * rowStride;
+            int base = gy * gw;
+            for (int gx = 0; gx < gw; gx++) {
+                int v = y.get(row + (left + gx * step) * pixelStride) & 0xFF;
+                grid[base + gx] = (byte) v;
+                if (v >= CLIP_LEVEL) clipped++;
+            }
+        }
+        boolean vertical = rotationDegrees % 180 != 0;
+        int bands = vertical ? countBands(gw, gh, gw, 1) : countBands(gh, gw, 1, gw);
+
+        // Phương sai Laplacian (4 lân cận) trên phần trong của lưới
+        double sum = 0;
+        double sumSq = 0;
+        long lumaSum = 0;
+        long lumaSq = 0;
+        int n = 0;
+        for (int gy = 1; gy < gh - 1; gy++) {
+            int base = gy * gw;
+            for (int gx = 1; gx < gw - 1; gx++) {
+                int i = base + gx;
+                int lap = (grid[i - 1] & 0xFF) + (grid[i + 1] & 0xFF)
+                        + (grid[i - gw] & 0xFF) + (grid[i + gw] & 0xFF) - 4 * (grid[i] & 0xFF);
+                int c = grid[i] & 0xFF;
+                sum += lap;
+                sumSq += (double) lap * lap;
+                lumaSum += c;
+                lumaSq += c * c;
+                n++;
+            }
+        }
+        double mean = sum / n;
+        double lumaMean = lumaSum / (double) n;
+        double lumaVar = lumaSq / (double) n - lumaMean * lumaMean;
+        // Chia cho phương sai luma để không phụ thuộc độ tương phản/phơi sáng; vùng phẳng coi như nhoè
+        q.sharpness = lumaVar < 1.0 ? 0f : (float) ((sumSq / n - mean * mean) / lumaVar);
+        q.clippedRatio = clipped / (float) (gw * gh);
+        q.textBands = bands;
+
+        boolean textOk = q.textBands >= minTextBands;
+        if (q.clippedRatio > maxClipped && !textOk) q.verdict = Verdict.GLARE;
+        else if (q.sharpness < minSharpness) q.verdict = Verdict.BLURRY;
+        else if (!textOk) q.verdict = Verdict.NO_TEXT;
+        else q.verdict = Verdict.ACCEPT;
+        return admit(q);
+    }
+
+    private Quality admit(Quality q) {
+        if (q.verdict == Verdict.ACCEPT) {
+            rejectStreak = 0;
+            q.admit = true;
+        } else {
+            int max = maxRejectStreak;
+            q.admit = max > 0 && ++rejectStreak > max;
+            if (q.admit) rejectStreak = 0;
+        }
+        return q;
+    }
+
+    // Đếm dải "dòng chữ" liên tiếp; mỗi dòng lưới có len mẫu cách nhau along, các dòng cách nhau across
+    private int countBands(int lines, int len, int along, int across) {
+        int minEdges = Math.max(2, (int) (len * TEXT_ROW_DENSITY));
+        int bands = 0;
+        boolean inBand = false;
+        for (int l = 0; l < lines; l++) {
+            int i = l * across;
+            int prev = grid[i] & 0xFF;
+            int edges = 0;
+            for (int k = 1; k < len; k++) {
+                i += along;
+                int v = grid[i] & 0xFF;
+                if (Math.abs(v - prev) >= EDGE_DELTA) edges++;
+                prev = v;
+            }
+            boolean textRow = edges >= minEdges;
+            if (textRow && !inBand) bands++;
+            inBand = textRow;
+        }
+        return bands;
+    }
+}
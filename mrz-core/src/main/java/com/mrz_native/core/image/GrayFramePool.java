@@ -0,0 +1,253 @@
+package com.mrz_native.core.image;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bộ đệm ảnh xám (NV21, chroma trung tính 128) dùng lại cho các frame gửi OCR.
+ *
+ * Vùng MRZ của mặt phẳng Y được chép sang một frame của pool để trả ImageProxy cho camera ngay,
+ * thay vì giữ nó tới khi OCR xong; nhờ vậy camera giao frame tiếp theo trong lúc OCR còn chạy.
+ * Vùng có thể được co khi chép (chữ lớn hơn mức OCR cần, xem {@link OcrScaleSelector}).
+ * Số frame cố định: khi mọi frame đang được dùng, {@link #acquire} trả về null và caller bỏ frame camera.
+ *
+ * acquire/release gọi được từ các luồng khác nhau; nội dung một frame chỉ do một luồng dùng tại một thời điểm.
+ */
+public final class GrayFramePool {
+
+    public static final class Frame {
+        private byte[] data = new byte[0];
+        private ByteBuffer buffer = ByteBuffer.wrap(data);
+        private int width;
+        private int height;
+        // Phép affine frame -> buffer nguồn của lần chép gần nhất, xem transform()
+        private float m00 = 1f, m01, m02, m10, m11 = 1f, m12;
+        // Bộ đệm của bản co: một hàng nguồn, phân bổ cột nguồn -> cột đích, tổng theo hàng đích
+        private byte[] line = new byte[0];
+        private int[] colOut = new int[0];
+        private int[] colW0 = new int[0];
+        private int[] colW1 = new int[0];
+        private int[] rowSum = new int[0];
+        private int[] acc0 = new int[0];
+        private int[] acc1 = new int[0];
+
+        /** NV21: width*height byte Y rồi width*height/2 byte VU. */
+        public byte[] data() { return data; }
+
+        /** Cùng nội dung với {@link #data()} dưới dạng ByteBuffer (vị trí 0), cho InputImage.fromByteBuffer. */
+        public ByteBuffer buffer() {
+            buffer.rewind();
+            return buffer;
+        }
+
+        public int width() { return width; }
+
+        public int height() { return height; }
+
+        /**
+         * Phép biến đổi từ ảnh OCR (đã xoay thẳng theo rotationDegrees) về buffer nguồn của lần chép gần nhất.
+         * Ảnh chụp riêng: vẫn dùng được sau khi frame về pool.
+         */
+        public OcrInputTransform transform(int rotationDegrees) {
+            return new OcrInputTransform(width, height, rotationDegrees, m00, m01, m02, m10, m11, m12);
+        }
+
+        private void setAffine(float a00, float a01, float a02, float a10, float a11, float a12) {
+            m00 = a00;
+            m01 = a01;
+            m02 = a02;
+            m10 = a10;
+            m11 = a11;
+            m12 = a12;
+        }
+
+        /**
+         * Chép vùng [left, left+width) x [top, top+height) của mặt phẳng Y vào frame.
+         * Kích thước được làm tròn xuống số chẵn (yêu cầu của NV21).
+         */
+        public void copyLuma(ByteBuffer y, int rowStride, int pixelStride, int left, int top, int width, int height) {
+            resize(width & ~1, height & ~1);
+            setAffine(1f, 0f, left, 0f, 1f, top);
+            int w = this.width;
+            for (int r = 0; r < this.height; r++) {
+                int src = (top + r) * rowStride + left * pixelStride;
+                int dst = r * w;
+                if (pixelStride == 1) {
+                    y.position(src);
+                    y.get(data, dst, w);
+                } else {
+                    for (int x = 0; x < w; x++) data[dst + x] = y.get(src + x * pixelStride);
+                }
+            }
+            y.rewind();
+        }
+
+        /**
+         * Như {@link #copyLuma(ByteBuffer, int, int, int, int, int, int)} nhưng co vùng theo tỉ lệ scale (0..1)
+         * bằng trung bình theo diện tích: mỗi pixel đích là trung bình các pixel nguồn nó phủ, có trọng số theo
+         * phần diện tích (pixel nguồn nằm vắt qua biên chia cho hai pixel đích). Trọng số dùng fixed point 8 bit.
+         */
+        public void copyLuma(ByteBuffer y, int rowStride, int pixelStride, int left, int top, int width, int height,
+                             float scale) {
+            int ow = Math.max(2, Math.round(width * scale)) & ~1;
+            int oh = Math.max(2, Math.round(height * scale)) & ~1;
+            if (ow >= width || oh >= height) {
+                copyLuma(y, rowStride, pixelStride, left, top, width, height);
+                return;
+            }
+            resize(ow, oh);
+            setAffine(width / (float) ow, 0f, left, 0f, height / (float) oh, top);
+            if (line.length < width) {
+                line = new byte[width];
+                colOut = new int[width];
+                colW0 = new int[width];
+                colW1 = new int[width];
+            }
+            if (rowSum.length < ow + 1) {
+                rowSum = new int[ow + 1];
+                acc0 = new int[ow + 1];
+                acc1 = new int[ow + 1];
+            }
+            // Cột nguồn x phủ [x*ow/width, (x+1)*ow/width) theo đơn vị 1/256 cột đích
+            for (int x = 0; x < width; x++) {
+                int a = (int) ((long) x * ow * 256 / width);
+                int b = (int) ((long) (x + 1) * ow * 256 / width);
+                int o = a >> 8;
+                int edge = (o + 1) << 8;
+                colOut[x] = o;
+                colW0[x] = Math.min(b, edge) - a;
+                colW1[x] = Math.max(0, b - edge);
+            }
+            Arrays.fill(acc0, 0, ow + 1, 0);
+            Arrays.fill(acc1, 0, ow + 1, 0);
+            int cur = 0;
+            for (int r = 0; r < height; r++) {
+                int src = (top + r) * rowStride + left * pixelStride;
+                if (pixelStride == 1) {
+                    y.position(src);
+                    y.get(line, 0, width);
+                } else {
+                    for (int x = 0; x < width; x++) line[x] = y.get(src + x * pixelStride);
+                }
+                Arrays.fill(rowSum, 0, ow + 1, 0);
+                for (int x = 0; x < width; x++) {
+                    int v = line[x] & 0xFF;
+                    int o = colOut[x];
+                    rowSum[o] += v * colW0[x];
+                    rowSum[o + 1] += v * colW1[x];
+                }
+                int a = (int) ((long) r * oh * 256 / height);
+                int b = (int) ((long) (r + 1) * oh * 256 / height);
+                int o = a >> 8;
+                int edge = (o + 1) << 8;
+                if (o > cur) {
+                    emitRow(cur);
+                    int[] t = acc0;
+                    acc0 = acc1;
+                    acc1 = t;
+                    Arrays.fill(acc1, 0, ow + 1, 0);
+                    cur = o;
+                }
+                int w0 = Math.min(b, edge) - a;
+                int w1 = Math.max(0, b - edge);
+                for (int x = 0; x < ow; x++) acc0[x] += rowSum[x] * w0;
+                if (w1 > 0) {
+                    for (int x = 0; x < ow; x++) acc1[x] += rowSum[x] * w1;
+                }
+            }
+            emitRow(cur);
+            y.rewind();
+        }
+
+        /**
+         * Chép dải MRZ nghiêng đã xoay thẳng: mỗi pixel đích lấy mẫu song tuyến tại điểm tương ứng trong hình chữ
+         * nhật xoay của band (mẫu ngoài hộp bao của band lấy pixel biên gần nhất). Frame giữ hướng của buffer:
+         * dòng chữ chạy theo hàng, hoặc theo cột nếu band.vertical. scale (0..1) co đều hai chiều; với nội suy
+         * song tuyến, co dưới 1/2 có thể răng cưa nhẹ.
+         */
+        public void copyLumaRotated(ByteBuffer y, int rowStride, int pixelStride, MrzBandLocalizer.Band band,
+                                    float scale) {
+            float along = band.length * scale;
+            float across = band.thickness * scale;
+            int w = Math.max(2, Math.round(band.vertical ? across : along)) & ~1;
+            int h = Math.max(2, Math.round(band.vertical ? along : across)) & ~1;
+            resize(w, h);
+            // Trục x / y của frame trong buffer (fixed point 16 bit mỗi pixel đích)
+            double a = Math.toRadians(band.vertical ? -band.skew : band.skew);
+            int dxx = (int) Math.round(Math.cos(a) / scale * 65536);
+            int dxy = (int) Math.round(Math.sin(a) / scale * 65536);
+            int dyx = -dxy;
+            int dyy = dxx;
+            float cs = (float) (Math.cos(a) / scale);
+            float sn = (float) (Math.sin(a) / scale);
+            setAffine(cs, -sn, band.centerX - w / 2f * cs + h / 2f * sn,
+                    sn, cs, band.centerY - w / 2f * sn - h / 2f * cs);
+            // Toạ độ buffer của tâm pixel (0, 0), lệch nửa pixel để mẫu song tuyến nằm giữa bốn pixel nguồn
+            long ox = Math.round((band.centerX - 0.5) * 65536) - (long) dxx * (w - 1) / 2 - (long) dyx * (h - 1) / 2;
+            long oy = Math.round((band.centerY - 0.5) * 65536) - (long) dxy * (w - 1) / 2 - (long) dyy * (h - 1) / 2;
+            int minX = band.left, maxX = band.right - 1;
+            int minY = band.top, maxY = band.bottom - 1;
+            for (int r = 0; r < h; r++) {
+                long fx = ox + (long) dyx * r;
+                long fy = oy + (long) dyy * r;
+                int dst = r * w;
+                for (int c = 0; c < w; c++, fx += dxx, fy += dxy) {
+                    int ix = (int) (fx >> 16);
+                    int iy = (int) (fy >> 16);
+                    int ax = (int) (fx >> 8) & 255;
+                    int ay = (int) (fy >> 8) & 255;
+                    int x0 = Math.max(minX, Math.min(maxX, ix));
+                    int x1 = Math.max(minX, Math.min(maxX, ix + 1));
+                    int y0 = Math.max(minY, Math.min(maxY, iy)) * rowStride;
+                    int y1 = Math.max(minY, Math.min(maxY, iy + 1)) * rowStride;
+                    int p00 = y.get(y0 + x0 * pixelStride) & 0xFF;
+                    int p01 = y.get(y0 + x1 * pixelStride) & 0xFF;
+                    int p10 = y.get(y1 + x0 * pixelStride) & 0xFF;
+                    int p11 = y.get(y1 + x1 * pixelStride) & 0xFF;
+                    int top = (p00 << 8) + (p01 - p00) * ax;
+                    int bottom = (p10 << 8) + (p11 - p10) * ax;
+                    data[dst + c] = (byte) (((top << 8) + (bottom - top) * ay + (1 << 15)) >> 16);
+                }
+            }
+        }
+
+        // Mỗi pixel đích có tổng trọng số 256 x 256
+        private void emitRow(int row) {
+            int base = row * width;
+            for (int x = 0; x < width; x++) data[base + x] = (byte) ((acc0[x] + (1 << 15)) >> 16);
+        }
+
+        // Chroma chỉ cần ghi lại khi đổi kích thước: OCR không ghi vào frame
+        private void resize(int w, int h) {
+            if (w == width && h == height) return;
+            int size = w * h * 3 / 2;
+            if (data.length != size) {
+                data = new byte[size];
+                buffer = ByteBuffer.wrap(data);
+            }
+            Arrays.fill(data, w * h, size, (byte) 128);
+            width = w;
+            height = h;
+        }
+    }
+
+    private final ArrayBlockingQueue<Frame> free;
+
+    public GrayFramePool(int size) {
+        if (size < 1) throw new IllegalArgumentException("size must be >= 1");
+        free = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) free.add(new Frame());
+    }
+
+    /** @return frame rảnh, hoặc null nếu mọi frame đang được dùng */
+    public Frame acquire() {
+        return free.poll();
+    }
+
+    public void release(Frame frame) {
+        if (frame != null) free.offer(frame);
+    }
+
+    public int available() { return free.size(); }
+}
@@ -0,0 +1,131 @@
+package com.mrz_native.core.image;
+
+import java.util.Arrays;
+
+/**
+ * Chuẩn hoá tương phản cục bộ (kiểu CLAHE) cho luma của vùng MRZ trước khi gửi OCR.
+ *
+ * Ảnh được chia thành lưới ô cỡ tileSize px; mỗi ô có một bảng tra từ histogram đã cắt ở
+ * clipLimit lần mức trung bình (phần thừa chia đều cho mọi mức) rồi cân bằng theo CDF. Mỗi pixel
+ * được nội suy song tuyến giữa bảng tra của bốn ô gần nhất nên không có vết nối giữa các ô.
+ *
+ * Chỉnh cho chữ OCR-B trên trang ép plastic: ô cỡ 1–1.5 lần chiều cao ký tự (40–60 px ở 1080p) luôn có
+ * cả mực lẫn giấy nên chữ nằm trong vùng lóa nhạt hay vùng tối đều được kéo giãn về cả dải 0..255;
+ * clipLimit giới hạn độ dốc của bảng tra (tối đa ~clipLimit+1) để nền phẳng và nhiễu cảm biến không bị
+ * khuếch đại thành vệt giả. Ô cháy sáng hẳn (255) giữ nguyên, không có gì để khôi phục.
+ *
+ * Bộ đệm bảng tra / toạ độ được dùng lại giữa các frame. Không thread-safe: dùng trên một luồng analyzer.
+ */
+public final class LumaContrastNormalizer {
+
+    public static final int DEFAULT_TILE_SIZE = 64;
+    public static final float DEFAULT_CLIP_LIMIT = 3f;
+
+    private final int tileSize;
+    private final float clipLimit;
+    private final int[] hist = new int[256];
+    private byte[] luts = new byte[0];
+    // Theo cột / hàng: ô bên trái (trên) và trọng số của ô bên phải (dưới), 0..255
+    private int[] colTile = new int[0];
+    private int[] colWeight = new int[0];
+
+    public LumaContrastNormalizer() {
+        this(DEFAULT_TILE_SIZE, DEFAULT_CLIP_LIMIT);
+    }
+
+    public LumaContrastNormalizer(int tileSize, float clipLimit) {
+        if (tileSize < 8) throw new IllegalArgumentException("tileSize must be >= 8");
+        if (clipLimit < 1f) throw new IllegalArgumentException("clipLimit must be >= 1");
+        this.tileSize = tileSize;
+        this.clipLimit = clipLimit;
+    }
+
+    /** Chuẩn hoá tại chỗ ảnh width x height liền nhau từ đầu mảng (phần Y của frame NV21). */
+    public void apply(byte[] y, int width, int height) {
+        apply(y, 0, width, width, height);
+    }
+
+    /** Chuẩn hoá tại chỗ vùng width x height bắt đầu tại offset, mỗi hàng cách nhau stride byte. */
+    public void apply(byte[] y, int offset, int stride, int width, int height) {
+        if (width < 2 || height < 2) return;
+        int tx = Math.max(1, (width + tileSize / 2) / tileSize);
+        int ty = Math.max(1, (height + tileSize / 2) / tileSize);
+        if (luts.length < tx * ty * 256) luts = new byte[tx * ty * 256];
+        for (int j = 0; j < ty; j++) {
+            int y0 = j * height / ty, y1 = (j + 1) * height / ty;
+            for (int i = 0; i < tx; i++) {
+                buildLut(y, offset, stride, i * width / tx, y0, (i + 1) * width / tx, y1, (j * tx + i) * 256);
+            }
+        }
+
+        if (colTile.length < width) {
+            colTile = new int[width];
+            colWeight = new int[width];
+        }
+        for (int x = 0; x < width; x++) {
+            int t = tileAt(x, width, tx);
+            colTile[x] = t >> 9;
+            colWeight[x] = t & 511;
+        }
+        byte[] lut = luts;
+        for (int r = 0; r < height; r++) {
+            int t = tileAt(r, height, ty);
+            int row0 = (t >> 9) * tx;
+            int row1 = Math.min(row0 + tx, (ty - 1) * tx);
+            int wy = t & 511;
+            int p = offset + r * stride;
+            // Đoạn cột có cùng cặp ô: cơ sở của bốn bảng tra tính một lần cho cả đoạn
+            int x = 0;
+            while (x < width) {
+                int c0 = colTile[x];
+                int c1 = c0 + 1 < tx ? c0 + 1 : c0;
+                int b00 = (row0 + c0) << 8, b01 = (row0 + c1) << 8;
+                int b10 = (row1 + c0) << 8, b11 = (row1 + c1) << 8;
+                for (; x < width && colTile[x] == c0; x++, p++) {
+                    int v = y[p] & 0xFF;
+                    int wx = colWeight[x];
+                    int a = ((lut[b00 + v] & 0xFF) << 8) + ((lut[b01 + v] & 0xFF) - (lut[b00 + v] & 0xFF)) * wx;
+                    int b = ((lut[b10 + v] & 0xFF) << 8) + ((lut[b11 + v] & 0xFF) - (lut[b10 + v] & 0xFF)) * wx;
+                    y[p] = (byte) (((a << 8) + (b - a) * wy + (1 << 15)) >> 16);
+                }
+            }
+        }
+    }
+
+    // Ô có tâm ngay trước toạ độ (bit 9 trở lên) và trọng số của ô kế tiếp 0..255 (9 bit thấp)
+    private static int tileAt(int pos, int size, int tiles) {
+        // Toạ độ theo đơn vị ô, gốc tại tâm ô đầu tiên, fixed point 8 bit
+        int u = (int) (((2L * pos + 1) * tiles * 128) / size) - 128;
+        if (u <= 0) return 0;
+        int t = u >> 8;
+        if (t >= tiles - 1) return (tiles - 1) << 9;
+        return (t << 9) | (u & 255);
+    }
+
+    private void buildLut(byte[] y, int offset, int stride, int x0, int y0, int x1, int y1, int lutOffset) {
+        int[] h = hist;
+        Arrays.fill(h, 0);
+        for (int r = y0; r < y1; r++) {
+            int p = offset + r * stride + x0;
+            for (int end = p + (x1 - x0); p < end; p++) h[y[p] & 0xFF]++;
+        }
+        int pixels = (x1 - x0) * (y1 - y0);
+        // Cắt histogram, chia đều phần thừa; phần lẻ rải cách đều trên dải mức
+        int clip = Math.max(1, (int) (clipLimit * pixels / 256));
+        int excess = 0;
+        for (int v = 0; v < 256; v++) {
+            if (h[v] > clip) {
+                excess += h[v] - clip;
+                h[v] = clip;
+            }
+        }
+        int add = excess / 256;
+        int rest = excess - add * 256;
+        int step = rest > 0 ? 256 / rest : 0;
+        int cdf = 0;
+        for (int v = 0; v < 256; v++) {
+            cdf += h[v] + add + (rest > 0 && v % step == 0 && v / step < rest ? 1 : 0);
+            luts[lutOffset + v] = (byte) Math.min(255, (int) ((cdf * 255L + pixels / 2) / pixels));
+        }
+    }
+}
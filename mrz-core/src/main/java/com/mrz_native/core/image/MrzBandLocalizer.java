@@ -0,0 +1,273 @@
+package com.mrz_native.core.image;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tìm dải 2–3 dòng MRZ trong vùng khung hướng dẫn trên mặt phẳng Y, để thu hẹp vùng gửi OCR.
+ *
+ * Theo hướng chạy của dòng chữ, mỗi hàng được tính "năng lượng" = số cạnh (chênh lệch luma >= EDGE_DELTA
+ * giữa hai mẫu kề nhau). Profile hàng được phân đoạn thành các run hàng có chữ (run-length, lấp khe 1 mẫu);
+ * nhóm 2–3 run liên tiếp cao gần bằng nhau, cách nhau sát như các dòng MRZ, có tổng năng lượng lớn nhất
+ * được chọn (dòng MRZ chạy gần hết bề ngang nên nhiều cạnh hơn chữ vùng VIZ). Profile cột trong dải đó
+ * cho biên trái/phải. Kết quả được nới thêm lề theo chiều cao dòng.
+ *
+ * Khi biết góc nghiêng của dòng chữ ({@link MrzSkewEstimator}), các "hàng" được lấy mẫu theo đường nghiêng
+ * góc đó (phép trượt quanh giữa vùng) để mỗi dòng MRZ vẫn là một run gọn; dải trả về khi đó là hình chữ nhật
+ * xoay (tâm, chiều dài dọc dòng, bề dày, góc) kèm hộp bao thẳng trục của nó.
+ *
+ * Bộ đệm profile được dùng lại giữa các frame. Không thread-safe: dùng trên một luồng analyzer.
+ */
+public final class MrzBandLocalizer {
+
+    // Chênh lệch luma giữa hai mẫu kề nhau coi là một cạnh nét chữ
+    private static final int EDGE_DELTA = 40;
+    // Số mẫu tối đa theo mỗi chiều
+    private static final int MAX_SAMPLES = 320;
+    // Hàng có chữ: số cạnh >= tỉ lệ này của số mẫu trên hàng và của hàng nhiều cạnh nhất
+    private static final float MIN_ROW_DENSITY = 0.05f;
+    private static final float MIN_ROW_OF_PEAK = 0.3f;
+    private static final int MAX_RUNS = 32;
+    // Các dòng của một MRZ: chiều cao chênh nhau không quá tỉ lệ này, khe giữa hai dòng không quá tỉ lệ này của chiều cao
+    private static final float MAX_HEIGHT_RATIO = 1.8f;
+    private static final float MAX_GAP_RATIO = 1.5f;
+    // Lề quanh dải tìm được, theo chiều cao dòng
+    private static final float MARGIN_ACROSS = 0.6f;
+    private static final float MARGIN_ALONG = 1.0f;
+
+    /** Dải tìm được, toạ độ buffer (như vùng truyền vào). */
+    public static final class Band {
+        /** Hộp bao thẳng trục của dải, đã kẹp trong vùng. */
+        public int left;
+        public int top;
+        public int right;
+        public int bottom;
+        /** Số dòng MRZ (2 hoặc 3). */
+        public int lines;
+        /** Chiều cao dòng trung bình (px). */
+        public float lineHeight;
+        /** Góc nghiêng của dòng chữ (độ, theo quy ước của {@link MrzSkewEstimator}); 0 nếu dải thẳng trục. */
+        public float skew;
+        /** Dòng chữ chạy dọc theo cột của buffer (góc xoay 90/270). */
+        public boolean vertical;
+        /** Hình chữ nhật xoay của dải: tâm (toạ độ buffer), chiều dài dọc dòng chữ và bề dày ngang qua các dòng. */
+        public float centerX;
+        public float centerY;
+        public float length;
+        public float thickness;
+
+        public int width() { return right - left; }
+
+        public int height() { return bottom - top; }
+
+        @Override
+        public String toString() {
+            return "Band[" + left + "," + top + "-" + right + "," + bottom + " lines=" + lines
+                    + String.format(" lineHeight=%.1f skew=%.2f]", lineHeight, skew);
+        }
+    }
+
+    private final Band band = new Band();
+    private int[] rowEnergy = new int[0];
+    private int[] colEnergy = new int[0];
+    private int[] shift = new int[0];
+    private final int[] runStart = new int[MAX_RUNS];
+    private final int[] runEnd = new int[MAX_RUNS];
+    private final long[] runEnergy = new long[MAX_RUNS];
+
+    public Band locate(byte[] y, int rowStride, int left, int top, int right, int bottom) {
+        return locate(ByteBuffer.wrap(y), rowStride, 1, left, top, right, bottom, 0);
+    }
+
+    /**
+     * Tìm dải MRZ trong vùng [left, right) x [top, bottom) của mặt phẳng Y.
+     * @param rotationDegrees góc xoay của frame: 90/270 nghĩa là dòng chữ chạy dọc theo cột của buffer
+     * @return dải tìm được (đối tượng dùng lại, chỉ hợp lệ tới lần gọi sau), hoặc null nếu không thấy
+     */
+    public Band locate(ByteBuffer y, int rowStride, int pixelStride,
+                       int left, int top, int right, int bottom, int rotationDegrees) {
+        return locate(y, rowStride, pixelStride, left, top, right, bottom, rotationDegrees, 0f);
+    }
+
+    /**
+     * Như {@link #locate(ByteBuffer, int, int, int, int, int, int, int)} với dòng chữ nghiêng skewDegrees.
+     */
+    public Band locate(ByteBuffer y, int rowStride, int pixelStride,
+                       int left, int top, int right, int bottom, int rotationDegrees, float skewDegrees) {
+        boolean vertical = rotationDegrees % 180 != 0;
+        // u: theo dòng chữ, v: ngang qua các dòng
+        int u0 = vertical ? top : left;
+        int v0 = vertical ? left : top;
+        int nu = vertical ? bottom - top : right - left;
+        int nv = vertical ? right - left : bottom - top;
+        int uStride = vertical ? rowStride : pixelStride;
+        int vStride = vertical ? pixelStride : rowStride;
+        int su = Math.max(1, (nu + MAX_SAMPLES - 1) / MAX_SAMPLES);
+        int sv = Math.max(1, (nv + MAX_SAMPLES - 1) / MAX_SAMPLES);
+        int gu = nu / su;
+        int gv = nv / sv;
+        if (gu < 8 || gv < 4) return null;
+        if (rowEnergy.length < gv) rowEnergy = new int[gv];
+        if (colEnergy.length < gu) colEnergy = new int[gu];
+        if (shift.length < gu) shift = new int[gu];
+        int base = u0 * uStride + v0 * vStride;
+        // Độ lệch (px) theo v của mẫu thứ i trên một hàng nghiêng, quanh giữa vùng
+        double slope = Math.tan(Math.toRadians(skewDegrees));
+        int pivot = gu / 2 * su;
+        for (int i = 0; i < gu; i++) shift[i] = (int) Math.round((i * su - pivot) * slope);
+
+        // Profile hàng
+        int peak = 0;
+        for (int j = 0; j < gv; j++) {
+            int edges = rowEdges(y, base, j * sv, nv, gu, su, uStride, vStride, null);
+            rowEnergy[j] = edges;
+            if (edges > peak) peak = edges;
+        }
+        int minEdges = Math.max(4, Math.max((int) (gu * MIN_ROW_DENSITY), (int) (peak * MIN_ROW_OF_PEAK)));
+
+        // Run-length các hàng có chữ, lấp khe một mẫu
+        int runs = 0;
+        int j = 0;
+        while (j < gv && runs < MAX_RUNS) {
+            if (rowEnergy[j] < minEdges) {
+                j++;
+                continue;
+            }
+            int start = j;
+            long energy = 0;
+            int end = j;
+            while (j < gv) {
+                if (rowEnergy[j] >= minEdges) {
+                    energy += rowEnergy[j];
+                    end = j + 1;
+                } else if (j + 1 >= gv || rowEnergy[j + 1] < minEdges) {
+                    break;
+                }
+                j++;
+            }
+            if (end - start >= 2) {
+                runStart[runs] = start;
+                runEnd[runs] = end;
+                runEnergy[runs] = energy;
+                runs++;
+            }
+        }
+
+        // Nhóm 2–3 run liên tiếp giống các dòng MRZ; bằng điểm thì lấy nhóm thấp hơn (MRZ ở đáy giấy tờ)
+        int bestFirst = -1;
+        int bestCount = 0;
+        long bestScore = 0;
+        for (int count = 3; count >= 2; count--) {
+            for (int r = 0; r + count <= runs; r++) {
+                if (!isMrzGroup(r, count)) continue;
+                long score = 0;
+                for (int k = r; k < r + count; k++) score += runEnergy[k];
+                if (score >= bestScore) {
+                    bestScore = score;
+                    bestFirst = r;
+                    bestCount = count;
+                }
+            }
+        }
+        if (bestFirst < 0) return null;
+        int vs = runStart[bestFirst];
+        int ve = runEnd[bestFirst + bestCount - 1];
+        float lineSamples = 0;
+        for (int k = bestFirst; k < bestFirst + bestCount; k++) lineSamples += runEnd[k] - runStart[k];
+        lineSamples /= bestCount;
+
+        // Profile cột trong dải: số hàng có cạnh tại mỗi cột
+        for (int i = 0; i < gu; i++) colEnergy[i] = 0;
+        for (int jj = vs; jj < ve; jj++) rowEdges(y, base, jj * sv, nv, gu, su, uStride, vStride, colEnergy);
+        // Cụm cột có cạnh rộng nhất, cho phép khe tới hai lần chiều cao dòng (khoảng trống giữa các từ, '<' liền nhau)
+        float lineHeightPx = lineSamples * sv;
+        int maxGap = Math.max(2, Math.round(2 * lineHeightPx / su));
+        int us = -1, ue = -1;
+        int cs = -1, last = -1;
+        for (int i = 0; i < gu; i++) {
+            if (colEnergy[i] == 0) continue;
+            if (cs < 0 || i - last > maxGap) cs = i;
+            last = i;
+            if (last - cs > ue - us) {
+                us = cs;
+                ue = last;
+            }
+        }
+        if (us < 0) return null;
+
+        int marginV = Math.round(lineHeightPx * MARGIN_ACROSS);
+        int marginU = Math.round(lineHeightPx * MARGIN_ALONG);
+        int bu0 = Math.max(0, us * su - marginU);
+        int bu1 = Math.min(nu, (ue + 1) * su + marginU);
+        // Biên ngang qua dòng đo tại u = pivot; dải nghiêng thì hộp bao gồm cả hai đầu
+        int bv0 = vs * sv - marginV;
+        int bv1 = ve * sv + marginV;
+        int shift0 = (int) Math.round((bu0 - pivot) * slope);
+        int shift1 = (int) Math.round((bu1 - pivot) * slope);
+        int boxV0 = Math.max(0, bv0 + Math.min(shift0, shift1));
+        int boxV1 = Math.min(nv, bv1 + Math.max(shift0, shift1));
+        if (skewDegrees == 0f) {
+            bv0 = Math.max(0, bv0);
+            bv1 = Math.min(nv, bv1);
+        }
+
+        Band b = band;
+        if (vertical) {
+            b.left = left + boxV0;
+            b.right = left + boxV1;
+            b.top = top + bu0;
+            b.bottom = top + bu1;
+        } else {
+            b.left = left + bu0;
+            b.right = left + bu1;
+            b.top = top + boxV0;
+            b.bottom = top + boxV1;
+        }
+        double cos = Math.cos(Math.toRadians(skewDegrees));
+        float cu = (bu0 + bu1) / 2f;
+        float cv = (float) ((bv0 + bv1) / 2f + (cu - pivot) * slope);
+        b.centerX = vertical ? left + cv : left + cu;
+        b.centerY = vertical ? top + cu : top + cv;
+        b.length = (float) ((bu1 - bu0) / cos);
+        b.thickness = (float) ((bv1 - bv0) * cos);
+        b.skew = skewDegrees;
+        b.vertical = vertical;
+        b.lines = bestCount;
+        b.lineHeight = (float) (lineHeightPx * cos);
+        return b;
+    }
+
+    // Số cạnh trên hàng nghiêng bắt đầu tại v (px, tại u = pivot); mẫu rơi ra ngoài vùng không tính.
+    // cols khác null: cộng thêm một vào cột của mỗi cạnh
+    private int rowEdges(ByteBuffer y, int base, int v, int nv, int gu, int su, int uStride, int vStride, int[] cols) {
+        int edges = 0;
+        int prev = -1;
+        for (int i = 0; i < gu; i++) {
+            int vv = v + shift[i];
+            if (vv < 0 || vv >= nv) {
+                prev = -1;
+                continue;
+            }
+            int val = y.get(base + i * su * uStride + vv * vStride) & 0xFF;
+            if (prev >= 0 && Math.abs(val - prev) >= EDGE_DELTA) {
+                edges++;
+                if (cols != null) cols[i]++;
+            }
+            prev = val;
+        }
+        return edges;
+    }
+
+    private boolean isMrzGroup(int first, int count) {
+        int minH = Integer.MAX_VALUE, maxH = 0;
+        for (int k = first; k < first + count; k++) {
+            int h = runEnd[k] - runStart[k];
+            minH = Math.min(minH, h);
+            maxH = Math.max(maxH, h);
+        }
+        if (maxH > minH * MAX_HEIGHT_RATIO) return false;
+        for (int k = first + 1; k < first + count; k++) {
+            if (runStart[k] - runEnd[k - 1] > maxH * MAX_GAP_RATIO) return false;
+        }
+        return true;
+    }
+}
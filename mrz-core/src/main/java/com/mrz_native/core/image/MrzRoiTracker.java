@@ -0,0 +1,125 @@
+package com.mrz_native.core.image;
+
+/**
+ * Bám vị trí dải MRZ giữa các frame để frame sau chỉ gửi vùng quanh vị trí dự đoán thay vì cả khung hướng dẫn.
+ *
+ * Mỗi frame OCR ra MRZ cho một đo đạc: hộp bao các dòng MRZ trong ảnh gốc (chưa xoay) kèm thời điểm chụp.
+ * Mô hình vận tốc không đổi: vận tốc tâm là trung bình trượt (EMA) của độ dời giữa hai đo đạc liên tiếp;
+ * vị trí ở thời điểm t = tâm gần nhất + vận tốc * (t - thời điểm đo). Vùng dự đoán là hộp đo gần nhất đặt ở
+ * tâm dự đoán, nới lề MARGIN lần bề dày dải cộng một phần quãng đường dự đoán (sai số của vận tốc), rồi
+ * kẹp trong khung hướng dẫn.
+ *
+ * Mất dấu (caller quay về cả khung hướng dẫn) khi: chưa có đo đạc, MAX_MISSES frame OCR liên tiếp không ra
+ * MRZ, đo đạc cũ hơn MAX_AGE_MS, hoặc vùng dự đoán ra ngoài khung.
+ *
+ * Thread-safe: dự đoán trên luồng analyzer, đo đạc từ luồng xử lý kết quả OCR.
+ */
+public final class MrzRoiTracker {
+
+    public static final int MAX_MISSES = 3;
+    public static final long MAX_AGE_MS = 1000;
+
+    // Lề quanh hộp dự đoán theo bề dày dải (cạnh ngắn của hộp), và theo quãng đường dự đoán
+    private static final float MARGIN = 0.5f;
+    private static final float MOTION_MARGIN = 0.5f;
+    private static final float VELOCITY_ALPHA = 0.5f;
+    // Vận tốc tối đa tin được (px/ms): nhanh hơn là đo sai hoặc giấy tờ đã đổi, bắt đầu lại từ đo đạc mới
+    private static final float MAX_SPEED = 3f;
+
+    /** Vùng dự đoán của lần {@link #predict} gần nhất (toạ độ ảnh gốc); chỉ hợp lệ khi predict trả true. */
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    private boolean tracking;
+    private boolean hasVelocity;
+    private long lastTime;
+    private float cx, cy, w, h;
+    private float vx, vy;
+    private int misses;
+
+    /**
+     * Ghi hộp bao của các dòng MRZ trong frame chụp lúc timeMs (toạ độ ảnh gốc).
+     * Đo đạc về không theo thứ tự chụp (OCR song song) thì bỏ.
+     */
+    public synchronized void update(long timeMs, float left, float top, float right, float bottom) {
+        if (right <= left || bottom <= top) return;
+        if (tracking && timeMs < lastTime) return;
+        float ncx = (left + right) / 2f;
+        float ncy = (top + bottom) / 2f;
+        if (tracking && timeMs > lastTime) {
+            long dt = timeMs - lastTime;
+            float mvx = (ncx - cx) / dt;
+            float mvy = (ncy - cy) / dt;
+            if (Math.hypot(mvx, mvy) > MAX_SPEED) {
+                hasVelocity = false;
+                vx = vy = 0f;
+            } else if (hasVelocity) {
+                vx += VELOCITY_ALPHA * (mvx - vx);
+                vy += VELOCITY_ALPHA * (mvy - vy);
+            } else {
+                vx = mvx;
+                vy = mvy;
+                hasVelocity = true;
+            }
+        } else if (!tracking) {
+            vx = vy = 0f;
+            hasVelocity = false;
+        }
+        cx = ncx;
+        cy = ncy;
+        w = right - left;
+        h = bottom - top;
+        lastTime = timeMs;
+        tracking = true;
+        misses = 0;
+    }
+
+    /** Frame OCR không ra MRZ. */
+    public synchronized void miss() {
+        if (tracking && ++misses >= MAX_MISSES) reset();
+    }
+
+    /**
+     * Dự đoán vùng dải MRZ ở frame chụp lúc timeMs, kẹp trong khung [boundsLeft, boundsRight) x
+     * [boundsTop, boundsBottom). Kết quả ở {@link #left}..{@link #bottom}.
+     * @return false nếu đang mất dấu: dùng cả khung
+     */
+    public synchronized boolean predict(long timeMs, int boundsLeft, int boundsTop, int boundsRight, int boundsBottom) {
+        if (!tracking) return false;
+        long dt = timeMs - lastTime;
+        if (dt > MAX_AGE_MS) {
+            reset();
+            return false;
+        }
+        if (dt < 0) dt = 0;
+        float dx = vx * dt;
+        float dy = vy * dt;
+        float base = MARGIN * Math.min(w, h);
+        float mx = base + MOTION_MARGIN * Math.abs(dx);
+        float my = base + MOTION_MARGIN * Math.abs(dy);
+        float pcx = cx + dx;
+        float pcy = cy + dy;
+        int l = Math.max(boundsLeft, Math.round(pcx - w / 2f - mx));
+        int t = Math.max(boundsTop, Math.round(pcy - h / 2f - my));
+        int r = Math.min(boundsRight, Math.round(pcx + w / 2f + mx));
+        int b = Math.min(boundsBottom, Math.round(pcy + h / 2f + my));
+        // Dải dự đoán phải còn gần đủ trong khung, nếu không thì tìm lại trên cả khung
+        if (r - l < w / 2f || b - t < h / 2f) return false;
+        left = l;
+        top = t;
+        right = r;
+        bottom = b;
+        return true;
+    }
+
+    public synchronized boolean isTracking() { return tracking; }
+
+    public synchronized void reset() {
+        tracking = false;
+        hasVelocity = false;
+        vx = vy = 0f;
+        misses = 0;
+    }
+}
@@ -0,0 +1,123 @@
+package com.mrz_native.core.image;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Ước lượng góc nghiêng của các dòng chữ trong vùng khung hướng dẫn bằng tìm kiếm theo profile chiếu.
+ *
+ * Vùng được lấy mẫu thưa (tối đa MAX_SAMPLES mẫu mỗi chiều) và đánh dấu các cạnh theo hướng chạy của
+ * dòng chữ (nét dọc của ký tự). Với mỗi góc thử trong ±MAX_DEGREES, các cạnh được chiếu lên trục ngang qua
+ * dòng theo đường nghiêng góc đó (phép trượt, xấp xỉ tốt phép xoay với góc nhỏ); ở đúng góc nghiêng, cạnh của
+ * mỗi dòng dồn vào ít hàng nên tổng bình phương profile lớn nhất. Góc thử được duyệt từ 0 ra hai phía (bước
+ * thô rồi bước tinh quanh góc tốt nhất) và chỉ thay khi tốt hơn rõ rệt, để giấy tờ đặt thẳng không bị
+ * "nghiêng" vì nhiễu.
+ *
+ * Góc theo hệ (u dọc dòng chữ, v ngang qua dòng) như {@link MrzBandLocalizer}: dương khi dòng chữ đi xuống
+ * (v tăng) theo chiều u tăng. Bộ đệm được dùng lại giữa các frame. Không thread-safe: dùng trên một luồng analyzer.
+ */
+public final class MrzSkewEstimator {
+
+    public static final float MAX_DEGREES = 12f;
+    // Tìm thô theo bước 1°, rồi tinh chỉnh quanh góc tốt nhất theo bước 0.25°
+    private static final float COARSE_STEP = 1f;
+    private static final float FINE_STEP = 0.25f;
+    // Chênh lệch luma giữa hai mẫu kề nhau coi là một cạnh nét chữ
+    private static final int EDGE_DELTA = 40;
+    private static final int MAX_SAMPLES = 320;
+    private static final int MIN_EDGES = 64;
+    // Góc lệch khỏi 0 phải cho điểm cao hơn tỉ lệ này so với góc tốt nhất gần 0 hơn
+    private static final float MIN_GAIN = 1.02f;
+
+    private int[] edgeU = new int[0];
+    private int[] edgeV = new int[0];
+    private int[] profile = new int[0];
+    private float bestAngle;
+    private long bestScore;
+
+    public float estimate(byte[] y, int rowStride, int left, int top, int right, int bottom) {
+        return estimate(ByteBuffer.wrap(y), rowStride, 1, left, top, right, bottom, 0);
+    }
+
+    /**
+     * Góc nghiêng (độ) của dòng chữ trong vùng [left, right) x [top, bottom) của mặt phẳng Y.
+     * @param rotationDegrees góc xoay của frame: 90/270 nghĩa là dòng chữ chạy dọc theo cột của buffer
+     * @return góc trong ±MAX_DEGREES, 0 nếu vùng quá ít nét chữ để ước lượng
+     */
+    public float estimate(ByteBuffer y, int rowStride, int pixelStride,
+                          int left, int top, int right, int bottom, int rotationDegrees) {
+        boolean vertical = rotationDegrees % 180 != 0;
+        int u0 = vertical ? top : left;
+        int v0 = vertical ? left : top;
+        int nu = vertical ? bottom - top : right - left;
+        int nv = vertical ? right - left : bottom - top;
+        int uStride = vertical ? rowStride : pixelStride;
+        int vStride = vertical ? pixelStride : rowStride;
+        // Cùng bước theo hai chiều để góc trên lưới mẫu bằng góc trên ảnh
+        int step = Math.max(1, (Math.max(nu, nv) + MAX_SAMPLES - 1) / MAX_SAMPLES);
+        int gu = nu / step;
+        int gv = nv / step;
+        if (gu < 8 || gv < 4) return 0f;
+        int base = u0 * uStride + v0 * vStride;
+
+        int edges = 0;
+        for (int j = 0; j < gv; j++) {
+            int off = base + j * step * vStride;
+            int prev = y.get(off) & 0xFF;
+            for (int i = 1; i < gu; i++) {
+                int v = y.get(off + i * step * uStride) & 0xFF;
+                if (Math.abs(v - prev) >= EDGE_DELTA) {
+                    if (edges == edgeU.length) growEdges();
+                    edgeU[edges] = i;
+                    edgeV[edges] = j;
+                    edges++;
+                }
+                prev = v;
+            }
+        }
+        if (edges < MIN_EDGES) return 0f;
+        if (profile.length < gv) profile = new int[gv];
+
+        bestAngle = 0f;
+        bestScore = score(0f, edges, gu, gv);
+        search(0f, COARSE_STEP, Math.round(MAX_DEGREES / COARSE_STEP), edges, gu, gv);
+        search(bestAngle, FINE_STEP, Math.round(COARSE_STEP / FINE_STEP) - 1, edges, gu, gv);
+        return bestAngle;
+    }
+
+    // Thử center ± k*step (k = 1..steps), từ gần ra xa
+    private void search(float center, float step, int steps, int edges, int gu, int gv) {
+        for (int k = 1; k <= steps; k++) {
+            for (int sign = 1; sign >= -1; sign -= 2) {
+                float a = center + sign * k * step;
+                if (Math.abs(a) > MAX_DEGREES) continue;
+                long s = score(a, edges, gu, gv);
+                if (s > bestScore * MIN_GAIN) {
+                    bestScore = s;
+                    bestAngle = a;
+                }
+            }
+        }
+    }
+
+    // Tổng bình phương profile khi chiếu các cạnh theo đường nghiêng góc a về u = giữa vùng
+    private long score(float degrees, int edges, int gu, int gv) {
+        int slope = (int) Math.round(Math.tan(Math.toRadians(degrees)) * 65536);
+        int[] p = profile;
+        for (int j = 0; j < gv; j++) p[j] = 0;
+        int mid = gu / 2;
+        for (int e = 0; e < edges; e++) {
+            int j = edgeV[e] - (((edgeU[e] - mid) * slope + (1 << 15)) >> 16);
+            if (j >= 0 && j < gv) p[j]++;
+        }
+        long sum = 0;
+        for (int j = 0; j < gv; j++) sum += (long) p[j] * p[j];
+        return sum;
+    }
+
+    private void growEdges() {
+        int n = Math.max(256, edgeU.length * 2);
+        edgeU = Arrays.copyOf(edgeU, n);
+        edgeV = Arrays.copyOf(edgeV, n);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mrz_native.core.image;
+
+/**
+ * Ảnh chụp bất biến của phép biến đổi giữa ảnh đã gửi OCR và ảnh gốc chưa xoay của camera, để đưa box dòng
+ * OCR về toạ độ ảnh gốc (như {@link RoiGeometry} đưa khung hướng dẫn về ảnh gốc).
+ *
+ * ML Kit trả box trong ảnh đã xoay thẳng theo rotationDegrees; box được xoay ngược về hướng của frame
+ * ({@link GrayFramePool.Frame}) rồi qua phép affine của lần chép: tịnh tiến + co với vùng crop thẳng trục,
+ * hoặc xoay + co quanh tâm với dải MRZ nghiêng. Toạ độ liên tục: pixel i phủ [i, i+1).
+ */
+public final class OcrInputTransform {
+
+    /** Kích thước frame đã gửi OCR (chưa xoay) và góc xoay của nó. */
+    public final int frameWidth;
+    public final int frameHeight;
+    public final int rotationDegrees;
+    // Frame -> ảnh gốc: bx = m00*fx + m01*fy + m02, by = m10*fx + m11*fy + m12
+    private final float m00, m01, m02, m10, m11, m12;
+
+    OcrInputTransform(int frameWidth, int frameHeight, int rotationDegrees,
+                      float m00, float m01, float m02, float m10, float m11, float m12) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.rotationDegrees = (rotationDegrees % 360 + 360) % 360;
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+    }
+
+    /** Tỉ lệ co của frame so với ảnh gốc (1 nếu chép nguyên cỡ). */
+    public float scale() {
+        return (float) (1.0 / Math.hypot(m00, m10));
+    }
+
+    /**
+     * Điểm (x, y) trong ảnh đã xoay thẳng mà OCR thấy -> toạ độ ảnh gốc, ghi vào out[0], out[1].
+     */
+    public void toRaw(float x, float y, float[] out) {
+        float fx, fy;
+        switch (rotationDegrees) {
+            case 90:
+                fx = y;
+                fy = frameHeight - x;
+                break;
+            case 180:
+                fx = frameWidth - x;
+                fy = frameHeight - y;
+                break;
+            case 270:
+                fx = frameWidth - y;
+                fy = x;
+                break;
+            default:
+                fx = x;
+                fy = y;
+        }
+        out[0] = m00 * fx + m01 * fy + m02;
+        out[1] = m10 * fx + m11 * fy + m12;
+    }
+
+    /**
+     * Hộp bao trong ảnh gốc của box [left, right) x [top, bottom) trong ảnh OCR đã xoay thẳng;
+     * out = {left, top, right, bottom}.
+     */
+    public void boxToRaw(float left, float top, float right, float bottom, float[] out) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int k = 0; k < 4; k++) {
+            toRaw((k & 1) == 0 ? left : right, (k & 2) == 0 ? top : bottom, out);
+            minX = Math.min(minX, out[0]);
+            maxX = Math.max(maxX, out[0]);
+            minY = Math.min(minY, out[1]);
+            maxY = Math.max(maxY, out[1]);
+        }
+        out[0] = minX;
+        out[1] = minY;
+        out[2] = maxX;
+        out[3] = maxY;
+    }
+}
@@ -0,0 +1,95 @@
+package com.mrz_native.core.image;
+
+import com.mrz_native.core.OcrLine;
+
+import java.util.List;
+
+/**
+ * Chọn tỉ lệ co vùng crop trước OCR theo chiều cao ký tự MRZ ước lượng, để ký tự còn khoảng
+ * targetCharHeight px: chữ lớn hơn thế không giúp ML Kit đọc đúng hơn, còn thời gian OCR tăng theo số pixel.
+ *
+ * Chiều cao ký tự (px ảnh gốc) lấy từ dải MRZ của frame hiện tại (profile hàng của {@link MrzBandLocalizer})
+ * nếu có; nếu không, từ trung vị chiều cao box các dòng giống MRZ của frame OCR gần nhất (đã quy về ảnh gốc
+ * theo tỉ lệ dùng cho frame đó), còn hiệu lực trong MAX_LINE_AGE frame. Không có ước lượng nào thì không co.
+ * Tỉ lệ được làm tròn lên theo bước 1/SCALE_STEPS để kích thước bộ đệm ít đổi giữa các frame và ký tự không
+ * nhỏ hơn mục tiêu, và không nhỏ hơn MIN_SCALE.
+ *
+ * {@link #onLines} gọi từ luồng xử lý kết quả OCR, {@link #select} từ một luồng analyzer.
+ */
+public final class OcrScaleSelector {
+
+    /** Chiều cao ký tự sau khi co (px): ML Kit cần ~16 px, không đọc tốt hơn khi quá ~24 px. */
+    public static final float DEFAULT_TARGET_CHAR_HEIGHT = 24f;
+    public static final float MIN_SCALE = 0.25f;
+
+    private static final int SCALE_STEPS = 16;
+    // Số frame analyzer mà ước lượng từ dòng OCR còn được dùng khi không tìm được dải MRZ
+    private static final int MAX_LINE_AGE = 8;
+    // Dòng MRZ (kể cả bị cắt / tách) có ít nhất chừng này ký tự
+    private static final int MIN_LINE_CHARS = 20;
+    private static final int MAX_LINES = 8;
+
+    private final float targetCharHeight;
+    private final int[] heights = new int[MAX_LINES];
+    private volatile float lineHeight;
+    private volatile int linesSeq;
+    private int seenSeq;
+    private int lineAge = MAX_LINE_AGE;
+
+    public OcrScaleSelector() {
+        this(DEFAULT_TARGET_CHAR_HEIGHT);
+    }
+
+    public OcrScaleSelector(float targetCharHeight) {
+        if (targetCharHeight <= 0f) throw new IllegalArgumentException("targetCharHeight must be > 0");
+        this.targetCharHeight = targetCharHeight;
+    }
+
+    /**
+     * Ghi chiều cao dòng MRZ từ kết quả OCR của một frame.
+     * @param lines dòng OCR, toạ độ của ảnh đã gửi OCR
+     * @param scale tỉ lệ đã dùng khi chép frame đó
+     */
+    public void onLines(List<OcrLine> lines, float scale) {
+        int n = 0;
+        for (int i = 0; i < lines.size() && n < MAX_LINES; i++) {
+            OcrLine l = lines.get(i);
+            if (l.bottom() <= l.top() || l.norm().length() < MIN_LINE_CHARS || !l.looksLikeMrz()) continue;
+            // Chèn vào mảng đã sắp
+            int h = l.bottom() - l.top();
+            int k = n++;
+            while (k > 0 && heights[k - 1] > h) {
+                heights[k] = heights[k - 1];
+                k--;
+            }
+            heights[k] = h;
+        }
+        if (n == 0) return;
+        lineHeight = heights[(n - 1) / 2] / scale;
+        linesSeq++;
+    }
+
+    /**
+     * Tỉ lệ co cho frame hiện tại.
+     * @param bandLineHeight chiều cao dòng của dải MRZ trong frame này (px ảnh gốc), 0 nếu không tìm được
+     * @return tỉ lệ trong [MIN_SCALE, 1]
+     */
+    public float select(float bandLineHeight) {
+        int seq = linesSeq;
+        if (seq != seenSeq) {
+            seenSeq = seq;
+            lineAge = 0;
+        } else if (lineAge < MAX_LINE_AGE) {
+            lineAge++;
+        }
+        float h = bandLineHeight > 0f ? bandLineHeight : lineAge < MAX_LINE_AGE ? lineHeight : 0f;
+        return scaleFor(h);
+    }
+
+    /** Tỉ lệ để ký tự cao charHeight px còn khoảng targetCharHeight px (1 nếu chưa biết hoặc đã đủ nhỏ). */
+    public float scaleFor(float charHeight) {
+        if (charHeight <= targetCharHeight) return 1f;
+        float s = (float) Math.ceil(targetCharHeight / charHeight * SCALE_STEPS) / SCALE_STEPS;
+        return Math.max(MIN_SCALE, Math.min(1f, s));
+    }
+}
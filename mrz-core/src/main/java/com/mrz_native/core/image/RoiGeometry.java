@@ -0,0 +1,161 @@
+package com.mrz_native.core.image;
+
+/**
+ * Ảnh chụp bất biến của hình học vùng MRZ: khung hướng dẫn trên view (PreviewView, FIT_CENTER)
+ * quy đổi sang ảnh đã xoay (toạ độ dòng OCR) và sang ảnh gốc chưa xoay (vùng chép sang OCR).
+ *
+ * Khoá là (kích thước view, biên khung hướng dẫn) và (kích thước ảnh, góc xoay). Luồng UI tạo ảnh chụp
+ * chỉ có phần view khi layout đổi ({@link #forView}); luồng analyzer tính phần ảnh một lần khi kích thước
+ * ảnh hoặc góc xoay khác khoá ({@link #forImage}) rồi dùng lại cho mọi frame, không cấp phát.
+ */
+public final class RoiGeometry {
+
+    public final int viewWidth;
+    public final int viewHeight;
+    public final float guideLeft;
+    public final float guideTop;
+    public final float guideRight;
+    public final float guideBottom;
+
+    /** Kích thước ảnh gốc (chưa xoay) và góc xoay; 0 nếu chưa tính phần ảnh. */
+    public final int imageWidth;
+    public final int imageHeight;
+    public final int rotationDegrees;
+
+    /** false nếu khung hướng dẫn không cắt ảnh hiển thị (hoặc chưa tính phần ảnh). */
+    public final boolean hasRoi;
+    /** Vùng MRZ trong ảnh đã xoay. */
+    public final int roiLeft;
+    public final int roiTop;
+    public final int roiRight;
+    public final int roiBottom;
+    /** Vùng MRZ trong ảnh gốc chưa xoay, đã kẹp trong ảnh. */
+    public final int cropLeft;
+    public final int cropTop;
+    public final int cropRight;
+    public final int cropBottom;
+
+    private RoiGeometry(int viewWidth, int viewHeight,
+                        float guideLeft, float guideTop, float guideRight, float guideBottom,
+                        int imageWidth, int imageHeight, int rotationDegrees,
+                        boolean hasRoi, int[] roi, int[] crop) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.guideLeft = guideLeft;
+        this.guideTop = guideTop;
+        this.guideRight = guideRight;
+        this.guideBottom = guideBottom;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.rotationDegrees = rotationDegrees;
+        this.hasRoi = hasRoi;
+        this.roiLeft = roi[0];
+        this.roiTop = roi[1];
+        this.roiRight = roi[2];
+        this.roiBottom = roi[3];
+        this.cropLeft = crop[0];
+        this.cropTop = crop[1];
+        this.cropRight = crop[2];
+        this.cropBottom = crop[3];
+    }
+
+    /** Ảnh chụp phần view; null nếu view chưa được layout. */
+    public static RoiGeometry forView(int viewWidth, int viewHeight,
+                                      float guideLeft, float guideTop, float guideRight, float guideBottom) {
+        if (viewWidth <= 0 || viewHeight <= 0) return null;
+        int[] none = new int[4];
+        return new RoiGeometry(viewWidth, viewHeight, guideLeft, guideTop, guideRight, guideBottom,
+                0, 0, 0, false, none, none);
+    }
+
+    /** Phần ảnh đã tính cho đúng kích thước ảnh và góc xoay này chưa. */
+    public boolean matches(int imageWidth, int imageHeight, int rotationDegrees) {
+        return this.imageWidth == imageWidth && this.imageHeight == imageHeight
+                && this.rotationDegrees == normalize(rotationDegrees);
+    }
+
+    /** Ảnh chụp cùng phần view, tính cho ảnh gốc imageWidth x imageHeight xoay rotationDegrees. */
+    public RoiGeometry forImage(int imageWidth, int imageHeight, int rotationDegrees) {
+        int rotation = normalize(rotationDegrees);
+        boolean swap = rotation % 180 != 0;
+        int rotW = swap ? imageHeight : imageWidth;
+        int rotH = swap ? imageWidth : imageHeight;
+        int[] roi = new int[4];
+        int[] crop = new int[4];
+        boolean ok = rotW > 0 && rotH > 0 && roiInRotated(rotW, rotH, roi)
+                && cropInRaw(roi, imageWidth, imageHeight, rotation, crop);
+        return new RoiGeometry(viewWidth, viewHeight, guideLeft, guideTop, guideRight, guideBottom,
+                imageWidth, imageHeight, rotation, ok, roi, crop);
+    }
+
+    /** Điểm (toạ độ ảnh đã xoay) có nằm trong vùng MRZ không. */
+    public boolean roiContains(int x, int y) {
+        return hasRoi && x >= roiLeft && x < roiRight && y >= roiTop && y < roiBottom;
+    }
+
+    // FIT_CENTER: ảnh đã xoay được co vào view, phần thừa là letterbox
+    private boolean roiInRotated(int rotW, int rotH, int[] out) {
+        float imgAspect = (float) rotW / (float) rotH;
+        float viewAspect = (float) viewWidth / (float) viewHeight;
+        float scaledW, scaledH;
+        if (imgAspect > viewAspect) {
+            scaledW = viewWidth;
+            scaledH = viewWidth / imgAspect;
+        } else {
+            scaledH = viewHeight;
+            scaledW = viewHeight * imgAspect;
+        }
+        float offsetX = (viewWidth - scaledW) / 2f;
+        float offsetY = (viewHeight - scaledH) / 2f;
+
+        // Quy đổi về [0,1] trong không gian ảnh đã fit vào view
+        float leftN = clamp((guideLeft - offsetX) / scaledW);
+        float topN = clamp((guideTop - offsetY) / scaledH);
+        float rightN = clamp((guideRight - offsetX) / scaledW);
+        float bottomN = clamp((guideBottom - offsetY) / scaledH);
+
+        out[0] = Math.round(leftN * rotW);
+        out[1] = Math.round(topN * rotH);
+        out[2] = Math.round(rightN * rotW);
+        out[3] = Math.round(bottomN * rotH);
+        return out[2] > out[0] && out[3] > out[1];
+    }
+
+    // Chuyển rect từ toạ độ đã xoay về toạ độ gốc (trước xoay)
+    private static boolean cropInRaw(int[] r, int rawW, int rawH, int rotation, int[] out) {
+        int l, t, rr, b;
+        switch (rotation) {
+            case 90:
+                l = r[1]; t = rawH - r[2]; rr = r[3]; b = rawH - r[0];
+                break;
+            case 180:
+                l = rawW - r[2]; t = rawH - r[3]; rr = rawW - r[0]; b = rawH - r[1];
+                break;
+            case 270:
+                l = rawW - r[3]; t = r[0]; rr = rawW - r[1]; b = r[2];
+                break;
+            default:
+                l = r[0]; t = r[1]; rr = r[2]; b = r[3];
+        }
+        out[0] = clamp(l, rawW);
+        out[1] = clamp(t, rawH);
+        out[2] = clamp(rr, rawW);
+        out[3] = clamp(b, rawH);
+        return out[2] > out[0] && out[3] > out[1];
+    }
+
+    private static int normalize(int rotationDegrees) {
+        return (rotationDegrees % 360 + 360) % 360;
+    }
+
+    private static float clamp(float v) { return Math.max(0f, Math.min(1f, v)); }
+
+    private static int clamp(int v, int max) { return Math.max(0, Math.min(max, v)); }
+
+    @Override
+    public String toString() {
+        return "RoiGeometry[view=" + viewWidth + "x" + viewHeight + " image=" + imageWidth + "x" + imageHeight
+                + "@" + rotationDegrees + (hasRoi ? " crop=" + cropLeft + "," + cropTop + "-" + cropRight + ","
+                + cropBottom : " no roi") + "]";
+    }
+}
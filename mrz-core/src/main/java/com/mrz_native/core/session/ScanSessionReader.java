@@ -0,0 +1,105 @@
+package com.mrz_native.core.session;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Đọc phiên quét ghi bởi {@link ScanSessionWriter}, từng frame một.
+ *
+ * Không thread-safe.
+ */
+public final class ScanSessionReader implements Closeable {
+
+    private final DataInputStream in;
+    private boolean done;
+    private boolean truncated;
+
+    public ScanSessionReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16));
+        int magic = this.in.readInt();
+        if (magic != ScanSessionWriter.MAGIC) throw new IOException("not a scan session file");
+        int version = this.in.readUnsignedByte();
+        if (version != ScanSessionWriter.VERSION) throw new IOException("unsupported session version " + version);
+    }
+
+    /** Phiên kết thúc giữa chừng (không có END): các frame đã đọc vẫn dùng được. */
+    public boolean truncated() { return truncated; }
+
+    /** @return frame kế tiếp, hoặc null khi hết phiên */
+    public SessionFrame next() throws IOException {
+        if (done) return null;
+        try {
+            int tag = in.read();
+            if (tag == ScanSessionWriter.TAG_END || tag < 0) {
+                done = true;
+                truncated = tag < 0;
+                return null;
+            }
+            if (tag != ScanSessionWriter.TAG_FRAME) throw new IOException("bad frame tag " + tag);
+            return readFrame();
+        } catch (EOFException e) {
+            done = true;
+            truncated = true;
+            return null;
+        }
+    }
+
+    private SessionFrame readFrame() throws IOException {
+        long seq = in.readLong();
+        long uptimeMs = in.readLong();
+        int latency = in.readInt();
+        int rotation = in.readShort();
+        boolean cropped = in.readByte() != 0;
+        int width = in.readInt();
+        int height = in.readInt();
+        int lumaLength = in.readInt();
+        if (lumaLength < 0 || (lumaLength != 0 && lumaLength != width * height)) {
+            throw new IOException("bad luma length " + lumaLength);
+        }
+        byte[] luma = new byte[lumaLength];
+        in.readFully(luma);
+        int lineCount = in.readUnsignedShort();
+        List<SessionLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) lines.add(readLine());
+        return new SessionFrame(seq, uptimeMs, latency, rotation, cropped, width, height, luma, lines);
+    }
+
+    private SessionLine readLine() throws IOException {
+        String text = in.readUTF();
+        boolean hasBox = in.readByte() != 0;
+        int left = 0, top = 0, right = 0, bottom = 0;
+        if (hasBox) {
+            left = in.readInt();
+            top = in.readInt();
+            right = in.readInt();
+            bottom = in.readInt();
+        }
+        int elements = in.readUnsignedShort();
+        int n = in.readUnsignedShort();
+        int[] elementEnd = new int[elements];
+        for (int e = 0; e < elements; e++) elementEnd[e] = in.readUnsignedShort();
+        String[] symbols = new String[n];
+        float[] conf = new float[n];
+        int[] sl = new int[n];
+        int[] sr = new int[n];
+        for (int i = 0; i < n; i++) {
+            symbols[i] = in.readUTF();
+            conf[i] = in.readFloat();
+            sl[i] = in.readInt();
+            sr[i] = in.readInt();
+        }
+        return new SessionLine(text, hasBox, left, top, right, bottom, elementEnd, symbols, conf, sl, sr);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
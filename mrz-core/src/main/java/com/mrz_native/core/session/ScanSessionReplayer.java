@@ -0,0 +1,199 @@
+package com.mrz_native.core.session;
+
+import com.mrz_native.core.MrzParser.ParsedMrz;
+import com.mrz_native.core.MrzScanMetrics;
+import com.mrz_native.core.MrzScanPipeline;
+import com.mrz_native.core.OcrFrame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Phát lại phiên quét đã ghi qua {@link MrzScanPipeline} (quét, sửa lỗi, bỏ phiếu, ổn định) với tốc độ tối đa,
+ * không cần máy thật:
+ * <pre>
+ * java -cp mrz-core.jar com.mrz_native.core.session.ScanSessionReplayer [--stable N] [--repeat N] [--metrics] session...
+ * </pre>
+ * Mỗi phiên in một dòng: số frame tới lúc chốt, thời gian tới lúc chốt theo đồng hồ lúc ghi,
+ * wall time và CPU time của lần phát lại nhanh nhất. Ảnh luma trong phiên không được dùng ở đây.
+ */
+public final class ScanSessionReplayer {
+
+    public static final int DEFAULT_REQUIRED_SUPPORT = 2;
+
+    public static final class Report {
+        public final String name;
+        public final int frames;
+        /** Số frame đã xử lý tới frame chốt (tính cả frame đó), -1 nếu không chốt. */
+        public final int framesToLock;
+        /** Thời gian tới lúc chốt theo đồng hồ lúc ghi (ms), -1 nếu không chốt. */
+        public final long recordedMsToLock;
+        public final ParsedMrz mrz;
+        public final boolean corrected;
+        public final long wallNanos;
+        public final long cpuNanos;
+        public final boolean truncated;
+        /** Dump của {@link MrzScanMetrics} lần phát lại cuối, null nếu không bật. */
+        public final String metrics;
+
+        Report(String name, int frames, int framesToLock, long recordedMsToLock, ParsedMrz mrz, boolean corrected,
+               long wallNanos, long cpuNanos, boolean truncated, String metrics) {
+            this.name = name;
+            this.frames = frames;
+            this.framesToLock = framesToLock;
+            this.recordedMsToLock = recordedMsToLock;
+            this.mrz = mrz;
+            this.corrected = corrected;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.truncated = truncated;
+            this.metrics = metrics;
+        }
+
+        public boolean locked() { return framesToLock >= 0; }
+
+        @Override
+        public String toString() {
+            String lock = locked()
+                    ? "lock=" + framesToLock + " recorded=" + recordedMsToLock + "ms" + (corrected ? " corrected" : "")
+                    : "lock=none";
+            return String.format("%s frames=%d %s wall=%.3fms cpu=%.3fms%s%s", name, frames, lock,
+                    wallNanos / 1e6, cpuNanos / 1e6, truncated ? " truncated" : "",
+                    metrics != null ? " " + metrics : "");
+        }
+    }
+
+    private final int requiredSupport;
+    private final boolean withMetrics;
+
+    public ScanSessionReplayer() {
+        this(DEFAULT_REQUIRED_SUPPORT, false);
+    }
+
+    /**
+     * @param requiredSupport số frame ủng hộ để chốt (như REQUIRED_STABLE_HITS của ứng dụng)
+     * @param withMetrics ghi histogram từng giai đoạn vào {@link Report#metrics}
+     */
+    public ScanSessionReplayer(int requiredSupport, boolean withMetrics) {
+        this.requiredSupport = requiredSupport;
+        this.withMetrics = withMetrics;
+    }
+
+    /** Đọc hết phiên vào bộ nhớ (không tính vào thời gian phát lại). */
+    public static List<SessionFrame> load(InputStream in, boolean[] truncated) throws IOException {
+        List<SessionFrame> frames = new ArrayList<>();
+        try (ScanSessionReader reader = new ScanSessionReader(in)) {
+            SessionFrame f;
+            while ((f = reader.next()) != null) frames.add(f);
+            if (truncated != null) truncated[0] = reader.truncated();
+        }
+        return frames;
+    }
+
+    public Report replay(String name, List<SessionFrame> frames, boolean truncated) {
+        return replay(name, frames, truncated, 1);
+    }
+
+    /** Phát lại repeat lần (lần đầu cũng để JIT khởi động), báo wall/CPU của lần nhanh nhất. */
+    public Report replay(String name, List<SessionFrame> frames, boolean truncated, int repeat) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean cpu = threads.isCurrentThreadCpuTimeSupported();
+        long bestWall = Long.MAX_VALUE;
+        long bestCpu = 0;
+        int framesToLock = -1;
+        MrzScanPipeline.Outcome lock = null;
+        MrzScanMetrics metrics = null;
+        for (int r = 0; r < Math.max(1, repeat); r++) {
+            metrics = new MrzScanMetrics();
+            metrics.setEnabled(withMetrics);
+            MrzScanPipeline pipeline = new MrzScanPipeline(requiredSupport, metrics);
+            OcrFrame ocrFrame = new OcrFrame();
+            framesToLock = -1;
+            lock = null;
+            long cpu0 = cpu ? threads.getCurrentThreadCpuTime() : 0;
+            long wall0 = System.nanoTime();
+            for (int i = 0; i < frames.size(); i++) {
+                SessionFrame f = frames.get(i);
+                long normStart = metrics.start();
+                ocrFrame.begin();
+                for (SessionLine l : f.lines) l.addTo(ocrFrame);
+                metrics.record(MrzScanMetrics.Stage.NORMALIZE, normStart);
+                MrzScanPipeline.Outcome o = pipeline.onFrame(f.seq, ocrFrame.lines());
+                if (o.status == MrzScanPipeline.Status.LOCKED) {
+                    framesToLock = i + 1;
+                    lock = o;
+                    break;
+                }
+            }
+            long wall = System.nanoTime() - wall0;
+            long cpuTime = cpu ? threads.getCurrentThreadCpuTime() - cpu0 : 0;
+            if (wall < bestWall) {
+                bestWall = wall;
+                bestCpu = cpuTime;
+            }
+        }
+        long recorded = lock == null ? -1 : frames.get(framesToLock - 1).uptimeMs - frames.get(0).uptimeMs;
+        return new Report(name, frames.size(), framesToLock, recorded, lock != null ? lock.mrz : null,
+                lock != null && lock.corrected, bestWall, bestCpu, truncated, withMetrics ? metrics.dump() : null);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int required = DEFAULT_REQUIRED_SUPPORT;
+        int repeat = 1;
+        boolean metrics = false;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (("--stable".equals(a) || "--repeat".equals(a)) && i + 1 < args.length) {
+                int v;
+                try {
+                    v = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    usage("invalid number: " + args[i]);
+                    return;
+                }
+                if (v < 1) {
+                    usage(a + " must be >= 1");
+                    return;
+                }
+                if ("--stable".equals(a)) required = v; else repeat = v;
+            } else if ("--metrics".equals(a)) {
+                metrics = true;
+            } else if (a.startsWith("--")) {
+                usage("unexpected argument: " + a);
+                return;
+            } else {
+                files.add(a);
+            }
+        }
+        if (files.isEmpty()) {
+            usage("no session files");
+            return;
+        }
+        ScanSessionReplayer replayer = new ScanSessionReplayer(required, metrics);
+        int locked = 0;
+        for (String file : files) {
+            boolean[] truncated = new boolean[1];
+            List<SessionFrame> frames;
+            try (InputStream in = Files.newInputStream(Paths.get(file))) {
+                frames = load(in, truncated);
+            }
+            Report report = replayer.replay(file, frames, truncated[0], repeat);
+            if (report.locked()) locked++;
+            System.out.println(report);
+        }
+        System.err.println("sessions=" + files.size() + " locked=" + locked);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("usage: ScanSessionReplayer [--stable N] [--repeat N] [--metrics] session...");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,91 @@
+package com.mrz_native.core.session;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ghi phiên quét ra file nhị phân gọn (nén gzip), để phát lại trên JVM bằng {@link ScanSessionReplayer}.
+ *
+ * Định dạng (big-endian, DataOutput):
+ * <pre>
+ * session := MAGIC:int VERSION:byte frame* END:byte
+ * frame   := FRAME:byte seq:long uptimeMs:long ocrLatencyMs:int rotation:short cropped:byte
+ *            width:int height:int lumaLength:int luma:byte[lumaLength] lineCount:short line*
+ * line    := text:UTF hasBox:byte [left:int top:int right:int bottom:int]
+ *            elementCount:short symbolCount:short elementEnd:short[elementCount] symbol*
+ * symbol  := text:UTF confidence:float left:int right:int
+ * </pre>
+ * Phiên bị cắt ngang (ứng dụng bị tắt khi đang ghi) vẫn đọc được tới frame đầy đủ cuối cùng.
+ *
+ * Không thread-safe.
+ */
+public final class ScanSessionWriter implements Closeable {
+
+    static final int MAGIC = 0x4D525A53; // "MRZS"
+    static final int VERSION = 1;
+    static final int TAG_END = 0;
+    static final int TAG_FRAME = 1;
+
+    private final DataOutputStream out;
+    private int frames;
+
+    public ScanSessionWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out, 1 << 16, true), 1 << 16));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    public int frames() { return frames; }
+
+    public void write(SessionFrame f) throws IOException {
+        out.writeByte(TAG_FRAME);
+        out.writeLong(f.seq);
+        out.writeLong(f.uptimeMs);
+        out.writeInt(f.ocrLatencyMs);
+        out.writeShort(f.rotationDegrees);
+        out.writeByte(f.cropped ? 1 : 0);
+        out.writeInt(f.width);
+        out.writeInt(f.height);
+        out.writeInt(f.luma.length);
+        out.write(f.luma);
+        out.writeShort(f.lines.size());
+        for (SessionLine l : f.lines) {
+            out.writeUTF(l.text);
+            out.writeByte(l.hasBox ? 1 : 0);
+            if (l.hasBox) {
+                out.writeInt(l.left);
+                out.writeInt(l.top);
+                out.writeInt(l.right);
+                out.writeInt(l.bottom);
+            }
+            out.writeShort(l.elementEnd.length);
+            out.writeShort(l.symbols.length);
+            for (int e : l.elementEnd) out.writeShort(e);
+            for (int i = 0; i < l.symbols.length; i++) {
+                out.writeUTF(l.symbols[i]);
+                out.writeFloat(l.confidences[i]);
+                out.writeInt(l.symbolLeft[i]);
+                out.writeInt(l.symbolRight[i]);
+            }
+        }
+        frames++;
+    }
+
+    /** Đẩy các frame đã ghi xuống file (khối gzip chưa đóng vẫn đọc được tới frame đầy đủ cuối cùng). */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.writeByte(TAG_END);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.mrz_native.core.session;
+
+import java.util.List;
+
+/**
+ * Một frame đã ghi: vùng luma gửi OCR và các dòng ML Kit mà bộ quét đã nhận (đã lọc theo ROI, đúng thứ tự).
+ */
+public final class SessionFrame {
+
+    public final long seq;
+    /** Thời điểm gửi OCR (ms, đồng hồ uptime của máy ghi). */
+    public final long uptimeMs;
+    /** Độ trễ OCR đã đo (ms). */
+    public final int ocrLatencyMs;
+    public final int rotationDegrees;
+    /** Ảnh đầu vào đã crop theo ROI (toạ độ dòng là của vùng đã cắt). */
+    public final boolean cropped;
+    public final int width;
+    public final int height;
+    /** width * height byte luma, hoặc rỗng nếu phiên ghi không lưu ảnh. */
+    public final byte[] luma;
+    public final List<SessionLine> lines;
+
+    public SessionFrame(long seq, long uptimeMs, int ocrLatencyMs, int rotationDegrees, boolean cropped,
+                        int width, int height, byte[] luma, List<SessionLine> lines) {
+        if (luma.length != 0 && luma.length != width * height) {
+            throw new IllegalArgumentException("luma length " + luma.length + " != " + width + "x" + height);
+        }
+        this.seq = seq;
+        this.uptimeMs = uptimeMs;
+        this.ocrLatencyMs = ocrLatencyMs;
+        this.rotationDegrees = rotationDegrees;
+        this.cropped = cropped;
+        this.width = width;
+        this.height = height;
+        this.luma = luma;
+        this.lines = lines;
+    }
+}
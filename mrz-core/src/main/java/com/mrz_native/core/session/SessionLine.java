@@ -0,0 +1,59 @@
+package com.mrz_native.core.session;
+
+import com.mrz_native.core.OcrFrame;
+import com.mrz_native.core.OcrLine;
+
+/**
+ * Một dòng kết quả ML Kit đã ghi: text, bounding box (toạ độ ảnh đã xoay), các element và symbol
+ * (text, độ tin cậy, biên trái/phải). Symbol của element e nằm trong [elementEnd[e-1], elementEnd[e]).
+ */
+public final class SessionLine {
+
+    public final String text;
+    public final boolean hasBox;
+    public final int left;
+    public final int top;
+    public final int right;
+    public final int bottom;
+    public final int[] elementEnd;
+    public final String[] symbols;
+    public final float[] confidences;
+    public final int[] symbolLeft;
+    public final int[] symbolRight;
+
+    public SessionLine(String text, boolean hasBox, int left, int top, int right, int bottom, int[] elementEnd,
+                       String[] symbols, float[] confidences, int[] symbolLeft, int[] symbolRight) {
+        if (confidences.length != symbols.length || symbolLeft.length != symbols.length
+                || symbolRight.length != symbols.length) {
+            throw new IllegalArgumentException("symbol arrays differ in length");
+        }
+        this.text = text;
+        this.hasBox = hasBox;
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.elementEnd = elementEnd;
+        this.symbols = symbols;
+        this.confidences = confidences;
+        this.symbolLeft = symbolLeft;
+        this.symbolRight = symbolRight;
+    }
+
+    /** Dòng chỉ có text (không có box, element, symbol). */
+    public SessionLine(String text) {
+        this(text, false, 0, 0, 0, 0, new int[0], new String[0], new float[0], new int[0], new int[0]);
+    }
+
+    /**
+     * Thêm dòng vào frame như Activity thêm từ Text.Line (kể cả box khi ảnh đầu vào đã crop theo ROI).
+     * @return dòng đã thêm, hoặc null nếu norm rỗng
+     */
+    public OcrLine addTo(OcrFrame frame) {
+        OcrLine.Builder builder = frame.line();
+        for (int i = 0; i < symbols.length; i++) {
+            builder.appendSymbol(symbols[i], confidences[i], symbolLeft[i], symbolRight[i]);
+        }
+        return hasBox ? frame.add(text, true, left, top, right, bottom) : frame.add(text, true, 0, 0, 0, 0);
+    }
+}
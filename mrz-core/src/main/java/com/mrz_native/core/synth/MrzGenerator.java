@@ -0,0 +1,250 @@
+package com.mrz_native.core.synth;
+
+import com.mrz_native.core.MrzCheckDigit;
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzParser;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sinh MRZ TD1/TD2/TD3 hợp lệ theo bố cục {@link MrzLayout} (cùng offset với MrzParser), rồi áp {@link MrzNoise}.
+ *
+ * Cùng seed cho cùng chuỗi mẫu, để so sánh độ chính xác / thông lượng giữa các lần chạy.
+ * Check digit tính theo ICAO 9303. Trường optional của TD1 để trống, khi đó composite theo ICAO trùng với
+ * công thức MrzParser kiểm tra; personal number của TD2/TD3 có khi trống, có khi là số.
+ *
+ * Không thread-safe: mỗi luồng một generator (seed khác nhau).
+ */
+public final class MrzGenerator {
+
+    private static final String ALPHA = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String DIGITS = "0123456789";
+    private static final String ALNUM = ALPHA + DIGITS;
+    private static final int MIN_FILLERS = 4;
+    private static final String[] COUNTRIES = {
+            "UTO", "VNM", "D<<", "FRA", "GBR", "USA", "JPN", "KOR", "CHN", "THA", "SGP", "NLD", "CAN", "AUS"
+    };
+    private static final String[] SYLLABLES = {
+            "AN", "NGUY", "EN", "TRAN", "LE", "PHAM", "HO", "VU", "MAR", "IA", "SON", "ERIK", "ANNA", "LOU",
+            "ISE", "BER", "NARD", "KIM", "PARK", "LI", "WANG", "SMITH", "JO", "HAN", "SEN", "MUL", "LER"
+    };
+    private static final String[] JUNK = {
+            "PASSPORT", "PASSEPORT", "REPUBLIC", "OF", "UTOPIA", "SURNAME", "GIVEN", "NAMES", "NATIONALITY",
+            "DATE", "BIRTH", "SEX", "PLACE", "ISSUE", "AUTHORITY", "EXPIRY", "12", "AUG", "1974", "HO", "CHIEU"
+    };
+    // Các cặp ký tự OCR hay nhầm (đúng các cặp MrzCorrector thử)
+    private static final char[] CONFUSABLE = new char[128];
+
+    static {
+        String pairs = "O0I1S5B8";
+        for (int i = 0; i < pairs.length(); i += 2) {
+            CONFUSABLE[pairs.charAt(i)] = pairs.charAt(i + 1);
+            CONFUSABLE[pairs.charAt(i + 1)] = pairs.charAt(i);
+        }
+    }
+
+    private static final MrzLayout[] LAYOUTS = MrzLayout.values();
+
+    private final Random rnd;
+
+    public MrzGenerator(long seed) {
+        rnd = new Random(seed);
+    }
+
+    /** Loại MRZ ngẫu nhiên, áp nhiễu. */
+    public MrzSample next(MrzNoise noise) {
+        return next(LAYOUTS[rnd.nextInt(LAYOUTS.length)], noise);
+    }
+
+    public MrzSample next(MrzLayout layout) {
+        return next(layout, MrzNoise.NONE);
+    }
+
+    public MrzSample next(MrzLayout layout, MrzNoise noise) {
+        char[][] rows = clean(layout);
+        List<String> lines = new ArrayList<>(rows.length);
+        for (char[] r : rows) lines.add(new String(r));
+        ParsedMrz expected = parse(layout, lines);
+        if (expected == null) throw new IllegalStateException("generated MRZ does not parse: " + lines);
+
+        List<String> observed = new ArrayList<>();
+        List<int[]> where = new ArrayList<>();
+        int row = 0;
+        if (hit(noise.junkRate)) where.add(junk(observed, row++));
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0 && hit(noise.junkRate)) where.add(junk(observed, row++));
+            String s = distort(lines.get(i), noise);
+            if (s.length() >= 8 && hit(noise.splitRate)) {
+                int cut = s.length() / 4 + rnd.nextInt(s.length() / 2);
+                observed.add(s.substring(0, cut));
+                where.add(new int[]{row, 0});
+                observed.add(s.substring(cut));
+                where.add(new int[]{row, cut});
+            } else {
+                observed.add(s);
+                where.add(new int[]{row, 0});
+            }
+            row++;
+        }
+        if (hit(noise.junkRate)) where.add(junk(observed, row));
+        int[] rowOf = new int[where.size()];
+        int[] colOf = new int[where.size()];
+        for (int i = 0; i < rowOf.length; i++) {
+            rowOf[i] = where.get(i)[0];
+            colOf[i] = where.get(i)[1];
+        }
+        return new MrzSample(layout, lines, expected, observed, rowOf, colOf);
+    }
+
+    // ---------- MRZ sạch ----------
+
+    private char[][] clean(MrzLayout layout) {
+        char[][] rows = new char[layout.lineCount][layout.lineLength];
+        for (char[] r : rows) Arrays.fill(r, '<');
+        for (MrzLayout.Field f : layout.fields()) {
+            char[] row = rows[f.line];
+            switch (f.name) {
+                case "documentType":
+                    put(row, f.start, documentType(layout));
+                    break;
+                case "issuingCountry":
+                case "nationality":
+                    put(row, f.start, COUNTRIES[rnd.nextInt(COUNTRIES.length)]);
+                    break;
+                case "name":
+                    put(row, f.start, name(f.length));
+                    break;
+                case "documentNumber":
+                    put(row, f.start, random(ALNUM, 6 + rnd.nextInt(f.length - 5)));
+                    break;
+                case "dob":
+                    put(row, f.start, date());
+                    break;
+                case "expiryDate":
+                    put(row, f.start, date());
+                    break;
+                case "gender":
+                    row[f.start] = "MF<".charAt(rnd.nextInt(3));
+                    break;
+                case "personalNumber":
+                    // Chừa ít nhất MIN_FILLERS '<' như giấy tờ thật (MrzLines.hasEnoughFillers cần ~10% '<')
+                    if (rnd.nextBoolean() && f.length > MIN_FILLERS) {
+                        put(row, f.start, random(DIGITS, 1 + rnd.nextInt(f.length - MIN_FILLERS)));
+                    }
+                    break;
+                default:
+                    // optional1 / optional2 để trống, composite tính sau
+                    break;
+            }
+            if (f.hasCheckDigit()) {
+                rows[f.checkLine][f.checkPos] = (char) ('0' + MrzCheckDigit.compute(row, f.start, f.length));
+            }
+        }
+        if (layout == MrzLayout.TD3) {
+            char[] b = rows[1];
+            b[43] = composite(b, 0, 10, b, 13, 7, b, 21, 22, null, 0, 0);
+        } else if (layout == MrzLayout.TD1) {
+            char[] a = rows[0], b = rows[1];
+            b[29] = composite(a, 5, 25, b, 0, 7, b, 8, 7, b, 18, 11);
+        }
+        return rows;
+    }
+
+    private static char composite(char[] a, int oa, int la, char[] b, int ob, int lb, char[] c, int oc, int lc,
+                                  char[] d, int od, int ld) {
+        StringBuilder sb = new StringBuilder(64).append(a, oa, la).append(b, ob, lb).append(c, oc, lc);
+        if (d != null) sb.append(d, od, ld);
+        return (char) ('0' + MrzCheckDigit.compute(sb));
+    }
+
+    private String documentType(MrzLayout layout) {
+        switch (layout) {
+            case TD3: return "P<";
+            case TD2: return rnd.nextBoolean() ? "I<" : "V<";
+            default: return rnd.nextBoolean() ? "I<" : "ID";
+        }
+    }
+
+    private String name(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        word(sb, 1 + rnd.nextInt(2));
+        sb.append("<<");
+        int given = 1 + rnd.nextInt(3);
+        for (int g = 0; g < given; g++) {
+            if (g > 0) sb.append('<');
+            word(sb, 1 + rnd.nextInt(2));
+        }
+        return sb.length() > length ? sb.substring(0, length) : sb.toString();
+    }
+
+    private void word(StringBuilder sb, int syllables) {
+        for (int s = 0; s < syllables; s++) sb.append(SYLLABLES[rnd.nextInt(SYLLABLES.length)]);
+    }
+
+    private String date() {
+        int yy = rnd.nextInt(100);
+        int mm = 1 + rnd.nextInt(12);
+        int dd = 1 + rnd.nextInt(28);
+        return String.format("%02d%02d%02d", yy, mm, dd);
+    }
+
+    private String random(String alphabet, int length) {
+        char[] out = new char[length];
+        for (int i = 0; i < length; i++) out[i] = alphabet.charAt(rnd.nextInt(alphabet.length()));
+        return new String(out);
+    }
+
+    private static void put(char[] row, int start, String value) {
+        value.getChars(0, value.length(), row, start);
+    }
+
+    private static ParsedMrz parse(MrzLayout layout, List<String> l) {
+        switch (layout) {
+            case TD1: return MrzParser.parseTD1(l.get(0), l.get(1), l.get(2));
+            case TD2: return MrzParser.parseTD2(l.get(0), l.get(1));
+            default: return MrzParser.parseTD3(l.get(0), l.get(1));
+        }
+    }
+
+    // ---------- nhiễu ----------
+
+    private boolean hit(float p) {
+        return p > 0 && rnd.nextFloat() < p;
+    }
+
+    private String distort(String line, MrzNoise noise) {
+        if (noise.isNone()) return line;
+        StringBuilder sb = new StringBuilder(line.length() + 4);
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '<') {
+                if (hit(noise.chevronDropRate)) continue;
+                sb.append(c);
+                if (hit(noise.extraChevronRate)) sb.append('<');
+            } else if (CONFUSABLE[c] != 0 && hit(noise.confusionRate)) {
+                sb.append(CONFUSABLE[c]);
+            } else {
+                sb.append(c);
+            }
+        }
+        if (sb.length() > 5 && hit(noise.truncateRate)) {
+            sb.setLength(sb.length() - 1 - rnd.nextInt(Math.max(1, sb.length() / 5)));
+        }
+        return sb.toString();
+    }
+
+    private int[] junk(List<String> observed, int row) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + rnd.nextInt(4);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            sb.append(JUNK[rnd.nextInt(JUNK.length)]);
+        }
+        observed.add(sb.toString());
+        return new int[]{row, rnd.nextInt(8)};
+    }
+}
@@ -0,0 +1,97 @@
+package com.mrz_native.core.synth;
+
+/**
+ * Mô hình nhiễu OCR cho {@link MrzGenerator}, áp lên các dòng MRZ sạch theo thứ tự:
+ * - nhầm ký tự O/0, I/1, S/5, B/8 (các cặp mà MrzCorrector thử), xác suất theo từng ký tự thuộc cặp;
+ * - mất hoặc thừa '<', xác suất theo từng '<';
+ * - cắt cụt cuối dòng (tối đa 1/5 dòng), chia một dòng thành hai dòng OCR cùng hàng;
+ * - chèn dòng rác (chữ vùng VIZ) trước, giữa và sau các dòng MRZ.
+ *
+ * Bất biến; dựng bằng {@link Builder}.
+ */
+public final class MrzNoise {
+
+    public static final MrzNoise NONE = builder().build();
+    /** Frame đọc gần đúng: thỉnh thoảng nhầm một ký tự, thường có dòng rác. */
+    public static final MrzNoise LIGHT = builder()
+            .confusionRate(0.02f).chevronDropRate(0.01f).junkRate(0.3f).build();
+    /** Frame xấu: nhiều nhầm lẫn, lệch '<', dòng bị cắt / chia đôi. */
+    public static final MrzNoise HEAVY = builder()
+            .confusionRate(0.08f).chevronDropRate(0.04f).extraChevronRate(0.03f)
+            .truncateRate(0.15f).splitRate(0.15f).junkRate(0.6f).build();
+
+    public final float confusionRate;
+    public final float chevronDropRate;
+    public final float extraChevronRate;
+    public final float truncateRate;
+    public final float splitRate;
+    public final float junkRate;
+
+    private MrzNoise(Builder b) {
+        confusionRate = b.confusionRate;
+        chevronDropRate = b.chevronDropRate;
+        extraChevronRate = b.extraChevronRate;
+        truncateRate = b.truncateRate;
+        splitRate = b.splitRate;
+        junkRate = b.junkRate;
+    }
+
+    public boolean isNone() {
+        return confusionRate == 0 && chevronDropRate == 0 && extraChevronRate == 0
+                && truncateRate == 0 && splitRate == 0 && junkRate == 0;
+    }
+
+    /** NONE, LIGHT, HEAVY (không phân biệt hoa thường); null nếu tên lạ. */
+    public static MrzNoise named(String name) {
+        switch (name.toLowerCase(java.util.Locale.ROOT)) {
+            case "none": return NONE;
+            case "light": return LIGHT;
+            case "heavy": return HEAVY;
+            default: return null;
+        }
+    }
+
+    public static Builder builder() { return new Builder(); }
+
+    @Override
+    public String toString() {
+        return String.format("MrzNoise[confusion=%.3f chevronDrop=%.3f extraChevron=%.3f truncate=%.3f split=%.3f junk=%.3f]",
+                confusionRate, chevronDropRate, extraChevronRate, truncateRate, splitRate, junkRate);
+    }
+
+    public static final class Builder {
+        private float confusionRate;
+        private float chevronDropRate;
+        private float extraChevronRate;
+        private float truncateRate;
+        private float splitRate;
+        private float junkRate;
+
+        private Builder() {}
+
+        /** Xác suất mỗi ký tự O/0/I/1/S/5/B/8 bị đọc thành ký tự cặp với nó. */
+        public Builder confusionRate(float p) { confusionRate = rate(p); return this; }
+
+        /** Xác suất mỗi '<' bị mất. */
+        public Builder chevronDropRate(float p) { chevronDropRate = rate(p); return this; }
+
+        /** Xác suất thêm một '<' sau mỗi '<'. */
+        public Builder extraChevronRate(float p) { extraChevronRate = rate(p); return this; }
+
+        /** Xác suất mỗi dòng bị cắt cụt cuối. */
+        public Builder truncateRate(float p) { truncateRate = rate(p); return this; }
+
+        /** Xác suất mỗi dòng bị chia thành hai dòng OCR. */
+        public Builder splitRate(float p) { splitRate = rate(p); return this; }
+
+        /** Xác suất chèn một dòng rác ở mỗi chỗ: trước, giữa từng cặp dòng, sau. */
+        public Builder junkRate(float p) { junkRate = rate(p); return this; }
+
+        public MrzNoise build() { return new MrzNoise(this); }
+
+        private static float rate(float p) {
+            if (!(p >= 0f && p <= 1f)) throw new IllegalArgumentException("rate must be in [0, 1]: " + p);
+            return p;
+        }
+    }
+}
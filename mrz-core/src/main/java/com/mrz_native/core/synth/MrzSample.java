@@ -0,0 +1,63 @@
+package com.mrz_native.core.synth;
+
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+import com.mrz_native.core.OcrLine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Một MRZ sinh bởi {@link MrzGenerator}: các dòng sạch (check digit đúng), kết quả parse mong đợi
+ * và các dòng "OCR đọc được" sau khi áp {@link MrzNoise}, theo thứ tự đọc kèm hàng hiển thị.
+ */
+public final class MrzSample {
+
+    // Toạ độ giả cho frame: hàng cách nhau ROW_PITCH px, ký tự rộng CHAR_WIDTH px
+    static final int ROW_PITCH = 40;
+    static final int LINE_HEIGHT = 30;
+    static final int CHAR_WIDTH = 20;
+    static final int LEFT = 20;
+    static final int TOP = 200;
+
+    public final MrzLayout layout;
+    /** Dòng MRZ sạch. */
+    public final List<String> lines;
+    public final ParsedMrz expected;
+    /** Dòng sau nhiễu, theo thứ tự đọc (trên xuống, trái sang phải). */
+    public final List<String> observed;
+    // Hàng hiển thị và vị trí ký tự đầu của từng dòng observed (dòng bị chia đôi chung một hàng)
+    private final int[] rows;
+    private final int[] columns;
+
+    MrzSample(MrzLayout layout, List<String> lines, ParsedMrz expected, List<String> observed, int[] rows,
+              int[] columns) {
+        this.layout = layout;
+        this.lines = Collections.unmodifiableList(lines);
+        this.expected = expected;
+        this.observed = Collections.unmodifiableList(observed);
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /** Hàng hiển thị của dòng observed thứ i (0 là hàng trên cùng). */
+    public int rowOf(int i) { return rows[i]; }
+
+    /** Các dòng observed dưới dạng OcrLine có bounding box, như một frame OCR. */
+    public List<OcrLine> frame() {
+        List<OcrLine> out = new ArrayList<>(observed.size());
+        for (int i = 0; i < observed.size(); i++) {
+            String s = observed.get(i);
+            int top = TOP + rows[i] * ROW_PITCH;
+            int left = LEFT + columns[i] * CHAR_WIDTH;
+            out.add(new OcrLine(s, left, top, left + s.length() * CHAR_WIDTH, top + LINE_HEIGHT));
+        }
+        return out;
+    }
+
+    /** Bản ghi dạng text cho MrzBatchCli: các dòng observed, mỗi dòng một hàng. */
+    public String toRecord() {
+        return String.join("\n", observed);
+    }
+}
@@ -0,0 +1,182 @@
+package com.mrz_native.core.synth;
+
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzLineAssembler;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+import com.mrz_native.core.MrzScanner;
+import com.mrz_native.core.OcrLine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Điểm vào dòng lệnh cho bộ sinh MRZ:
+ * <pre>
+ * java -cp mrz-core.jar com.mrz_native.core.synth.MrzSynthCli generate [options] [output|-]
+ * java -cp mrz-core.jar com.mrz_native.core.synth.MrzSynthCli eval [options]
+ * options: --count N --seed N --layout TD1|TD2|TD3|mixed --noise none|light|heavy [--no-assemble]
+ * </pre>
+ * generate ghi các dòng observed, mỗi bản ghi cách nhau một dòng trống; với --noise none đây đúng là
+ * định dạng input của MrzBatchCli. eval ghép hàng (MrzLineAssembler, trừ khi --no-assemble) rồi chạy
+ * MrzScanner trên từng frame như MrzScanPipeline, in tỉ lệ đọc đúng / sai / trượt và số frame/s ra stderr.
+ */
+public final class MrzSynthCli {
+
+    private MrzSynthCli() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || !("generate".equals(args[0]) || "eval".equals(args[0]))) {
+            usage("expected generate or eval");
+            return;
+        }
+        boolean generate = "generate".equals(args[0]);
+        int count = 1000;
+        long seed = 1;
+        MrzLayout layout = null;
+        MrzNoise noise = MrzNoise.NONE;
+        String output = "-";
+        boolean assemble = true;
+        for (int i = 1; i < args.length; i++) {
+            String a = args[i];
+            if (("--count".equals(a) || "--seed".equals(a)) && i + 1 < args.length) {
+                long v;
+                try {
+                    v = Long.parseLong(args[++i]);
+                } catch (NumberFormatException e) {
+                    usage("invalid number: " + args[i]);
+                    return;
+                }
+                if ("--count".equals(a)) {
+                    if (v < 1 || v > Integer.MAX_VALUE) {
+                        usage("--count must be >= 1");
+                        return;
+                    }
+                    count = (int) v;
+                } else {
+                    seed = v;
+                }
+            } else if ("--layout".equals(a) && i + 1 < args.length) {
+                String name = args[++i].toUpperCase(Locale.ROOT);
+                if (!"MIXED".equals(name)) {
+                    try {
+                        layout = MrzLayout.valueOf(name);
+                    } catch (IllegalArgumentException e) {
+                        usage("unknown layout: " + args[i]);
+                        return;
+                    }
+                }
+            } else if ("--noise".equals(a) && i + 1 < args.length) {
+                noise = MrzNoise.named(args[++i]);
+                if (noise == null) {
+                    usage("unknown noise: " + args[i]);
+                    return;
+                }
+            } else if (!generate && "--no-assemble".equals(a)) {
+                assemble = false;
+            } else if (generate && !a.startsWith("--") && "-".equals(output)) {
+                output = a;
+            } else {
+                usage("unexpected argument: " + a);
+                return;
+            }
+        }
+
+        MrzGenerator generator = new MrzGenerator(seed);
+        if (generate) {
+            try (Writer out = openOutput(output)) {
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) out.write('\n');
+                    out.write(next(generator, layout, noise).toRecord());
+                    out.write('\n');
+                }
+            }
+            System.err.println("records=" + count + " seed=" + seed + " noise=" + noise);
+        } else {
+            System.err.println(eval(generator, layout, noise, count, assemble));
+        }
+    }
+
+    /** Kết quả một lượt eval. */
+    public static final class Eval {
+        public final int frames;
+        public final int correct;
+        /** Ra MRZ nhưng khác MRZ đã sinh. */
+        public final int wrong;
+        public final int corrected;
+        public final long nanos;
+
+        Eval(int frames, int correct, int wrong, int corrected, long nanos) {
+            this.frames = frames;
+            this.correct = correct;
+            this.wrong = wrong;
+            this.corrected = corrected;
+            this.nanos = nanos;
+        }
+
+        public int missed() { return frames - correct - wrong; }
+
+        @Override
+        public String toString() {
+            return String.format("frames=%d correct=%.2f%% wrong=%.2f%% missed=%.2f%% corrected=%d %.0f frames/s",
+                    frames, 100.0 * correct / frames, 100.0 * wrong / frames, 100.0 * missed() / frames,
+                    corrected, frames / (nanos / 1e9));
+        }
+    }
+
+    /** Sinh count frame và quét từng frame bằng một MrzScanner không cache (mỗi frame là một MRZ mới). */
+    public static Eval eval(MrzGenerator generator, MrzLayout layout, MrzNoise noise, int count, boolean assemble) {
+        // Sinh trước để thời gian chỉ tính phần quét
+        List<MrzSample> samples = new ArrayList<>(count);
+        List<List<OcrLine>> frames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MrzSample s = next(generator, layout, noise);
+            samples.add(s);
+            frames.add(s.frame());
+        }
+        MrzScanner scanner = new MrzScanner(null);
+        MrzLineAssembler assembler = new MrzLineAssembler();
+        int correct = 0, wrong = 0, corrected = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            List<OcrLine> lines = frames.get(i);
+            MrzScanner.Result r = scanner.scan(assemble ? assembler.assemble(lines) : lines);
+            if (r == null) continue;
+            if (sameMrz(r.mrz, samples.get(i).expected)) correct++; else wrong++;
+            if (r.corrected) corrected++;
+        }
+        return new Eval(count, correct, wrong, corrected, System.nanoTime() - t0);
+    }
+
+    static boolean sameMrz(ParsedMrz a, ParsedMrz b) {
+        return a.documentType.equals(b.documentType) && a.issuingCountry.equals(b.issuingCountry)
+                && a.name.equals(b.name) && a.documentNumber.equals(b.documentNumber)
+                && a.nationality.equals(b.nationality) && a.dob.equals(b.dob) && a.gender.equals(b.gender)
+                && a.expiryDate.equals(b.expiryDate) && Objects.equals(a.personalNumber, b.personalNumber);
+    }
+
+    private static MrzSample next(MrzGenerator generator, MrzLayout layout, MrzNoise noise) {
+        return layout == null ? generator.next(noise) : generator.next(layout, noise);
+    }
+
+    private static Writer openOutput(String output) throws IOException {
+        return "-".equals(output)
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16)
+                : Files.newBufferedWriter(Paths.get(output), StandardCharsets.US_ASCII);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("usage: mrz-synth generate|eval [--count N] [--seed N] [--layout TD1|TD2|TD3|mixed]"
+                + " [--noise none|light|heavy] [--no-assemble] [output|-]");
+        System.exit(2);
+    }
+}
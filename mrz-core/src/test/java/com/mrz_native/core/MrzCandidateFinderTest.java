@@ -0,0 +1,34 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MrzCandidateFinderTest {
+
+    @Test
+    public void findsEachLayoutBetweenOtherText() {
+        ParsedMrz td3 = MrzCandidateFinder.findAndParseMrzStrings(Arrays.asList(
+                "PASSPORT<PASSEPORT<<UTOPIA", MrzParserTest.TD3_L1, MrzParserTest.TD3_L2, "SIGNATURE<<<"));
+        assertNotNull(td3);
+        assertEquals("L898902C3", td3.documentNumber);
+
+        ParsedMrz td1 = MrzCandidateFinder.findAndParseMrzStrings(Arrays.asList(
+                "IDENTITY<CARD<<", MrzParserTest.TD1_L1, MrzParserTest.TD1_L2, MrzParserTest.TD1_L3));
+        assertNotNull(td1);
+        assertEquals("D23145890", td1.documentNumber);
+    }
+
+    @Test
+    public void acceptsTruncatedTd3Line() {
+        // OCR cắt mất phần filler cuối dòng tên
+        ParsedMrz p = MrzCandidateFinder.findAndParseMrzStrings(Arrays.asList(
+                MrzParserTest.TD3_L1.substring(0, 30), MrzParserTest.TD3_L2));
+        assertNotNull(p);
+        assertEquals("ERIKSSON ANNA MARIA", p.name);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MrzCorrectorTest {
+
+    private static ParsedMrz correct(String... lines) {
+        OcrLine[] ocr = new OcrLine[lines.length];
+        for (int i = 0; i < lines.length; i++) ocr[i] = new OcrLine(lines[i]);
+        return MrzCorrector.tryHeuristicCorrectionsMultiple(Arrays.asList(ocr));
+    }
+
+    @Test
+    public void fixesLettersInDateFields() {
+        ParsedMrz p = correct(MrzParserTest.TD3_L1, "L898902C36UTO74O8122F12041S9ZE184226B<<<<<10");
+        assertNotNull(p);
+        assertEquals("740812", p.dob);
+        assertEquals("120415", p.expiryDate);
+    }
+
+    @Test
+    public void fixesDigitsInNameWithoutTouchingNumbers() {
+        ParsedMrz p = correct("P<UT0ER1KSSON<<ANNA<MAR1A<<<<<<<<<<<<<<<<<<<", "L898902C36UTO7408I22F1204159ZE184226B<<<<<10");
+        assertNotNull(p);
+        assertEquals("UTO", p.issuingCountry);
+        assertEquals("ERIKSSON ANNA MARIA", p.name);
+        assertEquals("L898902C3", p.documentNumber);
+    }
+
+    @Test
+    public void repairsAlphanumericFieldUsingItsCheckDigit() {
+        // 'I' trong số giấy tờ TD1 chỉ sửa được nhờ check digit của trường
+        ParsedMrz p = correct("I<UTOD23I458907<<<<<<<<<<<<<<<", MrzParserTest.TD1_L2, MrzParserTest.TD1_L3);
+        assertNotNull(p);
+        assertEquals("D23145890", p.documentNumber);
+    }
+
+    @Test
+    public void latticeFixesLowConfidenceDigit() {
+        // '1' của ngày sinh bị đọc thành '6' với độ tin cậy thấp: chỉ sửa được khi có độ tin cậy
+        String l2 = "L898902C36UTO7408622F1204159ZE184226B<<<<<10";
+        OcrLine.Builder b = new OcrLine.Builder();
+        for (int i = 0; i < l2.length(); i++) {
+            b.appendSymbol(String.valueOf(l2.charAt(i)), i == 17 ? 0.4f : 0.98f, i * 10, i * 10 + 9);
+        }
+        OcrLine withConfidence = b.build(l2, 0, 100, 440, 110);
+        assertEquals(l2, withConfidence.norm);
+
+        assertNull(correct(MrzParserTest.TD3_L1, l2));
+        ParsedMrz p = MrzCorrector.tryHeuristicCorrectionsMultiple(
+                Arrays.asList(new OcrLine(MrzParserTest.TD3_L1), withConfidence));
+        assertNotNull(p);
+        assertEquals("740812", p.dob);
+    }
+
+    @Test
+    public void givesUpOnUnrelatedLines() {
+        assertNull(correct("REPUBLIC<OF<UTOPIA<<PASSPORT", "SURNAME<GIVEN<NAMES<<12<AUG<1974"));
+    }
+}
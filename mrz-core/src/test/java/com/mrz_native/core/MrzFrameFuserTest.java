@@ -0,0 +1,65 @@
+package com.mrz_native.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MrzFrameFuserTest {
+
+    private static MrzFrameFuser.Result add(MrzFrameFuser fuser, String l2) {
+        return fuser.addFrame(Arrays.asList(
+                new OcrLine(MrzParserTest.TD3_L1, 0, 100, 440, 110),
+                new OcrLine(l2, 0, 120, 440, 130)));
+    }
+
+    private static String withError(int pos, char c) {
+        char[] l2 = MrzParserTest.TD3_L2.toCharArray();
+        l2[pos] = c;
+        return new String(l2);
+    }
+
+    @Test
+    public void partiallyCorrectFramesAddUpToResult() {
+        MrzFrameFuser fuser = new MrzFrameFuser();
+        // mỗi frame sai một chữ số khác nhau, không frame nào tự parse được
+        assertNull(MrzParser.parseTD3(MrzParserTest.TD3_L1, withError(14, '9')));
+        assertNull(add(fuser, withError(14, '9')));
+        add(fuser, withError(22, '7'));
+        MrzFrameFuser.Result r = add(fuser, withError(2, '3'));
+
+        assertNotNull(r);
+        assertEquals(MrzLayout.TD3, r.layout);
+        assertEquals("L898902C3", r.mrz.documentNumber);
+        assertEquals("740812", r.mrz.dob);
+        assertEquals(3, r.support);
+    }
+
+    @Test
+    public void oldFramesLeaveTheWindow() {
+        MrzFrameFuser fuser = new MrzFrameFuser(2);
+        assertNotNull(add(fuser, MrzParserTest.TD3_L2));
+        add(fuser, withError(14, '9'));
+        add(fuser, withError(14, '9'));
+        // chỉ còn hai frame sai trong cửa sổ
+        assertNull(add(fuser, withError(14, '9')));
+
+        fuser.reset();
+        assertEquals(1, add(fuser, MrzParserTest.TD3_L2).support);
+    }
+
+    @Test
+    public void skipsCorrectionWhenAskedAndDropsVotesOfEvictedFrames() {
+        MrzFrameFuser fuser = new MrzFrameFuser(1);
+        String oneError = withError(14, '9');
+        assertNull(fuser.addFrame(Arrays.asList(
+                new OcrLine(MrzParserTest.TD3_L1, 0, 100, 440, 110),
+                new OcrLine(oneError, 0, 120, 440, 130)), false));
+        // Cửa sổ 1 frame: frame sai bị thay hoàn toàn, không còn phiếu lẻ nào
+        MrzFrameFuser.Result r = add(fuser, MrzParserTest.TD3_L2);
+        assertNotNull(r);
+        assertFalse(r.corrected);
+        assertEquals(1, r.support);
+    }
+}
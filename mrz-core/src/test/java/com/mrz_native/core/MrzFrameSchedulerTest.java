@@ -0,0 +1,44 @@
+package com.mrz_native.core;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class MrzFrameSchedulerTest {
+
+    @Test
+    public void backsOffOnStaticFailuresAndJumpsBackWhenMotionStops() {
+        MrzFrameScheduler s = new MrzFrameScheduler(1);
+        for (int i = 0; i < 20; i++) s.onOcrLatency(300);
+        long base = s.decide(0, 0).intervalMs;
+        assertTrue(base > 250 && base <= 300);
+
+        s.updateChange(0f);
+        s.onResult(false);
+        s.onResult(false);
+        MrzFrameScheduler.Decision d = s.decide(base, 0);
+        assertEquals(MrzFrameScheduler.Reason.WAIT, d.reason);
+        assertEquals(Math.min(MrzFrameScheduler.MAX_INTERVAL_MS, base << 2), d.intervalMs);
+
+        // Di chuyển rồi dừng: cho vào ngay, không chờ hết khoảng giãn
+        s.updateChange(0.2f);
+        s.updateChange(0.01f);
+        d = s.decide(base + 1, 0);
+        assertTrue(d.admit);
+        assertEquals(MrzFrameScheduler.Reason.SETTLED, d.reason);
+        assertFalse(s.decide(base + 2, 1).admit);
+    }
+
+    @Test
+    public void lumaChangeDetectsMovementInRegion() {
+        int w = 64, h = 32;
+        ByteBuffer y = ByteBuffer.allocate(w * h);
+        MrzFrameScheduler s = new MrzFrameScheduler(2);
+        s.updateLuma(y, w, 1, 0, 0, w, h);
+        assertEquals(0f, s.updateLuma(y, w, 1, 0, 0, w, h), 1e-6);
+        for (int i = 0; i < w * h; i++) y.put(i, (byte) 200);
+        assertTrue(s.updateLuma(y, w, 1, 0, 0, w, h) > MrzFrameScheduler.MOTION_THRESHOLD);
+    }
+}
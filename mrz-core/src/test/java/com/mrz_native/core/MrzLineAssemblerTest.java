@@ -0,0 +1,120 @@
+package com.mrz_native.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MrzLineAssemblerTest {
+
+    private static final int PITCH = 10;
+
+    // Mảnh text bắt đầu ở ô ký tự col của hàng row
+    private static OcrLine at(String text, int row, int col) {
+        int left = col * PITCH;
+        return new OcrLine(text, left, row * 20, left + text.length() * PITCH, row * 20 + 12);
+    }
+
+    @Test
+    public void splitRowsAreJoinedAndDroppedFillersRestored() {
+        // Hàng 2 bị tách ở dải '<', dải này mất; các mảnh đến không theo thứ tự
+        List<OcrLine> lines = Arrays.asList(
+                at("10", 1, 42),
+                at(MrzParserTest.TD3_L1, 0, 0),
+                at("L898902C36UTO7408122F1204159ZE184226B", 1, 0));
+        assertNull(new MrzScanner(null).scan(lines));
+
+        List<OcrLine> rows = new MrzLineAssembler().assemble(lines);
+        assertEquals(2, rows.size());
+        assertSame(lines.get(1), rows.get(0));
+        assertEquals(MrzParserTest.TD3_L2, rows.get(1).norm);
+        assertEquals(MrzLineAssembler.FILLER_CONFIDENCE, rows.get(1).confidenceAt(38), 0f);
+        assertEquals(1f, rows.get(1).confidenceAt(42), 0f);
+        assertNotNull(new MrzScanner(null).scan(rows));
+    }
+
+    @Test
+    public void trailingFillersAreRestoredUpToTheBandEdge() {
+        List<OcrLine> lines = Arrays.asList(
+                at(MrzParserTest.TD1_L1, 0, 0),
+                at(MrzParserTest.TD1_L2, 1, 0),
+                at("ERIKSSON<<ANNA<MARIA", 2, 0));
+        assertNull(new MrzScanner(null).scan(lines));
+
+        List<OcrLine> rows = new MrzLineAssembler().assemble(lines);
+        assertEquals(MrzParserTest.TD1_L3, rows.get(2).norm);
+        assertEquals(300, rows.get(2).right);
+        MrzScanner.Result r = new MrzScanner(null).scan(rows);
+        assertNotNull(r);
+        assertEquals("D23145890", r.mrz.documentNumber);
+    }
+
+    @Test
+    public void mergedRowsAreSplit() {
+        OcrLine merged = new OcrLine(MrzParserTest.TD3_L1 + " " + MrzParserTest.TD3_L2, 0, 0, 440, 30);
+        List<OcrLine> rows = new MrzLineAssembler().assemble(Arrays.asList(merged));
+        assertEquals(2, rows.size());
+        assertEquals(MrzParserTest.TD3_L1, rows.get(0).norm);
+        assertEquals(MrzParserTest.TD3_L2, rows.get(1).norm);
+        assertTrue(rows.get(0).centerY() < rows.get(1).centerY());
+        assertNotNull(new MrzScanner(null).scan(rows));
+    }
+
+    @Test
+    public void gapsBetweenSymbolsBecomeFillers() {
+        // ML Kit đọc dải '<' thành khoảng trắng: các symbol hai bên cách nhau nhiều ô
+        String name = "P<UTOERIKSSON ANNA MARIA";
+        OcrLine.Builder b = new OcrLine.Builder();
+        int col = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == ' ') {
+                col += i == 13 ? 2 : 1;
+                continue;
+            }
+            b.appendSymbol(String.valueOf(c), 0.9f, col * PITCH, col * PITCH + 8);
+            col++;
+        }
+        OcrLine l1 = b.build(name, 0, 0, col * PITCH, 12);
+        List<OcrLine> rows = new MrzLineAssembler().assemble(Arrays.asList(l1, at(MrzParserTest.TD3_L2, 1, 0)));
+        assertEquals(MrzParserTest.TD3_L1, rows.get(0).norm);
+        assertEquals(MrzLineAssembler.FILLER_CONFIDENCE, rows.get(0).confidenceAt(13), 0f);
+        assertEquals(0.9f, rows.get(0).confidenceAt(15), 0f);
+    }
+
+    @Test
+    public void linesWithoutBoxesPassThrough() {
+        List<OcrLine> lines = Arrays.asList(new OcrLine(MrzParserTest.TD3_L1), new OcrLine(MrzParserTest.TD3_L2));
+        assertSame(lines, new MrzLineAssembler().assemble(lines));
+    }
+
+    @Test
+    public void visualZoneTextIsNotPadded() {
+        List<OcrLine> lines = Arrays.asList(
+                at("REPUBLICOFUTOPIAPASSPORT", 0, 0),
+                at(MrzParserTest.TD3_L1, 1, 0),
+                at(MrzParserTest.TD3_L2, 2, 0));
+        List<OcrLine> rows = new MrzLineAssembler().assemble(lines);
+        assertSame(lines.get(0), rows.get(0));
+    }
+
+    @Test
+    public void linesWithoutMrzCharsAreNotAssembled() {
+        // Hai box cạnh nhau / cách một ô mà text chuẩn hoá thành rỗng: không sinh hàng null hay hàng '<' bịa ra
+        for (int col : new int[] {2, 3}) {
+            List<OcrLine> lines = Arrays.asList(
+                    at(MrzParserTest.TD3_L1, 0, 0),
+                    at("--", 1, 0),
+                    at("..", 1, col));
+            List<OcrLine> rows = new MrzLineAssembler().assemble(lines);
+            assertEquals(3, rows.size());
+            assertSame(lines.get(0), rows.get(0));
+            for (OcrLine row : rows) assertNotNull(row);
+            assertEquals("", rows.get(1).norm);
+            assertEquals("", rows.get(2).norm);
+            assertNull(new MrzScanner(null).scan(rows));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.MrzResult;
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MrzParserTest {
+    static final String TD3_L1 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<";
+    static final String TD3_L2 = "L898902C36UTO7408122F1204159ZE184226B<<<<<10";
+    static final String TD1_L1 = "I<UTOD231458907<<<<<<<<<<<<<<<";
+    static final String TD1_L2 = "7408122F1204159UTO<<<<<<<<<<<6";
+    static final String TD1_L3 = "ERIKSSON<<ANNA<MARIA<<<<<<<<<<";
+
+    @Test
+    public void parseTD3_icaoSample() {
+        ParsedMrz p = MrzParser.parseTD3(TD3_L1, TD3_L2);
+        assertNotNull(p);
+        assertEquals("P<", p.documentType);
+        assertEquals("UTO", p.issuingCountry);
+        assertEquals("ERIKSSON ANNA MARIA", p.name);
+        assertEquals("L898902C3", p.documentNumber);
+        assertEquals("740812", p.dob);
+        assertEquals("F", p.gender);
+        assertEquals("120415", p.expiryDate);
+        assertEquals("ZE184226B", p.personalNumber);
+    }
+
+    @Test
+    public void parseTD3_rejectsBadCheckDigit() {
+        assertNull(MrzParser.parseTD3(TD3_L1, TD3_L2.replace("L898902C36", "L898902C37")));
+    }
+
+    @Test
+    public void parseTD1_icaoSample() {
+        ParsedMrz p = MrzParser.parseTD1(TD1_L1, TD1_L2, TD1_L3);
+        assertNotNull(p);
+        assertEquals("D23145890", p.documentNumber);
+        assertEquals("ERIKSSON ANNA MARIA", p.name);
+        assertEquals("UTO", p.nationality);
+    }
+
+    @Test
+    public void charWindow_reusesResultAndClearsOnReject() {
+        char[] buf = ("xx" + TD3_L1 + TD3_L2).toCharArray();
+        MrzResult out = new MrzResult();
+        assertTrue(MrzParser.parseTD3(buf, 2, buf, 46, out));
+        assertEquals("L898902C3", out.documentNumber);
+
+        buf[46 + 9] = '7';
+        assertFalse(MrzParser.parseTD3(buf, 2, buf, 46, out));
+        assertNull(out.documentNumber);
+    }
+
+    @Test
+    public void checkDigit_partialsCombineLikeConcatenation() {
+        char[] s = "L898902C36UTO7408122F1204159".toCharArray();
+        long doc = MrzCheckDigit.partial(s, 0, 10);
+        long dob = MrzCheckDigit.partial(s, 13, 7);
+        int combined = MrzCheckDigit.weighted(doc, 0) + MrzCheckDigit.weighted(dob, 10);
+        assertEquals(MrzCheckDigit.compute("L898902C367408122"), combined % 10);
+        assertEquals(6, MrzCheckDigit.compute(s, 0, 9));
+        assertEquals(6, MrzCheckDigit.compute("L898902C3".getBytes(), 0, 9));
+    }
+
+    @Test
+    public void scanner_findsTd3AmongNoise() {
+        MrzScanner.Result r = new MrzScanner().scan(Arrays.asList(
+                new OcrLine("PASSPORT", 0, 0, 100, 10),
+                new OcrLine(TD3_L1, 0, 100, 440, 110),
+                new OcrLine(TD3_L2, 0, 120, 440, 130)));
+        assertNotNull(r);
+        assertFalse(r.corrected);
+        assertEquals("L898902C3", r.mrz.documentNumber);
+    }
+}
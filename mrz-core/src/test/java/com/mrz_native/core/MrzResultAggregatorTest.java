@@ -0,0 +1,38 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzParser.ParsedMrz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MrzResultAggregatorTest {
+
+    private static final ParsedMrz MRZ = MrzParser.parseTD3(MrzParserTest.TD3_L1, MrzParserTest.TD3_L2);
+
+    @Test
+    public void dropsResultsOlderThanLastApplied() {
+        MrzResultAggregator agg = new MrzResultAggregator(2);
+        assertNotNull(agg.offer(3, MRZ, false, 1));
+        // frame 2 về sau frame 3
+        assertNull(agg.offer(2, MRZ, false, 2));
+        MrzResultAggregator.Snapshot s = agg.offer(5, MRZ, false, 2);
+        assertTrue(agg.isStable(s));
+        assertTrue(agg.tryLock());
+        assertFalse(agg.tryLock());
+    }
+
+    @Test
+    public void resetDiscardsInFlightFrames() {
+        MrzResultAggregator agg = new MrzResultAggregator(2);
+        agg.offer(1, MRZ, false, 2);
+        agg.tryLock();
+        agg.reset(7);
+        assertTrue(agg.isStale(7));
+        assertFalse(agg.isStale(8));
+        assertNull(agg.offer(6, MRZ, false, 2));
+        assertNull(agg.latest().mrz);
+        assertNotNull(agg.offer(8, null, false, 0));
+        assertTrue(agg.tryLock());
+    }
+}
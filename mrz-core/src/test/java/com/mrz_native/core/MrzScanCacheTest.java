@@ -0,0 +1,76 @@
+package com.mrz_native.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MrzScanCacheTest {
+
+    private long now;
+
+    private static List<OcrLine> frame(String... lines) {
+        OcrLine[] ocr = new OcrLine[lines.length];
+        for (int i = 0; i < lines.length; i++) ocr[i] = new OcrLine(lines[i], 0, i * 20, 400, i * 20 + 10);
+        return Arrays.asList(ocr);
+    }
+
+    @Test
+    public void repeatedFramesHitPositiveAndNegativeEntries() {
+        MrzScanCache cache = new MrzScanCache(8, 1000, () -> now);
+        MrzScanner scanner = new MrzScanner(cache);
+
+        MrzScanner.Result first = scanner.scan(frame(MrzParserTest.TD3_L1, MrzParserTest.TD3_L2));
+        assertNotNull(first);
+        assertSame(first, scanner.scan(frame(MrzParserTest.TD3_L1, MrzParserTest.TD3_L2)));
+
+        assertNull(scanner.scan(frame("REPUBLIC<OF<UTOPIA<<PASSPORT")));
+        assertNull(scanner.scan(frame("REPUBLIC<OF<UTOPIA<<PASSPORT")));
+
+        assertEquals(2, cache.misses());
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.negativeHits());
+    }
+
+    @Test
+    public void entriesExpireAndLeastRecentlyUsedIsEvicted() {
+        MrzScanCache cache = new MrzScanCache(2, 1000, () -> now);
+        List<OcrLine> a = frame("AAAAAAAAAA<<"), b = frame("BBBBBBBBBB<<"), c = frame("CCCCCCCCCC<<");
+        cache.put(MrzScanCache.key(a), a, null);
+        cache.put(MrzScanCache.key(b), b, null);
+        assertNotNull(cache.get(MrzScanCache.key(a), a));
+        cache.put(MrzScanCache.key(c), c, null);
+        assertEquals(2, cache.size());
+        assertNull(cache.get(MrzScanCache.key(b), b));
+        assertNotNull(cache.get(MrzScanCache.key(a), a));
+
+        now += TimeUnit.MILLISECONDS.toNanos(1001);
+        assertNull(cache.get(MrzScanCache.key(a), a));
+    }
+
+    private static List<OcrLine> withConfidence(String text, int lowAt, float low) {
+        OcrLine.Builder b = new OcrLine.Builder();
+        for (int i = 0; i < text.length(); i++) {
+            b.appendSymbol(text.substring(i, i + 1), i == lowAt ? low : 0.95f, i * 10, i * 10 + 9);
+        }
+        return Arrays.asList(b.build(text, 0, 0, 400, 10));
+    }
+
+    @Test
+    public void confidencesArePartOfTheKey() {
+        MrzScanCache cache = new MrzScanCache(8, 1000, () -> now);
+        List<OcrLine> a = withConfidence("REPUBLIC<OF<UTOPIA", 3, 0.2f);
+        cache.put(MrzScanCache.key(a), a, null);
+
+        // Nhiễu nhỏ trong cùng mức: vẫn trúng
+        List<OcrLine> jitter = withConfidence("REPUBLIC<OF<UTOPIA", 3, 0.21f);
+        assertNotNull(cache.get(MrzScanCache.key(jitter), jitter));
+        // Cùng text, vị trí kém tin cậy khác: phải tìm lại
+        List<OcrLine> moved = withConfidence("REPUBLIC<OF<UTOPIA", 7, 0.2f);
+        assertNotEquals(MrzScanCache.key(a), MrzScanCache.key(moved));
+        assertNull(cache.get(MrzScanCache.key(moved), moved));
+    }
+}
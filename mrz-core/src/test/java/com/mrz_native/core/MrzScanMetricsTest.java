@@ -0,0 +1,101 @@
+package com.mrz_native.core;
+
+import com.mrz_native.core.MrzScanMetrics.Drop;
+import com.mrz_native.core.MrzScanMetrics.Stage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MrzScanMetricsTest {
+
+    @Test
+    public void disabledMetricsRecordNothing() {
+        MrzScanMetrics m = new MrzScanMetrics();
+        List<Stage> seen = new ArrayList<>();
+        m.setListener((stage, micros) -> seen.add(stage));
+        assertEquals(0, m.start());
+        m.record(Stage.OCR, m.start());
+        m.recordMicros(Stage.OCR, 100);
+        m.drop(Drop.QUALITY);
+        assertEquals(0, m.count(Stage.OCR));
+        assertEquals(0, m.drops(Drop.QUALITY));
+        assertTrue(seen.isEmpty());
+        assertEquals(MrzScanMetrics.DUMP_VERSION, m.dump());
+    }
+
+    @Test
+    public void bucketsCoverEveryValueWithinAQuarter() {
+        int prev = -1;
+        for (long v = 0; v < 1 << 20; v += 1 + v / 64) {
+            int b = MrzScanMetrics.bucket(v);
+            assertTrue(b >= prev && b < MrzScanMetrics.BUCKETS);
+            long upper = MrzScanMetrics.upperBound(b);
+            assertTrue(v + " -> " + upper, upper >= v && upper <= v + v / 4);
+            prev = b;
+        }
+        assertEquals(MrzScanMetrics.BUCKETS - 1, MrzScanMetrics.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentilesAndDumpFormat() {
+        MrzScanMetrics m = new MrzScanMetrics();
+        m.setEnabled(true);
+        for (int i = 1; i <= 1000; i++) m.recordMicros(Stage.OCR, i * 100);
+        m.drop(Drop.SCHEDULER);
+        m.drop(Drop.SCHEDULER);
+        m.drop(Drop.QUALITY);
+        assertEquals(1000, m.count(Stage.OCR));
+        assertEquals(50_000, m.percentile(Stage.OCR, 0.5), 50_000 / 4);
+        assertEquals(99_000, m.percentile(Stage.OCR, 0.99), 99_000 / 4);
+        assertEquals(100_000, m.max(Stage.OCR));
+        String dump = m.dump();
+        assertTrue(dump, dump.matches("mrzm/1 ocr=1000:\\d+/\\d+/\\d+/100000 drop=quality:1,scheduler:2"));
+        m.reset();
+        assertEquals("mrzm/1", m.dump());
+    }
+
+    @Test
+    public void concurrentWritersLoseNoSamples() throws InterruptedException {
+        MrzScanMetrics m = new MrzScanMetrics();
+        m.setEnabled(true);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    m.recordMicros(Stage.CROP, (i * 31 + seed) % 5000);
+                    m.drop(Drop.IN_FLIGHT);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        assertEquals(40_000, m.count(Stage.CROP));
+        assertEquals(40_000, m.drops(Drop.IN_FLIGHT));
+        assertEquals(4999, m.max(Stage.CROP));
+    }
+
+    @Test
+    public void scannerReportsSearchAndCorrectionButNotCacheHits() {
+        MrzScanMetrics m = new MrzScanMetrics();
+        m.setEnabled(true);
+        List<Stage> seen = new ArrayList<>();
+        m.setListener((stage, micros) -> seen.add(stage));
+        MrzScanner scanner = new MrzScanner();
+        scanner.setMetrics(m);
+        List<OcrLine> lines = Arrays.asList(new OcrLine(MrzParserTest.TD3_L1), new OcrLine(MrzParserTest.TD3_L2));
+        assertNotNull(scanner.scan(lines));
+        assertEquals(Arrays.asList(Stage.CANDIDATE_SEARCH), seen);
+        assertNotNull(scanner.scan(lines));
+        assertEquals(1, seen.size());
+
+        seen.clear();
+        scanner.scan(Arrays.asList(new OcrLine("HELLO WORLD THIS IS NOT AN MRZ LINE")));
+        assertEquals(Arrays.asList(Stage.CANDIDATE_SEARCH, Stage.CORRECTION), seen);
+    }
+}
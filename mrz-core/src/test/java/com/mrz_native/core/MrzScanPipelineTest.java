@@ -0,0 +1,45 @@
+package com.mrz_native.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MrzScanPipelineTest {
+
+    private static final List<OcrLine> TD3 =
+            Arrays.asList(new OcrLine(MrzParserTest.TD3_L1), new OcrLine(MrzParserTest.TD3_L2));
+
+    @Test
+    public void locksOnceAfterEnoughSupportAndDropsOlderFrames() {
+        MrzScanMetrics metrics = new MrzScanMetrics();
+        metrics.setEnabled(true);
+        MrzScanPipeline p = new MrzScanPipeline(2, metrics);
+        assertEquals(MrzScanPipeline.Status.NO_LINES, p.onFrame(1, Collections.emptyList()).status);
+        MrzScanPipeline.Outcome o = p.onFrame(2, TD3);
+        assertEquals(MrzScanPipeline.Status.STABILIZING, o.status);
+        assertTrue(o.found());
+        // Frame cũ về muộn
+        assertEquals(MrzScanPipeline.Status.STALE, p.onFrame(2, TD3).status);
+        assertEquals(MrzScanPipeline.Status.LOCKED, p.onFrame(3, TD3).status);
+        assertEquals(MrzScanPipeline.Status.ALREADY_LOCKED, p.onFrame(4, TD3).status);
+        assertEquals(1, metrics.drops(MrzScanMetrics.Drop.STALE));
+    }
+
+    @Test
+    public void resetDropsInFlightFramesAndClearsVotes() {
+        MrzScanPipeline p = new MrzScanPipeline(2, null);
+        p.onFrame(1, TD3);
+        p.reset(2);
+        assertTrue(p.isStale(2));
+        assertEquals(MrzScanPipeline.Status.STALE, p.onFrame(2, TD3).status);
+        // Phiếu của lượt trước đã bị xoá: cần lại đủ 2 frame
+        assertEquals(MrzScanPipeline.Status.STABILIZING, p.onFrame(3, TD3).status);
+        assertEquals(MrzScanPipeline.Status.LOCKED, p.onFrame(4, TD3).status);
+        assertEquals(MrzScanPipeline.Status.NOT_FOUND, new MrzScanPipeline(2, null)
+                .onFrame(1, Collections.singletonList(new OcrLine("HELLO WORLD"))).status);
+    }
+}
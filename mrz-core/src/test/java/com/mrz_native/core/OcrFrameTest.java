@@ -0,0 +1,93 @@
+package com.mrz_native.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OcrFrameTest {
+
+    private static void addSymbols(OcrFrame frame, String text, boolean inRoi, int top) {
+        OcrLine.Builder b = frame.line();
+        for (int i = 0; i < text.length(); i++) b.appendSymbol(text.substring(i, i + 1), 0.9f, i * 10, i * 10 + 9);
+        frame.add(text, inRoi, 0, top, text.length() * 10, top + 10);
+    }
+
+    @Test
+    public void insideLinesComeFirstAndEmptyLinesAreSkipped() {
+        OcrFrame frame = new OcrFrame();
+        frame.begin();
+        addSymbols(frame, "PASSPORT", false, 0);
+        addSymbols(frame, MrzParserTest.TD3_L1, true, 100);
+        frame.line();
+        assertNull(frame.add(" ·· ", true, 0, 0, 0, 0));
+        addSymbols(frame, MrzParserTest.TD3_L2, true, 120);
+
+        List<OcrLine> lines = frame.lines();
+        assertEquals(3, lines.size());
+        assertEquals(2, frame.inside().size());
+        assertEquals(MrzParserTest.TD3_L1, lines.get(0).norm);
+        assertEquals(MrzParserTest.TD3_L2, lines.get(1).norm);
+        assertEquals("PASSPORT", lines.get(2).norm);
+        assertNotNull(new MrzScanner(null).scan(frame.inside()));
+    }
+
+    @Test
+    public void steadyFramesReuseLinesAndStrings() {
+        OcrFrame frame = new OcrFrame();
+        frame.begin();
+        addSymbols(frame, MrzParserTest.TD3_L1, true, 100);
+        addSymbols(frame, MrzParserTest.TD3_L2, true, 120);
+        OcrLine first = frame.lines().get(0);
+        String norm = first.norm;
+        float[] conf = first.confidences;
+
+        frame.begin();
+        // Khác thứ tự: String vẫn được dùng lại theo nội dung
+        addSymbols(frame, MrzParserTest.TD3_L2, true, 120);
+        addSymbols(frame, MrzParserTest.TD3_L1, true, 100);
+        assertSame(first, frame.lines().get(0));
+        assertSame(conf, frame.lines().get(0).confidences);
+        assertSame(norm, frame.lines().get(1).norm);
+        assertEquals(MrzParserTest.TD3_L2, frame.lines().get(0).norm);
+    }
+
+    @Test
+    public void textOnlyLinesHaveNoConfidences() {
+        OcrFrame frame = new OcrFrame();
+        frame.begin();
+        frame.line();
+        OcrLine l = frame.add("p<uto eriksson<<anna", true, 0, 0, 0, 0);
+        assertEquals("P<UTOERIKSSON<<ANNA", l.norm);
+        assertNull(l.confidences);
+        assertEquals(3, l.chevrons);
+        assertEquals(1f, l.confidenceAt(0), 0f);
+    }
+
+    @Test
+    public void poolGrowsPastInitialCapacity() {
+        OcrFrame frame = new OcrFrame();
+        for (int round = 0; round < 2; round++) {
+            frame.begin();
+            for (int i = 0; i < 40; i++) {
+                frame.line();
+                frame.add("LINE" + i, i % 3 == 0, 0, i, 10, i + 1);
+            }
+            assertEquals(40, frame.size());
+            assertEquals(14, frame.inside().size());
+            assertEquals("LINE0", frame.lines().get(0).norm);
+            assertEquals("LINE1", frame.lines().get(14).norm);
+            assertEquals("LINE39", frame.lines().get(13).norm);
+            assertEquals("LINE38", frame.lines().get(39).norm);
+        }
+    }
+
+    @Test
+    public void normalizeLineKeepsMrzCharactersInOnePass() {
+        String clean = MrzParserTest.TD3_L2;
+        assertSame(clean, MrzLines.normalizeLine(clean));
+        assertEquals("P<UTOERIKSSON<<ANNA<MARIA", MrzLines.normalizeLine(" p<UTO eriksson«<<anna<maria\t·"));
+        assertEquals("", MrzLines.normalizeLine(" -.,"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.mrz_native.core.batch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class MrzBatchValidatorTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String TD3 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\n"
+            + "L898902C36UTO7408122F1204159ZE184226B<<<<<10\n";
+    private static final String TD1 = "I<UTOD231458907<<<<<<<<<<<<<<<\n"
+            + "7408122F1204159UTO<<<<<<<<<<<6\n"
+            + "ERIKSSON<<ANNA<MARIA<<<<<<<<<<\n";
+
+    @Test
+    public void writesOneLinePerRecordInInputOrder() throws Exception {
+        StringBuilder in = new StringBuilder();
+        for (int i = 0; i < 1000; i++) in.append(i % 2 == 0 ? TD3 : TD1).append('\n');
+        StringWriter out = new StringWriter();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        MrzBatchValidator.Stats stats = new MrzBatchValidator(pool, 100).run(new StringReader(in.toString()), out);
+        pool.shutdown();
+
+        assertEquals(1000, stats.records);
+        assertEquals(1000, stats.valid);
+        String[] lines = out.toString().split("\n");
+        assertEquals(1000, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i], lines[i].startsWith("{\"record\":" + i + ","));
+            assertTrue(lines[i].contains(i % 2 == 0 ? "\"layout\":\"TD3\"" : "\"layout\":\"TD1\""));
+        }
+        assertTrue(lines[0].contains("\"documentNumber\":\"L898902C3\""));
+    }
+
+    @Test
+    public void reportsFailureReasonPerField() throws Exception {
+        String in = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\n"
+                + "L898902C36UTO7408132F1204159ZE184226B<<<<<10\n"
+                + "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\n"
+                + "L898902C36UTO7408122F1204159ZE184226B<<<<<19\n"
+                + "SHORT<<LINE\n";
+        StringWriter out = new StringWriter();
+        MrzBatchValidator.Stats stats = new MrzBatchValidator().run(new StringReader(in), out);
+
+        assertEquals(3, stats.records);
+        assertEquals(0, stats.valid);
+        String[] lines = out.toString().split("\n");
+        assertTrue(lines[0], lines[0].contains("{\"field\":\"dob\",\"reason\":\"check digit\"}"));
+        assertFalse(lines[0], lines[0].contains("composite"));
+        assertTrue(lines[1], lines[1].contains("{\"field\":\"composite\",\"reason\":\"check digit\"}"));
+        assertTrue(lines[2], lines[2].contains("\"layout\":null"));
+        assertTrue(lines[2], lines[2].contains("\"line\":5"));
+    }
+
+    @Test
+    public void badBytesAreReportedPerRecordInsteadOfAborting() throws Exception {
+        File f = tmp.newFile("export.txt");
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        byte[] body = (TD3 + TD3.toLowerCase() + TD1).getBytes(StandardCharsets.US_ASCII);
+        // Byte Latin-1 'É' trong dòng tên của bản ghi TD1
+        body[body.length - 20] = (byte) 0xC9;
+        Files.write(f.toPath(), concat(bom, body));
+
+        StringWriter out = new StringWriter();
+        MrzBatchValidator.Stats stats;
+        try (Reader in = MrzBatchCli.openInput(f.getPath())) {
+            stats = new MrzBatchValidator().run(in, out);
+        }
+        assertEquals(3, stats.records);
+        assertEquals(2, stats.valid);
+        String[] lines = out.toString().split("\n");
+        assertTrue(lines[0], lines[0].contains("\"valid\":true"));
+        assertTrue(lines[1], lines[1].contains("\"valid\":true"));
+        assertTrue(lines[2], lines[2].contains("{\"field\":\"line3\",\"reason\":\"non-ASCII character at column 12\"}"));
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = new byte[a.length + b.length];
+        System.arraycopy(a, 0, out, 0, a.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+}
@@ -0,0 +1,103 @@
+package com.mrz_native.core.batch;
+
+import com.mrz_native.core.MrzLayout;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class MrzMappedReaderTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String INPUT = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\r\n"
+            + "L898902C36UTO7408122F1204159ZE184226B<<<<<10\r\n"
+            + "\n"
+            + "I<UTOD231458907<<<<<<<<<<<<<<<\n"
+            + "7408122F1204159UTO<<<<<<<<<<<6\n"
+            + "ERIKSSON<<ANNA<MARIA<<<<<<<<<<\n"
+            + "NOT<AN<MRZ\n"
+            + "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\n"
+            + "L898902C36UTO7408132F1204159ZE184226B<<<<<10\n"
+            + "I<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<\n"
+            + "D231458907UTO7408122F1204159<<<<<<<<";
+
+    @Test
+    public void matchesTextReaderAcrossSegmentEdges() throws Exception {
+        File f = tmp.newFile("records.txt");
+        Files.write(f.toPath(), INPUT.getBytes(StandardCharsets.US_ASCII));
+
+        StringWriter expected = new StringWriter();
+        new MrzBatchValidator().run(new StringReader(INPUT), expected);
+
+        // Segment nhỏ hơn hai bản ghi: bản ghi vắt qua biên segment phải được đọc lại nguyên vẹn
+        for (long segment : new long[]{100, 128, 200, 1 << 20}) {
+            MrzRecordValidator v = new MrzRecordValidator();
+            StringBuilder actual = new StringBuilder();
+            try (MrzMappedReader reader = new MrzMappedReader(f.toPath(), segment)) {
+                assertEquals(5, reader.forEach(r -> v.validate(r, actual)));
+            }
+            assertEquals("segment " + segment, expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void createsStringsOnlyForRequestedFields() throws Exception {
+        File f = tmp.newFile("td3.txt");
+        Files.write(f.toPath(), INPUT.substring(0, 92).getBytes(StandardCharsets.US_ASCII));
+        StringBuilder seen = new StringBuilder();
+        try (MrzMappedReader reader = new MrzMappedReader(f.toPath())) {
+            reader.forEach(r -> {
+                assertTrue(r.isValid());
+                for (MrzLayout.Field field : r.layout().fields()) {
+                    if (field.name.equals("documentNumber") || field.name.equals("name")) {
+                        seen.append(r.field(field)).append('|');
+                    }
+                }
+            });
+        }
+        assertEquals("ERIKSSON ANNA MARIA|L898902C3|", seen.toString());
+    }
+
+    @Test
+    public void mappedAndTextPathsAgreeOnCaseAndBadBytes() throws Exception {
+        String lower = INPUT.substring(0, 92).toLowerCase();
+        byte[] body = (lower + INPUT.substring(92)).getBytes(StandardCharsets.US_ASCII);
+        // Byte Latin-1 'É' trong dòng tên của bản ghi TD1 (cuối dòng, sát khoảng trắng bị cắt)
+        int pos = (lower + INPUT.substring(92)).indexOf("ERIKSSON<<ANNA<MARIA<<<<<<<<<<") + 29;
+        body[pos] = (byte) 0xC9;
+        byte[] withBom = new byte[body.length + 3];
+        withBom[0] = (byte) 0xEF;
+        withBom[1] = (byte) 0xBB;
+        withBom[2] = (byte) 0xBF;
+        System.arraycopy(body, 0, withBom, 3, body.length);
+        File f = tmp.newFile("mixed.txt");
+        Files.write(f.toPath(), withBom);
+
+        StringWriter text = new StringWriter();
+        try (Reader in = MrzBatchCli.openInput(f.getPath())) {
+            new MrzBatchValidator().run(in, text);
+        }
+        ForkJoinPool pool = new ForkJoinPool(2);
+        StringWriter mapped = new StringWriter();
+        MrzBatchValidator.Stats stats = new MrzBatchValidator(pool, 2).runMapped(f.toPath(), mapped);
+        pool.shutdown();
+
+        assertEquals(text.toString(), mapped.toString());
+        assertEquals(5, stats.records);
+        String[] lines = mapped.toString().split("\n");
+        assertTrue(lines[0], lines[0].contains("\"valid\":true"));
+        assertTrue(lines[1], lines[1].contains("non-ASCII character at column 30"));
+    }
+}
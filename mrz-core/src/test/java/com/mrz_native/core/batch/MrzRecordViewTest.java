@@ -0,0 +1,117 @@
+package com.mrz_native.core.batch;
+
+import com.mrz_native.core.MrzCheckDigit;
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzParser;
+import com.mrz_native.core.MrzParser.MrzResult;
+import com.mrz_native.core.synth.MrzGenerator;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MrzRecordViewTest {
+
+    // Thay từng vị trí bằng các ký tự này: chữ số (check digit, ngày), '<', chữ hoa/thường
+    private static final String MUTATIONS = "<0159AOZz";
+
+    // TD1 có optional1/optional2 và composite theo công thức B của MrzParser
+    private static String[] td1VariantB() {
+        String doc = "D23145890", dob = "740812", exp = "120415";
+        String opt1 = "AB12<<<<<<<<<<<", opt2 = "X9<<<<<<<<7";
+        String l1 = "I<UTO" + doc + MrzCheckDigit.compute(doc) + opt1;
+        int composite = MrzCheckDigit.compute(doc + dob + exp + opt1 + opt2);
+        String l2 = dob + MrzCheckDigit.compute(dob) + "F" + exp + MrzCheckDigit.compute(exp) + "UTO" + opt2 + composite;
+        return new String[]{l1, l2, "ERIKSSON<<ANNA<MARIA<<<<<<<<<<"};
+    }
+
+    // Bản ghi lines trong một buffer, cách nhau '\n', với một byte rác ở đầu để offset khác 0
+    private static MrzRecordView view(MrzRecordView v, String[] lines) {
+        StringBuilder sb = new StringBuilder("#");
+        for (String l : lines) sb.append(l).append('\n');
+        v.buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.ISO_8859_1));
+        v.layout = MrzRecordReader.layoutFor(lines[0].length());
+        v.lineCount = lines.length;
+        int off = 1;
+        for (int r = 0; r < lines.length; r++) {
+            v.offsets[r] = off;
+            v.lengths[r] = lines[r].length();
+            off += lines[r].length() + 1;
+        }
+        return v;
+    }
+
+    private static MrzParser.ParsedMrz parse(MrzLayout layout, String[] lines) {
+        String[] up = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) up[i] = lines[i].toUpperCase();
+        switch (layout) {
+            case TD1: return MrzParser.parseTD1(up[0], up[1], up[2]);
+            case TD2: return MrzParser.parseTD2(up[0], up[1]);
+            default: return MrzParser.parseTD3(up[0], up[1]);
+        }
+    }
+
+    @Test
+    public void byteChecksMatchParserOnMutatedRecords() {
+        List<String[]> records = new ArrayList<>();
+        MrzGenerator gen = new MrzGenerator(11);
+        for (MrzLayout layout : MrzLayout.values()) {
+            for (int i = 0; i < 20; i++) records.add(gen.next(layout).lines.toArray(new String[0]));
+        }
+        records.add(td1VariantB());
+
+        MrzRecordView v = new MrzRecordView();
+        MrzResult result = new MrzResult();
+        int valid = 0, invalid = 0;
+        for (String[] clean : records) {
+            MrzLayout layout = MrzRecordReader.layoutFor(clean[0].length());
+            for (int r = 0; r < clean.length; r++) {
+                for (int i = 0; i < clean[r].length(); i++) {
+                    for (int m = 0; m < MUTATIONS.length(); m++) {
+                        String[] lines = clean.clone();
+                        char[] row = lines[r].toCharArray();
+                        row[i] = MUTATIONS.charAt(m);
+                        lines[r] = new String(row);
+                        MrzParser.ParsedMrz expected = parse(layout, lines);
+                        String at = layout + " " + String.join("/", lines);
+                        assertEquals(at, expected != null, view(v, lines).isValid());
+                        assertEquals(at, expected != null, v.load(result));
+                        if (expected == null) {
+                            invalid++;
+                            continue;
+                        }
+                        valid++;
+                        assertEquals(at, expected.documentNumber, result.documentNumber);
+                        assertEquals(at, expected.name, result.name);
+                        assertEquals(at, expected.personalNumber, result.personalNumber);
+                    }
+                }
+            }
+        }
+        // Đột biến ở vùng không có check digit (tên, quốc tịch, giới tính) giữ bản ghi hợp lệ
+        assertTrue(valid > 1000);
+        assertTrue(invalid > 1000);
+        assertTrue(view(v, td1VariantB()).isValid());
+    }
+
+    @Test
+    public void fieldChecksMatchLayoutOnChars() {
+        String[] lines = {"P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<",
+                "L898902C36UTO7413122F1204159ZE184226B<<<<<10"};
+        MrzRecordView v = view(new MrzRecordView(), lines);
+        assertFalse(v.load(new MrzResult()));
+        char[][] rows = {lines[0].toCharArray(), lines[1].toCharArray()};
+        for (MrzLayout.Field f : MrzLayout.TD3.fields()) {
+            if (!f.hasCheckDigit()) continue;
+            assertEquals(f.name, f.isValid(rows), v.isCheckDigitValid(f));
+        }
+        MrzLayout.Field dob = MrzLayout.TD3.fields().get(5);
+        assertEquals("dob", dob.name);
+        assertFalse(v.isDateValid(dob));
+    }
+}
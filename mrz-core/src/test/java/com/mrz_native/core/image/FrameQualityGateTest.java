@@ -0,0 +1,152 @@
+package com.mrz_native.core.image;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FrameQualityGateTest {
+
+    private static final int W = 640;
+    private static final int H = 200;
+
+    // Nền sáng với các dòng "chữ": mỗi ô ký tự 12px có vài nét dọc tối
+    private static byte[] textImage(int... bandTops) {
+        byte[] img = new byte[W * H];
+        java.util.Arrays.fill(img, (byte) 200);
+        Random rnd = new Random(7);
+        for (int top : bandTops) {
+            for (int cell = 8; cell + 12 < W - 8; cell += 12) {
+                int strokes = 1 + rnd.nextInt(3);
+                for (int s = 0; s < strokes; s++) {
+                    int x = cell + rnd.nextInt(10);
+                    for (int yy = top; yy < top + 28; yy++) {
+                        img[yy * W + x] = 30;
+                        img[yy * W + x + 1] = 30;
+                    }
+                }
+            }
+        }
+        return img;
+    }
+
+    private static byte[] boxBlur(byte[] src, int radius) {
+        byte[] out = new byte[src.length];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                int sum = 0, n = 0;
+                for (int dy = -radius; dy <= radius; dy++) {
+                    for (int dx = -radius; dx <= radius; dx++) {
+                        int yy = y + dy, xx = x + dx;
+                        if (yy < 0 || yy >= H || xx < 0 || xx >= W) continue;
+                        sum += src[yy * W + xx] & 0xFF;
+                        n++;
+                    }
+                }
+                out[y * W + x] = (byte) (sum / n);
+            }
+        }
+        return out;
+    }
+
+    @Test
+    public void acceptsSharpTwoLineText() {
+        FrameQualityGate.Quality q = new FrameQualityGate().evaluate(textImage(50, 120), W, 0, 0, W, H);
+        assertEquals(q.toString(), FrameQualityGate.Verdict.ACCEPT, q.verdict);
+        assertEquals(2, q.textBands);
+        assertEquals(0f, q.clippedRatio, 1e-6);
+    }
+
+    @Test
+    public void rejectsBlurredText() {
+        FrameQualityGate gate = new FrameQualityGate();
+        float sharp = gate.evaluate(textImage(50, 120), W, 0, 0, W, H).sharpness;
+        FrameQualityGate.Quality q = gate.evaluate(boxBlur(textImage(50, 120), 4), W, 0, 0, W, H);
+        assertEquals(q.toString(), FrameQualityGate.Verdict.BLURRY, q.verdict);
+        assertTrue(q.sharpness < sharp / 10);
+    }
+
+    @Test
+    public void rejectsGlareOnlyWhenItHidesTheTextRows() {
+        byte[] img = textImage(50, 120);
+        // Lóa phía trên các dòng chữ: vẫn đọc được
+        for (int i = 0; i < W * 45; i++) img[i] = (byte) 255;
+        FrameQualityGate gate = new FrameQualityGate();
+        FrameQualityGate.Quality q = gate.evaluate(img, W, 0, 0, W, H);
+        assertTrue(q.clippedRatio > 0.2f);
+        assertEquals(q.toString(), FrameQualityGate.Verdict.ACCEPT, q.verdict);
+
+        // Lóa phủ mất dòng đầu
+        for (int i = 0; i < W * 85; i++) img[i] = (byte) 255;
+        q = gate.evaluate(img, W, 0, 0, W, H);
+        assertEquals(q.toString(), FrameQualityGate.Verdict.GLARE, q.verdict);
+        assertFalse(q.admit);
+    }
+
+    @Test
+    public void sharpnessThresholdHoldsOnFullHdCrops() {
+        // Ảnh rộng 1920 (lưới bước 6 px) với chữ phóng to tương ứng
+        int scale = 3, w = W * scale, h = H * scale;
+        byte[] img = new byte[w * h];
+        byte[] small = textImage(50, 120);
+        for (int yy = 0; yy < h; yy++) {
+            for (int x = 0; x < w; x++) img[yy * w + x] = small[(yy / scale) * W + x / scale];
+        }
+        FrameQualityGate gate = new FrameQualityGate();
+        FrameQualityGate.Quality q = gate.evaluate(img, w, 0, 0, w, h);
+        assertEquals(q.toString(), FrameQualityGate.Verdict.ACCEPT, q.verdict);
+        assertEquals(2, q.textBands);
+    }
+
+    @Test
+    public void failsOpenAfterRejectStreakAndCanBeDisabled() {
+        FrameQualityGate gate = new FrameQualityGate();
+        gate.setMaxRejectStreak(3);
+        byte[] blank = new byte[W * H];
+        for (int i = 0; i < 3; i++) assertFalse(gate.evaluate(blank, W, 0, 0, W, H).admit);
+        FrameQualityGate.Quality q = gate.evaluate(blank, W, 0, 0, W, H);
+        assertEquals(FrameQualityGate.Verdict.BLURRY, q.verdict);
+        assertTrue(q.admit);
+        assertFalse(gate.evaluate(blank, W, 0, 0, W, H).admit);
+
+        gate.setEnabled(false);
+        assertTrue(gate.evaluate(blank, W, 0, 0, W, H).admit);
+    }
+
+    @Test
+    public void rejectsSingleLineAndHonoursRegionAndStride() {
+        FrameQualityGate gate = new FrameQualityGate();
+        assertEquals(FrameQualityGate.Verdict.NO_TEXT,
+                gate.evaluate(textImage(50), W, 0, 0, W, H).verdict);
+
+        // Cùng ảnh trong buffer pixelStride 2 (xen kẽ với byte rác), chỉ đo nửa dưới có một dòng
+        byte[] img = textImage(50, 120);
+        ByteBuffer interleaved = ByteBuffer.allocateDirect(W * H * 2);
+        for (int i = 0; i < img.length; i++) {
+            interleaved.put(2 * i, img[i]);
+            interleaved.put(2 * i + 1, (byte) 255);
+        }
+        FrameQualityGate.Quality q = gate.evaluate(interleaved, W * 2, 2, 0, 100, W, H, 0);
+        assertEquals(FrameQualityGate.Verdict.NO_TEXT, q.verdict);
+        assertEquals(1, q.textBands);
+        assertEquals(0f, q.clippedRatio, 1e-6);
+        assertEquals(FrameQualityGate.Verdict.ACCEPT, gate.evaluate(interleaved, W * 2, 2, 0, 0, W, H, 0).verdict);
+    }
+
+    @Test
+    public void countsBandsAlongColumnsForRotatedFrames() {
+        // Frame chụp dọc (xoay 90°): dòng chữ chạy theo cột của buffer
+        byte[] img = textImage(50, 120);
+        ByteBuffer t = ByteBuffer.allocate(W * H);
+        for (int yy = 0; yy < H; yy++) {
+            for (int x = 0; x < W; x++) t.put(x * H + yy, img[yy * W + x]);
+        }
+        FrameQualityGate gate = new FrameQualityGate();
+        FrameQualityGate.Quality q = gate.evaluate(t, H, 1, 0, 0, H, W, 90);
+        assertEquals(q.toString(), FrameQualityGate.Verdict.ACCEPT, q.verdict);
+        assertEquals(2, q.textBands);
+        assertEquals(FrameQualityGate.Verdict.NO_TEXT, gate.evaluate(t, H, 1, 0, 0, H, W, 0).verdict);
+    }
+}
@@ -0,0 +1,122 @@
+package com.mrz_native.core.image;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class GrayFramePoolTest {
+
+    @Test
+    public void copiesCropIntoReusedNv21Frames() {
+        int w = 16, h = 8, stride = 40;
+        ByteBuffer y = ByteBuffer.allocateDirect(stride * h * 2);
+        for (int r = 0; r < h; r++) {
+            for (int x = 0; x < w; x++) y.put(r * stride + x * 2, (byte) (r * 16 + x));
+        }
+        GrayFramePool pool = new GrayFramePool(2);
+        GrayFramePool.Frame a = pool.acquire();
+        GrayFramePool.Frame b = pool.acquire();
+        assertNull(pool.acquire());
+
+        // Vùng 5x3 bắt đầu tại (2, 1), pixelStride 2: làm tròn xuống 4x2
+        a.copyLuma(y, stride, 2, 2, 1, 5, 3);
+        assertEquals(4, a.width());
+        assertEquals(2, a.height());
+        assertEquals(4 * 2 * 3 / 2, a.data().length);
+        assertEquals(1 * 16 + 2, a.data()[0]);
+        assertEquals(2 * 16 + 5, a.data()[4 + 3]);
+        assertEquals((byte) 128, a.data()[8]);
+        assertEquals(0, y.position());
+        assertSame(a.data(), a.buffer().array());
+        assertEquals(0, a.buffer().position());
+        assertEquals(a.data().length, a.buffer().remaining());
+
+        pool.release(a);
+        assertSame(a, pool.acquire());
+        pool.release(b);
+        assertEquals(1, pool.available());
+    }
+
+    @Test
+    public void downscalesByAreaAverage() {
+        // Khối 2x2 cùng giá trị, hàng có đệm: co 1/2 ra đúng giá trị từng khối
+        int w = 12, h = 8, stride = 16;
+        ByteBuffer y = ByteBuffer.allocate(stride * h);
+        for (int r = 0; r < h; r++) {
+            for (int x = 0; x < w; x++) y.put(r * stride + x, (byte) ((r / 2) * 40 + (x / 2) * 5));
+        }
+        GrayFramePool.Frame f = new GrayFramePool(1).acquire();
+        f.copyLuma(y, stride, 1, 0, 0, w, h, 0.5f);
+        assertEquals(6, f.width());
+        assertEquals(4, f.height());
+        for (int r = 0; r < 4; r++) {
+            for (int x = 0; x < 6; x++) assertEquals(r * 40 + x * 5, f.data()[r * 6 + x] & 0xFF);
+        }
+        assertEquals((byte) 128, f.data()[24]);
+        assertEquals(0, y.position());
+
+        // Tỉ lệ lẻ: ảnh sọc 0/200 xen kẽ từng cột co 1/3 giữ độ sáng trung bình
+        for (int r = 0; r < h; r++) {
+            for (int x = 0; x < w; x++) y.put(r * stride + x, (byte) (x % 2 == 0 ? 0 : 200));
+        }
+        f.copyLuma(y, stride, 1, 0, 0, w, h, 1 / 3f);
+        assertEquals(4, f.width());
+        assertEquals(2, f.height());
+        for (int i = 0; i < 8; i++) assertEquals(100, f.data()[i] & 0xFF, 34);
+
+        // scale 1: chép nguyên
+        f.copyLuma(y, stride, 1, 2, 1, 6, 4, 1f);
+        assertEquals(6, f.width());
+        assertEquals(200, f.data()[1] & 0xFF);
+    }
+
+    @Test
+    public void copiesSkewedBandStraightened() {
+        // Luma tăng đều theo hướng vuông góc với dòng chữ nghiêng 8°: sau khi xoay thẳng, mỗi hàng gần như hằng
+        int w = 300, h = 200, stride = 320;
+        double a = Math.toRadians(8);
+        ByteBuffer y = ByteBuffer.allocate(stride * h);
+        for (int r = 0; r < h; r++) {
+            for (int x = 0; x < w; x++) {
+                double across = -(x - 150) * Math.sin(a) + (r - 100) * Math.cos(a);
+                y.put(r * stride + x, (byte) Math.round(128 + 2 * across));
+            }
+        }
+        MrzBandLocalizer.Band band = new MrzBandLocalizer.Band();
+        band.left = 0;
+        band.top = 0;
+        band.right = w;
+        band.bottom = h;
+        band.skew = 8f;
+        band.centerX = 150;
+        band.centerY = 100;
+        band.length = 200;
+        band.thickness = 40;
+        GrayFramePool.Frame f = new GrayFramePool(1).acquire();
+        f.copyLumaRotated(y, stride, 1, band, 1f);
+        assertEquals(200, f.width());
+        assertEquals(40, f.height());
+        for (int r = 0; r < 40; r++) {
+            int expected = (int) Math.round(128 + 2 * (r - 19.5));
+            for (int x = 0; x < 200; x++) assertEquals(expected, f.data()[r * 200 + x] & 0xFF, 2);
+        }
+        assertEquals((byte) 128, f.data()[200 * 40]);
+
+        // Dòng chữ chạy theo cột (xoay 90°) theo hướng tăng của luma, co 1/2: frame giữ hướng của buffer,
+        // luma đổi theo hàng (dọc dòng chữ), mỗi hàng đích bằng 2 px nguồn
+        band.vertical = true;
+        band.skew = -8f;
+        band.length = 60;
+        f.copyLumaRotated(y, stride, 1, band, 0.5f);
+        assertEquals(20, f.width());
+        assertEquals(30, f.height());
+        for (int r = 0; r < 30; r++) {
+            for (int x = 0; x < 20; x++) {
+                int expected = (int) Math.round(128 + 2 * (r - 14.5) * 2);
+                assertEquals(expected, f.data()[r * 20 + x] & 0xFF, 3);
+            }
+        }
+    }
+}
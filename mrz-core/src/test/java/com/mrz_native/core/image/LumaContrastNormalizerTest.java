@@ -0,0 +1,87 @@
+package com.mrz_native.core.image;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LumaContrastNormalizerTest {
+
+    private static final int W = 256;
+    private static final int H = 96;
+
+    // Nét chữ mờ có nhiễu cảm biến: nửa trái lóa (nền 225, mực 195), nửa phải trong bóng (nền 80, mực 55)
+    private static byte[] glareFrame() {
+        byte[] img = new byte[W * H * 3 / 2];
+        Random rnd = new Random(1);
+        for (int r = 0; r < H; r++) {
+            for (int x = 0; x < W; x++) {
+                int v = x < W / 2 ? (isInk(x, r) ? 195 : 225) : (isInk(x, r) ? 55 : 80);
+                img[r * W + x] = (byte) (v + rnd.nextInt(9) - 4);
+            }
+        }
+        for (int i = W * H; i < img.length; i++) img[i] = (byte) 128;
+        return img;
+    }
+
+    private static boolean isInk(int x, int r) { return r >= 30 && r < 66 && x % 12 < 3; }
+
+    // Chênh lệch trung bình giấy - mực trong dòng chữ của cột [x0, x1), bỏ cột sát nét
+    private static int contrast(byte[] img, int x0, int x1) {
+        long ink = 0, paper = 0;
+        int ni = 0, np = 0;
+        for (int r = 30; r < 66; r++) {
+            for (int x = x0; x < x1; x++) {
+                if (x % 12 == 3 || x % 12 == 11) continue;
+                int v = img[r * W + x] & 0xFF;
+                if (isInk(x, r)) { ink += v; ni++; } else { paper += v; np++; }
+            }
+        }
+        return (int) (paper / np - ink / ni);
+    }
+
+    @Test
+    public void stretchesFaintTextUnderGlareAndShadow() {
+        byte[] img = glareFrame();
+        new LumaContrastNormalizer().apply(img, W, H);
+
+        assertTrue("glare " + contrast(img, 0, W / 2), contrast(img, 0, W / 2) >= 30 * 14 / 10);
+        assertTrue("shadow " + contrast(img, W / 2, W), contrast(img, W / 2, W) >= 25 * 14 / 10);
+        // Chroma không đổi
+        for (int i = W * H; i < img.length; i++) assertEquals((byte) 128, img[i]);
+    }
+
+    @Test
+    public void boundsNoiseGainOnFlatPaper() {
+        byte[] img = new byte[W * H];
+        Random rnd = new Random(3);
+        for (int i = 0; i < img.length; i++) img[i] = (byte) (126 + rnd.nextInt(5));
+        new LumaContrastNormalizer().apply(img, W, H);
+
+        int min = 255, max = 0;
+        for (byte b : img) {
+            min = Math.min(min, b & 0xFF);
+            max = Math.max(max, b & 0xFF);
+        }
+        // Dải nhiễu 4 mức: độ dốc bảng tra bị cắt ở ~clipLimit+1
+        assertTrue("spread " + (max - min), max - min <= 4 * 5);
+    }
+
+    @Test
+    public void respectsOffsetAndStride() {
+        int stride = W + 16;
+        byte[] padded = new byte[8 + stride * H];
+        byte[] plain = glareFrame();
+        for (int r = 0; r < H; r++) System.arraycopy(plain, r * W, padded, 8 + r * stride, W);
+        for (int r = 0; r < H; r++) for (int x = W; x < stride; x++) padded[8 + r * stride + x] = 7;
+
+        LumaContrastNormalizer n = new LumaContrastNormalizer();
+        n.apply(plain, W, H);
+        n.apply(padded, 8, stride, W, H);
+        for (int r = 0; r < H; r++) {
+            for (int x = 0; x < W; x++) assertEquals(plain[r * W + x], padded[8 + r * stride + x]);
+            assertEquals(7, padded[8 + r * stride + W]);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.mrz_native.core.image;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MrzBandLocalizerTest {
+
+    static final int W = 800;
+    static final int H = 500;
+    static final int LINE = 28;
+
+    // Trang giấy tờ giả: ảnh chân dung (nhiễu) và vài dòng chữ ngắn vùng VIZ ở trên, các dòng MRZ kín bề ngang ở dưới
+    static byte[] document(int stride, int... mrzTops) {
+        byte[] img = new byte[stride * H];
+        Arrays.fill(img, (byte) 210);
+        Random rnd = new Random(11);
+        for (int y = 20; y < 260; y++) {
+            for (int x = 20; x < 220; x++) img[y * stride + x] = (byte) rnd.nextInt(256);
+        }
+        for (int top = 40; top < 260; top += 50) text(img, stride, rnd, top, 16, 260, 420 + rnd.nextInt(140));
+        for (int top : mrzTops) text(img, stride, rnd, top, LINE, 30, 770);
+        return img;
+    }
+
+    // Mỗi ô ký tự 14px có vài nét dọc tối
+    private static void text(byte[] img, int stride, Random rnd, int top, int height, int from, int to) {
+        for (int cell = from; cell + 14 <= to; cell += 14) {
+            int strokes = 1 + rnd.nextInt(3);
+            for (int s = 0; s < strokes; s++) {
+                int x = cell + rnd.nextInt(11);
+                for (int y = top; y < top + height; y++) {
+                    img[y * stride + x] = 25;
+                    img[y * stride + x + 1] = 25;
+                }
+            }
+        }
+    }
+
+    // Ảnh W x H xoay degrees quanh tâm (dương: dòng chữ đi xuống về bên phải), lấy mẫu gần nhất, nền 210
+    static byte[] rotated(byte[] img, float degrees) {
+        double a = Math.toRadians(degrees);
+        double cos = Math.cos(a), sin = Math.sin(a);
+        byte[] out = new byte[W * H];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                double dx = x - W / 2.0, dy = y - H / 2.0;
+                int sx = (int) Math.round(W / 2.0 + dx * cos + dy * sin);
+                int sy = (int) Math.round(H / 2.0 - dx * sin + dy * cos);
+                out[y * W + x] = sx >= 0 && sx < W && sy >= 0 && sy < H ? img[sy * W + sx] : (byte) 210;
+            }
+        }
+        return out;
+    }
+
+    private static void assertCovers(MrzBandLocalizer.Band b, int firstTop, int lastTop) {
+        assertNotNull(b);
+        assertTrue(b.toString(), b.top <= firstTop && b.top >= firstTop - LINE);
+        assertTrue(b.toString(), b.bottom >= lastTop + LINE && b.bottom <= lastTop + 2 * LINE);
+        assertTrue(b.toString(), b.left <= 30 && b.right >= 770);
+        assertEquals(LINE, b.lineHeight, 3f);
+    }
+
+    @Test
+    public void findsTwoMrzLinesBelowPhotoAndVisualZone() {
+        MrzBandLocalizer.Band b = new MrzBandLocalizer().locate(document(W, 380, 420), W, 0, 0, W, H);
+        assertCovers(b, 380, 420);
+        assertEquals(2, b.lines);
+    }
+
+    @Test
+    public void findsThreeLinesOfTd1() {
+        MrzBandLocalizer.Band b = new MrzBandLocalizer().locate(document(W, 330, 370, 410), W, 0, 0, W, H);
+        assertCovers(b, 330, 410);
+        assertEquals(3, b.lines);
+    }
+
+    @Test
+    public void honoursRegionAndStride() {
+        int stride = W + 64;
+        byte[] img = document(stride, 380, 420);
+        MrzBandLocalizer.Band b = new MrzBandLocalizer().locate(img, stride, 0, 280, W, H);
+        assertCovers(b, 380, 420);
+        // Vùng không chứa MRZ
+        assertNull(new MrzBandLocalizer().locate(img, stride, 0, 0, W, 300));
+    }
+
+    @Test
+    public void followsColumnsForRotatedFrames() {
+        byte[] img = document(W, 380, 420);
+        // Xoay 90°: dòng chữ chạy dọc theo cột của buffer
+        byte[] t = new byte[W * H];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) t[x * H + y] = img[y * W + x];
+        }
+        MrzBandLocalizer.Band b = new MrzBandLocalizer()
+                .locate(ByteBuffer.wrap(t), H, 1, 0, 0, H, W, 90);
+        assertNotNull(b);
+        assertEquals(2, b.lines);
+        assertTrue(b.toString(), b.left <= 380 && b.left >= 380 - LINE);
+        assertTrue(b.toString(), b.right >= 448 && b.right <= 420 + 2 * LINE);
+        assertTrue(b.toString(), b.top <= 30 && b.bottom >= 770);
+    }
+
+    @Test
+    public void returnsNullWithoutMrzLines() {
+        MrzBandLocalizer localizer = new MrzBandLocalizer();
+        byte[] blank = new byte[W * H];
+        Arrays.fill(blank, (byte) 180);
+        assertNull(localizer.locate(blank, W, 0, 0, W, H));
+        assertNull(localizer.locate(document(W, 420), W, 0, 300, W, H));
+    }
+
+    @Test
+    public void followsSkewedLines() {
+        // Giấy tờ nghiêng 7°: profile hàng thẳng trục trộn hai dòng MRZ với nhau
+        byte[] img = rotated(document(W, 380, 420), 7f);
+        MrzBandLocalizer localizer = new MrzBandLocalizer();
+        MrzBandLocalizer.Band b = localizer.locate(ByteBuffer.wrap(img), W, 1, 0, 0, W, H, 0, 7f);
+        assertNotNull(b);
+        assertEquals(2, b.lines);
+        assertEquals(7f, b.skew, 0f);
+        assertFalse(b.vertical);
+        // Tâm dải MRZ (400, 414) trước khi xoay quanh tâm ảnh -> (380, 413)
+        assertEquals(380f, b.centerX, 30f);
+        assertEquals(413f, b.centerY, 10f);
+        assertTrue(b.toString(), b.length >= 740 && b.length <= 900);
+        assertTrue(b.toString(), b.thickness >= 3 * LINE && b.thickness <= 5 * LINE);
+        // Hộp bao gồm cả hai đầu của dải nghiêng
+        assertTrue(b.toString(), b.bottom - b.top > b.thickness + 60);
+        assertEquals(LINE, b.lineHeight, 4f);
+    }
+}
@@ -0,0 +1,83 @@
+package com.mrz_native.core.image;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MrzRoiTrackerTest {
+
+    // Khung hướng dẫn trong ảnh gốc
+    private static final int GL = 100, GT = 300, GR = 1800, GB = 900;
+
+    // Hộp MRZ ghi từ các frame (ms, left, top, right, bottom): giấy tờ trôi sang phải / lên trên rồi dừng
+    private static final int[][] SEQUENCE = {
+            {0, 300, 600, 1500, 700},
+            {66, 320, 594, 1520, 694},
+            {133, 340, 588, 1540, 688},
+            {200, 360, 582, 1560, 682},
+            {266, 370, 580, 1570, 680},
+            {333, 372, 580, 1572, 680},
+            {400, 372, 580, 1572, 680},
+    };
+
+    @Test
+    public void predictedBandContainsNextMrzBox() {
+        MrzRoiTracker tracker = new MrzRoiTracker();
+        assertFalse(tracker.predict(0, GL, GT, GR, GB));
+        int guideArea = (GR - GL) * (GB - GT);
+        for (int i = 0; i + 1 < SEQUENCE.length; i++) {
+            int[] m = SEQUENCE[i];
+            tracker.update(m[0], m[1], m[2], m[3], m[4]);
+            int[] next = SEQUENCE[i + 1];
+            assertTrue(tracker.predict(next[0], GL, GT, GR, GB));
+            String at = "frame " + (i + 1) + ": " + tracker.left + "," + tracker.top + "-" + tracker.right + "," + tracker.bottom;
+            assertTrue(at, tracker.left <= next[1] && tracker.top <= next[2]);
+            assertTrue(at, tracker.right >= next[3] && tracker.bottom >= next[4]);
+            // Vùng OCR nhỏ hơn nhiều so với cả khung
+            assertTrue(at, (tracker.right - tracker.left) * (tracker.bottom - tracker.top) < guideArea / 2);
+        }
+    }
+
+    @Test
+    public void extrapolatesWithConstantVelocity() {
+        MrzRoiTracker tracker = new MrzRoiTracker();
+        // 0.3 px/ms sang phải; dự đoán sau 100 ms dời tâm ~30 px
+        tracker.update(0, 300, 600, 1300, 700);
+        tracker.update(100, 330, 600, 1330, 700);
+        assertTrue(tracker.predict(200, 0, 0, 4000, 3000));
+        assertEquals(1720, tracker.left + tracker.right, 2);
+        assertEquals(1300, tracker.top + tracker.bottom, 2);
+        // Lề: 0.5 bề dày + nửa quãng đường dự đoán
+        assertEquals(860 - 500 - 65, tracker.left, 2);
+        assertEquals(600 - 50, tracker.top, 2);
+    }
+
+    @Test
+    public void fallsBackToGuideWhenLost() {
+        MrzRoiTracker tracker = new MrzRoiTracker();
+        tracker.update(0, 300, 600, 1500, 700);
+        // Các frame OCR liên tiếp không ra MRZ
+        for (int i = 0; i < MrzRoiTracker.MAX_MISSES - 1; i++) tracker.miss();
+        assertTrue(tracker.predict(100, GL, GT, GR, GB));
+        tracker.miss();
+        assertFalse(tracker.isTracking());
+        assertFalse(tracker.predict(100, GL, GT, GR, GB));
+
+        // Đo đạc quá cũ
+        tracker.update(0, 300, 600, 1500, 700);
+        assertFalse(tracker.predict(MrzRoiTracker.MAX_AGE_MS + 1, GL, GT, GR, GB));
+        assertFalse(tracker.isTracking());
+
+        // Dải đã ra ngoài khung
+        tracker.update(0, 1700, 850, 2900, 950);
+        assertFalse(tracker.predict(10, GL, GT, GR, GB));
+
+        // Đo đạc cũ hơn đo đạc đã có (OCR song song về trễ) bị bỏ; nhảy quá xa không thành vận tốc
+        tracker.reset();
+        tracker.update(100, 300, 600, 1500, 700);
+        tracker.update(50, 900, 600, 2100, 700);
+        tracker.update(150, 1200, 600, 2400, 700);
+        assertTrue(tracker.predict(250, 0, 0, 4000, 3000));
+        assertEquals(3600, tracker.left + tracker.right, 2);
+    }
+}
@@ -0,0 +1,43 @@
+package com.mrz_native.core.image;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static com.mrz_native.core.image.MrzBandLocalizerTest.H;
+import static com.mrz_native.core.image.MrzBandLocalizerTest.W;
+import static com.mrz_native.core.image.MrzBandLocalizerTest.document;
+import static com.mrz_native.core.image.MrzBandLocalizerTest.rotated;
+import static org.junit.Assert.*;
+
+public class MrzSkewEstimatorTest {
+
+    @Test
+    public void findsSkewOfTiltedDocument() {
+        MrzSkewEstimator estimator = new MrzSkewEstimator();
+        byte[] upright = document(W, 380, 420);
+        assertEquals(0f, estimator.estimate(upright, W, 0, 0, W, H), 0f);
+        for (float deg : new float[] {-9f, -4.5f, 2f, 6f, 10f}) {
+            assertEquals("skew " + deg, deg, estimator.estimate(rotated(upright, deg), W, 0, 0, W, H), 0.5f);
+        }
+    }
+
+    @Test
+    public void followsColumnsForRotatedFrames() {
+        byte[] img = rotated(document(W, 380, 420), 6f);
+        byte[] t = new byte[W * H];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) t[x * H + y] = img[y * W + x];
+        }
+        float deg = new MrzSkewEstimator().estimate(ByteBuffer.wrap(t), H, 1, 0, 0, H, W, 90);
+        assertEquals(6f, deg, 0.5f);
+    }
+
+    @Test
+    public void returnsZeroWithoutText() {
+        byte[] blank = new byte[W * H];
+        Arrays.fill(blank, (byte) 180);
+        assertEquals(0f, new MrzSkewEstimator().estimate(blank, W, 0, 0, W, H), 0f);
+    }
+}
@@ -0,0 +1,89 @@
+package com.mrz_native.core.image;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class OcrInputTransformTest {
+
+    private static final int W = 640;
+    private static final int H = 480;
+
+    private static GrayFramePool.Frame frame() {
+        return new GrayFramePool(1).acquire();
+    }
+
+    @Test
+    public void mapsCropAndScaleBackToRawImage() {
+        ByteBuffer y = ByteBuffer.allocate(W * H);
+        GrayFramePool.Frame f = frame();
+        f.copyLuma(y, W, 1, 100, 200, 400, 120, 0.5f);
+        OcrInputTransform t = f.transform(0);
+        assertEquals(0.5f, t.scale(), 1e-6f);
+        float[] out = new float[4];
+        t.toRaw(10, 20, out);
+        assertEquals(120f, out[0], 1e-3f);
+        assertEquals(240f, out[1], 1e-3f);
+
+        // Chép nguyên cỡ: chỉ tịnh tiến
+        f.copyLuma(y, W, 1, 30, 40, 100, 60);
+        t = f.transform(0);
+        assertEquals(1f, t.scale(), 0f);
+        t.boxToRaw(5, 6, 50, 30, out);
+        assertArrayEquals(new float[] {35, 46, 80, 70}, out, 1e-3f);
+    }
+
+    @Test
+    public void undoesFrameRotation() {
+        ByteBuffer y = ByteBuffer.allocate(W * H);
+        GrayFramePool.Frame f = frame();
+        // Frame 100x300 (chưa xoay) tại (50, 60); xoay 90: ảnh OCR 300x100
+        f.copyLuma(y, W, 1, 50, 60, 100, 300);
+        float[] out = new float[4];
+        OcrInputTransform t = f.transform(90);
+        // Góc trên trái của ảnh OCR là góc dưới trái của frame
+        t.toRaw(0, 0, out);
+        assertEquals(50f, out[0], 1e-3f);
+        assertEquals(360f, out[1], 1e-3f);
+        t.boxToRaw(0, 0, 300, 100, out);
+        assertArrayEquals(new float[] {50, 60, 150, 360}, out, 1e-3f);
+
+        t = f.transform(270);
+        t.toRaw(0, 0, out);
+        assertEquals(150f, out[0], 1e-3f);
+        assertEquals(60f, out[1], 1e-3f);
+
+        t = f.transform(180);
+        t.toRaw(10, 20, out);
+        assertEquals(140f, out[0], 1e-3f);
+        assertEquals(340f, out[1], 1e-3f);
+    }
+
+    @Test
+    public void mapsDeskewedBandAroundItsCenter() {
+        ByteBuffer y = ByteBuffer.allocate(W * H);
+        MrzBandLocalizer.Band band = new MrzBandLocalizer.Band();
+        band.right = W;
+        band.bottom = H;
+        band.centerX = 320;
+        band.centerY = 240;
+        band.length = 400;
+        band.thickness = 80;
+        band.skew = 10f;
+        GrayFramePool.Frame f = frame();
+        f.copyLumaRotated(y, W, 1, band, 0.5f);
+        OcrInputTransform t = f.transform(0);
+        assertEquals(0.5f, t.scale(), 1e-4f);
+        float[] out = new float[4];
+        // Tâm frame -> tâm dải; đi dọc hàng của frame là đi dọc dòng chữ nghiêng 10°
+        t.toRaw(f.width() / 2f, f.height() / 2f, out);
+        assertEquals(320f, out[0], 1e-2f);
+        assertEquals(240f, out[1], 1e-2f);
+        t.toRaw(f.width() / 2f + 50, f.height() / 2f, out);
+        double a = Math.toRadians(10);
+        assertEquals(320 + 100 * Math.cos(a), out[0], 1e-2);
+        assertEquals(240 + 100 * Math.sin(a), out[1], 1e-2);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mrz_native.core.image;
+
+import com.mrz_native.core.OcrLine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class OcrScaleSelectorTest {
+
+    private static final String TD3_1 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<";
+    private static final String TD3_2 = "L898902C36UTO7408122F1204159ZE184226B<<<<<10";
+
+    @Test
+    public void scalesToTargetCharHeight() {
+        OcrScaleSelector s = new OcrScaleSelector(24f);
+        assertEquals(1f, s.scaleFor(0f), 0f);
+        assertEquals(1f, s.scaleFor(20f), 0f);
+        // 48 px -> 1/2; làm tròn lên theo bước 1/16: ký tự không nhỏ hơn mục tiêu
+        assertEquals(0.5f, s.scaleFor(48f), 0f);
+        assertEquals(9 / 16f, s.scaleFor(45f), 0f);
+        assertTrue(45f * s.scaleFor(45f) >= 24f);
+        assertEquals(OcrScaleSelector.MIN_SCALE, s.scaleFor(400f), 0f);
+    }
+
+    @Test
+    public void prefersBandThenRecentOcrLines() {
+        OcrScaleSelector s = new OcrScaleSelector(24f);
+        assertEquals(1f, s.select(0f), 0f);
+        assertEquals(0.5f, s.select(48f), 0f);
+
+        // Frame OCR co 1/2: dòng cao 30 px -> 60 px ở ảnh gốc; dòng VIZ và dòng không có box bị bỏ
+        s.onLines(Arrays.asList(
+                new OcrLine(TD3_1, 0, 100, 880, 130),
+                new OcrLine(TD3_2, 0, 140, 880, 172),
+                new OcrLine("PASSPORT", 0, 10, 300, 80),
+                new OcrLine(TD3_2)), 0.5f);
+        assertEquals(0.5f, s.select(48f), 0f);
+        assertEquals(0.4375f, s.select(0f), 0f);
+
+        // Ước lượng từ dòng OCR hết hiệu lực sau vài frame không có kết quả mới
+        for (int i = 0; i < 10; i++) s.select(0f);
+        assertEquals(1f, s.select(0f), 0f);
+    }
+}
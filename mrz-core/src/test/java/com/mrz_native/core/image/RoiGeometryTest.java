@@ -0,0 +1,51 @@
+package com.mrz_native.core.image;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RoiGeometryTest {
+
+    @Test
+    public void mapsGuideThroughLetterboxForUnrotatedFrames() {
+        // Ảnh 2:1 trong view vuông: letterbox 250px trên/dưới
+        RoiGeometry g = RoiGeometry.forView(1000, 1000, 100, 500, 900, 700).forImage(2000, 1000, 0);
+        assertTrue(g.hasRoi);
+        assertArrayEquals(new int[]{200, 500, 1800, 900}, new int[]{g.roiLeft, g.roiTop, g.roiRight, g.roiBottom});
+        assertArrayEquals(new int[]{200, 500, 1800, 900}, new int[]{g.cropLeft, g.cropTop, g.cropRight, g.cropBottom});
+        assertTrue(g.roiContains(1000, 700));
+        assertFalse(g.roiContains(1000, 950));
+    }
+
+    @Test
+    public void mapsRotatedRoiBackToRawImage() {
+        RoiGeometry view = RoiGeometry.forView(1080, 1920, 40, 1200, 1040, 1500);
+        RoiGeometry g90 = view.forImage(1920, 1080, 90);
+        assertArrayEquals(new int[]{40, 1200, 1040, 1500}, new int[]{g90.roiLeft, g90.roiTop, g90.roiRight, g90.roiBottom});
+        assertArrayEquals(new int[]{1200, 40, 1500, 1040}, new int[]{g90.cropLeft, g90.cropTop, g90.cropRight, g90.cropBottom});
+        RoiGeometry g270 = view.forImage(1920, 1080, -90);
+        assertEquals(270, g270.rotationDegrees);
+        assertArrayEquals(new int[]{420, 40, 720, 1040}, new int[]{g270.cropLeft, g270.cropTop, g270.cropRight, g270.cropBottom});
+        RoiGeometry g180 = RoiGeometry.forView(1920, 1080, 40, 600, 1040, 900).forImage(1920, 1080, 180);
+        assertArrayEquals(new int[]{880, 180, 1880, 480}, new int[]{g180.cropLeft, g180.cropTop, g180.cropRight, g180.cropBottom});
+    }
+
+    @Test
+    public void keyedOnImageSizeAndRotation() {
+        RoiGeometry view = RoiGeometry.forView(1080, 1920, 40, 1200, 1040, 1500);
+        assertFalse(view.matches(1920, 1080, 90));
+        RoiGeometry g = view.forImage(1920, 1080, 90);
+        assertTrue(g.matches(1920, 1080, 90));
+        assertTrue(g.matches(1920, 1080, 450));
+        assertFalse(g.matches(1920, 1080, 0));
+        assertFalse(g.matches(1280, 720, 90));
+    }
+
+    @Test
+    public void noRoiWhenGuideIsOutsideTheImageOrViewNotLaidOut() {
+        assertNull(RoiGeometry.forView(0, 1920, 40, 1200, 1040, 1500));
+        RoiGeometry g = RoiGeometry.forView(1000, 1000, 0, 0, 1000, 200).forImage(2000, 1000, 0);
+        assertFalse(g.hasRoi);
+        assertFalse(g.roiContains(10, 0));
+    }
+}
@@ -0,0 +1,120 @@
+package com.mrz_native.core.session;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScanSessionTest {
+
+    private static final String TD3_L1 = "P<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<";
+    private static final String TD3_L2 = "L898902C36UTO7408122F1204159ZE184226B<<<<<10";
+
+    // Dòng có symbol từng ký tự, như ML Kit trả về; mỗi element là một "từ" cách nhau bởi '<<'
+    private static SessionLine line(String text, int top) {
+        int n = text.length();
+        String[] symbols = new String[n];
+        float[] conf = new float[n];
+        int[] l = new int[n];
+        int[] r = new int[n];
+        for (int i = 0; i < n; i++) {
+            symbols[i] = String.valueOf(text.charAt(i));
+            conf[i] = 0.9f;
+            l[i] = 10 + i * 20;
+            r[i] = l[i] + 18;
+        }
+        return new SessionLine(text, true, 10, top, 10 + n * 20, top + 30, new int[]{n / 2, n},
+                symbols, conf, l, r);
+    }
+
+    private static SessionFrame frame(long seq, long uptimeMs, SessionLine... lines) {
+        byte[] luma = new byte[8 * 4];
+        Arrays.fill(luma, (byte) seq);
+        return new SessionFrame(seq, uptimeMs, 120, 90, true, 8, 4, luma, Arrays.asList(lines));
+    }
+
+    private static byte[] write(List<SessionFrame> frames, boolean close) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ScanSessionWriter w = new ScanSessionWriter(bytes);
+        for (SessionFrame f : frames) w.write(f);
+        if (close) w.close(); else w.flush();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void roundTripsFramesLinesAndSymbols() throws IOException {
+        List<SessionFrame> frames = Arrays.asList(
+                frame(1, 1000, new SessionLine("NOISE")),
+                frame(2, 1100, line(TD3_L1, 40), line(TD3_L2, 80)));
+        boolean[] truncated = new boolean[1];
+        List<SessionFrame> read = ScanSessionReplayer.load(new ByteArrayInputStream(write(frames, true)), truncated);
+        assertFalse(truncated[0]);
+        assertEquals(2, read.size());
+        SessionFrame f = read.get(1);
+        assertEquals(2, f.seq);
+        assertEquals(1100, f.uptimeMs);
+        assertEquals(120, f.ocrLatencyMs);
+        assertEquals(90, f.rotationDegrees);
+        assertTrue(f.cropped);
+        assertArrayEquals(frames.get(1).luma, f.luma);
+        SessionLine l = f.lines.get(1);
+        assertEquals(TD3_L2, l.text);
+        assertEquals(80, l.top);
+        assertArrayEquals(new int[]{22, 44}, l.elementEnd);
+        assertEquals("C", l.symbols[7]);
+        assertEquals(0.9f, l.confidences[7], 0f);
+        assertEquals(150, l.symbolLeft[7]);
+        assertFalse(read.get(0).lines.get(0).hasBox);
+    }
+
+    @Test
+    public void readsTruncatedSessionUpToLastFlushedFrame() throws IOException {
+        List<SessionFrame> frames = Arrays.asList(frame(1, 0), frame(2, 33));
+        boolean[] truncated = new boolean[1];
+        List<SessionFrame> read = ScanSessionReplayer.load(new ByteArrayInputStream(write(frames, false)), truncated);
+        assertTrue(truncated[0]);
+        assertEquals(2, read.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (java.util.zip.GZIPOutputStream gz = new java.util.zip.GZIPOutputStream(bytes)) {
+            gz.write("{\"not\":\"a session\"}".getBytes("UTF-8"));
+        }
+        ScanSessionReplayer.load(new ByteArrayInputStream(bytes.toByteArray()), null);
+    }
+
+    @Test
+    public void replayReportsFramesToLock() {
+        List<SessionFrame> frames = new ArrayList<>();
+        frames.add(frame(1, 0));
+        frames.add(frame(2, 40, new SessionLine("REPUBLIC OF UTOPIA")));
+        frames.add(frame(3, 80, line(TD3_L1, 40), line(TD3_L2, 80)));
+        frames.add(frame(4, 120, line(TD3_L1, 40), line(TD3_L2.replace('8', 'B'), 80)));
+        frames.add(frame(5, 160, line(TD3_L1, 40), line(TD3_L2, 80)));
+        frames.add(frame(6, 200, line(TD3_L1, 40), line(TD3_L2, 80)));
+
+        ScanSessionReplayer.Report r = new ScanSessionReplayer(2, true).replay("s", frames, false, 3);
+        assertTrue(r.toString(), r.locked());
+        assertEquals(6, r.frames);
+        assertTrue(r.toString(), r.framesToLock >= 4 && r.framesToLock <= 5);
+        assertEquals(frames.get(r.framesToLock - 1).uptimeMs, r.recordedMsToLock);
+        assertEquals("L898902C3", r.mrz.documentNumber);
+        assertTrue(r.metrics, r.metrics.startsWith("mrzm/1 norm="));
+        assertTrue(r.wallNanos > 0);
+
+        ScanSessionReplayer.Report none = new ScanSessionReplayer().replay("n", frames.subList(0, 3), false);
+        assertFalse(none.locked());
+        assertEquals(-1, none.recordedMsToLock);
+        assertTrue(none.toString(), none.toString().contains("lock=none"));
+        assertNull(new ScanSessionReplayer().replay("e", Collections.emptyList(), false).mrz);
+    }
+}
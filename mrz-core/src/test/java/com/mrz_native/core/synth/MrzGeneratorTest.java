@@ -0,0 +1,68 @@
+package com.mrz_native.core.synth;
+
+import com.mrz_native.core.MrzLayout;
+import com.mrz_native.core.MrzScanner;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MrzGeneratorTest {
+
+    @Test
+    public void cleanSamplesParseForEveryLayout() {
+        MrzGenerator gen = new MrzGenerator(42);
+        for (MrzLayout layout : MrzLayout.values()) {
+            for (int i = 0; i < 500; i++) {
+                MrzSample s = gen.next(layout);
+                assertEquals(layout.lineCount, s.lines.size());
+                for (String line : s.lines) assertEquals(layout.lineLength, line.length());
+                assertEquals(s.lines, s.observed);
+                MrzScanner.Result r = new MrzScanner(null).scan(s.frame());
+                assertNotNull(layout + " " + s.lines, r);
+                assertFalse(r.corrected);
+                assertTrue(MrzSynthCli.sameMrz(s.expected, r.mrz));
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameSamples() {
+        MrzGenerator a = new MrzGenerator(7);
+        MrzGenerator b = new MrzGenerator(7);
+        for (int i = 0; i < 50; i++) {
+            MrzSample sa = a.next(MrzNoise.HEAVY);
+            MrzSample sb = b.next(MrzNoise.HEAVY);
+            assertEquals(sa.layout, sb.layout);
+            assertEquals(sa.observed, sb.observed);
+        }
+        assertNotEquals(new MrzGenerator(8).next(MrzLayout.TD3).lines, new MrzGenerator(7).next(MrzLayout.TD3).lines);
+    }
+
+    @Test
+    public void noiseChangesObservedLinesButNotExpected() {
+        MrzGenerator gen = new MrzGenerator(3);
+        MrzNoise split = MrzNoise.builder().splitRate(1f).build();
+        MrzSample s = gen.next(MrzLayout.TD3, split);
+        // Mỗi dòng chia đôi, hai nửa cùng hàng và ghép lại đúng dòng sạch
+        assertEquals(4, s.observed.size());
+        assertEquals(s.rowOf(0), s.rowOf(1));
+        assertEquals(s.lines.get(0), s.observed.get(0) + s.observed.get(1));
+        assertEquals(s.frame().get(0).top(), s.frame().get(1).top());
+
+        MrzNoise junk = MrzNoise.builder().junkRate(1f).build();
+        assertEquals(2 + 3, gen.next(MrzLayout.TD2, junk).observed.size());
+
+        MrzNoise confusion = MrzNoise.builder().confusionRate(1f).build();
+        MrzSample c = gen.next(MrzLayout.TD1, confusion);
+        assertNotEquals(c.lines, c.observed);
+        assertEquals(c.lines.get(0).length(), c.observed.get(0).length());
+    }
+
+    @Test
+    public void lightNoiseIsMostlyReadable() {
+        MrzSynthCli.Eval e = MrzSynthCli.eval(new MrzGenerator(11), null, MrzNoise.LIGHT, 300, true);
+        assertEquals(300, e.frames);
+        assertTrue(e.toString(), e.correct > e.frames / 2);
+    }
+}
@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "mrz_native"
 include(":app")
+include(":mrz-core")
+include(":mrz-bench")
  
\ No newline at end of file